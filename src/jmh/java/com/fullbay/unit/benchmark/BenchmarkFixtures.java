@@ -0,0 +1,111 @@
+package com.fullbay.unit.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fullbay.unit.config.JacksonCustomizer;
+import com.fullbay.unit.integration.nhtsa.NHTSAMapper;
+import com.fullbay.unit.integration.nhtsa.NHTSAResult;
+import com.fullbay.unit.integration.nhtsa.NHTSAVinDecodeResponse;
+import com.fullbay.unit.model.entity.Unit;
+import com.fullbay.unit.model.entity.Vehicle;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/** Synthetic payloads shared by the benchmarks. Static utility class. */
+public final class BenchmarkFixtures {
+
+    public static final String CUSTOMER_ID = "cst-benchmark";
+    public static final String TABLE_NAME = "g-unit-service";
+
+    /** A vPIC decode returns every variable it knows, most of them with a null value. */
+    private static final int NHTSA_RESULT_COUNT = 140;
+
+    private BenchmarkFixtures() {
+        // Utility class
+    }
+
+    /** ObjectMapper configured the way Quarkus configures it at runtime. */
+    public static ObjectMapper objectMapper() {
+        final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        new JacksonCustomizer().customize(objectMapper);
+        return objectMapper;
+    }
+
+    /** A distinct, well-formed 17 character VIN for every index. */
+    public static String vin(int index) {
+        return "1FUJGLDR%09d".formatted(index);
+    }
+
+    /**
+     * A full-size vPIC response: the populated variables interleaved with null-valued ones, so
+     * lookups scan the same list length as against the live API.
+     */
+    public static NHTSAVinDecodeResponse nhtsaResponse() {
+        final List<NHTSAResult> populated =
+                List.of(
+                        result("Make", "FREIGHTLINER"),
+                        result("Manufacturer Name", "DAIMLER TRUCKS NORTH AMERICA (DTNA)"),
+                        result("Model", "Cascadia"),
+                        result("Model Year", "2012"),
+                        result("Series", "CA125"),
+                        result("Vehicle Type", "TRUCK"),
+                        result("Body Class", "Truck-Tractor"),
+                        result("Gross Vehicle Weight Rating From", "Class 8: 33,001 lb and above"),
+                        result("Engine Number of Cylinders", "6"),
+                        result("Displacement (L)", "14.8"),
+                        result("Engine Model", "DD15"),
+                        result("Fuel Type - Primary", "Diesel"),
+                        result("Brake System Type", "Air"),
+                        result("Plant City", "CLEVELAND"),
+                        result("Plant State", "NORTH CAROLINA"),
+                        result("Plant Country", "UNITED STATES (USA)"));
+
+        final List<NHTSAResult> results = new ArrayList<>(NHTSA_RESULT_COUNT);
+        final int stride = NHTSA_RESULT_COUNT / populated.size();
+        for (int i = 0; i < NHTSA_RESULT_COUNT; i++) {
+            if (i % stride == 0 && i / stride < populated.size()) {
+                results.add(populated.get(i / stride));
+            } else {
+                results.add(result("Unpopulated Variable " + i, null));
+            }
+        }
+        return NHTSAVinDecodeResponse.builder()
+                .count(results.size())
+                .message("Results returned successfully")
+                .results(results)
+                .build();
+    }
+
+    public static Vehicle vehicle(String vin) {
+        return NHTSAMapper.toVehicle(nhtsaResponse(), vin);
+    }
+
+    public static Unit unit(int index) {
+        final Instant now = Instant.now();
+        return Unit.builder()
+                .unitId("unt_benchmark%06d".formatted(index))
+                .customerId(CUSTOMER_ID)
+                .vin(vin(index))
+                .attributes(Map.of("fleetNumber", "FLT-" + index, "odometer", 123456 + index))
+                .createdAt(now)
+                .updatedAt(now)
+                .version(1L)
+                .build();
+    }
+
+    /** A fleet of {@code size} units, each with its own VIN. */
+    public static List<Unit> fleet(int size) {
+        final List<Unit> units = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            units.add(unit(i));
+        }
+        return units;
+    }
+
+    private static NHTSAResult result(String variable, String value) {
+        return NHTSAResult.builder().variable(variable).value(value).build();
+    }
+}
@@ -0,0 +1,48 @@
+package com.fullbay.unit.integration.nhtsa;
+
+import com.fullbay.unit.benchmark.BenchmarkFixtures;
+import com.fullbay.unit.model.entity.Vehicle;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * NHTSA decode mapping. {@code toVehicle} performs one {@code getResultValue} scan per mapped
+ * variable, so its cost grows with both the variable count and the response length.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class NHTSAMapperBenchmark {
+
+    private static final String VIN = BenchmarkFixtures.vin(0);
+
+    /** A variable near the start of the results, one near the end, and one that is absent. */
+    @Param({"Make", "Plant Country", "Trailer Type Connection"})
+    public String variable;
+
+    private NHTSAVinDecodeResponse response;
+
+    @Setup
+    public void setUp() {
+        response = BenchmarkFixtures.nhtsaResponse();
+    }
+
+    @Benchmark
+    public Vehicle toVehicle() {
+        return NHTSAMapper.toVehicle(response, VIN);
+    }
+
+    @Benchmark
+    public String getResultValue() {
+        return response.getResultValue(variable);
+    }
+}
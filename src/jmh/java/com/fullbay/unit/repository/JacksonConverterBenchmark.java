@@ -0,0 +1,71 @@
+package com.fullbay.unit.repository;
+
+import com.fullbay.unit.benchmark.BenchmarkFixtures;
+import com.fullbay.unit.model.entity.Unit;
+import com.fullbay.unit.model.entity.Vehicle;
+import com.fullbay.util.JacksonConverter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/** The repositories' {@code data} map encoding and decoding for the Unit and Vehicle entities. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class JacksonConverterBenchmark {
+
+    private JacksonConverter jacksonConverter;
+    private Unit unit;
+    private Vehicle vehicle;
+    private Map<String, AttributeValue> unitItem;
+    private Map<String, AttributeValue> vehicleItem;
+
+    @Setup
+    public void setUp() throws Exception {
+        jacksonConverter = new JacksonConverter();
+        unit = BenchmarkFixtures.unit(0);
+        vehicle = BenchmarkFixtures.vehicle(unit.vin());
+        unitItem = jacksonConverter.objectToMap(unit);
+        vehicleItem = jacksonConverter.objectToMap(vehicle);
+    }
+
+    @Benchmark
+    public Map<String, AttributeValue> unitToItem() throws Exception {
+        return jacksonConverter.objectToMap(unit);
+    }
+
+    @Benchmark
+    public Unit itemToUnit() throws Exception {
+        return jacksonConverter.mapToObject(unitItem, Unit.class);
+    }
+
+    @Benchmark
+    public Unit unitRoundTrip() throws Exception {
+        return jacksonConverter.mapToObject(jacksonConverter.objectToMap(unit), Unit.class);
+    }
+
+    @Benchmark
+    public Map<String, AttributeValue> vehicleToItem() throws Exception {
+        return jacksonConverter.objectToMap(vehicle);
+    }
+
+    @Benchmark
+    public Vehicle itemToVehicle() throws Exception {
+        return jacksonConverter.mapToObject(vehicleItem, Vehicle.class);
+    }
+
+    @Benchmark
+    public Vehicle vehicleRoundTrip() throws Exception {
+        return jacksonConverter.mapToObject(jacksonConverter.objectToMap(vehicle), Vehicle.class);
+    }
+}
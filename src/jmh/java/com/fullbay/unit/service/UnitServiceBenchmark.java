@@ -0,0 +1,115 @@
+package com.fullbay.unit.service;
+
+import com.fullbay.unit.benchmark.BenchmarkFixtures;
+import com.fullbay.unit.dynamodb.InMemoryDynamoDbClient;
+import com.fullbay.unit.dynamodb.UnitTableSchema;
+import com.fullbay.unit.metrics.UnitMetrics;
+import com.fullbay.unit.model.entity.Unit;
+import com.fullbay.unit.model.entity.Vehicle;
+import com.fullbay.unit.repository.ItemLoader;
+import com.fullbay.unit.repository.VehicleRepository;
+import com.fullbay.util.JacksonConverter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vehicle enrichment of listed units. The fleet benchmark includes the VIN batch lookup against the
+ * in-memory DynamoDB client, so it measures item decoding and chunking but no network time.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class UnitServiceBenchmark {
+
+    /** A service whose only collaborators are the ObjectMapper and an in-memory vehicle table. */
+    @State(Scope.Benchmark)
+    public static class Service {
+
+        UnitService unitService;
+        VehicleRepository vehicleRepository;
+
+        @Setup
+        public void setUp() {
+            final InMemoryDynamoDbClient client =
+                    UnitTableSchema.inMemory(BenchmarkFixtures.TABLE_NAME);
+            final UnitMetrics unitMetrics = new UnitMetrics(new SimpleMeterRegistry());
+            vehicleRepository =
+                    new VehicleRepository(
+                            client,
+                            new JacksonConverter(),
+                            unitMetrics,
+                            new ItemLoader(
+                                    client,
+                                    unitMetrics,
+                                    false,
+                                    Duration.ZERO,
+                                    100,
+                                    BenchmarkFixtures.TABLE_NAME),
+                            BenchmarkFixtures.TABLE_NAME);
+            unitService =
+                    new UnitService(
+                            null,
+                            vehicleRepository,
+                            null,
+                            null,
+                            null,
+                            null,
+                            BenchmarkFixtures.objectMapper(),
+                            null,
+                            null);
+        }
+    }
+
+    /** One customer's fleet, with a stored vehicle for every unit. */
+    @State(Scope.Benchmark)
+    public static class Fleet {
+
+        @Param({"10", "100", "1000", "10000"})
+        public int fleetSize;
+
+        List<Unit> units;
+
+        @Setup
+        public void setUp(Service service) {
+            units = BenchmarkFixtures.fleet(fleetSize);
+            for (final Unit unit : units) {
+                service.vehicleRepository.save(BenchmarkFixtures.vehicle(unit.vin()));
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Single {
+
+        Unit unit;
+        Vehicle vehicle;
+
+        @Setup
+        public void setUp() {
+            unit = BenchmarkFixtures.unit(0);
+            vehicle = BenchmarkFixtures.vehicle(unit.vin());
+        }
+    }
+
+    @Benchmark
+    public Unit enrichWithVehicle(Service service, Single single) {
+        return service.unitService.enrichWithVehicle(single.unit, single.vehicle);
+    }
+
+    @Benchmark
+    public List<Unit> enrichWithVehicles(Service service, Fleet fleet) {
+        return service.unitService.enrichWithVehicles(fleet.units);
+    }
+}
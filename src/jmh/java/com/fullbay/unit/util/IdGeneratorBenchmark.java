@@ -0,0 +1,53 @@
+package com.fullbay.unit.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit ID generation, uncontended and with every core generating at once, against the previous
+ * generator that drew from one shared SecureRandom.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class IdGeneratorBenchmark {
+
+    private static final SecureRandom LEGACY_RANDOM = new SecureRandom();
+    private static final String LEGACY_CHARSET = "abcdefghijklmnopqrstuvwxyz0123456789";
+
+    @Benchmark
+    public String generateUnitId() {
+        return IdGenerator.generateUnitId();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public String generateUnitIdContended() {
+        return IdGenerator.generateUnitId();
+    }
+
+    @Benchmark
+    public String legacyGenerateUnitId() {
+        return legacyUnitId();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public String legacyGenerateUnitIdContended() {
+        return legacyUnitId();
+    }
+
+    /** The previous generator: 7 chars drawn from a single static SecureRandom. */
+    private static String legacyUnitId() {
+        final StringBuilder sb = new StringBuilder("unt_");
+        for (int i = 0; i < 7; i++) {
+            sb.append(LEGACY_CHARSET.charAt(LEGACY_RANDOM.nextInt(LEGACY_CHARSET.length())));
+        }
+        return sb.toString();
+    }
+}
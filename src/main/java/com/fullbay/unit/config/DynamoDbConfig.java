@@ -1,5 +1,7 @@
 package com.fullbay.unit.config;
 
+import com.fullbay.unit.metrics.ConsumedCapacityInterceptor;
+import com.fullbay.unit.metrics.ServerTimingInterceptor;
 import com.fullbay.util.JacksonConverter;
 
 import jakarta.enterprise.context.ApplicationScoped;
@@ -7,24 +9,147 @@ import jakarta.enterprise.inject.Produces;
 
 import lombok.extern.slf4j.Slf4j;
 
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.http.apache.ApacheHttpClient;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
 import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 
-/** Configuration for DynamoDB client and converters. */
+import java.net.URI;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Configuration for DynamoDB clients and converters. Both clients use a pooled, keep-alive HTTP
+ * transport tuned through the dynamodb.* properties and report pool metrics to {@link
+ * TransportMetrics}. Setting dynamodb.endpoint-override points them at a local DynamoDB.
+ */
 @ApplicationScoped
 @Slf4j
 public class DynamoDbConfig {
 
+    @ConfigProperty(name = "aws.region", defaultValue = "us-west-2")
+    String region;
+
+    @ConfigProperty(name = "dynamodb.endpoint-override")
+    Optional<URI> endpointOverride;
+
+    @ConfigProperty(name = "dynamodb.http.max-connections", defaultValue = "50")
+    int maxConnections;
+
+    @ConfigProperty(name = "dynamodb.http.connection-timeout", defaultValue = "2s")
+    Duration connectionTimeout;
+
+    @ConfigProperty(name = "dynamodb.http.socket-timeout", defaultValue = "5s")
+    Duration socketTimeout;
+
+    @ConfigProperty(name = "dynamodb.http.connection-acquisition-timeout", defaultValue = "2s")
+    Duration connectionAcquisitionTimeout;
+
+    @ConfigProperty(name = "dynamodb.http.connection-max-idle-time", defaultValue = "60s")
+    Duration connectionMaxIdleTime;
+
+    @ConfigProperty(name = "dynamodb.http.tcp-keep-alive", defaultValue = "true")
+    boolean tcpKeepAlive;
+
+    @ConfigProperty(name = "dynamodb.api-call-timeout", defaultValue = "10s")
+    Duration apiCallTimeout;
+
+    @ConfigProperty(name = "dynamodb.api-call-attempt-timeout", defaultValue = "3s")
+    Duration apiCallAttemptTimeout;
+
     /**
      * Produces DynamoDbClient bean.
      *
-     * @return DynamoDbClient configured for AWS region us-west-2
+     * @param transportMetrics Pool and call metrics publisher
+     * @param consumedCapacityInterceptor Consumed capacity accounting
+     * @param serverTimingInterceptor Per-request DynamoDB timing
+     * @return DynamoDbClient on a pooled Apache HTTP client
+     */
+    @Produces
+    @ApplicationScoped
+    public DynamoDbClient dynamoDbClient(
+            final TransportMetrics transportMetrics,
+            final ConsumedCapacityInterceptor consumedCapacityInterceptor,
+            final ServerTimingInterceptor serverTimingInterceptor) {
+        log.info(
+                "Initializing DynamoDbClient for region: {} endpoint: {} maxConnections: {}",
+                region,
+                endpointOverride.map(URI::toString).orElse("default"),
+                maxConnections);
+        return DynamoDbClient.builder()
+                .region(Region.of(region))
+                .applyMutation(b -> endpointOverride.ifPresent(b::endpointOverride))
+                .httpClientBuilder(
+                        ApacheHttpClient.builder()
+                                .maxConnections(maxConnections)
+                                .connectionTimeout(connectionTimeout)
+                                .socketTimeout(socketTimeout)
+                                .connectionAcquisitionTimeout(connectionAcquisitionTimeout)
+                                .connectionMaxIdleTime(connectionMaxIdleTime)
+                                .tcpKeepAlive(tcpKeepAlive)
+                                .dnsResolver(transportMetrics.dnsResolver()))
+                .overrideConfiguration(
+                        overrideConfiguration(
+                                transportMetrics,
+                                consumedCapacityInterceptor,
+                                serverTimingInterceptor))
+                .build();
+    }
+
+    /**
+     * Produces DynamoDbAsyncClient bean. Created on first use.
+     *
+     * @param transportMetrics Pool and call metrics publisher
+     * @param consumedCapacityInterceptor Consumed capacity accounting
+     * @param serverTimingInterceptor Per-request DynamoDB timing
+     * @return DynamoDbAsyncClient on a pooled Netty HTTP client
      */
     @Produces
     @ApplicationScoped
-    public DynamoDbClient dynamoDbClient() {
-        log.info("Initializing DynamoDbClient for region: US_WEST_2");
-        return DynamoDbClient.builder().region(Region.US_WEST_2).build();
+    public DynamoDbAsyncClient dynamoDbAsyncClient(
+            final TransportMetrics transportMetrics,
+            final ConsumedCapacityInterceptor consumedCapacityInterceptor,
+            final ServerTimingInterceptor serverTimingInterceptor) {
+        log.info(
+                "Initializing DynamoDbAsyncClient for region: {} endpoint: {} maxConcurrency: {}",
+                region,
+                endpointOverride.map(URI::toString).orElse("default"),
+                maxConnections);
+        return DynamoDbAsyncClient.builder()
+                .region(Region.of(region))
+                .applyMutation(b -> endpointOverride.ifPresent(b::endpointOverride))
+                .httpClientBuilder(
+                        NettyNioAsyncHttpClient.builder()
+                                .maxConcurrency(maxConnections)
+                                .connectionTimeout(connectionTimeout)
+                                .readTimeout(socketTimeout)
+                                .writeTimeout(socketTimeout)
+                                .connectionAcquisitionTimeout(connectionAcquisitionTimeout)
+                                .connectionMaxIdleTime(connectionMaxIdleTime)
+                                .tcpKeepAlive(tcpKeepAlive))
+                .overrideConfiguration(
+                        overrideConfiguration(
+                                transportMetrics,
+                                consumedCapacityInterceptor,
+                                serverTimingInterceptor))
+                .build();
+    }
+
+    private ClientOverrideConfiguration overrideConfiguration(
+            final TransportMetrics transportMetrics,
+            final ConsumedCapacityInterceptor consumedCapacityInterceptor,
+            final ServerTimingInterceptor serverTimingInterceptor) {
+        return ClientOverrideConfiguration.builder()
+                .apiCallTimeout(apiCallTimeout)
+                .apiCallAttemptTimeout(apiCallAttemptTimeout)
+                .addMetricPublisher(transportMetrics)
+                .addExecutionInterceptor(consumedCapacityInterceptor)
+                .addExecutionInterceptor(serverTimingInterceptor)
+                .build();
     }
 
     /**
@@ -0,0 +1,67 @@
+package com.fullbay.unit.config;
+
+import com.fullbay.unit.integration.nhtsa.NHTSAResult;
+import com.fullbay.unit.integration.nhtsa.NHTSAVinDecodeResponse;
+import com.fullbay.unit.integration.parts.PartsApiResponse;
+import com.fullbay.unit.integration.parts.PartsMake;
+import com.fullbay.unit.integration.parts.PartsModel;
+import com.fullbay.unit.integration.parts.PartsVehicle;
+import com.fullbay.unit.model.dto.CreateUnitFromVinRequest;
+import com.fullbay.unit.model.dto.UnitSearchCriteria;
+import com.fullbay.unit.model.dto.UpdateUnitRequest;
+import com.fullbay.unit.model.entity.BackfillJob;
+import com.fullbay.unit.model.entity.FleetSummary;
+import com.fullbay.unit.model.entity.ImportJob;
+import com.fullbay.unit.model.entity.ImportRowError;
+import com.fullbay.unit.model.entity.Unit;
+import com.fullbay.unit.model.entity.UnitChangeEvent;
+import com.fullbay.unit.model.entity.Vehicle;
+import com.fullbay.unit.model.response.ApiResponse;
+import com.fullbay.unit.model.response.ErrorDetail;
+import com.fullbay.unit.model.response.PageResult;
+import com.fullbay.unit.model.response.UnitChanges;
+import com.fullbay.unit.model.response.ValidationError;
+import com.fullbay.util.JacksonConverter;
+
+import io.quarkus.runtime.annotations.RegisterForReflection;
+
+/**
+ * Reflection registration for the native image. {@link JacksonCustomizer} and {@link
+ * JacksonConverter} bind the Lombok {@code @Value} classes through their private fields,
+ * constructors and {@code @Jacksonized} builders, which the native image cannot discover
+ * statically. Most of these types only appear nested in {@code ApiResponse}/{@code Map} payloads or
+ * in DynamoDB items, so Quarkus REST does not register them either. Nested builder classes are
+ * included. Has no effect on the JVM build.
+ */
+@RegisterForReflection(
+        targets = {
+            Unit.class,
+            UnitChangeEvent.class,
+            ImportJob.class,
+            ImportRowError.class,
+            BackfillJob.class,
+            Vehicle.class,
+            FleetSummary.class,
+            NHTSAVinDecodeResponse.class,
+            NHTSAResult.class,
+            PartsApiResponse.class,
+            PartsMake.class,
+            PartsModel.class,
+            PartsVehicle.class,
+            CreateUnitFromVinRequest.class,
+            UpdateUnitRequest.class,
+            UnitSearchCriteria.class,
+            ApiResponse.class,
+            ErrorDetail.class,
+            ValidationError.class,
+            PageResult.class,
+            UnitChanges.class,
+            JacksonConverter.class
+        },
+        ignoreNested = false)
+public final class NativeImageConfig {
+
+    private NativeImageConfig() {
+        // Registration holder
+    }
+}
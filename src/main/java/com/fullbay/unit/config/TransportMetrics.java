@@ -0,0 +1,154 @@
+package com.fullbay.unit.config;
+
+import io.quarkus.info.runtime.spi.InfoContributor;
+
+import jakarta.enterprise.context.ApplicationScoped;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.apache.http.conn.DnsResolver;
+import org.apache.http.impl.conn.SystemDefaultDnsResolver;
+
+import software.amazon.awssdk.core.metrics.CoreMetric;
+import software.amazon.awssdk.http.HttpMetric;
+import software.amazon.awssdk.metrics.MetricCollection;
+import software.amazon.awssdk.metrics.MetricPublisher;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Connection pool and call metrics for the AWS SDK clients. Registered as the clients' metric
+ * publisher, and supplies the DNS resolver of the pooled sync client so every newly opened
+ * connection is counted without touching the SDK's TLS setup; connection reuse is attempts minus
+ * connections opened. Exposed under "transport" on the info endpoint.
+ */
+@ApplicationScoped
+@Slf4j
+public class TransportMetrics implements MetricPublisher, InfoContributor {
+
+    private static final String ATTEMPT_COLLECTION = "ApiCallAttempt";
+
+    private final LongAdder apiCalls = new LongAdder();
+    private final LongAdder failedCalls = new LongAdder();
+    private final LongAdder attempts = new LongAdder();
+    private final LongAdder connectionsOpened = new LongAdder();
+    private final LongAdder apiCallNanos = new LongAdder();
+    private final LongAdder acquireNanos = new LongAdder();
+    private final LongAdder acquires = new LongAdder();
+    private final AtomicLong maxAcquireNanos = new AtomicLong();
+    private final AtomicInteger maxLeased = new AtomicInteger();
+    private final AtomicInteger maxPending = new AtomicInteger();
+    private final AtomicInteger maxConcurrency = new AtomicInteger();
+    private final AtomicInteger available = new AtomicInteger();
+
+    @Override
+    public void publish(MetricCollection metrics) {
+        apiCalls.increment();
+        metrics.metricValues(CoreMetric.API_CALL_SUCCESSFUL).stream()
+                .filter(successful -> !successful)
+                .findFirst()
+                .ifPresent(failed -> failedCalls.increment());
+        metrics.metricValues(CoreMetric.API_CALL_DURATION)
+                .forEach(duration -> apiCallNanos.add(duration.toNanos()));
+        record(metrics);
+
+        log.debug(
+                "{} {}: leased={} available={} pending={}",
+                metrics.metricValues(CoreMetric.SERVICE_ID).stream().findFirst().orElse(""),
+                metrics.metricValues(CoreMetric.OPERATION_NAME).stream().findFirst().orElse(""),
+                maxLeased.get(),
+                available.get(),
+                maxPending.get());
+    }
+
+    private void record(MetricCollection collection) {
+        if (ATTEMPT_COLLECTION.equals(collection.name())) {
+            attempts.increment();
+        }
+        collection.metricValues(HttpMetric.LEASED_CONCURRENCY).forEach(v -> max(maxLeased, v));
+        collection
+                .metricValues(HttpMetric.PENDING_CONCURRENCY_ACQUIRES)
+                .forEach(v -> max(maxPending, v));
+        collection.metricValues(HttpMetric.MAX_CONCURRENCY).forEach(v -> max(maxConcurrency, v));
+        collection.metricValues(HttpMetric.AVAILABLE_CONCURRENCY).forEach(available::set);
+        for (final Duration duration :
+                collection.metricValues(HttpMetric.CONCURRENCY_ACQUIRE_DURATION)) {
+            final long nanos = duration.toNanos();
+            acquires.increment();
+            acquireNanos.add(nanos);
+            maxAcquireNanos.accumulateAndGet(nanos, Math::max);
+        }
+        collection.children().forEach(this::record);
+    }
+
+    private static void max(AtomicInteger target, int value) {
+        target.accumulateAndGet(value, Math::max);
+    }
+
+    /** Count a newly opened connection. */
+    void connectionOpened() {
+        connectionsOpened.increment();
+    }
+
+    /**
+     * DNS resolver for the Apache client that counts every connection it opens. The pool resolves
+     * the host once per new connection, for http and https alike, and never for a reused one.
+     *
+     * @return Counting resolver delegating to the system resolver
+     */
+    public DnsResolver dnsResolver() {
+        return host -> {
+            connectionOpened();
+            return SystemDefaultDnsResolver.INSTANCE.resolve(host);
+        };
+    }
+
+    /**
+     * Point-in-time view of the counters.
+     *
+     * @return Counters keyed by name, in a stable order
+     */
+    public Map<String, Object> snapshot() {
+        final long calls = apiCalls.sum();
+        final long attemptCount = attempts.sum();
+        final long opened = connectionsOpened.sum();
+        final long acquireCount = acquires.sum();
+
+        final Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("apiCalls", calls);
+        stats.put("failedCalls", failedCalls.sum());
+        stats.put("attempts", attemptCount);
+        stats.put("connectionsOpened", opened);
+        stats.put("connectionsReused", Math.max(0, attemptCount - opened));
+        stats.put("avgApiCallMillis", calls == 0 ? 0 : apiCallNanos.sum() / calls / 1_000_000.0);
+        stats.put(
+                "avgAcquireMillis",
+                acquireCount == 0 ? 0 : acquireNanos.sum() / acquireCount / 1_000_000.0);
+        stats.put("maxAcquireMillis", maxAcquireNanos.get() / 1_000_000.0);
+        stats.put("maxLeased", maxLeased.get());
+        stats.put("maxPending", maxPending.get());
+        stats.put("maxConcurrency", maxConcurrency.get());
+        stats.put("available", available.get());
+        return stats;
+    }
+
+    @Override
+    public String name() {
+        return "transport";
+    }
+
+    @Override
+    public Map<String, Object> data() {
+        return snapshot();
+    }
+
+    @Override
+    public void close() {
+        // Shared by several clients; nothing to release
+    }
+}
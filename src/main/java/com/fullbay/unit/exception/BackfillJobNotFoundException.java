@@ -0,0 +1,9 @@
+package com.fullbay.unit.exception;
+
+/** Exception thrown when a backfill job is not found. */
+public class BackfillJobNotFoundException extends RuntimeException {
+
+    public BackfillJobNotFoundException(String jobId) {
+        super("Backfill job not found: " + jobId);
+    }
+}
@@ -0,0 +1,9 @@
+package com.fullbay.unit.exception;
+
+/** Exception thrown when an endpoint's feature is switched off in this deployment. */
+public class FeatureDisabledException extends RuntimeException {
+
+    public FeatureDisabledException(String message) {
+        super(message);
+    }
+}
@@ -29,10 +29,42 @@ public class GlobalExceptionHandler implements ExceptionMapper<Exception> {
             return handleUnitNotFound((UnitNotFoundException) exception);
         }
 
+        if (exception instanceof ImportJobNotFoundException) {
+            return handleImportJobNotFound((ImportJobNotFoundException) exception);
+        }
+
+        if (exception instanceof BackfillJobNotFoundException) {
+            return handleBackfillJobNotFound((BackfillJobNotFoundException) exception);
+        }
+
+        if (exception instanceof UnknownColumnException) {
+            return handleUnknownColumn((UnknownColumnException) exception);
+        }
+
+        if (exception instanceof InvalidCursorException) {
+            return handleInvalidCursor((InvalidCursorException) exception);
+        }
+
         if (exception instanceof DuplicateVinException) {
             return handleDuplicateVin((DuplicateVinException) exception);
         }
 
+        if (exception instanceof VersionConflictException) {
+            return handleVersionConflict((VersionConflictException) exception);
+        }
+
+        if (exception instanceof UpdateConflictException) {
+            return handleUpdateConflict((UpdateConflictException) exception);
+        }
+
+        if (exception instanceof NHTSARateLimitedException) {
+            return handleNhtsaRateLimited((NHTSARateLimitedException) exception);
+        }
+
+        if (exception instanceof FeatureDisabledException) {
+            return handleFeatureDisabled((FeatureDisabledException) exception);
+        }
+
         if (exception instanceof ConstraintViolationException) {
             return handleValidationError((ConstraintViolationException) exception);
         }
@@ -55,6 +87,66 @@ public class GlobalExceptionHandler implements ExceptionMapper<Exception> {
                 .build();
     }
 
+    private Response handleImportJobNotFound(ImportJobNotFoundException exception) {
+        final ErrorDetail error =
+                ErrorDetail.builder()
+                        .code("IMPORT_NOT_FOUND")
+                        .message(exception.getMessage())
+                        .build();
+
+        final ApiResponse<Void> response = ApiResponse.<Void>builder().error(error).build();
+
+        return Response.status(Response.Status.NOT_FOUND)
+                .entity(response)
+                .type(MediaType.APPLICATION_JSON)
+                .build();
+    }
+
+    private Response handleBackfillJobNotFound(BackfillJobNotFoundException exception) {
+        final ErrorDetail error =
+                ErrorDetail.builder()
+                        .code("BACKFILL_NOT_FOUND")
+                        .message(exception.getMessage())
+                        .build();
+
+        final ApiResponse<Void> response = ApiResponse.<Void>builder().error(error).build();
+
+        return Response.status(Response.Status.NOT_FOUND)
+                .entity(response)
+                .type(MediaType.APPLICATION_JSON)
+                .build();
+    }
+
+    private Response handleUnknownColumn(UnknownColumnException exception) {
+        final ErrorDetail error =
+                ErrorDetail.builder()
+                        .code("UNKNOWN_COLUMN")
+                        .message(exception.getMessage())
+                        .build();
+
+        final ApiResponse<Void> response = ApiResponse.<Void>builder().error(error).build();
+
+        return Response.status(Response.Status.BAD_REQUEST)
+                .entity(response)
+                .type(MediaType.APPLICATION_JSON)
+                .build();
+    }
+
+    private Response handleInvalidCursor(InvalidCursorException exception) {
+        final ErrorDetail error =
+                ErrorDetail.builder()
+                        .code("INVALID_CURSOR")
+                        .message(exception.getMessage())
+                        .build();
+
+        final ApiResponse<Void> response = ApiResponse.<Void>builder().error(error).build();
+
+        return Response.status(Response.Status.BAD_REQUEST)
+                .entity(response)
+                .type(MediaType.APPLICATION_JSON)
+                .build();
+    }
+
     private Response handleDuplicateVin(DuplicateVinException exception) {
         final ErrorDetail error =
                 ErrorDetail.builder().code("DUPLICATE_VIN").message(exception.getMessage()).build();
@@ -67,6 +159,66 @@ public class GlobalExceptionHandler implements ExceptionMapper<Exception> {
                 .build();
     }
 
+    private Response handleUpdateConflict(UpdateConflictException exception) {
+        final ErrorDetail error =
+                ErrorDetail.builder()
+                        .code("UPDATE_CONFLICT")
+                        .message(exception.getMessage())
+                        .build();
+
+        final ApiResponse<Void> response = ApiResponse.<Void>builder().error(error).build();
+
+        return Response.status(Response.Status.CONFLICT)
+                .entity(response)
+                .type(MediaType.APPLICATION_JSON)
+                .build();
+    }
+
+    private Response handleVersionConflict(VersionConflictException exception) {
+        final ErrorDetail error =
+                ErrorDetail.builder()
+                        .code("VERSION_CONFLICT")
+                        .message(exception.getMessage())
+                        .build();
+
+        final ApiResponse<Void> response = ApiResponse.<Void>builder().error(error).build();
+
+        return Response.status(Response.Status.PRECONDITION_FAILED)
+                .entity(response)
+                .type(MediaType.APPLICATION_JSON)
+                .build();
+    }
+
+    private Response handleNhtsaRateLimited(NHTSARateLimitedException exception) {
+        final ErrorDetail error =
+                ErrorDetail.builder()
+                        .code("NHTSA_RATE_LIMITED")
+                        .message(exception.getMessage())
+                        .build();
+
+        final ApiResponse<Void> response = ApiResponse.<Void>builder().error(error).build();
+
+        return Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                .entity(response)
+                .type(MediaType.APPLICATION_JSON)
+                .build();
+    }
+
+    private Response handleFeatureDisabled(FeatureDisabledException exception) {
+        final ErrorDetail error =
+                ErrorDetail.builder()
+                        .code("FEATURE_DISABLED")
+                        .message(exception.getMessage())
+                        .build();
+
+        final ApiResponse<Void> response = ApiResponse.<Void>builder().error(error).build();
+
+        return Response.status(Response.Status.NOT_IMPLEMENTED)
+                .entity(response)
+                .type(MediaType.APPLICATION_JSON)
+                .build();
+    }
+
     private Response handleValidationError(ConstraintViolationException exception) {
         final List<ValidationError> details = new ArrayList<>();
         for (ConstraintViolation<?> violation : exception.getConstraintViolations()) {
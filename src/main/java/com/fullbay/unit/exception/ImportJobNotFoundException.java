@@ -0,0 +1,9 @@
+package com.fullbay.unit.exception;
+
+/** Exception thrown when an import job is not found. */
+public class ImportJobNotFoundException extends RuntimeException {
+
+    public ImportJobNotFoundException(String jobId) {
+        super("Import job not found: " + jobId);
+    }
+}
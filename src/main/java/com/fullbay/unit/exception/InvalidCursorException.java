@@ -0,0 +1,9 @@
+package com.fullbay.unit.exception;
+
+/** Exception thrown when a paging cursor is malformed or belongs to a different query. */
+public class InvalidCursorException extends RuntimeException {
+
+    public InvalidCursorException() {
+        super("Invalid cursor");
+    }
+}
@@ -0,0 +1,9 @@
+package com.fullbay.unit.exception;
+
+/** Exception thrown when no NHTSA call slot frees up before the caller's deadline. */
+public class NHTSARateLimitedException extends RuntimeException {
+
+    public NHTSARateLimitedException() {
+        super("NHTSA call rate limit reached, retry later");
+    }
+}
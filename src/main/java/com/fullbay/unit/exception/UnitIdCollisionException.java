@@ -0,0 +1,9 @@
+package com.fullbay.unit.exception;
+
+/** Exception thrown when a new Unit is saved under an ID that is already taken. */
+public class UnitIdCollisionException extends RuntimeException {
+
+    public UnitIdCollisionException(String unitId) {
+        super("Unit ID already exists: " + unitId);
+    }
+}
@@ -0,0 +1,9 @@
+package com.fullbay.unit.exception;
+
+/** Exception thrown when an export asks for a column that is not a unit field. */
+public class UnknownColumnException extends RuntimeException {
+
+    public UnknownColumnException(String column) {
+        super("Unknown column: " + column);
+    }
+}
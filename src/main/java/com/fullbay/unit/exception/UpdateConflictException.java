@@ -0,0 +1,12 @@
+package com.fullbay.unit.exception;
+
+/**
+ * Exception thrown when a write without If-Match keeps losing races with other writers to the same
+ * unit.
+ */
+public class UpdateConflictException extends RuntimeException {
+
+    public UpdateConflictException(String unitId) {
+        super("Unit is being modified concurrently, retry later: " + unitId);
+    }
+}
@@ -0,0 +1,18 @@
+package com.fullbay.unit.exception;
+
+/** Exception thrown when a conditional write fails because the stored version has moved on. */
+public class VersionConflictException extends RuntimeException {
+
+    public VersionConflictException(String unitId, long expectedVersion) {
+        super(
+                "Version conflict for unit: "
+                        + unitId
+                        + " (expected version "
+                        + expectedVersion
+                        + ")");
+    }
+
+    public VersionConflictException(String unitId, String ifMatch) {
+        super("If-Match does not match unit: " + unitId + " (If-Match " + ifMatch + ")");
+    }
+}
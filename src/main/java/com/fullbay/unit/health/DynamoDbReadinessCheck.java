@@ -0,0 +1,70 @@
+package com.fullbay.unit.health;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.health.HealthCheck;
+import org.eclipse.microprofile.health.HealthCheckResponse;
+import org.eclipse.microprofile.health.HealthCheckResponseBuilder;
+import org.eclipse.microprofile.health.Readiness;
+
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Ready once the table is reachable. Probes with a GetItem on a key that never exists (0.5 RCU),
+ * which exercises credentials, the connection pool and table permissions without the low
+ * DescribeTable rate limit.
+ */
+@Readiness
+@ApplicationScoped
+@Slf4j
+public class DynamoDbReadinessCheck implements HealthCheck {
+
+    static final String NAME = "dynamodb";
+
+    private static final Map<String, AttributeValue> PROBE_KEY =
+            Map.of(
+                    "PK", AttributeValue.builder().s("HEALTH#readiness").build(),
+                    "SK", AttributeValue.builder().s("HEALTH#readiness").build());
+
+    private final DynamoDbClient dynamoDbClient;
+    private final Duration timeout;
+    private final String tableName;
+
+    @Inject
+    public DynamoDbReadinessCheck(
+            final DynamoDbClient dynamoDbClient,
+            @ConfigProperty(name = "health.dynamodb.timeout", defaultValue = "2s")
+                    final Duration timeout,
+            @ConfigProperty(name = "dynamodb.table.name", defaultValue = "g-unit-service")
+                    final String tableName) {
+        this.dynamoDbClient = dynamoDbClient;
+        this.timeout = timeout;
+        this.tableName = tableName;
+    }
+
+    @Override
+    public HealthCheckResponse call() {
+        final HealthCheckResponseBuilder response =
+                HealthCheckResponse.named(NAME).withData("table", tableName);
+        try {
+            dynamoDbClient.getItem(
+                    req ->
+                            req.tableName(tableName)
+                                    .key(PROBE_KEY)
+                                    .overrideConfiguration(o -> o.apiCallTimeout(timeout)));
+            return response.up().build();
+        } catch (SdkException e) {
+            log.warn("DynamoDB readiness check failed: {}", e.getMessage());
+            return response.down().withData("error", String.valueOf(e.getMessage())).build();
+        }
+    }
+}
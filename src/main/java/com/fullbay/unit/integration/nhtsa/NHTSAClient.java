@@ -1,5 +1,7 @@
 package com.fullbay.unit.integration.nhtsa;
 
+import com.fullbay.unit.metrics.ClientMetricsFilter;
+
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.Path;
@@ -8,9 +10,11 @@ import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.QueryParam;
 import jakarta.ws.rs.core.MediaType;
 
+import org.eclipse.microprofile.rest.client.annotation.RegisterProvider;
 import org.eclipse.microprofile.rest.client.inject.RegisterRestClient;
 
 /** NHTSA VIN Decode API client. Uses Quarkus REST client to call the NHTSA VIN decode endpoint. */
+@RegisterProvider(ClientMetricsFilter.class)
 @RegisterRestClient(configKey = "nhtsa")
 @ApplicationScoped
 @Produces(MediaType.APPLICATION_JSON)
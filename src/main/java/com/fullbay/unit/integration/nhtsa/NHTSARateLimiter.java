@@ -0,0 +1,254 @@
+package com.fullbay.unit.integration.nhtsa;
+
+import com.fullbay.unit.exception.NHTSARateLimitedException;
+import com.fullbay.unit.repository.RateBudgetRepository;
+
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.ProcessingException;
+import jakarta.ws.rs.WebApplicationException;
+
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Paces calls through {@link NHTSAClient}. A token bucket of {@code nhtsa.rate-limit.burst} tokens
+ * refills at a rate that adapts AIMD-style: each successful call adds {@code increase / rate}, so
+ * the rate grows by {@code increase} per second of steady traffic, and a 429, a 5xx or a call that
+ * never got a response (timeout, refused connection) multiplies it by {@code decrease}, at most
+ * once a second. Callers queue in arrival order and give up with {@link NHTSARateLimitedException}
+ * when their slot would come after their deadline. Blocking callers sleep until their slot; {@link
+ * #callAsync} callers get a delayed {@link Uni} from the same bucket.
+ *
+ * <p>With {@code nhtsa.rate-limit.distributed}, each call also takes one unit from a per-second
+ * budget in DynamoDB ({@link RateBudgetRepository}) sized to this instance's current rate, so
+ * concurrent Lambdas together stay near the rate vPIC accepts. Each instance adapts its rate from
+ * the responses it sees.
+ */
+@ApplicationScoped
+@Slf4j
+public class NHTSARateLimiter {
+
+    private static final String BUDGET = "nhtsa";
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final long DECREASE_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final long MAX_JITTER_MILLIS = 50;
+
+    private final RateBudgetRepository rateBudgetRepository;
+    private final boolean enabled;
+    private final double minRate;
+    private final double maxRate;
+    private final int burst;
+    private final double increase;
+    private final double decrease;
+    private final Duration maxWait;
+    private final boolean distributed;
+
+    private double rate;
+    private double tokens;
+    private long refilledNanos = System.nanoTime();
+    private long lastDecreaseNanos = System.nanoTime() - DECREASE_INTERVAL_NANOS;
+
+    @Inject
+    public NHTSARateLimiter(
+            RateBudgetRepository rateBudgetRepository,
+            @ConfigProperty(name = "nhtsa.rate-limit.enabled", defaultValue = "true")
+                    boolean enabled,
+            @ConfigProperty(name = "nhtsa.rate-limit.initial-rate", defaultValue = "5")
+                    double initialRate,
+            @ConfigProperty(name = "nhtsa.rate-limit.min-rate", defaultValue = "1") double minRate,
+            @ConfigProperty(name = "nhtsa.rate-limit.max-rate", defaultValue = "20") double maxRate,
+            @ConfigProperty(name = "nhtsa.rate-limit.burst", defaultValue = "5") int burst,
+            @ConfigProperty(name = "nhtsa.rate-limit.increase", defaultValue = "0.5")
+                    double increase,
+            @ConfigProperty(name = "nhtsa.rate-limit.decrease", defaultValue = "0.5")
+                    double decrease,
+            @ConfigProperty(name = "nhtsa.rate-limit.max-wait", defaultValue = "5s")
+                    Duration maxWait,
+            @ConfigProperty(name = "nhtsa.rate-limit.distributed", defaultValue = "false")
+                    boolean distributed) {
+        this.rateBudgetRepository = rateBudgetRepository;
+        this.enabled = enabled;
+        this.rate = initialRate;
+        this.minRate = minRate;
+        this.maxRate = maxRate;
+        this.burst = burst;
+        this.tokens = burst;
+        this.increase = increase;
+        this.decrease = decrease;
+        this.maxWait = maxWait;
+        this.distributed = distributed;
+    }
+
+    /**
+     * Run a call once a slot is free, waiting at most {@code nhtsa.rate-limit.max-wait}.
+     *
+     * @param call The NHTSA call
+     * @return The call's result
+     * @throws NHTSARateLimitedException if no slot frees up in time
+     */
+    public <T> T call(Supplier<T> call) {
+        return call(call, null);
+    }
+
+    /**
+     * Run a call once a slot is free, and feed its outcome back into the rate.
+     *
+     * @param call The NHTSA call
+     * @param deadline Latest time to start the call, or null for {@code nhtsa.rate-limit.max-wait}
+     *     from now
+     * @return The call's result
+     * @throws NHTSARateLimitedException if no slot frees up before the deadline
+     */
+    public <T> T call(Supplier<T> call, Instant deadline) {
+        if (!enabled) {
+            return call.get();
+        }
+        acquire(deadline != null ? deadline : Instant.now().plus(maxWait));
+        final T result;
+        try {
+            result = call.get();
+        } catch (final RuntimeException e) {
+            onFailure(e);
+            throw e;
+        }
+        onSuccess();
+        return result;
+    }
+
+    /**
+     * Non-blocking {@link #call(Supplier)}: subscribe to the call once a slot is free, waiting at
+     * most {@code nhtsa.rate-limit.max-wait}.
+     *
+     * @param call Supplies the NHTSA call; invoked only once the slot is reached
+     * @return The call's result; fails with {@link NHTSARateLimitedException} if no slot frees up
+     *     in time
+     */
+    public <T> Uni<T> callAsync(Supplier<Uni<T>> call) {
+        return callAsync(call, null);
+    }
+
+    /**
+     * Non-blocking {@link #call(Supplier, Instant)}. The wait is a timer rather than a sleeping
+     * thread; only the distributed budget, a DynamoDB call, runs on the worker pool.
+     *
+     * @param call Supplies the NHTSA call; invoked only once the slot is reached
+     * @param deadline Latest time to start the call, or null for {@code nhtsa.rate-limit.max-wait}
+     *     from now
+     * @return The call's result; fails with {@link NHTSARateLimitedException} if no slot frees up
+     *     before the deadline
+     */
+    public <T> Uni<T> callAsync(Supplier<Uni<T>> call, Instant deadline) {
+        if (!enabled) {
+            return Uni.createFrom().deferred(call::get);
+        }
+        return Uni.createFrom()
+                .deferred(
+                        () -> {
+                            final Instant until =
+                                    deadline != null ? deadline : Instant.now().plus(maxWait);
+                            final long waitNanos = reserve(until);
+                            Uni<Void> slot = Uni.createFrom().voidItem();
+                            if (waitNanos > 0) {
+                                slot = slot.onItem().delayIt().by(Duration.ofNanos(waitNanos));
+                            }
+                            if (distributed) {
+                                slot =
+                                        slot.emitOn(Infrastructure.getDefaultWorkerPool())
+                                                .invoke(() -> takeShared(until));
+                            }
+                            return slot.flatMap(ignored -> call.get());
+                        })
+                .onItem()
+                .invoke(this::onSuccess)
+                .onFailure()
+                .invoke(this::onFailure);
+    }
+
+    /** Current calls per second. */
+    public synchronized double rate() {
+        return rate;
+    }
+
+    @SneakyThrows
+    private void acquire(Instant deadline) {
+        final long waitNanos = reserve(deadline);
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+        if (distributed) {
+            takeShared(deadline);
+        }
+    }
+
+    /** Take the next slot from the bucket and return how long until it is reached. */
+    private synchronized long reserve(Instant deadline) {
+        final long now = System.nanoTime();
+        final long remaining = Duration.between(Instant.now(), deadline).toNanos();
+        tokens = Math.min(burst, tokens + (now - refilledNanos) * rate / NANOS_PER_SECOND);
+        refilledNanos = now;
+        // Tokens below zero are slots already promised to queued callers
+        final long waitNanos = tokens >= 1 ? 0 : (long) ((1 - tokens) / rate * NANOS_PER_SECOND);
+        if (waitNanos > 0 && waitNanos > remaining) {
+            throw new NHTSARateLimitedException();
+        }
+        tokens -= 1;
+        return waitNanos;
+    }
+
+    /** Take from the shared per-second budget, moving to the next second while it is spent. */
+    @SneakyThrows
+    private void takeShared(Instant deadline) {
+        while (true) {
+            final long nowMillis = System.currentTimeMillis();
+            final long second = nowMillis / 1000;
+            final int limit = (int) Math.max(1, Math.floor(rate()));
+            if (rateBudgetRepository.tryTake(BUDGET, second, limit)) {
+                return;
+            }
+            final long nextMillis =
+                    (second + 1) * 1000 + ThreadLocalRandom.current().nextLong(MAX_JITTER_MILLIS);
+            if (nextMillis > deadline.toEpochMilli()) {
+                throw new NHTSARateLimitedException();
+            }
+            TimeUnit.MILLISECONDS.sleep(nextMillis - nowMillis);
+        }
+    }
+
+    private synchronized void onSuccess() {
+        rate = Math.min(maxRate, rate + increase / rate);
+    }
+
+    /** 429 and 5xx responses, timeouts and connection failures mean vPIC is overloaded. */
+    private void onFailure(Throwable failure) {
+        if (failure instanceof WebApplicationException e) {
+            final int status = e.getResponse().getStatus();
+            if (status == 429 || status >= 500) {
+                onThrottled("returned " + status);
+            }
+        } else if (failure instanceof ProcessingException) {
+            onThrottled("call failed (" + failure.getMessage() + ")");
+        }
+    }
+
+    private synchronized void onThrottled(String signal) {
+        final long now = System.nanoTime();
+        if (now - lastDecreaseNanos < DECREASE_INTERVAL_NANOS) {
+            return;
+        }
+        lastDecreaseNanos = now;
+        rate = Math.max(minRate, rate * decrease);
+        log.warn("NHTSA {}; lowering call rate to {}/s", signal, String.format("%.2f", rate));
+    }
+}
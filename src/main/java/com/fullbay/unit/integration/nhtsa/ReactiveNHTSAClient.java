@@ -0,0 +1,32 @@
+package com.fullbay.unit.integration.nhtsa;
+
+import com.fullbay.unit.metrics.ClientMetricsFilter;
+
+import io.smallrye.mutiny.Uni;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.MediaType;
+
+import org.eclipse.microprofile.rest.client.annotation.RegisterProvider;
+import org.eclipse.microprofile.rest.client.inject.RegisterRestClient;
+
+/**
+ * Non-blocking NHTSA VIN Decode API client. Shares the {@code nhtsa} configuration (URL, timeouts,
+ * connection pool) with {@link NHTSAClient}.
+ */
+@RegisterProvider(ClientMetricsFilter.class)
+@RegisterRestClient(configKey = "nhtsa")
+@ApplicationScoped
+@Produces(MediaType.APPLICATION_JSON)
+public interface ReactiveNHTSAClient {
+
+    @GET
+    @Path("/vehicles/DecodeVin/{vin}")
+    Uni<NHTSAVinDecodeResponse> decodeVin(
+            @PathParam("vin") String vin, @QueryParam("format") String format);
+}
@@ -1,5 +1,7 @@
 package com.fullbay.unit.integration.parts;
 
+import com.fullbay.unit.metrics.ClientMetricsFilter;
+
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.Path;
@@ -8,9 +10,11 @@ import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.QueryParam;
 import jakarta.ws.rs.core.MediaType;
 
+import org.eclipse.microprofile.rest.client.annotation.RegisterProvider;
 import org.eclipse.microprofile.rest.client.inject.RegisterRestClient;
 
 /** Parts Service client for VCDB vehicle lookups. */
+@RegisterProvider(ClientMetricsFilter.class)
 @RegisterRestClient(configKey = "parts-service")
 @ApplicationScoped
 @Produces(MediaType.APPLICATION_JSON)
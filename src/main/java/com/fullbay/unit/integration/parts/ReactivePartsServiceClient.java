@@ -0,0 +1,43 @@
+package com.fullbay.unit.integration.parts;
+
+import com.fullbay.unit.metrics.ClientMetricsFilter;
+
+import io.smallrye.mutiny.Uni;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.MediaType;
+
+import org.eclipse.microprofile.rest.client.annotation.RegisterProvider;
+import org.eclipse.microprofile.rest.client.inject.RegisterRestClient;
+
+/**
+ * Non-blocking Parts Service client for VCDB vehicle lookups. Shares the {@code parts-service}
+ * configuration with {@link PartsServiceClient}.
+ */
+@RegisterProvider(ClientMetricsFilter.class)
+@RegisterRestClient(configKey = "parts-service")
+@ApplicationScoped
+@Produces(MediaType.APPLICATION_JSON)
+public interface ReactivePartsServiceClient {
+
+    @GET
+    @Path("/makes")
+    Uni<PartsApiResponse<java.util.List<PartsMake>>> findMakesByName(@QueryParam("q") String name);
+
+    @GET
+    @Path("/makes/{makeId}/models")
+    Uni<PartsApiResponse<java.util.List<PartsModel>>> findModelsByName(
+            @PathParam("makeId") String makeId, @QueryParam("q") String name);
+
+    @GET
+    @Path("/vehicles")
+    Uni<PartsApiResponse<java.util.List<PartsVehicle>>> findVehicles(
+            @QueryParam("year") String year,
+            @QueryParam("makeId") String makeId,
+            @QueryParam("modelId") String modelId);
+}
@@ -0,0 +1,118 @@
+package com.fullbay.unit.metrics;
+
+import com.fullbay.unit.model.entity.Unit;
+import com.fullbay.unit.model.response.ApiResponse;
+
+import jakarta.annotation.Priority;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.Priorities;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.container.ResourceInfo;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.StreamingOutput;
+import jakarta.ws.rs.ext.Provider;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Attributes the DynamoDB capacity a request consumed to its endpoint and customer, and, in debug
+ * mode, reports it in the {@value #HEADER} response header. The customer comes from the customerId
+ * path or query parameter, or else from the unit in the response.
+ *
+ * <p>A {@link StreamingOutput} body (the export) does its reads while it is written, which happens
+ * after every response filter. Its capacity is therefore attributed once the body has been written,
+ * and it gets no header, since headers are sent before the body.
+ */
+@Provider
+@Priority(Priorities.USER)
+@Slf4j
+public class CapacityResponseFilter implements ContainerResponseFilter {
+
+    public static final String HEADER = "X-DynamoDB-Consumed-Capacity";
+
+    private static final String CUSTOMER_ID = "customerId";
+
+    @Context ResourceInfo resourceInfo;
+
+    private final RequestCapacity requestCapacity;
+    private final UnitMetrics unitMetrics;
+    private final boolean responseHeader;
+
+    @Inject
+    public CapacityResponseFilter(
+            final RequestCapacity requestCapacity,
+            final UnitMetrics unitMetrics,
+            @ConfigProperty(name = "dynamodb.capacity.response-header", defaultValue = "false")
+                    final boolean responseHeader) {
+        this.requestCapacity = requestCapacity;
+        this.unitMetrics = unitMetrics;
+        this.responseHeader = responseHeader;
+    }
+
+    @Override
+    public void filter(
+            ContainerRequestContext requestContext, ContainerResponseContext responseContext) {
+        final String endpoint = endpoint();
+        final String customerId = customerId(requestContext, responseContext);
+        if (responseContext.getEntity() instanceof StreamingOutput body) {
+            responseContext.setEntity(
+                    (StreamingOutput)
+                            out -> {
+                                try {
+                                    body.write(out);
+                                } finally {
+                                    attribute(endpoint, customerId);
+                                }
+                            });
+            return;
+        }
+        if (attribute(endpoint, customerId) && responseHeader) {
+            responseContext.getHeaders().putSingle(HEADER, requestCapacity.summary());
+        }
+    }
+
+    /** Record the capacity consumed so far, if any; returns whether there was some. */
+    private boolean attribute(String endpoint, String customerId) {
+        if (requestCapacity.calls() == 0) {
+            return false;
+        }
+        final double read = requestCapacity.read();
+        final double write = requestCapacity.write();
+
+        unitMetrics.requestCapacity(endpoint, read, write);
+        unitMetrics.customerCapacity(customerId, read, write);
+        log.debug(
+                "DynamoDB capacity for {} (customerId {}): {}",
+                endpoint,
+                customerId,
+                requestCapacity.summary());
+        return true;
+    }
+
+    private String endpoint() {
+        if (resourceInfo == null || resourceInfo.getResourceMethod() == null) {
+            return "unknown";
+        }
+        return resourceInfo.getResourceClass().getSimpleName()
+                + "."
+                + resourceInfo.getResourceMethod().getName();
+    }
+
+    private static String customerId(
+            ContainerRequestContext requestContext, ContainerResponseContext responseContext) {
+        String customerId = requestContext.getUriInfo().getPathParameters().getFirst(CUSTOMER_ID);
+        if (customerId == null) {
+            customerId = requestContext.getUriInfo().getQueryParameters().getFirst(CUSTOMER_ID);
+        }
+        if (customerId == null
+                && responseContext.getEntity() instanceof ApiResponse<?> response
+                && response.getData() instanceof Unit unit) {
+            customerId = unit.customerId();
+        }
+        return customerId != null ? customerId : "unknown";
+    }
+}
@@ -0,0 +1,66 @@
+package com.fullbay.unit.metrics;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.client.ClientRequestContext;
+import jakarta.ws.rs.client.ClientRequestFilter;
+import jakarta.ws.rs.client.ClientResponseContext;
+import jakarta.ws.rs.client.ClientResponseFilter;
+
+import org.eclipse.microprofile.rest.client.inject.RegisterRestClient;
+
+import java.lang.reflect.Method;
+
+/**
+ * Times every call made through a REST client it is registered on, tagged with the client's config
+ * key and interface method, and, with Server-Timing enabled, against the API request that made it.
+ * Calls that fail before a response arrives are not recorded.
+ */
+@ApplicationScoped
+public class ClientMetricsFilter implements ClientRequestFilter, ClientResponseFilter {
+
+    private static final String START_PROPERTY = "clientMetrics.start";
+    private static final String TIMINGS_PROPERTY = "clientMetrics.timings";
+    private static final String INVOKED_METHOD =
+            "org.eclipse.microprofile.rest.client.invokedMethod";
+
+    private final UnitMetrics unitMetrics;
+    private final ServerTiming serverTiming;
+
+    @Inject
+    public ClientMetricsFilter(final UnitMetrics unitMetrics, final ServerTiming serverTiming) {
+        this.unitMetrics = unitMetrics;
+        this.serverTiming = serverTiming;
+    }
+
+    @Override
+    public void filter(ClientRequestContext requestContext) {
+        final RequestTimings timings = serverTiming.current();
+        if (timings != null) {
+            requestContext.setProperty(TIMINGS_PROPERTY, timings);
+        }
+        requestContext.setProperty(START_PROPERTY, System.nanoTime());
+    }
+
+    @Override
+    public void filter(ClientRequestContext requestContext, ClientResponseContext responseContext) {
+        if (!(requestContext.getProperty(START_PROPERTY) instanceof Long start)) {
+            return;
+        }
+        final long nanos = System.nanoTime() - start;
+        String client = requestContext.getUri().getHost();
+        String operation = requestContext.getMethod();
+        if (requestContext.getProperty(INVOKED_METHOD) instanceof Method method) {
+            final RegisterRestClient registration =
+                    method.getDeclaringClass().getAnnotation(RegisterRestClient.class);
+            if (registration != null && !registration.configKey().isEmpty()) {
+                client = registration.configKey();
+            }
+            operation = method.getName();
+        }
+        unitMetrics.clientCall(client, operation, responseContext.getStatus(), nanos);
+        if (requestContext.getProperty(TIMINGS_PROPERTY) instanceof RequestTimings timings) {
+            timings.record(client, nanos);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.fullbay.unit.metrics;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import software.amazon.awssdk.core.SdkField;
+import software.amazon.awssdk.core.SdkPojo;
+import software.amazon.awssdk.core.SdkRequest;
+import software.amazon.awssdk.core.SdkResponse;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttribute;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.core.interceptor.SdkExecutionAttribute;
+import software.amazon.awssdk.services.dynamodb.model.Capacity;
+import software.amazon.awssdk.services.dynamodb.model.ConsumedCapacity;
+import software.amazon.awssdk.services.dynamodb.model.ReturnConsumedCapacity;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Asks DynamoDB for per-table and per-index consumed capacity on every call that does not set
+ * ReturnConsumedCapacity itself, and records what comes back: per operation and table/index in
+ * {@link UnitMetrics}, and per API request in {@link RequestCapacity}.
+ *
+ * <p>The request's accumulator is captured when the call starts, on the calling thread, so calls on
+ * the async client that complete on an SDK thread are still attributed to their request. A
+ * BatchGetItem coalesced by {@link com.fullbay.unit.repository.ItemLoader} is charged in full to
+ * the request whose caller issued it; its capacity is not split across the requests waiting on it.
+ */
+@ApplicationScoped
+public class ConsumedCapacityInterceptor implements ExecutionInterceptor {
+
+    private static final String RETURN_CONSUMED_CAPACITY = "ReturnConsumedCapacity";
+    private static final ExecutionAttribute<RequestCapacity> REQUEST_CAPACITY =
+            new ExecutionAttribute<>("ConsumedCapacity.requestCapacity");
+    private static final Set<String> READ_OPERATIONS =
+            Set.of("GetItem", "BatchGetItem", "Query", "Scan", "TransactGetItems");
+
+    private final UnitMetrics unitMetrics;
+
+    @Inject
+    public ConsumedCapacityInterceptor(final UnitMetrics unitMetrics) {
+        this.unitMetrics = unitMetrics;
+    }
+
+    @Override
+    public void beforeExecution(
+            Context.BeforeExecution context, ExecutionAttributes executionAttributes) {
+        final RequestCapacity requestCapacity = RequestBeans.current(RequestCapacity.class);
+        if (requestCapacity != null) {
+            executionAttributes.putAttribute(REQUEST_CAPACITY, requestCapacity);
+        }
+    }
+
+    @Override
+    public SdkRequest modifyRequest(
+            Context.ModifyRequest context, ExecutionAttributes executionAttributes) {
+        final SdkRequest request = context.request();
+        if (request.getValueForField(RETURN_CONSUMED_CAPACITY, String.class).isPresent()) {
+            return request;
+        }
+        // Every DynamoDB operation that can report capacity has this member; set it generically
+        final SdkRequest.Builder builder = request.toBuilder();
+        if (builder instanceof SdkPojo pojo) {
+            for (final SdkField<?> field : pojo.sdkFields()) {
+                if (RETURN_CONSUMED_CAPACITY.equals(field.memberName())) {
+                    field.set(builder, ReturnConsumedCapacity.INDEXES.toString());
+                    return builder.build();
+                }
+            }
+        }
+        return request;
+    }
+
+    @Override
+    public void afterExecution(
+            Context.AfterExecution context, ExecutionAttributes executionAttributes) {
+        final String operation =
+                executionAttributes.getAttribute(SdkExecutionAttribute.OPERATION_NAME);
+        final List<ConsumedCapacity> capacities = consumedCapacity(context.response());
+        if (operation == null || capacities.isEmpty()) {
+            return;
+        }
+        final boolean readOperation = READ_OPERATIONS.contains(operation);
+        double read = 0;
+        double write = 0;
+        for (final ConsumedCapacity capacity : capacities) {
+            if (capacity.table() == null) {
+                // TOTAL mode, requested by the caller: no per-index breakdown
+                final double[] units = units(capacity, readOperation);
+                unitMetrics.capacity(operation, "table", units[0], units[1]);
+                read += units[0];
+                write += units[1];
+                continue;
+            }
+            final double[] table = units(capacity.table(), readOperation);
+            unitMetrics.capacity(operation, "table", table[0], table[1]);
+            read += table[0];
+            write += table[1];
+            for (final Map.Entry<String, Capacity> index : indexes(capacity)) {
+                final double[] units = units(index.getValue(), readOperation);
+                unitMetrics.capacity(operation, "index:" + index.getKey(), units[0], units[1]);
+                read += units[0];
+                write += units[1];
+            }
+        }
+        final RequestCapacity requestCapacity = executionAttributes.getAttribute(REQUEST_CAPACITY);
+        if (requestCapacity != null) {
+            requestCapacity.add(operation, read, write);
+        }
+    }
+
+    /** ConsumedCapacity is a single value on item operations and a list on batch/transact. */
+    private static List<ConsumedCapacity> consumedCapacity(SdkResponse response) {
+        final Object value =
+                response.getValueForField("ConsumedCapacity", Object.class).orElse(null);
+        if (value instanceof ConsumedCapacity capacity) {
+            return List.of(capacity);
+        }
+        if (value instanceof List<?> list) {
+            return list.stream()
+                    .filter(ConsumedCapacity.class::isInstance)
+                    .map(ConsumedCapacity.class::cast)
+                    .toList();
+        }
+        return List.of();
+    }
+
+    private static List<Map.Entry<String, Capacity>> indexes(ConsumedCapacity capacity) {
+        return Stream.concat(
+                        capacity.globalSecondaryIndexes().entrySet().stream(),
+                        capacity.localSecondaryIndexes().entrySet().stream())
+                .toList();
+    }
+
+    /**
+     * Read and write units. On-demand tables often report only CapacityUnits, which is then
+     * attributed by the kind of operation.
+     */
+    private static double[] units(ConsumedCapacity capacity, boolean readOperation) {
+        return units(
+                capacity.readCapacityUnits(),
+                capacity.writeCapacityUnits(),
+                capacity.capacityUnits(),
+                readOperation);
+    }
+
+    private static double[] units(Capacity capacity, boolean readOperation) {
+        return units(
+                capacity.readCapacityUnits(),
+                capacity.writeCapacityUnits(),
+                capacity.capacityUnits(),
+                readOperation);
+    }
+
+    private static double[] units(Double read, Double write, Double total, boolean readOperation) {
+        if (read != null || write != null) {
+            return new double[] {
+                read != null ? read : 0, write != null ? write : 0,
+            };
+        }
+        final double units = total != null ? total : 0;
+        return readOperation ? new double[] {units, 0} : new double[] {0, units};
+    }
+}
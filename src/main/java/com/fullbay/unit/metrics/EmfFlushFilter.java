@@ -0,0 +1,50 @@
+package com.fullbay.unit.metrics;
+
+import jakarta.annotation.Priority;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.core.StreamingOutput;
+import jakarta.ws.rs.ext.Provider;
+
+/**
+ * Writes the EMF lines for everything the request recorded. Lambda serves one request at a time per
+ * instance and may freeze it right after the response, so flushing on a timer would lose or delay
+ * data. Response filters run in descending priority order, so the lowest priority here makes the
+ * flush run after every filter that records meters, such as {@link CapacityResponseFilter}. A
+ * {@link StreamingOutput} body is flushed after it has been written, together with the capacity
+ * attributed to it then.
+ */
+@Provider
+@Priority(EmfFlushFilter.PRIORITY)
+public class EmfFlushFilter implements ContainerResponseFilter {
+
+    /** Below every {@link jakarta.ws.rs.Priorities} constant. */
+    static final int PRIORITY = 0;
+
+    private final EmfMeterRegistry emfMeterRegistry;
+
+    @Inject
+    public EmfFlushFilter(final EmfMeterRegistry emfMeterRegistry) {
+        this.emfMeterRegistry = emfMeterRegistry;
+    }
+
+    @Override
+    public void filter(
+            ContainerRequestContext requestContext, ContainerResponseContext responseContext) {
+        if (responseContext.getEntity() instanceof StreamingOutput body) {
+            responseContext.setEntity(
+                    (StreamingOutput)
+                            out -> {
+                                try {
+                                    body.write(out);
+                                } finally {
+                                    emfMeterRegistry.flush();
+                                }
+                            });
+            return;
+        }
+        emfMeterRegistry.flush();
+    }
+}
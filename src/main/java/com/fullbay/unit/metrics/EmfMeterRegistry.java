@@ -0,0 +1,364 @@
+package com.fullbay.unit.metrics;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.AbstractDistributionSummary;
+import io.micrometer.core.instrument.AbstractMeter;
+import io.micrometer.core.instrument.AbstractTimer;
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.LongTaskTimer;
+import io.micrometer.core.instrument.Measurement;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.core.instrument.distribution.pause.PauseDetector;
+import io.micrometer.core.instrument.noop.NoopFunctionCounter;
+import io.micrometer.core.instrument.noop.NoopFunctionTimer;
+import io.micrometer.core.instrument.noop.NoopGauge;
+import io.micrometer.core.instrument.noop.NoopLongTaskTimer;
+import io.micrometer.core.instrument.noop.NoopMeter;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Micrometer registry that writes CloudWatch Embedded Metric Format (EMF) log lines. Timers and
+ * distribution summaries buffer every raw value until {@link #flush()}; CloudWatch computes the
+ * percentiles from them. Only {@code unit.*} meters are kept. In Lambda, {@link EmfFlushFilter}
+ * flushes once per invocation, so each request's measurements land in its own log lines.
+ */
+@Slf4j
+public class EmfMeterRegistry extends MeterRegistry {
+
+    /** EMF accepts at most 100 values per metric in one document. */
+    static final int MAX_VALUES_PER_METRIC = 100;
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private final String namespace;
+    private final Set<String> propertyTags;
+    private final Consumer<String> sink;
+
+    /**
+     * @param namespace CloudWatch namespace
+     * @param propertyTags High-cardinality tag keys written as log properties, not dimensions:
+     *     searchable in Logs Insights without creating a metric per value
+     * @param sink Receives each EMF document
+     * @param clock Clock for document timestamps
+     */
+    public EmfMeterRegistry(
+            String namespace, Set<String> propertyTags, Consumer<String> sink, Clock clock) {
+        super(clock);
+        this.namespace = namespace;
+        this.propertyTags = propertyTags;
+        this.sink = sink;
+        config().meterFilter(MeterFilter.denyUnless(id -> id.getName().startsWith("unit.")));
+    }
+
+    /** Write one EMF document per tag set for everything recorded since the previous flush. */
+    public void flush() {
+        final Map<List<Tag>, List<Pending>> byTags = new LinkedHashMap<>();
+        for (final Meter meter : getMeters()) {
+            if (meter instanceof Buffered buffered) {
+                final List<Double> values = buffered.drain();
+                if (!values.isEmpty()) {
+                    byTags.computeIfAbsent(meter.getId().getTags(), k -> new ArrayList<>())
+                            .add(new Pending(meter.getId().getName(), buffered.unit(), values));
+                }
+            }
+        }
+        byTags.forEach(this::write);
+    }
+
+    private void write(List<Tag> tags, List<Pending> metrics) {
+        final int documents =
+                metrics.stream()
+                        .mapToInt(p -> (p.values().size() - 1) / MAX_VALUES_PER_METRIC + 1)
+                        .max()
+                        .orElse(0);
+        for (int d = 0; d < documents; d++) {
+            final int from = d * MAX_VALUES_PER_METRIC;
+            final List<Map<String, String>> definitions = new ArrayList<>();
+            final Map<String, Object> document = new LinkedHashMap<>();
+            document.put("_aws", null);
+            for (final Tag tag : tags) {
+                document.put(tag.getKey(), tag.getValue());
+            }
+            for (final Pending metric : metrics) {
+                if (from >= metric.values().size()) {
+                    continue;
+                }
+                final List<Double> chunk =
+                        metric.values()
+                                .subList(
+                                        from,
+                                        Math.min(
+                                                from + MAX_VALUES_PER_METRIC,
+                                                metric.values().size()));
+                definitions.add(Map.of("Name", metric.name(), "Unit", metric.unit()));
+                document.put(metric.name(), chunk.size() == 1 ? chunk.get(0) : chunk);
+            }
+            document.put(
+                    "_aws",
+                    Map.of(
+                            "Timestamp",
+                            clock.wallTime(),
+                            "CloudWatchMetrics",
+                            List.of(
+                                    Map.of(
+                                            "Namespace",
+                                            namespace,
+                                            "Dimensions",
+                                            List.of(
+                                                    tags.stream()
+                                                            .map(Tag::getKey)
+                                                            .filter(
+                                                                    key ->
+                                                                            !propertyTags.contains(
+                                                                                    key))
+                                                            .toList()),
+                                            "Metrics",
+                                            definitions))));
+            try {
+                sink.accept(JSON.writeValueAsString(document));
+            } catch (JsonProcessingException e) {
+                log.warn("Failed to write EMF document: {}", e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    protected Timer newTimer(
+            Meter.Id id, DistributionStatisticConfig config, PauseDetector pauseDetector) {
+        return new EmfTimer(id, clock, pauseDetector);
+    }
+
+    @Override
+    protected DistributionSummary newDistributionSummary(
+            Meter.Id id, DistributionStatisticConfig config, double scale) {
+        return new EmfDistributionSummary(id, clock, scale);
+    }
+
+    @Override
+    protected Counter newCounter(Meter.Id id) {
+        return new EmfCounter(id);
+    }
+
+    @Override
+    protected <T> Gauge newGauge(Meter.Id id, T obj, ToDoubleFunction<T> valueFunction) {
+        return new NoopGauge(id);
+    }
+
+    @Override
+    protected Meter newMeter(Meter.Id id, Meter.Type type, Iterable<Measurement> measurements) {
+        return new NoopMeter(id);
+    }
+
+    @Override
+    protected <T> FunctionTimer newFunctionTimer(
+            Meter.Id id,
+            T obj,
+            ToLongFunction<T> countFunction,
+            ToDoubleFunction<T> totalTimeFunction,
+            TimeUnit totalTimeFunctionUnit) {
+        return new NoopFunctionTimer(id);
+    }
+
+    @Override
+    protected <T> FunctionCounter newFunctionCounter(
+            Meter.Id id, T obj, ToDoubleFunction<T> countFunction) {
+        return new NoopFunctionCounter(id);
+    }
+
+    @Override
+    protected LongTaskTimer newLongTaskTimer(Meter.Id id, DistributionStatisticConfig config) {
+        return new NoopLongTaskTimer(id);
+    }
+
+    @Override
+    protected TimeUnit getBaseTimeUnit() {
+        return TimeUnit.MILLISECONDS;
+    }
+
+    @Override
+    protected DistributionStatisticConfig defaultHistogramConfig() {
+        return DistributionStatisticConfig.NONE;
+    }
+
+    private record Pending(String name, String unit, List<Double> values) {}
+
+    /** A meter whose recordings since the last flush can be drained. */
+    private interface Buffered {
+
+        List<Double> drain();
+
+        /** CloudWatch unit of the drained values. */
+        String unit();
+    }
+
+    /** Values recorded since the last drain. */
+    private static final class Buffer {
+
+        private List<Double> values = new ArrayList<>();
+
+        synchronized void add(double value) {
+            values.add(value);
+        }
+
+        synchronized List<Double> drain() {
+            final List<Double> drained = values;
+            values = new ArrayList<>();
+            return drained;
+        }
+    }
+
+    private static final class EmfTimer extends AbstractTimer implements Buffered {
+
+        private final Buffer buffer = new Buffer();
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private volatile long maxNanos;
+
+        EmfTimer(Meter.Id id, Clock clock, PauseDetector pauseDetector) {
+            super(
+                    id,
+                    clock,
+                    DistributionStatisticConfig.NONE,
+                    pauseDetector,
+                    TimeUnit.MILLISECONDS,
+                    false);
+        }
+
+        @Override
+        protected void recordNonNegative(long amount, TimeUnit unit) {
+            final long nanos = unit.toNanos(amount);
+            buffer.add(nanos / 1_000_000.0);
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos = Math.max(maxNanos, nanos);
+        }
+
+        @Override
+        public long count() {
+            return count.sum();
+        }
+
+        @Override
+        public double totalTime(TimeUnit unit) {
+            return (double) totalNanos.sum() / unit.toNanos(1);
+        }
+
+        @Override
+        public double max(TimeUnit unit) {
+            return (double) maxNanos / unit.toNanos(1);
+        }
+
+        @Override
+        public List<Double> drain() {
+            return buffer.drain();
+        }
+
+        @Override
+        public String unit() {
+            return "Milliseconds";
+        }
+    }
+
+    private static final class EmfDistributionSummary extends AbstractDistributionSummary
+            implements Buffered {
+
+        private final Buffer buffer = new Buffer();
+        private final LongAdder count = new LongAdder();
+        private final DoubleAdder total = new DoubleAdder();
+        private volatile double max;
+
+        EmfDistributionSummary(Meter.Id id, Clock clock, double scale) {
+            super(id, clock, DistributionStatisticConfig.NONE, scale, false);
+        }
+
+        @Override
+        protected void recordNonNegative(double amount) {
+            buffer.add(amount);
+            count.increment();
+            total.add(amount);
+            max = Math.max(max, amount);
+        }
+
+        @Override
+        public long count() {
+            return count.sum();
+        }
+
+        @Override
+        public double totalAmount() {
+            return total.sum();
+        }
+
+        @Override
+        public double max() {
+            return max;
+        }
+
+        @Override
+        public List<Double> drain() {
+            return buffer.drain();
+        }
+
+        @Override
+        public String unit() {
+            return "Count";
+        }
+    }
+
+    private static final class EmfCounter extends AbstractMeter implements Counter, Buffered {
+
+        private final DoubleAdder total = new DoubleAdder();
+        private final DoubleAdder pending = new DoubleAdder();
+
+        EmfCounter(Meter.Id id) {
+            super(id);
+        }
+
+        @Override
+        public void increment(double amount) {
+            total.add(amount);
+            pending.add(amount);
+        }
+
+        @Override
+        public double count() {
+            return total.sum();
+        }
+
+        @Override
+        public List<Double> drain() {
+            final double sum = pending.sumThenReset();
+            return sum == 0 ? List.of() : List.of(sum);
+        }
+
+        @Override
+        public String unit() {
+            return "Count";
+        }
+    }
+}
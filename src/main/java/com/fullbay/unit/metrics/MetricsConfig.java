@@ -0,0 +1,112 @@
+package com.fullbay.unit.metrics;
+
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.quarkus.runtime.StartupEvent;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.inject.Produces;
+import jakarta.enterprise.inject.Typed;
+import jakarta.inject.Singleton;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Micrometer configuration. Prometheus serves every meter at /q/metrics; in Lambda the {@code
+ * unit.*} meters are also written as CloudWatch EMF log lines.
+ */
+@ApplicationScoped
+@Slf4j
+public class MetricsConfig {
+
+    /** Request budget: nothing worth distinguishing happens above the Lambda timeout. */
+    private static final Duration MAX_EXPECTED_LATENCY = Duration.ofSeconds(15);
+
+    @ConfigProperty(name = "metrics.emf.enabled")
+    Optional<Boolean> emfEnabled;
+
+    @ConfigProperty(name = "metrics.emf.namespace", defaultValue = "UnitService")
+    String emfNamespace;
+
+    @ConfigProperty(name = "metrics.capacity.max-customers", defaultValue = "1000")
+    int maxCustomers;
+
+    /**
+     * Publish histogram buckets for the application timers and summaries, so percentiles can be
+     * aggregated across instances.
+     */
+    @Produces
+    @Singleton
+    public MeterFilter unitDistributions() {
+        return new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(
+                    Meter.Id id, DistributionStatisticConfig config) {
+                if (!id.getName().startsWith("unit.")) {
+                    return config;
+                }
+                final DistributionStatisticConfig.Builder builder =
+                        DistributionStatisticConfig.builder().percentilesHistogram(true);
+                if (id.getType() == Meter.Type.TIMER) {
+                    builder.minimumExpectedValue((double) Duration.ofMillis(1).toNanos())
+                            .maximumExpectedValue((double) MAX_EXPECTED_LATENCY.toNanos());
+                } else {
+                    builder.minimumExpectedValue(1.0).maximumExpectedValue(10_000.0);
+                }
+                return builder.build().merge(config);
+            }
+        };
+    }
+
+    /**
+     * Bound the per-customer capacity counters: customers beyond the first {@code
+     * metrics.capacity.max-customers} seen are still logged, but get no meters.
+     */
+    @Produces
+    @Singleton
+    public MeterFilter customerCardinality() {
+        return MeterFilter.maximumAllowableTags(
+                UnitMetrics.CUSTOMER_CAPACITY, "customerId", maxCustomers, MeterFilter.deny());
+    }
+
+    /**
+     * EMF registry. Typed to its own class so it never competes with Quarkus's root registry for
+     * {@code MeterRegistry} injection points.
+     */
+    @Produces
+    @Singleton
+    @Typed(EmfMeterRegistry.class)
+    public EmfMeterRegistry emfMeterRegistry() {
+        return new EmfMeterRegistry(
+                emfNamespace, Set.of("customerId"), System.out::println, Clock.SYSTEM);
+    }
+
+    /**
+     * Attach the EMF registry to the root composite registry. Enabled by default when running in
+     * Lambda; {@code metrics.emf.enabled} overrides the detection.
+     */
+    void onStart(
+            @Observes StartupEvent event,
+            final MeterRegistry meterRegistry,
+            final EmfMeterRegistry emfMeterRegistry) {
+        final boolean enabled =
+                emfEnabled.orElseGet(() -> System.getenv("AWS_LAMBDA_FUNCTION_NAME") != null);
+        if (enabled && meterRegistry instanceof CompositeMeterRegistry composite) {
+            // MeterFilter beans are only applied to registries Quarkus creates itself
+            emfMeterRegistry.config().meterFilter(customerCardinality());
+            composite.add(emfMeterRegistry);
+        }
+        log.info("EMF metrics {} (namespace {})", enabled ? "enabled" : "disabled", emfNamespace);
+    }
+}
@@ -0,0 +1,30 @@
+package com.fullbay.unit.metrics;
+
+import io.quarkus.arc.Arc;
+import io.quarkus.arc.ArcContainer;
+import io.quarkus.arc.ClientProxy;
+
+/**
+ * Lookup of the current API request's request-scoped beans for code that runs outside CDI
+ * injection, such as SDK execution interceptors.
+ */
+final class RequestBeans {
+
+    private RequestBeans() {}
+
+    /**
+     * The current request's instance of a request-scoped bean. The instance is unwrapped from its
+     * client proxy, so a caller can keep it and use it from the SDK or Vert.x thread that completes
+     * an async call, where the request context is no longer active.
+     *
+     * @param type The bean class
+     * @return The contextual instance, or null outside a request (startup, tests)
+     */
+    static <T> T current(Class<T> type) {
+        final ArcContainer container = Arc.container();
+        if (container == null || !container.requestContext().isActive()) {
+            return null;
+        }
+        return ClientProxy.unwrap(container.instance(type).get());
+    }
+}
@@ -0,0 +1,54 @@
+package com.fullbay.unit.metrics;
+
+import jakarta.enterprise.context.RequestScoped;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/** DynamoDB capacity consumed while serving the current API request. */
+@RequestScoped
+public class RequestCapacity {
+
+    private final Map<String, double[]> byOperation = new TreeMap<>();
+    private double read;
+    private double write;
+    private int calls;
+
+    synchronized void add(String operation, double readUnits, double writeUnits) {
+        final double[] totals = byOperation.computeIfAbsent(operation, k -> new double[2]);
+        totals[0] += readUnits;
+        totals[1] += writeUnits;
+        read += readUnits;
+        write += writeUnits;
+        calls++;
+    }
+
+    public synchronized double read() {
+        return read;
+    }
+
+    public synchronized double write() {
+        return write;
+    }
+
+    public synchronized int calls() {
+        return calls;
+    }
+
+    /** E.g. {@code read=2.5, write=3.0, calls=4; GetItem=0.5/0.0, PutItem=0.0/3.0}. */
+    public synchronized String summary() {
+        final StringBuilder summary =
+                new StringBuilder("read=%s, write=%s, calls=%d".formatted(read, write, calls));
+        String separator = "; ";
+        for (final Map.Entry<String, double[]> entry : byOperation.entrySet()) {
+            summary.append(separator)
+                    .append(entry.getKey())
+                    .append('=')
+                    .append(entry.getValue()[0])
+                    .append('/')
+                    .append(entry.getValue()[1]);
+            separator = ", ";
+        }
+        return summary.toString();
+    }
+}
@@ -0,0 +1,73 @@
+package com.fullbay.unit.metrics;
+
+import jakarta.enterprise.context.RequestScoped;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Wall time and call counts per dependency for the current API request, reported in the {@code
+ * Server-Timing} header. Filled only when {@code metrics.server-timing.enabled} is set.
+ */
+@RequestScoped
+public class RequestTimings {
+
+    private final Map<String, long[]> byDependency = new LinkedHashMap<>();
+    private long start;
+
+    synchronized void start(long startNanos) {
+        start = startNanos;
+    }
+
+    synchronized void record(String dependency, long nanos) {
+        final long[] totals = byDependency.computeIfAbsent(dependency, k -> new long[2]);
+        totals[0] += nanos;
+        totals[1]++;
+    }
+
+    /** Total time recorded against a dependency, in nanoseconds. */
+    public synchronized long nanos(String dependency) {
+        final long[] totals = byDependency.get(dependency);
+        return totals != null ? totals[0] : 0;
+    }
+
+    /** Number of calls recorded against a dependency. */
+    public synchronized long calls(String dependency) {
+        final long[] totals = byDependency.get(dependency);
+        return totals != null ? totals[1] : 0;
+    }
+
+    /**
+     * E.g. {@code dynamodb;dur=12.4;desc="3 calls", nhtsa;dur=118.0;desc="1 call", json;dur=0.6,
+     * capacity;desc="read=1.5, write=0.0, calls=3", total;dur=140.2}.
+     */
+    synchronized String header(RequestCapacity capacity, long nowNanos) {
+        final StringBuilder header = new StringBuilder();
+        for (final Map.Entry<String, long[]> entry : byDependency.entrySet()) {
+            metric(header, entry.getKey(), entry.getValue()[0]);
+            if (!ServerTiming.JSON.equals(entry.getKey())) {
+                final long calls = entry.getValue()[1];
+                header.append(";desc=\"").append(calls).append(calls == 1 ? " call\"" : " calls\"");
+            }
+        }
+        if (capacity != null && capacity.calls() > 0) {
+            separator(header).append("capacity;desc=\"").append(capacity.summary()).append('"');
+        }
+        if (start > 0) {
+            metric(header, "total", nowNanos - start);
+        }
+        return header.toString();
+    }
+
+    private static void metric(StringBuilder header, String name, long nanos) {
+        separator(header)
+                .append(name)
+                .append(";dur=")
+                .append(String.format(Locale.ROOT, "%.1f", nanos / 1_000_000.0));
+    }
+
+    private static StringBuilder separator(StringBuilder header) {
+        return header.isEmpty() ? header : header.append(", ");
+    }
+}
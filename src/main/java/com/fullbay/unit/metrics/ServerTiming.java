@@ -0,0 +1,42 @@
+package com.fullbay.unit.metrics;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Opt-in per-request dependency timing. Recording points look up the current request's {@link
+ * RequestTimings} here, on the calling thread, and hold on to the returned instance until the call
+ * completes. The instance is the bean itself, not its client proxy, so completions on SDK or Vert.x
+ * threads, where the request context is no longer active, still record into the right request.
+ */
+@ApplicationScoped
+public class ServerTiming {
+
+    public static final String HEADER = "Server-Timing";
+
+    public static final String DYNAMODB = "dynamodb";
+    public static final String JSON = "json";
+
+    private final boolean enabled;
+
+    @Inject
+    public ServerTiming(
+            @ConfigProperty(name = "metrics.server-timing.enabled", defaultValue = "false")
+                    final boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean enabled() {
+        return enabled;
+    }
+
+    /** The current API request's collector, or null when disabled or outside a request. */
+    public RequestTimings current() {
+        if (!enabled) {
+            return null;
+        }
+        return RequestBeans.current(RequestTimings.class);
+    }
+}
@@ -0,0 +1,96 @@
+package com.fullbay.unit.metrics;
+
+import jakarta.annotation.Priority;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.Priorities;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.core.StreamingOutput;
+import jakarta.ws.rs.ext.Provider;
+import jakarta.ws.rs.ext.WriterInterceptor;
+import jakarta.ws.rs.ext.WriterInterceptorContext;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Emits the {@value ServerTiming#HEADER} header for {@link ServerTimed} resources: time per
+ * dependency, JSON encoding, consumed capacity and the request total. The body is encoded into a
+ * buffer first so that the encoding time can still go into a header; responses without a body get
+ * the header from the response filter instead. {@link StreamingOutput} bodies such as the export
+ * can be any size, so they are never buffered: their header is sent before the first byte and
+ * covers the time until then.
+ */
+@Provider
+@ServerTimed
+@Priority(Priorities.HEADER_DECORATOR)
+public class ServerTimingFilter
+        implements ContainerRequestFilter, ContainerResponseFilter, WriterInterceptor {
+
+    private final ServerTiming serverTiming;
+    private final RequestCapacity requestCapacity;
+
+    @Inject
+    public ServerTimingFilter(
+            final ServerTiming serverTiming, final RequestCapacity requestCapacity) {
+        this.serverTiming = serverTiming;
+        this.requestCapacity = requestCapacity;
+    }
+
+    @Override
+    public void filter(ContainerRequestContext requestContext) {
+        final RequestTimings timings = serverTiming.current();
+        if (timings != null) {
+            timings.start(System.nanoTime());
+        }
+    }
+
+    @Override
+    public void filter(
+            ContainerRequestContext requestContext, ContainerResponseContext responseContext) {
+        if (responseContext.hasEntity()) {
+            return;
+        }
+        final RequestTimings timings = serverTiming.current();
+        if (timings != null) {
+            responseContext
+                    .getHeaders()
+                    .putSingle(
+                            ServerTiming.HEADER,
+                            timings.header(requestCapacity, System.nanoTime()));
+        }
+    }
+
+    @Override
+    public void aroundWriteTo(WriterInterceptorContext context) throws IOException {
+        final RequestTimings timings = serverTiming.current();
+        if (timings == null) {
+            context.proceed();
+            return;
+        }
+        if (context.getEntity() instanceof StreamingOutput) {
+            context.getHeaders()
+                    .putSingle(
+                            ServerTiming.HEADER,
+                            timings.header(requestCapacity, System.nanoTime()));
+            context.proceed();
+            return;
+        }
+        final OutputStream original = context.getOutputStream();
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        context.setOutputStream(buffer);
+        final long start = System.nanoTime();
+        try {
+            context.proceed();
+        } finally {
+            context.setOutputStream(original);
+        }
+        final long end = System.nanoTime();
+        timings.record(ServerTiming.JSON, end - start);
+        context.getHeaders().putSingle(ServerTiming.HEADER, timings.header(requestCapacity, end));
+        buffer.writeTo(original);
+    }
+}
@@ -0,0 +1,61 @@
+package com.fullbay.unit.metrics;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttribute;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+
+/**
+ * Records the wall time of every DynamoDB call, retries included, against the API request that made
+ * it. Failed calls count too; a slow throttled request is exactly what the header is for.
+ */
+@ApplicationScoped
+public class ServerTimingInterceptor implements ExecutionInterceptor {
+
+    private static final ExecutionAttribute<RequestTimings> TIMINGS =
+            new ExecutionAttribute<>("ServerTiming.timings");
+    private static final ExecutionAttribute<Long> START =
+            new ExecutionAttribute<>("ServerTiming.start");
+
+    private final ServerTiming serverTiming;
+
+    @Inject
+    public ServerTimingInterceptor(final ServerTiming serverTiming) {
+        this.serverTiming = serverTiming;
+    }
+
+    @Override
+    public void beforeExecution(
+            Context.BeforeExecution context, ExecutionAttributes executionAttributes) {
+        // Resolved here, on the calling thread; async calls complete where the request context is
+        // gone
+        final RequestTimings timings = serverTiming.current();
+        if (timings != null) {
+            executionAttributes.putAttribute(TIMINGS, timings);
+            executionAttributes.putAttribute(START, System.nanoTime());
+        }
+    }
+
+    @Override
+    public void afterExecution(
+            Context.AfterExecution context, ExecutionAttributes executionAttributes) {
+        record(executionAttributes);
+    }
+
+    @Override
+    public void onExecutionFailure(
+            Context.FailedExecution context, ExecutionAttributes executionAttributes) {
+        record(executionAttributes);
+    }
+
+    private static void record(ExecutionAttributes executionAttributes) {
+        final RequestTimings timings = executionAttributes.getAttribute(TIMINGS);
+        final Long start = executionAttributes.getAttribute(START);
+        if (timings != null && start != null) {
+            timings.record(ServerTiming.DYNAMODB, System.nanoTime() - start);
+        }
+    }
+}
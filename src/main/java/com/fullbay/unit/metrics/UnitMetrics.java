@@ -0,0 +1,167 @@
+package com.fullbay.unit.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Application meters that annotations cannot express: downstream client calls, N+1 fan-out,
+ * DynamoDB batch sizes and consumed capacity. Resource and repository timings come from
+ * {@code @Timed} on those classes.
+ */
+@ApplicationScoped
+public class UnitMetrics {
+
+    /** Timer per UnitResource/CustomerResource operation. */
+    public static final String RESOURCE_REQUESTS = "unit.resource.requests";
+
+    /** Timer per repository method. */
+    public static final String REPOSITORY_CALLS = "unit.repository.calls";
+
+    /** Timer per NHTSA and parts-service call. */
+    public static final String CLIENT_REQUESTS = "unit.client.requests";
+
+    /** Number of per-item lookups one request fans out to. */
+    public static final String FANOUT_SIZE = "unit.fanout.size";
+
+    /** Keys or writes per DynamoDB batch request. */
+    public static final String BATCH_SIZE = "unit.batch.size";
+
+    /** DynamoDB capacity units consumed, per operation and table or index. */
+    public static final String DYNAMODB_CAPACITY = "unit.dynamodb.capacity";
+
+    /** DynamoDB capacity units consumed by one API request, per endpoint. */
+    public static final String REQUEST_CAPACITY = "unit.dynamodb.request.capacity";
+
+    /** DynamoDB capacity units consumed on behalf of each customer. */
+    public static final String CUSTOMER_CAPACITY = "unit.dynamodb.customer.capacity";
+
+    private final MeterRegistry registry;
+
+    @Inject
+    public UnitMetrics(final MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Record one downstream REST client call.
+     *
+     * @param client The REST client config key (nhtsa, parts-service)
+     * @param operation The client interface method
+     * @param status HTTP status, or 0 if no response was received
+     * @param nanos Call duration
+     */
+    public void clientCall(String client, String operation, int status, long nanos) {
+        Timer.builder(CLIENT_REQUESTS)
+                .tag("client", client)
+                .tag("operation", operation)
+                .tag("outcome", outcome(status))
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Record how many items one call fans out to (units enriched, vehicles looked up).
+     *
+     * @param operation The fanning-out operation
+     * @param size Number of items
+     */
+    public void fanOut(String operation, int size) {
+        DistributionSummary.builder(FANOUT_SIZE)
+                .tag("operation", operation)
+                .register(registry)
+                .record(size);
+    }
+
+    /**
+     * Record the size of one DynamoDB batch request.
+     *
+     * @param repository The repository issuing the batch
+     * @param operation BatchGetItem or BatchWriteItem
+     * @param size Keys or write requests in the batch
+     */
+    public void batch(String repository, String operation, int size) {
+        DistributionSummary.builder(BATCH_SIZE)
+                .tag("repository", repository)
+                .tag("operation", operation)
+                .register(registry)
+                .record(size);
+    }
+
+    /**
+     * Record capacity consumed by one DynamoDB call on one table or index.
+     *
+     * @param operation The DynamoDB operation (GetItem, Query, ...)
+     * @param resource "table" or "index:&lt;name&gt;"
+     * @param read Read capacity units
+     * @param write Write capacity units
+     */
+    public void capacity(String operation, String resource, double read, double write) {
+        increment(
+                Counter.builder(DYNAMODB_CAPACITY)
+                        .tag("operation", operation)
+                        .tag("resource", resource),
+                read,
+                write);
+    }
+
+    /**
+     * Record the capacity consumed by one API request.
+     *
+     * @param endpoint The resource method that served the request
+     * @param read Read capacity units
+     * @param write Write capacity units
+     */
+    public void requestCapacity(String endpoint, double read, double write) {
+        DistributionSummary.builder(REQUEST_CAPACITY)
+                .tag("endpoint", endpoint)
+                .tag("type", "read")
+                .register(registry)
+                .record(read);
+        DistributionSummary.builder(REQUEST_CAPACITY)
+                .tag("endpoint", endpoint)
+                .tag("type", "write")
+                .register(registry)
+                .record(write);
+    }
+
+    /**
+     * Attribute consumed capacity to a customer. The number of distinct customers tracked is capped
+     * by {@code metrics.capacity.max-customers}.
+     *
+     * @param customerId The customer the request acted for
+     * @param read Read capacity units
+     * @param write Write capacity units
+     */
+    public void customerCapacity(String customerId, double read, double write) {
+        increment(Counter.builder(CUSTOMER_CAPACITY).tag("customerId", customerId), read, write);
+    }
+
+    private void increment(Counter.Builder builder, double read, double write) {
+        if (read > 0) {
+            builder.tag("type", "read").register(registry).increment(read);
+        }
+        if (write > 0) {
+            builder.tag("type", "write").register(registry).increment(write);
+        }
+    }
+
+    private static String outcome(int status) {
+        if (status == 0) {
+            return "NO_RESPONSE";
+        }
+        if (status >= 500) {
+            return "SERVER_ERROR";
+        }
+        if (status >= 400) {
+            return "CLIENT_ERROR";
+        }
+        return "SUCCESS";
+    }
+}
@@ -0,0 +1,21 @@
+package com.fullbay.unit.model.dto;
+
+import lombok.Builder;
+import lombok.Value;
+
+/** Attribute filters for customer fleet search. All filters are optional. Immutable. */
+@Value
+@Builder
+public class UnitSearchCriteria {
+
+    String customerId;
+
+    // Inclusive model year range
+    Integer yearFrom;
+    Integer yearTo;
+
+    String make;
+    String model;
+    String fuelType;
+    String bodyClass;
+}
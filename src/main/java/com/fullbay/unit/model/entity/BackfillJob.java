@@ -0,0 +1,51 @@
+package com.fullbay.unit.model.entity;
+
+import lombok.Builder;
+import lombok.Value;
+import lombok.experimental.Accessors;
+import lombok.extern.jackson.Jacksonized;
+
+import java.time.Instant;
+
+/**
+ * Progress of a vehicle backfill: a parallel Scan of VIN# items in {@code segments} segments, each
+ * checkpointed on its own. Counters are summed over the segments. {@code scanned} counts every item
+ * the Scan read, {@code vehicles} the VIN# items among them; {@code updated} vehicles were written
+ * back, the rest were unchanged or {@code failed}.
+ */
+@Builder
+@Value
+@Accessors(fluent = true)
+@Jacksonized
+public class BackfillJob {
+
+    /** What a backfill re-runs for each vehicle. */
+    public enum Mode {
+        /** VCDB resolution for vehicles missing baseVehicleId, makeId or modelId. */
+        VCDB,
+        /** A fresh NHTSA decode through the current mapper, then VCDB resolution. */
+        REMAP
+    }
+
+    /** Where a backfill stands, derived from its segments. */
+    public enum Status {
+        /** No segment is leased and at least one is unfinished. */
+        PENDING,
+        /** A runner holds at least one segment's lease. */
+        RUNNING,
+        /** Every segment reached the end of its scan. */
+        COMPLETED
+    }
+
+    String jobId;
+    Mode mode;
+    Status status;
+    Integer segments;
+    Integer segmentsDone;
+    Long scanned;
+    Long vehicles;
+    Long updated;
+    Long failed;
+    Instant createdAt;
+    Instant updatedAt;
+}
@@ -0,0 +1,30 @@
+package com.fullbay.unit.model.entity;
+
+import lombok.Builder;
+import lombok.Value;
+import lombok.experimental.Accessors;
+import lombok.extern.jackson.Jacksonized;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Per-customer fleet counts by make, year, fuel type and vehicle type. Stored as a single AGG# item
+ * whose counters are maintained incrementally on unit writes.
+ */
+@Builder
+@Value
+@Accessors(fluent = true)
+@Jacksonized
+public class FleetSummary {
+
+    String customerId;
+    long total;
+
+    Map<String, Long> byMake;
+    Map<String, Long> byYear;
+    Map<String, Long> byFuelType;
+    Map<String, Long> byVehicleType;
+
+    Instant updatedAt;
+}
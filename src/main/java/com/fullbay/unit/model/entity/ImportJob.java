@@ -0,0 +1,40 @@
+package com.fullbay.unit.model.entity;
+
+import lombok.Builder;
+import lombok.Value;
+import lombok.experimental.Accessors;
+import lombok.extern.jackson.Jacksonized;
+
+import java.time.Instant;
+
+/**
+ * Progress of a fleet import. The uploaded VINs are deduplicated and stored in chunks; {@code
+ * nextChunk} is the checkpoint a resumed job continues from. {@code skipped} counts VINs repeated
+ * in the file or already in the customer's fleet, {@code failed} counts rows listed as errors.
+ */
+@Builder
+@Value
+@Accessors(fluent = true)
+@Jacksonized
+public class ImportJob {
+
+    /** Lifecycle of a job. */
+    public enum Status {
+        PENDING,
+        RUNNING,
+        COMPLETED
+    }
+
+    String jobId;
+    String customerId;
+    Status status;
+    Integer totalRows;
+    Integer vinCount;
+    Integer chunkCount;
+    Integer nextChunk;
+    Integer created;
+    Integer skipped;
+    Integer failed;
+    Instant createdAt;
+    Instant updatedAt;
+}
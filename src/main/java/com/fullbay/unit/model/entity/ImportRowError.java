@@ -0,0 +1,19 @@
+package com.fullbay.unit.model.entity;
+
+import lombok.Builder;
+import lombok.Value;
+import lombok.experimental.Accessors;
+import lombok.extern.jackson.Jacksonized;
+
+/** A row of an import file that did not produce a unit. {@code line} is 1-based. */
+@Builder
+@Value
+@Accessors(fluent = true)
+@Jacksonized
+public class ImportRowError {
+
+    int line;
+    String vin;
+    String code;
+    String message;
+}
@@ -1,5 +1,7 @@
 package com.fullbay.unit.model.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import lombok.Builder;
 import lombok.Value;
 import lombok.experimental.Accessors;
@@ -208,4 +210,10 @@ public class Unit {
     // Timestamps
     Instant createdAt;
     Instant updatedAt;
+
+    // Optimistic Concurrency (incremented on every write of the UNT# item)
+    Long version;
+
+    // Vehicle values counted and indexed under; kept on the UNT# item, not in API responses
+    @JsonIgnore VehicleDimensions dimensions;
 }
@@ -0,0 +1,34 @@
+package com.fullbay.unit.model.entity;
+
+import lombok.Builder;
+import lombok.Value;
+import lombok.experimental.Accessors;
+import lombok.extern.jackson.Jacksonized;
+
+import java.time.Instant;
+
+/**
+ * Compact record of a unit write, appended to the outbox in the same transaction as the write and
+ * shipped to downstream consumers by the outbox relay. {@code version} is the unit's version after
+ * the write; a delete carries the deleted version plus one.
+ */
+@Builder
+@Value
+@Accessors(fluent = true)
+@Jacksonized
+public class UnitChangeEvent {
+
+    /** Kind of write. */
+    public enum Op {
+        CREATE,
+        UPDATE,
+        DELETE
+    }
+
+    String unitId;
+    String customerId;
+    String vin;
+    Long version;
+    Op op;
+    Instant occurredAt;
+}
@@ -0,0 +1,45 @@
+package com.fullbay.unit.model.entity;
+
+import lombok.Builder;
+import lombok.Value;
+import lombok.experimental.Accessors;
+import lombok.extern.jackson.Jacksonized;
+
+/**
+ * The vehicle values a unit was last counted under in its customer's fleet summary and indexed
+ * under for search. Stored on the UNT# item, so a later update or delete takes back exactly the
+ * counts and IDX# items it added, even after the VIN# item has been re-decoded.
+ */
+@Builder
+@Value
+@Accessors(fluent = true)
+@Jacksonized
+public class VehicleDimensions {
+
+    String make;
+    String model;
+    Integer year;
+    String fuelType;
+    String vehicleType;
+    String bodyClass;
+
+    /**
+     * Dimensions of the given vehicle data.
+     *
+     * @param vehicle The vehicle data, or null if unknown
+     * @return The dimensions; all null when the vehicle is unknown
+     */
+    public static VehicleDimensions of(Vehicle vehicle) {
+        if (vehicle == null) {
+            return VehicleDimensions.builder().build();
+        }
+        return VehicleDimensions.builder()
+                .make(vehicle.make())
+                .model(vehicle.model())
+                .year(vehicle.year())
+                .fuelType(vehicle.fuelType())
+                .vehicleType(vehicle.vehicleType())
+                .bodyClass(vehicle.bodyClass())
+                .build();
+    }
+}
@@ -0,0 +1,15 @@
+package com.fullbay.unit.model.response;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+
+/** One page of results with an opaque cursor for the next page (null on the last page). */
+@Value
+@Builder
+public class PageResult<T> {
+
+    List<T> items;
+    String nextCursor;
+}
@@ -0,0 +1,25 @@
+package com.fullbay.unit.model.response;
+
+import com.fullbay.unit.model.entity.Unit;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * One page of a customer's unit changes for delta sync. {@code syncedTo} is set on the last page
+ * only and is the {@code since} to send next time. When {@code reset} is set the pages hold the
+ * whole fleet and no deletions, and the client should replace its copy rather than merge.
+ */
+@Value
+@Builder
+public class UnitChanges {
+
+    List<Unit> items;
+    List<String> deleted;
+    String nextCursor;
+    Instant syncedTo;
+    boolean reset;
+}
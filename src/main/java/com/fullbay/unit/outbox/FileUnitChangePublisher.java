@@ -0,0 +1,51 @@
+package com.fullbay.unit.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fullbay.unit.model.entity.UnitChangeEvent;
+
+import lombok.SneakyThrows;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stand-in publisher that appends events to a local file as newline-delimited JSON, one event per
+ * line, so a consumer can tail it. Thread-safe. Not durable under Lambda, where the only writable
+ * disk is an instance's own {@code /tmp} and goes away with it.
+ */
+public class FileUnitChangePublisher implements UnitChangePublisher {
+
+    private final Path path;
+    private final ObjectMapper objectMapper;
+    private final boolean durable;
+
+    public FileUnitChangePublisher(Path path, ObjectMapper objectMapper, boolean durable) {
+        this.path = path;
+        this.objectMapper = objectMapper;
+        this.durable = durable;
+    }
+
+    @Override
+    @SneakyThrows
+    public synchronized void publish(List<UnitChangeEvent> events) {
+        final List<String> lines = new ArrayList<>(events.size());
+        for (final UnitChangeEvent event : events) {
+            lines.add(objectMapper.writeValueAsString(event));
+        }
+        Files.write(
+                path,
+                lines,
+                StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND);
+    }
+
+    @Override
+    public boolean durable() {
+        return durable;
+    }
+}
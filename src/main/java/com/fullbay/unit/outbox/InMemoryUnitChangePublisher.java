@@ -0,0 +1,41 @@
+package com.fullbay.unit.outbox;
+
+import com.fullbay.unit.model.entity.UnitChangeEvent;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Stand-in publisher that keeps the most recent events in memory, for local runs and tests. Oldest
+ * events are dropped once {@code capacity} is reached. Thread-safe.
+ */
+public class InMemoryUnitChangePublisher implements UnitChangePublisher {
+
+    private final int capacity;
+    private final Deque<UnitChangeEvent> events = new ArrayDeque<>();
+
+    public InMemoryUnitChangePublisher(int capacity) {
+        this.capacity = capacity;
+    }
+
+    @Override
+    public synchronized void publish(List<UnitChangeEvent> batch) {
+        for (final UnitChangeEvent event : batch) {
+            if (events.size() == capacity) {
+                events.removeFirst();
+            }
+            events.addLast(event);
+        }
+    }
+
+    @Override
+    public boolean durable() {
+        return false;
+    }
+
+    /** Events published so far, oldest first. */
+    public synchronized List<UnitChangeEvent> events() {
+        return List.copyOf(events);
+    }
+}
@@ -0,0 +1,53 @@
+package com.fullbay.unit.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Produces;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.nio.file.Path;
+
+/** Produces the {@link UnitChangePublisher} selected by {@code outbox.publisher}. */
+@ApplicationScoped
+@Slf4j
+public class OutboxConfig {
+
+    /** Supported publishers. */
+    public enum Publisher {
+        MEMORY,
+        FILE
+    }
+
+    @ConfigProperty(name = "outbox.publisher", defaultValue = "memory")
+    Publisher publisher;
+
+    @ConfigProperty(name = "outbox.memory.capacity", defaultValue = "10000")
+    int memoryCapacity;
+
+    @ConfigProperty(name = "outbox.file.path", defaultValue = "unit-changes.ndjson")
+    Path filePath;
+
+    /**
+     * Produces the change-event publisher.
+     *
+     * @param objectMapper Application JSON mapper
+     * @return The configured publisher
+     */
+    @Produces
+    @ApplicationScoped
+    public UnitChangePublisher unitChangePublisher(final ObjectMapper objectMapper) {
+        log.info("Outbox publisher: {}", publisher);
+        return switch (publisher) {
+            case MEMORY -> new InMemoryUnitChangePublisher(memoryCapacity);
+            case FILE ->
+                    new FileUnitChangePublisher(
+                            filePath,
+                            objectMapper,
+                            System.getenv("AWS_LAMBDA_FUNCTION_NAME") == null);
+        };
+    }
+}
@@ -0,0 +1,130 @@
+package com.fullbay.unit.outbox;
+
+import com.fullbay.unit.model.entity.UnitChangeEvent;
+import com.fullbay.unit.repository.OutboxRepository;
+
+import io.quarkus.runtime.LaunchMode;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves change events from the outbox to the {@link UnitChangePublisher}: each shard is read oldest
+ * first, published in batches of {@code outbox.relay.batch-size}, and removed once published. When
+ * {@code outbox.relay.enabled} is set (container mode) a single background thread drains every
+ * {@code outbox.relay.interval}; in Lambda, where the process is frozen between invocations, events
+ * wait for a relay elsewhere or expire after {@code outbox.retention}.
+ */
+@ApplicationScoped
+@Slf4j
+public class OutboxRelay {
+
+    private final OutboxRepository outboxRepository;
+    private final UnitChangePublisher publisher;
+    private final int batchSize;
+    private final boolean enabled;
+    private final Duration interval;
+
+    private ScheduledExecutorService executor;
+
+    @Inject
+    public OutboxRelay(
+            final OutboxRepository outboxRepository,
+            final UnitChangePublisher publisher,
+            @ConfigProperty(name = "outbox.relay.batch-size", defaultValue = "25")
+                    final int batchSize,
+            @ConfigProperty(name = "outbox.relay.enabled", defaultValue = "false")
+                    final boolean enabled,
+            @ConfigProperty(name = "outbox.relay.interval", defaultValue = "1s")
+                    final Duration interval) {
+        this.outboxRepository = outboxRepository;
+        this.publisher = publisher;
+        this.batchSize = batchSize;
+        this.enabled = enabled;
+        this.interval = interval;
+    }
+
+    /**
+     * Publish and remove every pending event.
+     *
+     * @return Number of events published
+     */
+    public int drain() {
+        int published = 0;
+        for (int shard = 0; shard < outboxRepository.shards(); shard++) {
+            List<UnitChangeEvent> batch = outboxRepository.findPending(shard, batchSize);
+            while (!batch.isEmpty()) {
+                publisher.publish(batch);
+                outboxRepository.delete(batch);
+                published += batch.size();
+                batch = outboxRepository.findPending(shard, batchSize);
+            }
+        }
+        if (published > 0) {
+            log.debug("Relayed {} change events", published);
+        }
+        return published;
+    }
+
+    /**
+     * Whether draining keeps events: the publisher is durable, or this is a dev or test run where
+     * the memory publisher is expected.
+     *
+     * @return true if {@link #drain()} may run
+     */
+    public boolean canDrain() {
+        return publisher.durable() || LaunchMode.current().isDevOrTest();
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        if (!enabled) {
+            return;
+        }
+        if (!canDrain()) {
+            throw new IllegalStateException(
+                    "outbox.relay.enabled needs a durable outbox.publisher (e.g. file outside"
+                            + " Lambda); the memory publisher would drop every relayed event");
+        }
+        executor =
+                Executors.newSingleThreadScheduledExecutor(
+                        r -> {
+                            final Thread thread = new Thread(r, "outbox-relay");
+                            thread.setDaemon(true);
+                            return thread;
+                        });
+        executor.scheduleWithFixedDelay(
+                this::drainQuietly,
+                interval.toMillis(),
+                interval.toMillis(),
+                TimeUnit.MILLISECONDS);
+        log.info("Outbox relay started (every {})", interval);
+    }
+
+    void onStop(@Observes ShutdownEvent event) {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    /** A failed drain leaves its batch in the outbox; the next run retries it. */
+    private void drainQuietly() {
+        try {
+            drain();
+        } catch (RuntimeException e) {
+            log.warn("Outbox relay failed, retrying next run: {}", e.getMessage());
+        }
+    }
+}
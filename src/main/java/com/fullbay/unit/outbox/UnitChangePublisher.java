@@ -0,0 +1,31 @@
+package com.fullbay.unit.outbox;
+
+import com.fullbay.unit.model.entity.UnitChangeEvent;
+
+import java.util.List;
+
+/**
+ * Ships batches of unit change events to downstream consumers. Delivery is at least once: the
+ * {@link OutboxRelay} publishes a batch before removing it from the outbox, so a batch can be
+ * published again after a failure. Consumers dedupe on unitId and version.
+ */
+public interface UnitChangePublisher {
+
+    /**
+     * Publish a batch of events, in outbox order. Throwing leaves the batch in the outbox for the
+     * next drain.
+     *
+     * @param events The events, oldest first
+     */
+    void publish(List<UnitChangeEvent> events);
+
+    /**
+     * Whether published events outlive this process. The relay deletes what it publishes, so a
+     * publisher that is not durable loses those events for good.
+     *
+     * @return true unless the publisher only keeps events in memory
+     */
+    default boolean durable() {
+        return true;
+    }
+}
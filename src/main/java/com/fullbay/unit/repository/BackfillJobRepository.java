@@ -0,0 +1,384 @@
+package com.fullbay.unit.repository;
+
+import com.fullbay.unit.metrics.UnitMetrics;
+import com.fullbay.unit.model.entity.BackfillJob;
+import com.fullbay.unit.tracing.Span;
+import com.fullbay.unit.tracing.TraceAttributes;
+import com.fullbay.unit.tracing.Tracing;
+
+import io.micrometer.core.annotation.Timed;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+import software.amazon.awssdk.services.dynamodb.model.ReturnValue;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemResponse;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Repository for vehicle backfill jobs, all under PK = "BKF#&lt;jobId&gt;": the job item (SK = PK)
+ * with the mode and segment count, and one item per scan segment (SK = "SEG#&lt;index&gt;") with
+ * its checkpoint, counters and lease, so segments are claimed and resumed independently. No
+ * top-level customerId/vin/updatedAt attributes, so job items stay out of every GSI. Every item
+ * expires after {@code backfill.retention}.
+ */
+@ApplicationScoped
+@Slf4j
+@Timed(UnitMetrics.REPOSITORY_CALLS)
+public class BackfillJobRepository {
+
+    private static final String PK_PREFIX = "BKF#";
+    private static final String SEGMENT_PREFIX = "SEG#";
+
+    /**
+     * One scan segment. {@code startKey} is where the next page starts, null before the first page
+     * and once the segment is done.
+     */
+    public record Segment(int index, Map<String, AttributeValue> startKey, boolean done) {}
+
+    private final DynamoDbClient dynamoDbClient;
+    private final Duration retention;
+    private final String tableName;
+
+    @Inject
+    public BackfillJobRepository(
+            final DynamoDbClient dynamoDbClient,
+            @ConfigProperty(name = "backfill.retention", defaultValue = "720h")
+                    final Duration retention,
+            @ConfigProperty(name = "dynamodb.table.name", defaultValue = "g-unit-service")
+                    final String tableName) {
+        this.dynamoDbClient = dynamoDbClient;
+        this.retention = retention;
+        this.tableName = tableName;
+    }
+
+    /**
+     * Create the job item and its segment items.
+     *
+     * @param jobId The job ID
+     * @param mode What the job re-runs
+     * @param segments Number of scan segments
+     * @param createdAt Creation time
+     */
+    @SneakyThrows
+    public void create(String jobId, BackfillJob.Mode mode, int segments, Instant createdAt) {
+        try (Span span = Tracing.startSpan("backfill-job-repository-create")) {
+            span.attribute(TraceAttributes.JOB_ID, jobId);
+
+            final AttributeValue expiresAt = number(createdAt.plus(retention).getEpochSecond());
+            for (int i = 0; i < segments; i++) {
+                final Map<String, AttributeValue> item = new HashMap<>();
+                item.put("PK", string(PK_PREFIX + jobId));
+                item.put("SK", string(segmentSk(i)));
+                item.put("done", AttributeValue.builder().bool(false).build());
+                item.put("changedAt", string(createdAt.toString()));
+                item.put("expiresAt", expiresAt);
+                dynamoDbClient.putItem(req -> req.tableName(tableName).item(item));
+            }
+
+            final Map<String, AttributeValue> item = new HashMap<>(key(jobId));
+            item.put("mode", string(mode.name()));
+            item.put("segments", number(segments));
+            item.put("createdAt", string(createdAt.toString()));
+            item.put("expiresAt", expiresAt);
+            dynamoDbClient.putItem(
+                    req ->
+                            req.tableName(tableName)
+                                    .item(item)
+                                    .conditionExpression("attribute_not_exists(PK)"));
+            log.debug("Created backfill job {} with {} segments", jobId, segments);
+        }
+    }
+
+    /**
+     * Find a job by ID, with counters summed over its segments.
+     *
+     * @param jobId The job ID
+     * @return The job, or empty
+     */
+    @SneakyThrows
+    public Optional<BackfillJob> findById(String jobId) {
+        try (Span span = Tracing.startSpan("backfill-job-repository-findById")) {
+            span.attribute(TraceAttributes.JOB_ID, jobId);
+
+            final List<Map<String, AttributeValue>> items = findItems(jobId);
+            Map<String, AttributeValue> job = null;
+            final List<Map<String, AttributeValue>> segments = new ArrayList<>();
+            for (final Map<String, AttributeValue> item : items) {
+                if (item.get("SK").s().startsWith(SEGMENT_PREFIX)) {
+                    segments.add(item);
+                } else {
+                    job = item;
+                }
+            }
+            return job != null ? Optional.of(toJob(jobId, job, segments)) : Optional.empty();
+        }
+    }
+
+    /**
+     * Segments not yet done.
+     *
+     * @param jobId The job ID
+     * @return The open segments
+     */
+    @SneakyThrows
+    public List<Segment> findOpenSegments(String jobId) {
+        try (Span span = Tracing.startSpan("backfill-job-repository-findOpenSegments")) {
+            span.attribute(TraceAttributes.JOB_ID, jobId);
+
+            final List<Segment> segments = new ArrayList<>();
+            for (final Map<String, AttributeValue> item : findItems(jobId)) {
+                final String sk = item.get("SK").s();
+                if (sk.startsWith(SEGMENT_PREFIX) && !item.get("done").bool()) {
+                    segments.add(toSegment(item));
+                }
+            }
+            return segments;
+        }
+    }
+
+    /**
+     * Take a segment for processing, unless it is done or another runner holds an unexpired lease.
+     *
+     * @param jobId The job ID
+     * @param index The segment
+     * @param owner Token identifying this runner
+     * @param leaseUntil When the lease lapses unless renewed
+     * @return The segment as claimed, or empty if it cannot be taken
+     */
+    @SneakyThrows
+    public Optional<Segment> claim(String jobId, int index, String owner, Instant leaseUntil) {
+        try (Span span = Tracing.startSpan("backfill-job-repository-claim")) {
+            span.attribute(TraceAttributes.JOB_ID, jobId);
+            span.attribute(TraceAttributes.SEGMENT, index);
+
+            final Instant now = Instant.now();
+            try {
+                final UpdateItemResponse response =
+                        dynamoDbClient.updateItem(
+                                req ->
+                                        req.tableName(tableName)
+                                                .key(segmentKey(jobId, index))
+                                                .updateExpression(
+                                                        "SET leaseOwner = :owner, leaseUntil ="
+                                                                + " :until, changedAt = :now")
+                                                .conditionExpression(
+                                                        "attribute_exists(PK) AND #done = :false"
+                                                            + " AND (attribute_not_exists(leaseUntil)"
+                                                            + " OR leaseUntil < :nowMillis)")
+                                                .expressionAttributeNames(Map.of("#done", "done"))
+                                                .expressionAttributeValues(
+                                                        Map.of(
+                                                                ":owner",
+                                                                string(owner),
+                                                                ":until",
+                                                                number(leaseUntil.toEpochMilli()),
+                                                                ":now",
+                                                                string(now.toString()),
+                                                                ":nowMillis",
+                                                                number(now.toEpochMilli()),
+                                                                ":false",
+                                                                AttributeValue.builder()
+                                                                        .bool(false)
+                                                                        .build()))
+                                                .returnValues(ReturnValue.ALL_NEW));
+                return Optional.of(toSegment(response.attributes()));
+            } catch (final ConditionalCheckFailedException e) {
+                log.debug("Backfill job {} segment {} not claimable", jobId, index);
+                return Optional.empty();
+            }
+        }
+    }
+
+    /**
+     * Checkpoint a processed page: add its counts, move the segment's start key and renew the
+     * lease. A null {@code nextKey} marks the segment done and releases the lease.
+     *
+     * @param jobId The job ID
+     * @param index The segment
+     * @param owner The lease owner token from {@link #claim}
+     * @param nextKey Where the next page starts, or null if the segment is exhausted
+     * @param scanned Items the page read
+     * @param vehicles VIN# items among them
+     * @param updated Vehicles written back
+     * @param failed Vehicles that failed
+     * @param leaseUntil Renewed lease expiry
+     * @return false if the lease was lost to another runner
+     */
+    @SneakyThrows
+    public boolean checkpoint(
+            String jobId,
+            int index,
+            String owner,
+            Map<String, AttributeValue> nextKey,
+            int scanned,
+            int vehicles,
+            int updated,
+            int failed,
+            Instant leaseUntil) {
+        try (Span span = Tracing.startSpan("backfill-job-repository-checkpoint")) {
+            span.attribute(TraceAttributes.JOB_ID, jobId);
+            span.attribute(TraceAttributes.SEGMENT, index);
+
+            final Map<String, AttributeValue> values = new HashMap<>();
+            values.put(":owner", string(owner));
+            values.put(":scanned", number(scanned));
+            values.put(":vehicles", number(vehicles));
+            values.put(":updated", number(updated));
+            values.put(":failed", number(failed));
+            values.put(":now", string(Instant.now().toString()));
+            values.put(":done", AttributeValue.builder().bool(nextKey == null).build());
+            final String update;
+            if (nextKey != null) {
+                values.put(":startKey", AttributeValue.builder().m(nextKey).build());
+                values.put(":until", number(leaseUntil.toEpochMilli()));
+                update =
+                        " SET #done = :done, startKey = :startKey, leaseUntil = :until,"
+                                + " changedAt = :now";
+            } else {
+                update =
+                        " SET #done = :done, changedAt = :now"
+                                + " REMOVE startKey, leaseOwner, leaseUntil";
+            }
+            try {
+                dynamoDbClient.updateItem(
+                        req ->
+                                req.tableName(tableName)
+                                        .key(segmentKey(jobId, index))
+                                        .updateExpression(
+                                                "ADD scanned :scanned, vehicles :vehicles,"
+                                                        + " updated :updated, failed :failed"
+                                                        + update)
+                                        .conditionExpression("leaseOwner = :owner")
+                                        .expressionAttributeNames(Map.of("#done", "done"))
+                                        .expressionAttributeValues(values));
+                return true;
+            } catch (final ConditionalCheckFailedException e) {
+                log.warn("Lost lease on backfill job {} segment {}", jobId, index);
+                return false;
+            }
+        }
+    }
+
+    private List<Map<String, AttributeValue>> findItems(String jobId) {
+        final List<Map<String, AttributeValue>> items = new ArrayList<>();
+        Map<String, AttributeValue> startKey = null;
+        do {
+            final Map<String, AttributeValue> exclusiveStartKey = startKey;
+            final QueryResponse response =
+                    dynamoDbClient.query(
+                            req ->
+                                    req.tableName(tableName)
+                                            .keyConditionExpression("PK = :pk")
+                                            .expressionAttributeValues(
+                                                    Map.of(":pk", string(PK_PREFIX + jobId)))
+                                            .consistentRead(true)
+                                            .exclusiveStartKey(exclusiveStartKey));
+            items.addAll(response.items());
+            startKey = response.hasLastEvaluatedKey() ? response.lastEvaluatedKey() : null;
+        } while (startKey != null);
+        return items;
+    }
+
+    private static BackfillJob toJob(
+            String jobId,
+            Map<String, AttributeValue> job,
+            List<Map<String, AttributeValue>> segments) {
+        final long now = Instant.now().toEpochMilli();
+        Instant updatedAt = Instant.parse(job.get("createdAt").s());
+        int done = 0;
+        boolean leased = false;
+        long scanned = 0;
+        long vehicles = 0;
+        long updated = 0;
+        long failed = 0;
+        for (final Map<String, AttributeValue> segment : segments) {
+            if (segment.get("done").bool()) {
+                done++;
+            } else if (segment.containsKey("leaseUntil")
+                    && Long.parseLong(segment.get("leaseUntil").n()) >= now) {
+                leased = true;
+            }
+            scanned += longValue(segment, "scanned");
+            vehicles += longValue(segment, "vehicles");
+            updated += longValue(segment, "updated");
+            failed += longValue(segment, "failed");
+            final Instant changedAt = Instant.parse(segment.get("changedAt").s());
+            if (changedAt.isAfter(updatedAt)) {
+                updatedAt = changedAt;
+            }
+        }
+
+        final BackfillJob.Status status;
+        if (done == segments.size()) {
+            status = BackfillJob.Status.COMPLETED;
+        } else if (leased) {
+            status = BackfillJob.Status.RUNNING;
+        } else {
+            status = BackfillJob.Status.PENDING;
+        }
+        return BackfillJob.builder()
+                .jobId(jobId)
+                .mode(BackfillJob.Mode.valueOf(job.get("mode").s()))
+                .status(status)
+                .segments(Integer.valueOf(job.get("segments").n()))
+                .segmentsDone(done)
+                .scanned(scanned)
+                .vehicles(vehicles)
+                .updated(updated)
+                .failed(failed)
+                .createdAt(Instant.parse(job.get("createdAt").s()))
+                .updatedAt(updatedAt)
+                .build();
+    }
+
+    private static Segment toSegment(Map<String, AttributeValue> item) {
+        final AttributeValue startKey = item.get("startKey");
+        return new Segment(
+                Integer.parseInt(item.get("SK").s().substring(SEGMENT_PREFIX.length())),
+                startKey != null ? startKey.m() : null,
+                item.get("done").bool());
+    }
+
+    private static long longValue(Map<String, AttributeValue> item, String name) {
+        final AttributeValue value = item.get(name);
+        return value != null ? Long.parseLong(value.n()) : 0;
+    }
+
+    private static String segmentSk(int index) {
+        return String.format("%s%04d", SEGMENT_PREFIX, index);
+    }
+
+    private static Map<String, AttributeValue> segmentKey(String jobId, int index) {
+        return Map.of("PK", string(PK_PREFIX + jobId), "SK", string(segmentSk(index)));
+    }
+
+    private static Map<String, AttributeValue> key(String jobId) {
+        final String pk = PK_PREFIX + jobId;
+        return Map.of("PK", string(pk), "SK", string(pk));
+    }
+
+    private static AttributeValue string(String value) {
+        return AttributeValue.builder().s(value).build();
+    }
+
+    private static AttributeValue number(long value) {
+        return AttributeValue.builder().n(String.valueOf(value)).build();
+    }
+}
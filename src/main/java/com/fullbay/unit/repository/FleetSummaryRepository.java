@@ -0,0 +1,203 @@
+package com.fullbay.unit.repository;
+
+import com.fullbay.unit.metrics.UnitMetrics;
+import com.fullbay.unit.model.entity.FleetSummary;
+import com.fullbay.unit.tracing.Span;
+import com.fullbay.unit.tracing.TraceAttributes;
+import com.fullbay.unit.tracing.Tracing;
+
+import io.micrometer.core.annotation.Timed;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.Update;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Repository for per-customer fleet aggregate items. PK/SK = "AGG#&lt;customerId&gt;". Each counter
+ * is a top-level number attribute named "&lt;dimension&gt;#&lt;value&gt;" (plus "total"), because
+ * DynamoDB ADD only works on top-level attributes. No top-level customerId/vin attributes to avoid
+ * GSI indexing.
+ */
+@ApplicationScoped
+@Slf4j
+@Timed(UnitMetrics.REPOSITORY_CALLS)
+public class FleetSummaryRepository {
+
+    public static final String TOTAL = "total";
+    public static final String MAKE = "make";
+    public static final String YEAR = "year";
+    public static final String FUEL_TYPE = "fuelType";
+    public static final String VEHICLE_TYPE = "vehicleType";
+
+    private static final String UPDATED_AT = "updatedAt";
+
+    private final DynamoDbClient dynamoDbClient;
+    private final String tableName;
+
+    @Inject
+    public FleetSummaryRepository(
+            final DynamoDbClient dynamoDbClient,
+            @ConfigProperty(name = "dynamodb.table.name", defaultValue = "g-unit-service")
+                    final String tableName) {
+        this.dynamoDbClient = dynamoDbClient;
+        this.tableName = tableName;
+    }
+
+    /**
+     * Build the ADD update that applies counter deltas to a customer's aggregate item, creating the
+     * item on first use. Zero deltas are left out. Used by {@link UnitOfWork} so the counts change
+     * in the same transaction as the unit.
+     *
+     * @param tableName The table name
+     * @param customerId The customer ID
+     * @param deltas Counter name to delta (e.g. "make#Honda" -&gt; 1)
+     * @return The update, or null if every delta is zero
+     */
+    static Update deltaUpdate(String tableName, String customerId, Map<String, Long> deltas) {
+        final List<String> adds = new ArrayList<>();
+        final Map<String, String> names = new HashMap<>();
+        final Map<String, AttributeValue> values = new HashMap<>();
+        int i = 0;
+        for (final Map.Entry<String, Long> entry : deltas.entrySet()) {
+            if (entry.getValue() == 0L) {
+                continue;
+            }
+            adds.add("#c" + i + " :c" + i);
+            names.put("#c" + i, entry.getKey());
+            values.put(
+                    ":c" + i, AttributeValue.builder().n(String.valueOf(entry.getValue())).build());
+            i++;
+        }
+        if (adds.isEmpty()) {
+            return null;
+        }
+        names.put("#updatedAt", UPDATED_AT);
+        values.put(":updatedAt", AttributeValue.builder().s(Instant.now().toString()).build());
+
+        return Update.builder()
+                .tableName(tableName)
+                .key(key(customerId))
+                .updateExpression("ADD " + String.join(", ", adds) + " SET #updatedAt = :updatedAt")
+                .expressionAttributeNames(names)
+                .expressionAttributeValues(values)
+                .build();
+    }
+
+    /**
+     * Replace a customer's aggregate item with freshly computed counters (used by rebuild).
+     *
+     * @param customerId The customer ID
+     * @param counters Counter name to absolute count
+     */
+    @SneakyThrows
+    public void replace(String customerId, Map<String, Long> counters) {
+        try (Span span = Tracing.startSpan("fleet-summary-repository-replace")) {
+            span.attribute(TraceAttributes.CUSTOMER_ID, customerId);
+
+            final Map<String, AttributeValue> item = new HashMap<>(key(customerId));
+            counters.forEach(
+                    (name, count) ->
+                            item.put(
+                                    name,
+                                    AttributeValue.builder().n(String.valueOf(count)).build()));
+            item.putIfAbsent(TOTAL, AttributeValue.builder().n("0").build());
+            item.put(UPDATED_AT, AttributeValue.builder().s(Instant.now().toString()).build());
+
+            dynamoDbClient.putItem(req -> req.tableName(tableName).item(item));
+            log.debug("Replaced fleet summary for customer: {}", customerId);
+        }
+    }
+
+    /**
+     * Find a customer's fleet summary with a single GetItem.
+     *
+     * @param customerId The customer ID
+     * @return Optional containing the summary if the aggregate item exists
+     */
+    @SneakyThrows
+    public Optional<FleetSummary> findByCustomerId(String customerId) {
+        try (Span span = Tracing.startSpan("fleet-summary-repository-find")) {
+            span.attribute(TraceAttributes.CUSTOMER_ID, customerId);
+
+            final GetItemResponse response =
+                    dynamoDbClient.getItem(
+                            GetItemRequest.builder()
+                                    .tableName(tableName)
+                                    .key(key(customerId))
+                                    .build());
+
+            if (!response.hasItem()) {
+                log.debug("Fleet summary not found: {}", customerId);
+                return Optional.empty();
+            }
+
+            return Optional.of(toSummary(customerId, response.item()));
+        }
+    }
+
+    private static FleetSummary toSummary(String customerId, Map<String, AttributeValue> item) {
+        final Map<String, Map<String, Long>> dimensions = new HashMap<>();
+        for (final String dimension : List.of(MAKE, YEAR, FUEL_TYPE, VEHICLE_TYPE)) {
+            dimensions.put(dimension, new TreeMap<>());
+        }
+
+        long total = 0L;
+        for (final Map.Entry<String, AttributeValue> entry : item.entrySet()) {
+            if (entry.getValue().n() == null) {
+                continue;
+            }
+            final long count = Long.parseLong(entry.getValue().n());
+            if (TOTAL.equals(entry.getKey())) {
+                total = count;
+                continue;
+            }
+            final int sep = entry.getKey().indexOf('#');
+            if (sep < 0 || count <= 0L) {
+                // Zeroed counters stay on the item after deletes; hide them
+                continue;
+            }
+            final Map<String, Long> counts = dimensions.get(entry.getKey().substring(0, sep));
+            if (counts != null) {
+                counts.put(entry.getKey().substring(sep + 1), count);
+            }
+        }
+
+        final AttributeValue updatedAt = item.get(UPDATED_AT);
+        return FleetSummary.builder()
+                .customerId(customerId)
+                .total(Math.max(total, 0L))
+                .byMake(dimensions.get(MAKE))
+                .byYear(dimensions.get(YEAR))
+                .byFuelType(dimensions.get(FUEL_TYPE))
+                .byVehicleType(dimensions.get(VEHICLE_TYPE))
+                .updatedAt(updatedAt != null ? Instant.parse(updatedAt.s()) : null)
+                .build();
+    }
+
+    private static Map<String, AttributeValue> key(String customerId) {
+        final String pk = "AGG#" + customerId;
+        return Map.of(
+                "PK",
+                AttributeValue.builder().s(pk).build(),
+                "SK",
+                AttributeValue.builder().s(pk).build());
+    }
+}
@@ -0,0 +1,533 @@
+package com.fullbay.unit.repository;
+
+import com.fullbay.unit.metrics.UnitMetrics;
+import com.fullbay.unit.model.entity.ImportJob;
+import com.fullbay.unit.model.entity.ImportRowError;
+import com.fullbay.unit.tracing.Span;
+import com.fullbay.unit.tracing.TraceAttributes;
+import com.fullbay.unit.tracing.Tracing;
+import com.fullbay.util.JacksonConverter;
+
+import io.micrometer.core.annotation.Timed;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.PutRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+import software.amazon.awssdk.services.dynamodb.model.ReturnValue;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Repository for import jobs, all under PK = "JOB#&lt;jobId&gt;": the job item (SK = PK) with
+ * counters and the lease, VIN chunks (SK = "CHUNK#&lt;index&gt;") and row errors (SK =
+ * "ERR#&lt;line&gt;"). The job's customer and creation time live in {@code data}; no top-level
+ * customerId/vin/updatedAt attributes, so job items stay out of every GSI. Every item expires after
+ * {@code imports.retention}.
+ */
+@ApplicationScoped
+@Slf4j
+@Timed(UnitMetrics.REPOSITORY_CALLS)
+public class ImportJobRepository {
+
+    private static final int BATCH_WRITE_CHUNK_SIZE = 25;
+    private static final int MAX_UNPROCESSED_RETRIES = 5;
+    private static final String PK_PREFIX = "JOB#";
+    private static final String CHUNK_PREFIX = "CHUNK#";
+    private static final String ERROR_PREFIX = "ERR#";
+
+    /** One deduplicated VIN of an import file, with its 1-based line number. */
+    public record Row(int line, String vin) {}
+
+    private final DynamoDbClient dynamoDbClient;
+    private final JacksonConverter jacksonConverter;
+    private final UnitMetrics unitMetrics;
+    private final Duration retention;
+    private final String tableName;
+
+    @Inject
+    public ImportJobRepository(
+            final DynamoDbClient dynamoDbClient,
+            final JacksonConverter jacksonConverter,
+            final UnitMetrics unitMetrics,
+            @ConfigProperty(name = "imports.retention", defaultValue = "720h")
+                    final Duration retention,
+            @ConfigProperty(name = "dynamodb.table.name", defaultValue = "g-unit-service")
+                    final String tableName) {
+        this.dynamoDbClient = dynamoDbClient;
+        this.jacksonConverter = jacksonConverter;
+        this.unitMetrics = unitMetrics;
+        this.retention = retention;
+        this.tableName = tableName;
+    }
+
+    /**
+     * Create the job item. Its chunks must already be stored.
+     *
+     * @param job The new job
+     */
+    @SneakyThrows
+    public void create(ImportJob job) {
+        try (Span span = Tracing.startSpan("import-job-repository-create")) {
+            span.attribute(TraceAttributes.JOB_ID, job.jobId());
+
+            final Map<String, AttributeValue> item = new HashMap<>(key(job.jobId()));
+            item.put(
+                    "data",
+                    AttributeValue.builder()
+                            .m(
+                                    Map.of(
+                                            "customerId",
+                                            string(job.customerId()),
+                                            "createdAt",
+                                            string(job.createdAt().toString())))
+                            .build());
+            item.put("status", string(job.status().name()));
+            item.put("totalRows", number(job.totalRows()));
+            item.put("vinCount", number(job.vinCount()));
+            item.put("chunkCount", number(job.chunkCount()));
+            item.put("nextChunk", number(job.nextChunk()));
+            item.put("created", number(job.created()));
+            item.put("skipped", number(job.skipped()));
+            item.put("failed", number(job.failed()));
+            item.put("changedAt", string(job.updatedAt().toString()));
+            item.put("expiresAt", expiresAt(job.createdAt()));
+
+            dynamoDbClient.putItem(
+                    req ->
+                            req.tableName(tableName)
+                                    .item(item)
+                                    .conditionExpression("attribute_not_exists(PK)"));
+            log.debug("Created import job: {}", job.jobId());
+        }
+    }
+
+    /**
+     * Find a job by ID.
+     *
+     * @param jobId The job ID
+     * @return The job, or empty
+     */
+    @SneakyThrows
+    public Optional<ImportJob> findById(String jobId) {
+        try (Span span = Tracing.startSpan("import-job-repository-findById")) {
+            span.attribute(TraceAttributes.JOB_ID, jobId);
+
+            final GetItemResponse response =
+                    dynamoDbClient.getItem(
+                            req -> req.tableName(tableName).key(key(jobId)).consistentRead(true));
+            return response.hasItem() && !response.item().isEmpty()
+                    ? Optional.of(toJob(jobId, response.item()))
+                    : Optional.empty();
+        }
+    }
+
+    /**
+     * Take the job for processing, unless it is completed or another runner holds an unexpired
+     * lease.
+     *
+     * @param jobId The job ID
+     * @param owner Token identifying this runner
+     * @param leaseUntil When the lease lapses unless renewed
+     * @return The job as claimed, or empty if it cannot be taken
+     */
+    @SneakyThrows
+    public Optional<ImportJob> claim(String jobId, String owner, Instant leaseUntil) {
+        try (Span span = Tracing.startSpan("import-job-repository-claim")) {
+            span.attribute(TraceAttributes.JOB_ID, jobId);
+
+            final Instant now = Instant.now();
+            try {
+                final UpdateItemResponse response =
+                        dynamoDbClient.updateItem(
+                                req ->
+                                        req.tableName(tableName)
+                                                .key(key(jobId))
+                                                .updateExpression(
+                                                        "SET #status = :running, leaseOwner ="
+                                                                + " :owner, leaseUntil = :until,"
+                                                                + " changedAt = :now")
+                                                .conditionExpression(
+                                                        "attribute_exists(PK) AND #status <>"
+                                                            + " :completed AND"
+                                                            + " (attribute_not_exists(leaseUntil)"
+                                                            + " OR leaseUntil < :nowMillis)")
+                                                .expressionAttributeNames(
+                                                        Map.of("#status", "status"))
+                                                .expressionAttributeValues(
+                                                        Map.of(
+                                                                ":running",
+                                                                string(
+                                                                        ImportJob.Status.RUNNING
+                                                                                .name()),
+                                                                ":completed",
+                                                                string(
+                                                                        ImportJob.Status.COMPLETED
+                                                                                .name()),
+                                                                ":owner",
+                                                                string(owner),
+                                                                ":until",
+                                                                number(leaseUntil.toEpochMilli()),
+                                                                ":now",
+                                                                string(now.toString()),
+                                                                ":nowMillis",
+                                                                number(now.toEpochMilli())))
+                                                .returnValues(ReturnValue.ALL_NEW));
+                return Optional.of(toJob(jobId, response.attributes()));
+            } catch (final ConditionalCheckFailedException e) {
+                log.debug("Import job {} not claimable", jobId);
+                return Optional.empty();
+            }
+        }
+    }
+
+    /**
+     * Extend the lease of a running job while a chunk is still being processed.
+     *
+     * @param jobId The job ID
+     * @param owner The lease owner token from {@link #claim}
+     * @param leaseUntil Renewed lease expiry
+     * @return false if the lease was lost to another runner
+     */
+    @SneakyThrows
+    public boolean renewLease(String jobId, String owner, Instant leaseUntil) {
+        try (Span span = Tracing.startSpan("import-job-repository-renewLease")) {
+            span.attribute(TraceAttributes.JOB_ID, jobId);
+
+            try {
+                dynamoDbClient.updateItem(
+                        req ->
+                                req.tableName(tableName)
+                                        .key(key(jobId))
+                                        .updateExpression("SET leaseUntil = :until")
+                                        .conditionExpression(
+                                                "leaseOwner = :owner AND #status = :running")
+                                        .expressionAttributeNames(Map.of("#status", "status"))
+                                        .expressionAttributeValues(
+                                                Map.of(
+                                                        ":owner",
+                                                        string(owner),
+                                                        ":until",
+                                                        number(leaseUntil.toEpochMilli()),
+                                                        ":running",
+                                                        string(ImportJob.Status.RUNNING.name()))));
+                return true;
+            } catch (final ConditionalCheckFailedException e) {
+                log.warn("Lost lease on import job {}", jobId);
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Store one chunk of VINs.
+     *
+     * @param jobId The job ID
+     * @param index Chunk index, from 0
+     * @param rows The chunk's rows
+     */
+    @SneakyThrows
+    public void putChunk(String jobId, int index, List<Row> rows) {
+        try (Span span = Tracing.startSpan("import-job-repository-putChunk")) {
+            span.attribute(TraceAttributes.JOB_ID, jobId);
+            span.attribute(TraceAttributes.ITEM_COUNT, rows.size());
+
+            final List<AttributeValue> lines = new ArrayList<>();
+            final List<AttributeValue> vins = new ArrayList<>();
+            for (final Row row : rows) {
+                lines.add(number(row.line()));
+                vins.add(string(row.vin()));
+            }
+            final Map<String, AttributeValue> item = new HashMap<>();
+            item.put("PK", string(PK_PREFIX + jobId));
+            item.put("SK", string(String.format("%s%06d", CHUNK_PREFIX, index)));
+            item.put("lines", AttributeValue.builder().l(lines).build());
+            item.put("vins", AttributeValue.builder().l(vins).build());
+            item.put("expiresAt", expiresAt(Instant.now()));
+
+            dynamoDbClient.putItem(req -> req.tableName(tableName).item(item));
+        }
+    }
+
+    /**
+     * Read one chunk of VINs.
+     *
+     * @param jobId The job ID
+     * @param index Chunk index, from 0
+     * @return The chunk's rows, in file order
+     */
+    @SneakyThrows
+    public List<Row> findChunk(String jobId, int index) {
+        try (Span span = Tracing.startSpan("import-job-repository-findChunk")) {
+            span.attribute(TraceAttributes.JOB_ID, jobId);
+
+            final GetItemResponse response =
+                    dynamoDbClient.getItem(
+                            req ->
+                                    req.tableName(tableName)
+                                            .key(
+                                                    Map.of(
+                                                            "PK",
+                                                            string(PK_PREFIX + jobId),
+                                                            "SK",
+                                                            string(
+                                                                    String.format(
+                                                                            "%s%06d",
+                                                                            CHUNK_PREFIX,
+                                                                            index)))));
+            if (!response.hasItem() || response.item().isEmpty()) {
+                throw new IllegalStateException(
+                        "Import job " + jobId + " is missing chunk " + index);
+            }
+            final List<AttributeValue> lines = response.item().get("lines").l();
+            final List<AttributeValue> vins = response.item().get("vins").l();
+            final List<Row> rows = new ArrayList<>(vins.size());
+            for (int i = 0; i < vins.size(); i++) {
+                rows.add(new Row(Integer.parseInt(lines.get(i).n()), vins.get(i).s()));
+            }
+            return rows;
+        }
+    }
+
+    /**
+     * Record row errors.
+     *
+     * @param jobId The job ID
+     * @param errors The errors
+     */
+    @SneakyThrows
+    public void putErrors(String jobId, List<ImportRowError> errors) {
+        try (Span span = Tracing.startSpan("import-job-repository-putErrors")) {
+            span.attribute(TraceAttributes.JOB_ID, jobId);
+            span.attribute(TraceAttributes.ITEM_COUNT, errors.size());
+
+            final AttributeValue expiresAt = expiresAt(Instant.now());
+            final List<WriteRequest> writes = new ArrayList<>();
+            for (final ImportRowError error : errors) {
+                final Map<String, AttributeValue> item = new HashMap<>();
+                item.put("PK", string(PK_PREFIX + jobId));
+                item.put("SK", string(String.format("%s%08d", ERROR_PREFIX, error.line())));
+                item.put(
+                        "data",
+                        AttributeValue.builder().m(jacksonConverter.objectToMap(error)).build());
+                item.put("expiresAt", expiresAt);
+                writes.add(
+                        WriteRequest.builder()
+                                .putRequest(PutRequest.builder().item(item).build())
+                                .build());
+            }
+            for (int i = 0; i < writes.size(); i += BATCH_WRITE_CHUNK_SIZE) {
+                List<WriteRequest> chunk =
+                        writes.subList(i, Math.min(i + BATCH_WRITE_CHUNK_SIZE, writes.size()));
+                for (int attempt = 0; !chunk.isEmpty(); attempt++) {
+                    if (attempt > MAX_UNPROCESSED_RETRIES) {
+                        throw new IllegalStateException(
+                                "Import error batch left " + chunk.size() + " unprocessed items");
+                    }
+                    final List<WriteRequest> requestChunk = chunk;
+                    unitMetrics.batch("imports", "BatchWriteItem", requestChunk.size());
+                    final BatchWriteItemResponse response =
+                            dynamoDbClient.batchWriteItem(
+                                    req -> req.requestItems(Map.of(tableName, requestChunk)));
+                    chunk = response.unprocessedItems().getOrDefault(tableName, List.of());
+                }
+            }
+        }
+    }
+
+    /**
+     * First row errors of a job, in line order.
+     *
+     * @param jobId The job ID
+     * @param limit Maximum number of errors
+     * @return Up to {@code limit} errors
+     */
+    @SneakyThrows
+    public List<ImportRowError> findErrors(String jobId, int limit) {
+        try (Span span = Tracing.startSpan("import-job-repository-findErrors")) {
+            span.attribute(TraceAttributes.JOB_ID, jobId);
+
+            final QueryResponse response =
+                    dynamoDbClient.query(
+                            req ->
+                                    req.tableName(tableName)
+                                            .keyConditionExpression(
+                                                    "PK = :pk AND begins_with(SK, :prefix)")
+                                            .expressionAttributeValues(
+                                                    Map.of(
+                                                            ":pk",
+                                                            string(PK_PREFIX + jobId),
+                                                            ":prefix",
+                                                            string(ERROR_PREFIX)))
+                                            .limit(limit));
+            final List<ImportRowError> errors = new ArrayList<>();
+            for (final Map<String, AttributeValue> item : response.items()) {
+                errors.add(
+                        jacksonConverter.mapToObject(item.get("data").m(), ImportRowError.class));
+            }
+            return errors;
+        }
+    }
+
+    /**
+     * Checkpoint a processed chunk: add its counts, advance {@code nextChunk} and renew the lease.
+     * Completes the job after its last chunk.
+     *
+     * @param jobId The job ID
+     * @param owner The lease owner token from {@link #claim}
+     * @param chunk The chunk just processed
+     * @param created Units created from the chunk
+     * @param skipped VINs already in the fleet
+     * @param failed Rows that failed
+     * @param leaseUntil Renewed lease expiry
+     * @return The job after the update, or empty if the lease was lost to another runner
+     */
+    @SneakyThrows
+    public Optional<ImportJob> completeChunk(
+            String jobId,
+            String owner,
+            int chunk,
+            int created,
+            int skipped,
+            int failed,
+            Instant leaseUntil) {
+        try (Span span = Tracing.startSpan("import-job-repository-completeChunk")) {
+            span.attribute(TraceAttributes.JOB_ID, jobId);
+
+            final Map<String, AttributeValue> values = new HashMap<>();
+            values.put(":owner", string(owner));
+            values.put(":chunk", number(chunk));
+            values.put(":next", number(chunk + 1));
+            values.put(":created", number(created));
+            values.put(":skipped", number(skipped));
+            values.put(":failed", number(failed));
+            values.put(":until", number(leaseUntil.toEpochMilli()));
+            values.put(":now", string(Instant.now().toString()));
+            values.put(":running", string(ImportJob.Status.RUNNING.name()));
+            try {
+                final UpdateItemResponse response =
+                        dynamoDbClient.updateItem(
+                                req ->
+                                        req.tableName(tableName)
+                                                .key(key(jobId))
+                                                .updateExpression(
+                                                        "ADD created :created, skipped :skipped,"
+                                                                + " failed :failed SET nextChunk ="
+                                                                + " :next, leaseUntil = :until,"
+                                                                + " changedAt = :now")
+                                                .conditionExpression(
+                                                        "leaseOwner = :owner AND nextChunk ="
+                                                                + " :chunk AND #status = :running")
+                                                .expressionAttributeNames(
+                                                        Map.of("#status", "status"))
+                                                .expressionAttributeValues(values)
+                                                .returnValues(ReturnValue.ALL_NEW));
+                final ImportJob job = toJob(jobId, response.attributes());
+                if (job.nextChunk() >= job.chunkCount()) {
+                    return Optional.of(complete(jobId, owner));
+                }
+                return Optional.of(job);
+            } catch (final ConditionalCheckFailedException e) {
+                log.warn("Lost lease on import job {} at chunk {}", jobId, chunk);
+                return Optional.empty();
+            }
+        }
+    }
+
+    /**
+     * Mark a job completed and release its lease.
+     *
+     * @param jobId The job ID
+     * @param owner The lease owner token from {@link #claim}
+     * @return The completed job
+     */
+    @SneakyThrows
+    public ImportJob complete(String jobId, String owner) {
+        try (Span span = Tracing.startSpan("import-job-repository-complete")) {
+            span.attribute(TraceAttributes.JOB_ID, jobId);
+
+            final UpdateItemResponse response =
+                    dynamoDbClient.updateItem(
+                            req ->
+                                    req.tableName(tableName)
+                                            .key(key(jobId))
+                                            .updateExpression(
+                                                    "SET #status = :completed, changedAt = :now"
+                                                            + " REMOVE leaseOwner, leaseUntil")
+                                            .conditionExpression("leaseOwner = :owner")
+                                            .expressionAttributeNames(Map.of("#status", "status"))
+                                            .expressionAttributeValues(
+                                                    Map.of(
+                                                            ":completed",
+                                                            string(
+                                                                    ImportJob.Status.COMPLETED
+                                                                            .name()),
+                                                            ":now",
+                                                            string(Instant.now().toString()),
+                                                            ":owner",
+                                                            string(owner)))
+                                            .returnValues(ReturnValue.ALL_NEW));
+            log.info("Completed import job: {}", jobId);
+            return toJob(jobId, response.attributes());
+        }
+    }
+
+    private ImportJob toJob(String jobId, Map<String, AttributeValue> item) {
+        final Map<String, AttributeValue> data = item.get("data").m();
+        return ImportJob.builder()
+                .jobId(jobId)
+                .customerId(data.get("customerId").s())
+                .status(ImportJob.Status.valueOf(item.get("status").s()))
+                .totalRows(intValue(item, "totalRows"))
+                .vinCount(intValue(item, "vinCount"))
+                .chunkCount(intValue(item, "chunkCount"))
+                .nextChunk(intValue(item, "nextChunk"))
+                .created(intValue(item, "created"))
+                .skipped(intValue(item, "skipped"))
+                .failed(intValue(item, "failed"))
+                .createdAt(Instant.parse(data.get("createdAt").s()))
+                .updatedAt(Instant.parse(item.get("changedAt").s()))
+                .build();
+    }
+
+    private AttributeValue expiresAt(Instant from) {
+        return number(from.plus(retention).getEpochSecond());
+    }
+
+    private static Integer intValue(Map<String, AttributeValue> item, String name) {
+        final AttributeValue value = item.get(name);
+        return value != null ? Integer.valueOf(value.n()) : 0;
+    }
+
+    private static Map<String, AttributeValue> key(String jobId) {
+        final String pk = PK_PREFIX + jobId;
+        return Map.of("PK", string(pk), "SK", string(pk));
+    }
+
+    private static AttributeValue string(String value) {
+        return AttributeValue.builder().s(value).build();
+    }
+
+    private static AttributeValue number(long value) {
+        return AttributeValue.builder().n(String.valueOf(value)).build();
+    }
+}
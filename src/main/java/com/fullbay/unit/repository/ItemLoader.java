@@ -0,0 +1,255 @@
+package com.fullbay.unit.repository;
+
+import com.fullbay.unit.metrics.UnitMetrics;
+import com.fullbay.unit.tracing.Span;
+import com.fullbay.unit.tracing.TraceAttributes;
+import com.fullbay.unit.tracing.Tracing;
+import com.fullbay.unit.util.Backoff;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.KeysAndAttributes;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Single-item reads by PK/SK, coalesced across concurrent callers. With {@code
+ * dynamodb.coalescing.enabled}, lookups arriving within {@code dynamodb.coalescing.window} of each
+ * other (or until {@code dynamodb.coalescing.max-batch-size} keys) share one BatchGetItem, and
+ * callers asking for a key already in flight wait on the same result.
+ *
+ * <p>No background threads: the caller that opens a batch waits out the window and then issues the
+ * BatchGetItem for everyone in it. Locking uses {@link ReentrantLock} so waiting callers never pin
+ * a virtual thread's carrier. Disabled (the default, and the right choice in Lambda, where an
+ * instance serves one request at a time), every lookup is a plain GetItem.
+ *
+ * <p>The consumed capacity of a coalesced BatchGetItem is attributed in full to the API request
+ * whose caller opened the batch, not split across the requests waiting on it. Per-request capacity
+ * is therefore approximate while coalescing is enabled; per-operation totals are exact.
+ */
+@ApplicationScoped
+@Slf4j
+public class ItemLoader {
+
+    private static final int MAX_BATCH_GET_KEYS = 100;
+    private static final int MAX_UNPROCESSED_RETRIES = 5;
+
+    private final DynamoDbClient dynamoDbClient;
+    private final UnitMetrics unitMetrics;
+    private final boolean enabled;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final String tableName;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition batchClosed = lock.newCondition();
+    private final Map<String, CompletableFuture<Optional<Map<String, AttributeValue>>>> inFlight =
+            new HashMap<>();
+    private Batch open;
+
+    @Inject
+    public ItemLoader(
+            final DynamoDbClient dynamoDbClient,
+            final UnitMetrics unitMetrics,
+            @ConfigProperty(name = "dynamodb.coalescing.enabled", defaultValue = "false")
+                    final boolean enabled,
+            @ConfigProperty(name = "dynamodb.coalescing.window", defaultValue = "2ms")
+                    final Duration window,
+            @ConfigProperty(name = "dynamodb.coalescing.max-batch-size", defaultValue = "100")
+                    final int maxBatchSize,
+            @ConfigProperty(name = "dynamodb.table.name", defaultValue = "g-unit-service")
+                    final String tableName) {
+        this.dynamoDbClient = dynamoDbClient;
+        this.unitMetrics = unitMetrics;
+        this.enabled = enabled;
+        this.windowNanos = window.toNanos();
+        this.maxBatchSize = Math.max(1, Math.min(maxBatchSize, MAX_BATCH_GET_KEYS));
+        this.tableName = tableName;
+    }
+
+    /**
+     * Get one item.
+     *
+     * @param pk Partition key, e.g. {@code UNT#<unitId>}
+     * @param sk Sort key
+     * @return The item, if it exists
+     */
+    public Optional<Map<String, AttributeValue>> get(String pk, String sk) {
+        if (!enabled) {
+            return getItem(pk, sk);
+        }
+        final String id = pk + '\n' + sk;
+        final CompletableFuture<Optional<Map<String, AttributeValue>>> result;
+        Batch leading = null;
+        lock.lock();
+        try {
+            final CompletableFuture<Optional<Map<String, AttributeValue>>> existing =
+                    inFlight.get(id);
+            if (existing != null) {
+                result = existing;
+            } else {
+                if (open == null) {
+                    open = new Batch();
+                    leading = open;
+                }
+                result = open.add(id, key(pk, sk));
+                inFlight.put(id, result);
+                if (open.size() >= maxBatchSize) {
+                    open = null;
+                    batchClosed.signalAll();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (leading != null) {
+            awaitWindow(leading);
+            execute(leading);
+        }
+        return await(result);
+    }
+
+    /** Wait until the window elapses or the batch fills up, then close it to new keys. */
+    private void awaitWindow(Batch batch) {
+        lock.lock();
+        try {
+            long remaining = windowNanos;
+            while (open == batch && remaining > 0) {
+                remaining = batchClosed.awaitNanos(remaining);
+            }
+        } catch (InterruptedException e) {
+            // Still issue the batch: other callers are waiting on it
+            Thread.currentThread().interrupt();
+        } finally {
+            if (open == batch) {
+                open = null;
+            }
+            lock.unlock();
+        }
+    }
+
+    private void execute(Batch batch) {
+        final Map<String, Optional<Map<String, AttributeValue>>> results = new HashMap<>();
+        RuntimeException failure = null;
+        try (Span span = Tracing.startSpan("item-loader-batchGet")) {
+            span.attribute(TraceAttributes.KEY_COUNT, batch.size());
+            unitMetrics.fanOut("item-loader", batch.size());
+
+            Map<String, KeysAndAttributes> requestItems =
+                    Map.of(tableName, KeysAndAttributes.builder().keys(batch.keys()).build());
+            for (int attempt = 0; !requestItems.isEmpty(); attempt++) {
+                if (attempt > MAX_UNPROCESSED_RETRIES) {
+                    throw new IllegalStateException(
+                            "Item lookup left "
+                                    + requestItems.get(tableName).keys().size()
+                                    + " unprocessed keys");
+                }
+                if (attempt > 0) {
+                    Backoff.sleep(attempt);
+                }
+                unitMetrics.batch(
+                        "item-loader", "BatchGetItem", requestItems.get(tableName).keys().size());
+                final BatchGetItemResponse response =
+                        dynamoDbClient.batchGetItem(
+                                BatchGetItemRequest.builder().requestItems(requestItems).build());
+                final List<Map<String, AttributeValue>> items = response.responses().get(tableName);
+                if (items != null) {
+                    for (final Map<String, AttributeValue> item : items) {
+                        results.put(
+                                item.get("PK").s() + '\n' + item.get("SK").s(), Optional.of(item));
+                    }
+                }
+                requestItems = response.unprocessedKeys();
+            }
+        } catch (RuntimeException e) {
+            failure = e;
+        }
+
+        lock.lock();
+        try {
+            for (final Map.Entry<String, CompletableFuture<Optional<Map<String, AttributeValue>>>>
+                    entry : batch.waiters.entrySet()) {
+                inFlight.remove(entry.getKey(), entry.getValue());
+            }
+        } finally {
+            lock.unlock();
+        }
+        for (final Map.Entry<String, CompletableFuture<Optional<Map<String, AttributeValue>>>>
+                entry : batch.waiters.entrySet()) {
+            if (failure != null) {
+                entry.getValue().completeExceptionally(failure);
+            } else {
+                entry.getValue().complete(results.getOrDefault(entry.getKey(), Optional.empty()));
+            }
+        }
+        log.debug("Coalesced {} item lookups into one BatchGetItem", batch.size());
+    }
+
+    private Optional<Map<String, AttributeValue>> getItem(String pk, String sk) {
+        final GetItemResponse response =
+                dynamoDbClient.getItem(req -> req.tableName(tableName).key(key(pk, sk)));
+        return response.hasItem() ? Optional.of(response.item()) : Optional.empty();
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static Map<String, AttributeValue> key(String pk, String sk) {
+        return Map.of(
+                "PK", AttributeValue.builder().s(pk).build(),
+                "SK", AttributeValue.builder().s(sk).build());
+    }
+
+    /** Keys collected during one window, with their waiters. Guarded by the loader's lock. */
+    private static final class Batch {
+
+        private final Map<String, CompletableFuture<Optional<Map<String, AttributeValue>>>>
+                waiters = new LinkedHashMap<>();
+        private final List<Map<String, AttributeValue>> keys = new ArrayList<>();
+
+        CompletableFuture<Optional<Map<String, AttributeValue>>> add(
+                String id, Map<String, AttributeValue> key) {
+            final CompletableFuture<Optional<Map<String, AttributeValue>>> future =
+                    new CompletableFuture<>();
+            waiters.put(id, future);
+            keys.add(key);
+            return future;
+        }
+
+        int size() {
+            return keys.size();
+        }
+
+        List<Map<String, AttributeValue>> keys() {
+            return keys;
+        }
+    }
+}
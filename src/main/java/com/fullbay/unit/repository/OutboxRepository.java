@@ -0,0 +1,173 @@
+package com.fullbay.unit.repository;
+
+import com.fullbay.unit.metrics.UnitMetrics;
+import com.fullbay.unit.model.entity.UnitChangeEvent;
+import com.fullbay.unit.tracing.Span;
+import com.fullbay.unit.tracing.TraceAttributes;
+import com.fullbay.unit.tracing.Tracing;
+import com.fullbay.util.JacksonConverter;
+
+import io.micrometer.core.annotation.Timed;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.DeleteRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Repository for unit change-event outbox items. PK = "OUTBOX#&lt;shard&gt;" with the shard taken
+ * from the unit ID, so one unit's events stay in order on one partition while writes spread over
+ * {@code outbox.shards} partitions. SK = "&lt;epochMillis&gt;#&lt;unitId&gt;#&lt;version&gt;",
+ * zero-padded so items sort by time. Items carry an {@code expiresAt} TTL as a backstop when no
+ * relay drains them. No top-level customerId/vin attributes to avoid GSI indexing.
+ */
+@ApplicationScoped
+@Slf4j
+@Timed(UnitMetrics.REPOSITORY_CALLS)
+public class OutboxRepository {
+
+    private static final int BATCH_WRITE_CHUNK_SIZE = 25;
+    private static final int MAX_UNPROCESSED_RETRIES = 5;
+    private static final String PK_PREFIX = "OUTBOX#";
+
+    private final DynamoDbClient dynamoDbClient;
+    private final JacksonConverter jacksonConverter;
+    private final UnitMetrics unitMetrics;
+    private final int shards;
+    private final Duration retention;
+    private final String tableName;
+
+    @Inject
+    public OutboxRepository(
+            final DynamoDbClient dynamoDbClient,
+            final JacksonConverter jacksonConverter,
+            final UnitMetrics unitMetrics,
+            @ConfigProperty(name = "outbox.shards", defaultValue = "4") final int shards,
+            @ConfigProperty(name = "outbox.retention", defaultValue = "168h")
+                    final Duration retention,
+            @ConfigProperty(name = "dynamodb.table.name", defaultValue = "g-unit-service")
+                    final String tableName) {
+        this.dynamoDbClient = dynamoDbClient;
+        this.jacksonConverter = jacksonConverter;
+        this.unitMetrics = unitMetrics;
+        this.shards = shards;
+        this.retention = retention;
+        this.tableName = tableName;
+    }
+
+    /** Number of outbox partitions. */
+    public int shards() {
+        return shards;
+    }
+
+    /**
+     * Oldest pending events of one shard, in write order.
+     *
+     * @param shard The shard, 0 to {@link #shards()} - 1
+     * @param limit Maximum number of events
+     * @return Up to {@code limit} events
+     */
+    @SneakyThrows
+    public List<UnitChangeEvent> findPending(int shard, int limit) {
+        try (Span span = Tracing.startSpan("outbox-repository-findPending")) {
+            final QueryResponse response =
+                    dynamoDbClient.query(
+                            req ->
+                                    req.tableName(tableName)
+                                            .keyConditionExpression("PK = :pk")
+                                            .expressionAttributeValues(
+                                                    Map.of(
+                                                            ":pk",
+                                                            AttributeValue.builder()
+                                                                    .s(PK_PREFIX + shard)
+                                                                    .build()))
+                                            .consistentRead(true)
+                                            .limit(limit));
+
+            final List<UnitChangeEvent> events = new ArrayList<>();
+            for (final Map<String, AttributeValue> item : response.items()) {
+                events.add(
+                        jacksonConverter.mapToObject(item.get("data").m(), UnitChangeEvent.class));
+            }
+            span.attribute(TraceAttributes.ITEM_COUNT, events.size());
+            return events;
+        }
+    }
+
+    /**
+     * Remove published events.
+     *
+     * @param events The events to remove
+     */
+    public void delete(List<UnitChangeEvent> events) {
+        try (Span span = Tracing.startSpan("outbox-repository-delete")) {
+            span.attribute(TraceAttributes.ITEM_COUNT, events.size());
+
+            final List<WriteRequest> writes = new ArrayList<>();
+            for (final UnitChangeEvent event : events) {
+                writes.add(
+                        WriteRequest.builder()
+                                .deleteRequest(DeleteRequest.builder().key(key(event)).build())
+                                .build());
+            }
+            for (int i = 0; i < writes.size(); i += BATCH_WRITE_CHUNK_SIZE) {
+                List<WriteRequest> chunk =
+                        writes.subList(i, Math.min(i + BATCH_WRITE_CHUNK_SIZE, writes.size()));
+                for (int attempt = 0; !chunk.isEmpty(); attempt++) {
+                    if (attempt > MAX_UNPROCESSED_RETRIES) {
+                        throw new IllegalStateException(
+                                "Outbox batch delete left " + chunk.size() + " unprocessed items");
+                    }
+                    final List<WriteRequest> requestChunk = chunk;
+                    unitMetrics.batch("outbox", "BatchWriteItem", requestChunk.size());
+                    final BatchWriteItemResponse response =
+                            dynamoDbClient.batchWriteItem(
+                                    req -> req.requestItems(Map.of(tableName, requestChunk)));
+                    chunk = response.unprocessedItems().getOrDefault(tableName, List.of());
+                }
+            }
+            log.debug("Deleted {} outbox events", events.size());
+        }
+    }
+
+    /** Build the outbox item for an event. Written by {@link UnitOfWork}. */
+    Map<String, AttributeValue> toItem(UnitChangeEvent event) {
+        final Map<String, AttributeValue> item = new HashMap<>(key(event));
+        item.put("data", AttributeValue.builder().m(jacksonConverter.objectToMap(event)).build());
+        item.put(
+                "expiresAt",
+                AttributeValue.builder()
+                        .n(String.valueOf(event.occurredAt().plus(retention).getEpochSecond()))
+                        .build());
+        return item;
+    }
+
+    private Map<String, AttributeValue> key(UnitChangeEvent event) {
+        final int shard = Math.floorMod(event.unitId().hashCode(), shards);
+        final String sk =
+                String.format(
+                        "%013d#%s#%d",
+                        event.occurredAt().toEpochMilli(), event.unitId(), event.version());
+        return Map.of(
+                "PK",
+                AttributeValue.builder().s(PK_PREFIX + shard).build(),
+                "SK",
+                AttributeValue.builder().s(sk).build());
+    }
+}
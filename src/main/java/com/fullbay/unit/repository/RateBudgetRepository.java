@@ -0,0 +1,88 @@
+package com.fullbay.unit.repository;
+
+import com.fullbay.unit.metrics.UnitMetrics;
+import com.fullbay.unit.tracing.Span;
+import com.fullbay.unit.tracing.Tracing;
+
+import io.micrometer.core.annotation.Timed;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+
+import java.util.Map;
+
+/**
+ * Repository for call budgets shared by all instances. One counter item per budget and second, PK =
+ * SK = "RATE#&lt;budget&gt;#&lt;epochSecond&gt;", counting the calls taken in that second. Items
+ * expire a minute after their second. No top-level customerId/vin/updatedAt attributes.
+ */
+@ApplicationScoped
+@Slf4j
+@Timed(UnitMetrics.REPOSITORY_CALLS)
+public class RateBudgetRepository {
+
+    private static final String PK_PREFIX = "RATE#";
+    private static final long EXPIRY_SECONDS = 60;
+
+    private final DynamoDbClient dynamoDbClient;
+    private final String tableName;
+
+    @Inject
+    public RateBudgetRepository(
+            final DynamoDbClient dynamoDbClient,
+            @ConfigProperty(name = "dynamodb.table.name", defaultValue = "g-unit-service")
+                    final String tableName) {
+        this.dynamoDbClient = dynamoDbClient;
+        this.tableName = tableName;
+    }
+
+    /**
+     * Take one call from a second's budget, unless {@code limit} calls were already taken in it.
+     *
+     * @param budget The budget name
+     * @param epochSecond The second
+     * @param limit Calls allowed in the second
+     * @return false if the second's budget is spent
+     */
+    @SneakyThrows
+    public boolean tryTake(String budget, long epochSecond, int limit) {
+        try (Span span = Tracing.startSpan("rate-budget-repository-tryTake")) {
+            final AttributeValue key =
+                    AttributeValue.builder().s(PK_PREFIX + budget + "#" + epochSecond).build();
+            try {
+                dynamoDbClient.updateItem(
+                        req ->
+                                req.tableName(tableName)
+                                        .key(Map.of("PK", key, "SK", key))
+                                        .updateExpression("ADD used :one SET expiresAt = :expires")
+                                        .conditionExpression(
+                                                "attribute_not_exists(used) OR used < :limit")
+                                        .expressionAttributeValues(
+                                                Map.of(
+                                                        ":one",
+                                                        number(1),
+                                                        ":limit",
+                                                        number(limit),
+                                                        ":expires",
+                                                        number(epochSecond + EXPIRY_SECONDS))));
+                return true;
+            } catch (final ConditionalCheckFailedException e) {
+                log.debug("Budget {} spent for second {}", budget, epochSecond);
+                return false;
+            }
+        }
+    }
+
+    private static AttributeValue number(long value) {
+        return AttributeValue.builder().n(String.valueOf(value)).build();
+    }
+}
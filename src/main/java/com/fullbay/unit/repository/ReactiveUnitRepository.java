@@ -0,0 +1,356 @@
+package com.fullbay.unit.repository;
+
+import com.fullbay.unit.exception.UnitIdCollisionException;
+import com.fullbay.unit.metrics.UnitMetrics;
+import com.fullbay.unit.model.entity.Unit;
+import com.fullbay.unit.tracing.ReactiveTracing;
+import com.fullbay.unit.tracing.TraceAttributes;
+import com.fullbay.unit.util.Backoff;
+import com.fullbay.util.JacksonConverter;
+
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.KeysAndAttributes;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Non-blocking counterpart of {@link UnitRepository} on {@link DynamoDbAsyncClient}. Reads and the
+ * initial save only; updates and deletes stay on the blocking repository. Item layout is shared
+ * with {@link UnitRepository}. Lookups are not coalesced through {@link ItemLoader}, whose batching
+ * parks the calling thread.
+ */
+@ApplicationScoped
+@Slf4j
+public class ReactiveUnitRepository {
+
+    private static final int BATCH_GET_CHUNK_SIZE = 100;
+    private static final int MAX_UNPROCESSED_RETRIES = 5;
+
+    private final DynamoDbAsyncClient dynamoDbAsyncClient;
+    private final JacksonConverter jacksonConverter;
+    private final UnitMetrics unitMetrics;
+    private final String tableName;
+
+    @Inject
+    public ReactiveUnitRepository(
+            final DynamoDbAsyncClient dynamoDbAsyncClient,
+            final JacksonConverter jacksonConverter,
+            final UnitMetrics unitMetrics,
+            @ConfigProperty(name = "dynamodb.table.name", defaultValue = "g-unit-service")
+                    final String tableName) {
+        this.dynamoDbAsyncClient = dynamoDbAsyncClient;
+        this.jacksonConverter = jacksonConverter;
+        this.unitMetrics = unitMetrics;
+        this.tableName = tableName;
+    }
+
+    /**
+     * Save a new Unit, conditional on the ID being unused.
+     *
+     * @param entity The entity to save
+     * @return Completes when saved; fails with {@link UnitIdCollisionException} if the ID exists
+     */
+    public Uni<Void> save(Unit entity) {
+        return ReactiveTracing.traced(
+                "reactive-unit-repository-save",
+                span -> {
+                    span.attribute(TraceAttributes.UNIT_ID, entity.unitId());
+                    final Map<String, AttributeValue> item =
+                            UnitRepository.toItem(jacksonConverter, entity);
+                    return Uni.createFrom()
+                            .completionStage(
+                                    () ->
+                                            dynamoDbAsyncClient.putItem(
+                                                    req ->
+                                                            req.tableName(tableName)
+                                                                    .item(item)
+                                                                    .conditionExpression(
+                                                                            "attribute_not_exists(PK)")))
+                            .onFailure(ConditionalCheckFailedException.class)
+                            .transform(
+                                    e -> {
+                                        log.warn("Unit ID collision on save: {}", entity.unitId());
+                                        return new UnitIdCollisionException(entity.unitId());
+                                    })
+                            .invoke(() -> log.debug("Saved unit: {}", entity.unitId()))
+                            .replaceWithVoid();
+                });
+    }
+
+    /**
+     * Find a Unit by ID.
+     *
+     * @param unitId The unit ID
+     * @return Optional containing the unit if found
+     */
+    public Uni<Optional<Unit>> findById(String unitId) {
+        return ReactiveTracing.traced(
+                "reactive-unit-repository-findById",
+                span -> {
+                    span.attribute(TraceAttributes.UNIT_ID, unitId);
+                    return Uni.createFrom()
+                            .completionStage(
+                                    () ->
+                                            dynamoDbAsyncClient.getItem(
+                                                    req ->
+                                                            req.tableName(tableName)
+                                                                    .key(
+                                                                            UnitRepository.key(
+                                                                                    unitId))))
+                            .map(
+                                    response ->
+                                            response.hasItem() && !response.item().isEmpty()
+                                                    ? Optional.of(toUnit(response.item()))
+                                                    : Optional.<Unit>empty());
+                });
+    }
+
+    /**
+     * Find Units by ID using BatchGetItem, chunks issued concurrently. Results keep the order of
+     * {@code unitIds}; missing units are skipped.
+     *
+     * @param unitIds The unit IDs to look up
+     * @return The units found
+     */
+    public Uni<List<Unit>> findByIds(List<String> unitIds) {
+        if (unitIds.isEmpty()) {
+            return Uni.createFrom().item(List.of());
+        }
+        return ReactiveTracing.traced(
+                "reactive-unit-repository-findByIds",
+                span -> {
+                    span.attribute(TraceAttributes.UNIT_COUNT, unitIds.size());
+                    final List<String> idList = new ArrayList<>(new LinkedHashSet<>(unitIds));
+                    unitMetrics.fanOut("unit-findByIds", idList.size());
+
+                    final List<Uni<List<Map<String, AttributeValue>>>> chunks = new ArrayList<>();
+                    for (int i = 0; i < idList.size(); i += BATCH_GET_CHUNK_SIZE) {
+                        final List<Map<String, AttributeValue>> keys = new ArrayList<>();
+                        for (final String unitId :
+                                idList.subList(
+                                        i, Math.min(i + BATCH_GET_CHUNK_SIZE, idList.size()))) {
+                            keys.add(UnitRepository.key(unitId));
+                        }
+                        chunks.add(batchGet(keys, new ArrayList<>(), 0));
+                    }
+
+                    return Uni.join()
+                            .all(chunks)
+                            .andFailFast()
+                            .map(
+                                    results -> {
+                                        final Map<String, Unit> found = new HashMap<>();
+                                        results.stream()
+                                                .flatMap(List::stream)
+                                                .map(this::toUnit)
+                                                .forEach(unit -> found.put(unit.unitId(), unit));
+                                        return idList.stream()
+                                                .map(found::get)
+                                                .filter(Objects::nonNull)
+                                                .toList();
+                                    });
+                });
+    }
+
+    /**
+     * Units of a customer from GSI1-CustomerVin, one list per Query page. Each page is resolved
+     * with a BatchGetItem while the next page is being queried.
+     *
+     * @param customerId The customer ID
+     * @return Stream of unit pages
+     */
+    public Multi<List<Unit>> findByCustomerId(String customerId) {
+        return ReactiveTracing.tracedMulti(
+                "reactive-unit-repository-findByCustomerId",
+                span -> {
+                    span.attribute(TraceAttributes.CUSTOMER_ID, customerId);
+                    return pages(
+                            QueryRequest.builder()
+                                    .tableName(tableName)
+                                    .indexName("GSI1-CustomerVin")
+                                    .keyConditionExpression("customerId = :customerId")
+                                    .expressionAttributeValues(
+                                            Map.of(
+                                                    ":customerId",
+                                                    AttributeValue.builder().s(customerId).build()))
+                                    .build());
+                });
+    }
+
+    /**
+     * Units of a customer with the given VIN from GSI1-CustomerVin.
+     *
+     * @param customerId The customer ID
+     * @param vin The VIN
+     * @return Stream of unit pages
+     */
+    public Multi<List<Unit>> findByCustomerIdAndVin(String customerId, String vin) {
+        return ReactiveTracing.tracedMulti(
+                "reactive-unit-repository-findByCustomerIdAndVin",
+                span -> {
+                    span.attribute(TraceAttributes.CUSTOMER_ID, customerId);
+                    span.attribute(TraceAttributes.VIN, vin);
+                    return pages(
+                            QueryRequest.builder()
+                                    .tableName(tableName)
+                                    .indexName("GSI1-CustomerVin")
+                                    .keyConditionExpression(
+                                            "customerId = :customerId AND vin = :vin")
+                                    .expressionAttributeValues(
+                                            Map.of(
+                                                    ":customerId",
+                                                    AttributeValue.builder().s(customerId).build(),
+                                                    ":vin",
+                                                    AttributeValue.builder().s(vin).build()))
+                                    .build());
+                });
+    }
+
+    /**
+     * Units with the given VIN across all customers from GSI2-Vin.
+     *
+     * @param vin The VIN
+     * @return Stream of unit pages
+     */
+    public Multi<List<Unit>> findByVin(String vin) {
+        return ReactiveTracing.tracedMulti(
+                "reactive-unit-repository-findByVin",
+                span -> {
+                    span.attribute(TraceAttributes.VIN, vin);
+                    return pages(
+                            QueryRequest.builder()
+                                    .tableName(tableName)
+                                    .indexName("GSI2-Vin")
+                                    .keyConditionExpression("vin = :vin")
+                                    .expressionAttributeValues(
+                                            Map.of(":vin", AttributeValue.builder().s(vin).build()))
+                                    .build());
+                });
+    }
+
+    /**
+     * Page through a keys-only index query and resolve each page's units. The next Query is
+     * prefetched while the current page's BatchGetItem is in flight; page order is kept.
+     */
+    private Multi<List<Unit>> pages(QueryRequest request) {
+        return Multi.createBy()
+                .repeating()
+                .uni(
+                        () -> new AtomicReference<Map<String, AttributeValue>>(),
+                        lastKey ->
+                                Uni.createFrom()
+                                        .completionStage(
+                                                () ->
+                                                        dynamoDbAsyncClient.query(
+                                                                request.toBuilder()
+                                                                        .exclusiveStartKey(
+                                                                                lastKey.get())
+                                                                        .build()))
+                                        .invoke(
+                                                response ->
+                                                        lastKey.set(
+                                                                response.hasLastEvaluatedKey()
+                                                                                && !response.lastEvaluatedKey()
+                                                                                        .isEmpty()
+                                                                        ? response
+                                                                                .lastEvaluatedKey()
+                                                                        : null)))
+                .whilst(
+                        response ->
+                                response.hasLastEvaluatedKey()
+                                        && !response.lastEvaluatedKey().isEmpty())
+                .onItem()
+                .transformToUni(response -> findByIds(unitIds(response)))
+                .concatenate(true);
+    }
+
+    private static List<String> unitIds(QueryResponse response) {
+        return response.items().stream()
+                .map(item -> item.get("PK"))
+                .filter(Objects::nonNull)
+                .map(attr -> attr.s().replace("UNT#", ""))
+                .toList();
+    }
+
+    /**
+     * One BatchGetItem chunk, re-requesting unprocessed keys with backoff until none remain or the
+     * retries run out.
+     */
+    private Uni<List<Map<String, AttributeValue>>> batchGet(
+            List<Map<String, AttributeValue>> keys,
+            List<Map<String, AttributeValue>> items,
+            int attempt) {
+        if (attempt > MAX_UNPROCESSED_RETRIES) {
+            return Uni.createFrom()
+                    .failure(
+                            new IllegalStateException(
+                                    "Batch get left " + keys.size() + " unprocessed keys"));
+        }
+        unitMetrics.batch("unit", "BatchGetItem", keys.size());
+        return Uni.createFrom()
+                .completionStage(
+                        () ->
+                                dynamoDbAsyncClient.batchGetItem(
+                                        req ->
+                                                req.requestItems(
+                                                        Map.of(
+                                                                tableName,
+                                                                KeysAndAttributes.builder()
+                                                                        .keys(keys)
+                                                                        .build()))))
+                .flatMap(
+                        response -> {
+                            final List<Map<String, AttributeValue>> page =
+                                    response.responses().get(tableName);
+                            if (page != null) {
+                                items.addAll(page);
+                            }
+                            final List<Map<String, AttributeValue>> unprocessed =
+                                    unprocessedKeys(response);
+                            return unprocessed.isEmpty()
+                                    ? Uni.createFrom().item(items)
+                                    : Uni.createFrom()
+                                            .voidItem()
+                                            .onItem()
+                                            .delayIt()
+                                            .by(Backoff.delay(attempt + 1))
+                                            .flatMap(
+                                                    ignored ->
+                                                            batchGet(
+                                                                    unprocessed,
+                                                                    items,
+                                                                    attempt + 1));
+                        });
+    }
+
+    private List<Map<String, AttributeValue>> unprocessedKeys(BatchGetItemResponse response) {
+        final KeysAndAttributes unprocessed = response.unprocessedKeys().get(tableName);
+        return unprocessed == null ? List.of() : unprocessed.keys();
+    }
+
+    private Unit toUnit(Map<String, AttributeValue> item) {
+        return UnitRepository.fromItem(jacksonConverter, item);
+    }
+}
@@ -0,0 +1,213 @@
+package com.fullbay.unit.repository;
+
+import com.fullbay.unit.metrics.UnitMetrics;
+import com.fullbay.unit.model.entity.Vehicle;
+import com.fullbay.unit.tracing.ReactiveTracing;
+import com.fullbay.unit.tracing.TraceAttributes;
+import com.fullbay.unit.util.Backoff;
+import com.fullbay.util.JacksonConverter;
+
+import io.smallrye.mutiny.Uni;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.KeysAndAttributes;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Non-blocking counterpart of {@link VehicleRepository} on {@link DynamoDbAsyncClient}. Item layout
+ * is shared with {@link VehicleRepository}.
+ */
+@ApplicationScoped
+@Slf4j
+public class ReactiveVehicleRepository {
+
+    private static final int BATCH_GET_CHUNK_SIZE = 100;
+    private static final int MAX_UNPROCESSED_RETRIES = 5;
+
+    private final DynamoDbAsyncClient dynamoDbAsyncClient;
+    private final JacksonConverter jacksonConverter;
+    private final UnitMetrics unitMetrics;
+    private final String tableName;
+
+    @Inject
+    public ReactiveVehicleRepository(
+            final DynamoDbAsyncClient dynamoDbAsyncClient,
+            final JacksonConverter jacksonConverter,
+            final UnitMetrics unitMetrics,
+            @ConfigProperty(name = "dynamodb.table.name", defaultValue = "g-unit-service")
+                    final String tableName) {
+        this.dynamoDbAsyncClient = dynamoDbAsyncClient;
+        this.jacksonConverter = jacksonConverter;
+        this.unitMetrics = unitMetrics;
+        this.tableName = tableName;
+    }
+
+    /**
+     * Save a Vehicle as its VIN# item, overwriting any previous decode.
+     *
+     * @param entity The vehicle to save
+     * @return Completes when saved
+     */
+    public Uni<Void> save(Vehicle entity) {
+        return ReactiveTracing.traced(
+                "reactive-vehicle-repository-save",
+                span -> {
+                    span.attribute(TraceAttributes.VIN, entity.vin());
+                    final Map<String, AttributeValue> item =
+                            VehicleRepository.toItem(jacksonConverter, entity);
+                    return Uni.createFrom()
+                            .completionStage(
+                                    () ->
+                                            dynamoDbAsyncClient.putItem(
+                                                    req -> req.tableName(tableName).item(item)))
+                            .invoke(() -> log.debug("Saved vehicle: {}", entity.vin()))
+                            .replaceWithVoid();
+                });
+    }
+
+    /**
+     * Find a Vehicle by VIN.
+     *
+     * @param vin The VIN
+     * @return Optional containing the vehicle if found
+     */
+    public Uni<Optional<Vehicle>> findByVin(String vin) {
+        return ReactiveTracing.traced(
+                "reactive-vehicle-repository-findByVin",
+                span -> {
+                    span.attribute(TraceAttributes.VIN, vin);
+                    return Uni.createFrom()
+                            .completionStage(
+                                    () ->
+                                            dynamoDbAsyncClient.getItem(
+                                                    req ->
+                                                            req.tableName(tableName)
+                                                                    .key(
+                                                                            VehicleRepository.key(
+                                                                                    vin))))
+                            .map(
+                                    response ->
+                                            response.hasItem() && !response.item().isEmpty()
+                                                    ? Optional.of(toVehicle(response.item()))
+                                                    : Optional.<Vehicle>empty());
+                });
+    }
+
+    /**
+     * Find Vehicles by VIN using BatchGetItem, chunks issued concurrently.
+     *
+     * @param vins The VINs to look up
+     * @return Map of VIN to Vehicle for found items
+     */
+    public Uni<Map<String, Vehicle>> findByVins(Set<String> vins) {
+        if (vins.isEmpty()) {
+            return Uni.createFrom().item(Map.of());
+        }
+        return ReactiveTracing.traced(
+                "reactive-vehicle-repository-findByVins",
+                span -> {
+                    span.attribute(TraceAttributes.VIN_COUNT, vins.size());
+                    final List<String> vinList = new ArrayList<>(vins);
+                    unitMetrics.fanOut("vehicle-findByVins", vinList.size());
+
+                    final List<Uni<List<Map<String, AttributeValue>>>> chunks = new ArrayList<>();
+                    for (int i = 0; i < vinList.size(); i += BATCH_GET_CHUNK_SIZE) {
+                        final List<Map<String, AttributeValue>> keys = new ArrayList<>();
+                        for (final String vin :
+                                vinList.subList(
+                                        i, Math.min(i + BATCH_GET_CHUNK_SIZE, vinList.size()))) {
+                            keys.add(VehicleRepository.key(vin));
+                        }
+                        chunks.add(batchGet(keys, new ArrayList<>(), 0));
+                    }
+
+                    return Uni.join()
+                            .all(chunks)
+                            .andFailFast()
+                            .map(
+                                    results -> {
+                                        final Map<String, Vehicle> found = new HashMap<>();
+                                        results.stream()
+                                                .flatMap(List::stream)
+                                                .map(this::toVehicle)
+                                                .forEach(v -> found.put(v.vin(), v));
+                                        log.debug(
+                                                "Found {} vehicles for {} VINs",
+                                                found.size(),
+                                                vins.size());
+                                        return found;
+                                    });
+                });
+    }
+
+    /**
+     * One BatchGetItem chunk, re-requesting unprocessed keys with backoff until none remain or the
+     * retries run out.
+     */
+    private Uni<List<Map<String, AttributeValue>>> batchGet(
+            List<Map<String, AttributeValue>> keys,
+            List<Map<String, AttributeValue>> items,
+            int attempt) {
+        if (attempt > MAX_UNPROCESSED_RETRIES) {
+            return Uni.createFrom()
+                    .failure(
+                            new IllegalStateException(
+                                    "Batch get left " + keys.size() + " unprocessed keys"));
+        }
+        unitMetrics.batch("vehicle", "BatchGetItem", keys.size());
+        return Uni.createFrom()
+                .completionStage(
+                        () ->
+                                dynamoDbAsyncClient.batchGetItem(
+                                        req ->
+                                                req.requestItems(
+                                                        Map.of(
+                                                                tableName,
+                                                                KeysAndAttributes.builder()
+                                                                        .keys(keys)
+                                                                        .build()))))
+                .flatMap(
+                        response -> {
+                            final List<Map<String, AttributeValue>> page =
+                                    response.responses().get(tableName);
+                            if (page != null) {
+                                items.addAll(page);
+                            }
+                            final KeysAndAttributes unprocessed =
+                                    response.unprocessedKeys().get(tableName);
+                            return unprocessed == null || unprocessed.keys().isEmpty()
+                                    ? Uni.createFrom().item(items)
+                                    : Uni.createFrom()
+                                            .voidItem()
+                                            .onItem()
+                                            .delayIt()
+                                            .by(Backoff.delay(attempt + 1))
+                                            .flatMap(
+                                                    ignored ->
+                                                            batchGet(
+                                                                    unprocessed.keys(),
+                                                                    items,
+                                                                    attempt + 1));
+                        });
+    }
+
+    @SneakyThrows
+    private Vehicle toVehicle(Map<String, AttributeValue> item) {
+        return jacksonConverter.mapToObject(item.get("data").m(), Vehicle.class);
+    }
+}
@@ -0,0 +1,210 @@
+package com.fullbay.unit.repository;
+
+import com.fullbay.unit.exception.InvalidCursorException;
+import com.fullbay.unit.metrics.UnitMetrics;
+import com.fullbay.unit.model.entity.Unit;
+import com.fullbay.unit.model.response.UnitChanges;
+import com.fullbay.unit.tracing.Span;
+import com.fullbay.unit.tracing.TraceAttributes;
+import com.fullbay.unit.tracing.Tracing;
+import com.fullbay.util.JacksonConverter;
+
+import io.micrometer.core.annotation.Timed;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Repository for delta sync over GSI3-CustomerUpdated (customerId + updatedAt, projecting {@code
+ * data} and {@code unitId}). The index holds UNT# items and tombstones: PK = "TOMB#&lt;unitId&gt;",
+ * SK = "TOMB#&lt;customerId&gt;", written by {@link UnitOfWork} when a unit is deleted or moves to
+ * another customer, and expired after {@code sync.tombstone-retention}. Tombstones carry no vin, so
+ * they stay out of GSI1 and GSI2.
+ *
+ * <p>{@code updatedAt} is an ISO-8601 string whose fraction length varies, so string order can
+ * differ from time order within one second. Queries therefore start at the whole second and drop
+ * older items after reading; this only affects order inside that second, never what is returned.
+ */
+@ApplicationScoped
+@Slf4j
+@Timed(UnitMetrics.REPOSITORY_CALLS)
+public class UnitChangesRepository {
+
+    static final String INDEX_NAME = "GSI3-CustomerUpdated";
+    private static final String UNIT_PREFIX = "UNT#";
+    private static final String TOMBSTONE_PREFIX = "TOMB#";
+    private static final String CURSOR_SEPARATOR = "|";
+
+    private final DynamoDbClient dynamoDbClient;
+    private final JacksonConverter jacksonConverter;
+    private final Duration tombstoneRetention;
+    private final String tableName;
+
+    @Inject
+    public UnitChangesRepository(
+            final DynamoDbClient dynamoDbClient,
+            final JacksonConverter jacksonConverter,
+            @ConfigProperty(name = "sync.tombstone-retention", defaultValue = "720h")
+                    final Duration tombstoneRetention,
+            @ConfigProperty(name = "dynamodb.table.name", defaultValue = "g-unit-service")
+                    final String tableName) {
+        this.dynamoDbClient = dynamoDbClient;
+        this.jacksonConverter = jacksonConverter;
+        this.tombstoneRetention = tombstoneRetention;
+        this.tableName = tableName;
+    }
+
+    /** How long tombstones are kept; older {@code since} values cannot be answered as a delta. */
+    public Duration tombstoneRetention() {
+        return tombstoneRetention;
+    }
+
+    /**
+     * One page of a customer's units and tombstones changed after {@code since}, oldest first.
+     *
+     * @param customerId The customer ID
+     * @param since Exclusive lower bound, or null for every live unit (tombstones skipped)
+     * @param limit Maximum number of index items to read for this page
+     * @param cursor Cursor from a previous page, or null for the first page
+     * @return Changed slim units and deleted unit IDs, with the next cursor
+     * @throws InvalidCursorException if the cursor is malformed
+     */
+    @SneakyThrows
+    public UnitChanges findChanges(String customerId, Instant since, int limit, String cursor) {
+        try (Span span = Tracing.startSpan("unit-changes-repository-findChanges")) {
+            span.attribute(TraceAttributes.CUSTOMER_ID, customerId);
+
+            final Map<String, AttributeValue> values = new HashMap<>();
+            values.put(":customerId", AttributeValue.builder().s(customerId).build());
+            String keyCondition = "customerId = :customerId";
+            if (since != null) {
+                keyCondition += " AND updatedAt >= :from";
+                values.put(":from", AttributeValue.builder().s(secondPrefix(since)).build());
+            }
+
+            final QueryRequest.Builder request =
+                    QueryRequest.builder()
+                            .tableName(tableName)
+                            .indexName(INDEX_NAME)
+                            .keyConditionExpression(keyCondition)
+                            .expressionAttributeValues(values)
+                            .limit(limit);
+            if (cursor != null && !cursor.isEmpty()) {
+                request.exclusiveStartKey(decodeCursor(customerId, cursor));
+            }
+            final QueryResponse response = dynamoDbClient.query(request.build());
+
+            final List<Unit> units = new ArrayList<>();
+            final List<String> deleted = new ArrayList<>();
+            for (final Map<String, AttributeValue> item : response.items()) {
+                if (since != null && !Instant.parse(item.get("updatedAt").s()).isAfter(since)) {
+                    continue;
+                }
+                if (item.get("PK").s().startsWith(TOMBSTONE_PREFIX)) {
+                    if (since != null) {
+                        deleted.add(item.get("unitId").s());
+                    }
+                } else {
+                    units.add(jacksonConverter.mapToObject(item.get("data").m(), Unit.class));
+                }
+            }
+            span.attribute(TraceAttributes.UNIT_COUNT, units.size());
+
+            log.debug(
+                    "Found {} changed and {} deleted units for customer: {}",
+                    units.size(),
+                    deleted.size(),
+                    customerId);
+            return UnitChanges.builder()
+                    .items(units)
+                    .deleted(deleted)
+                    .nextCursor(
+                            response.hasLastEvaluatedKey()
+                                    ? encodeCursor(response.lastEvaluatedKey())
+                                    : null)
+                    .build();
+        }
+    }
+
+    /**
+     * Build the tombstone recording that a unit left a customer's fleet. Written by {@link
+     * UnitOfWork}.
+     */
+    Map<String, AttributeValue> tombstoneItem(String customerId, String unitId, Instant at) {
+        final Map<String, AttributeValue> item = new HashMap<>(tombstoneKey(customerId, unitId));
+        item.put("customerId", AttributeValue.builder().s(customerId).build());
+        item.put("unitId", AttributeValue.builder().s(unitId).build());
+        item.put("updatedAt", AttributeValue.builder().s(at.toString()).build());
+        item.put(
+                "expiresAt",
+                AttributeValue.builder()
+                        .n(String.valueOf(at.plus(tombstoneRetention).getEpochSecond()))
+                        .build());
+        return item;
+    }
+
+    /** Key of the tombstone a unit leaves under a customer. */
+    static Map<String, AttributeValue> tombstoneKey(String customerId, String unitId) {
+        return Map.of(
+                "PK", AttributeValue.builder().s(TOMBSTONE_PREFIX + unitId).build(),
+                "SK", AttributeValue.builder().s(TOMBSTONE_PREFIX + customerId).build());
+    }
+
+    /** Sorts before every ISO-8601 string within the same second ("...:05" &lt; "...:05.1Z"). */
+    private static String secondPrefix(Instant since) {
+        final String whole = since.truncatedTo(ChronoUnit.SECONDS).toString();
+        return whole.substring(0, whole.length() - 1);
+    }
+
+    private static String encodeCursor(Map<String, AttributeValue> lastKey) {
+        final String raw =
+                String.join(
+                        CURSOR_SEPARATOR,
+                        lastKey.get("updatedAt").s(),
+                        lastKey.get("PK").s(),
+                        lastKey.get("SK").s());
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Map<String, AttributeValue> decodeCursor(String customerId, String cursor) {
+        final String[] parts;
+        try {
+            parts =
+                    new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)
+                            .split("\\" + CURSOR_SEPARATOR, 3);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException();
+        }
+        if (parts.length != 3
+                || !(parts[1].startsWith(UNIT_PREFIX) || parts[1].startsWith(TOMBSTONE_PREFIX))) {
+            throw new InvalidCursorException();
+        }
+        return Map.of(
+                "customerId", AttributeValue.builder().s(customerId).build(),
+                "updatedAt", AttributeValue.builder().s(parts[0]).build(),
+                "PK", AttributeValue.builder().s(parts[1]).build(),
+                "SK", AttributeValue.builder().s(parts[2]).build());
+    }
+}
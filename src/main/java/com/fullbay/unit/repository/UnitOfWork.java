@@ -0,0 +1,451 @@
+package com.fullbay.unit.repository;
+
+import com.fullbay.unit.exception.UnitIdCollisionException;
+import com.fullbay.unit.exception.UnitNotFoundException;
+import com.fullbay.unit.exception.VersionConflictException;
+import com.fullbay.unit.metrics.UnitMetrics;
+import com.fullbay.unit.model.entity.Unit;
+import com.fullbay.unit.model.entity.UnitChangeEvent;
+import com.fullbay.unit.model.entity.Vehicle;
+import com.fullbay.unit.tracing.ReactiveTracing;
+import com.fullbay.unit.tracing.Span;
+import com.fullbay.unit.tracing.TraceAttributes;
+import com.fullbay.unit.tracing.Tracing;
+import com.fullbay.unit.util.Backoff;
+import com.fullbay.util.JacksonConverter;
+
+import io.micrometer.core.annotation.Timed;
+import io.smallrye.mutiny.Uni;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.CancellationReason;
+import software.amazon.awssdk.services.dynamodb.model.Delete;
+import software.amazon.awssdk.services.dynamodb.model.Put;
+import software.amazon.awssdk.services.dynamodb.model.ReturnValuesOnConditionCheckFailure;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
+import software.amazon.awssdk.services.dynamodb.model.TransactionCanceledException;
+import software.amazon.awssdk.services.dynamodb.model.Update;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Unit of work over {@link UnitRepository}, {@link VehicleRepository}, {@link OutboxRepository},
+ * {@link UnitChangesRepository} and {@link FleetSummaryRepository}. Writes collected on a {@link
+ * Transaction} are committed in one TransactWriteItems call, so either every item is written or
+ * none is. Item layout is shared with the repositories. A commit cancelled by a conflicting
+ * transaction is retried with backoff up to {@link #MAX_CONFLICT_RETRIES} times.
+ */
+@ApplicationScoped
+@Slf4j
+@Timed(UnitMetrics.REPOSITORY_CALLS)
+public class UnitOfWork {
+
+    private static final String CONDITIONAL_CHECK_FAILED = "ConditionalCheckFailed";
+    private static final String TRANSACTION_CONFLICT = "TransactionConflict";
+    static final int MAX_CONFLICT_RETRIES = 3;
+
+    private final DynamoDbClient dynamoDbClient;
+    private final DynamoDbAsyncClient dynamoDbAsyncClient;
+    private final OutboxRepository outboxRepository;
+    private final UnitChangesRepository unitChangesRepository;
+    private final JacksonConverter jacksonConverter;
+    private final UnitMetrics unitMetrics;
+    private final String tableName;
+
+    @Inject
+    public UnitOfWork(
+            final DynamoDbClient dynamoDbClient,
+            final DynamoDbAsyncClient dynamoDbAsyncClient,
+            final OutboxRepository outboxRepository,
+            final UnitChangesRepository unitChangesRepository,
+            final JacksonConverter jacksonConverter,
+            final UnitMetrics unitMetrics,
+            @ConfigProperty(name = "dynamodb.table.name", defaultValue = "g-unit-service")
+                    final String tableName) {
+        this.dynamoDbClient = dynamoDbClient;
+        this.dynamoDbAsyncClient = dynamoDbAsyncClient;
+        this.outboxRepository = outboxRepository;
+        this.unitChangesRepository = unitChangesRepository;
+        this.jacksonConverter = jacksonConverter;
+        this.unitMetrics = unitMetrics;
+        this.tableName = tableName;
+    }
+
+    /**
+     * Start collecting writes for one commit.
+     *
+     * @return An empty transaction
+     */
+    public Transaction begin() {
+        return new Transaction();
+    }
+
+    /** Writes collected for one commit. Not thread-safe; use once. */
+    public class Transaction {
+
+        private final List<Write> writes = new ArrayList<>();
+
+        /**
+         * Put the VIN# item unconditionally. A condition on the stored {@code contentHash} would
+         * cancel the whole transaction when the vehicle is unchanged and cost a second round trip,
+         * so an unchanged decode is simply rewritten.
+         *
+         * @param vehicle The vehicle to save
+         * @return This transaction
+         */
+        public Transaction saveVehicle(Vehicle vehicle) {
+            return saveVehicle(vehicle, null);
+        }
+
+        /**
+         * Put the VIN# item, or leave it out of the commit when the caller already knows the stored
+         * {@code contentHash} and it matches.
+         *
+         * @param vehicle The vehicle to save
+         * @param storedContentHash The hash on the stored VIN# item, or null if unknown
+         * @return This transaction
+         */
+        public Transaction saveVehicle(Vehicle vehicle, String storedContentHash) {
+            final Map<String, AttributeValue> item =
+                    VehicleRepository.toItem(jacksonConverter, vehicle);
+            if (storedContentHash != null
+                    && storedContentHash.equals(item.get(VehicleRepository.CONTENT_HASH).s())) {
+                log.debug("Skipping unchanged vehicle {}", vehicle.vin());
+                return this;
+            }
+            writes.add(
+                    new Write(
+                            "vehicle " + vehicle.vin(),
+                            TransactWriteItem.builder()
+                                    .put(Put.builder().tableName(tableName).item(item).build())
+                                    .build(),
+                            null));
+            return this;
+        }
+
+        /**
+         * Put a new UNT# item, conditional on the ID being unused.
+         *
+         * @param unit The unit to save
+         * @return This transaction
+         */
+        public Transaction saveNewUnit(Unit unit) {
+            writes.add(
+                    new Write(
+                            "unit " + unit.unitId(),
+                            TransactWriteItem.builder()
+                                    .put(
+                                            Put.builder()
+                                                    .tableName(tableName)
+                                                    .item(
+                                                            UnitRepository.toItem(
+                                                                    jacksonConverter, unit))
+                                                    .conditionExpression("attribute_not_exists(PK)")
+                                                    .build())
+                                    .build(),
+                            reason -> {
+                                log.warn("Unit ID collision on save: {}", unit.unitId());
+                                return new UnitIdCollisionException(unit.unitId());
+                            }));
+            return this;
+        }
+
+        /**
+         * Overwrite a UNT# item. Like {@link UnitRepository#update(Unit)}, the entity carries its
+         * next version and the write requires the stored item to be at the previous one.
+         *
+         * @param unit The updated unit
+         * @return This transaction
+         */
+        public Transaction updateUnit(Unit unit) {
+            final long expectedVersion = unit.version() != null ? unit.version() - 1 : 0L;
+            writes.add(
+                    new Write(
+                            "unit " + unit.unitId(),
+                            TransactWriteItem.builder()
+                                    .put(
+                                            Put.builder()
+                                                    .tableName(tableName)
+                                                    .item(
+                                                            UnitRepository.toItem(
+                                                                    jacksonConverter, unit))
+                                                    .conditionExpression(
+                                                            UnitRepository.versionCondition(
+                                                                    expectedVersion))
+                                                    .expressionAttributeNames(
+                                                            Map.of("#version", "version"))
+                                                    .expressionAttributeValues(
+                                                            versionValue(expectedVersion))
+                                                    .returnValuesOnConditionCheckFailure(
+                                                            ReturnValuesOnConditionCheckFailure
+                                                                    .ALL_OLD)
+                                                    .build())
+                                    .build(),
+                            versionFailure(unit.unitId(), expectedVersion)));
+            return this;
+        }
+
+        /**
+         * Delete a UNT# item, provided it is still at the version that was read.
+         *
+         * @param unit The unit as read
+         * @return This transaction
+         */
+        public Transaction deleteUnit(Unit unit) {
+            final long expectedVersion = unit.version() != null ? unit.version() : 0L;
+            writes.add(
+                    new Write(
+                            "unit " + unit.unitId(),
+                            TransactWriteItem.builder()
+                                    .delete(
+                                            Delete.builder()
+                                                    .tableName(tableName)
+                                                    .key(UnitRepository.key(unit.unitId()))
+                                                    .conditionExpression(
+                                                            UnitRepository.versionCondition(
+                                                                    expectedVersion))
+                                                    .expressionAttributeNames(
+                                                            Map.of("#version", "version"))
+                                                    .expressionAttributeValues(
+                                                            versionValue(expectedVersion))
+                                                    .returnValuesOnConditionCheckFailure(
+                                                            ReturnValuesOnConditionCheckFailure
+                                                                    .ALL_OLD)
+                                                    .build())
+                                    .build(),
+                            versionFailure(unit.unitId(), expectedVersion)));
+            return this;
+        }
+
+        /**
+         * Record for delta sync that a unit left a customer's fleet, by deletion or by moving to
+         * another customer.
+         *
+         * @param customerId The customer the unit left
+         * @param unitId The unit ID
+         * @param at When it left; the tombstone sorts among that customer's changes by this time
+         * @return This transaction
+         */
+        public Transaction writeTombstone(String customerId, String unitId, Instant at) {
+            writes.add(
+                    new Write(
+                            "tombstone " + unitId,
+                            TransactWriteItem.builder()
+                                    .put(
+                                            Put.builder()
+                                                    .tableName(tableName)
+                                                    .item(
+                                                            unitChangesRepository.tombstoneItem(
+                                                                    customerId, unitId, at))
+                                                    .build())
+                                    .build(),
+                            null));
+            return this;
+        }
+
+        /**
+         * Remove the tombstone a unit left under a customer it is now joining again, so that
+         * customer's delta sync stops reporting it as deleted. A no-op if there is none.
+         *
+         * @param customerId The customer the unit joins
+         * @param unitId The unit ID
+         * @return This transaction
+         */
+        public Transaction deleteTombstone(String customerId, String unitId) {
+            writes.add(
+                    new Write(
+                            "tombstone " + unitId,
+                            TransactWriteItem.builder()
+                                    .delete(
+                                            Delete.builder()
+                                                    .tableName(tableName)
+                                                    .key(
+                                                            UnitChangesRepository.tombstoneKey(
+                                                                    customerId, unitId))
+                                                    .build())
+                                    .build(),
+                            null));
+            return this;
+        }
+
+        /**
+         * Apply fleet summary counter deltas to a customer's AGG# item, so the counts move with the
+         * unit write or not at all. A no-op when every delta is zero. At most one call per customer
+         * per transaction, since a transaction may touch an item only once.
+         *
+         * @param customerId The customer ID
+         * @param deltas Counter name to delta
+         * @return This transaction
+         */
+        public Transaction addFleetCounts(String customerId, Map<String, Long> deltas) {
+            final Update update = FleetSummaryRepository.deltaUpdate(tableName, customerId, deltas);
+            if (update != null) {
+                writes.add(
+                        new Write(
+                                "fleet summary " + customerId,
+                                TransactWriteItem.builder().update(update).build(),
+                                null));
+            }
+            return this;
+        }
+
+        /**
+         * Append a change event to the outbox.
+         *
+         * @param event The event
+         * @return This transaction
+         */
+        public Transaction appendEvent(UnitChangeEvent event) {
+            writes.add(
+                    new Write(
+                            "event " + event.op() + " " + event.unitId(),
+                            TransactWriteItem.builder()
+                                    .put(
+                                            Put.builder()
+                                                    .tableName(tableName)
+                                                    .item(outboxRepository.toItem(event))
+                                                    .build())
+                                    .build(),
+                            null));
+            return this;
+        }
+
+        /**
+         * Write everything collected in one TransactWriteItems call.
+         *
+         * @throws UnitIdCollisionException if a new unit's ID is already taken
+         * @throws UnitNotFoundException if an updated or deleted unit no longer exists
+         * @throws VersionConflictException if an updated or deleted unit changed since it was read
+         */
+        public void commit() {
+            UnitOfWork.this.commit(writes);
+        }
+
+        /**
+         * Non-blocking {@link #commit()} on the async client, with the same failures.
+         *
+         * @return Completes when committed
+         */
+        public Uni<Void> commitAsync() {
+            return ReactiveTracing.traced(
+                    "reactive-unit-of-work-commit",
+                    span -> {
+                        span.attribute(TraceAttributes.ITEM_COUNT, writes.size());
+                        return UnitOfWork.this.commitAsync(writes);
+                    });
+        }
+    }
+
+    private static Map<String, AttributeValue> versionValue(long expectedVersion) {
+        return Map.of(
+                ":expected", AttributeValue.builder().n(String.valueOf(expectedVersion)).build());
+    }
+
+    private static Function<CancellationReason, RuntimeException> versionFailure(
+            String unitId, long expectedVersion) {
+        return reason ->
+                UnitRepository.conditionFailure(
+                        unitId, expectedVersion, reason.hasItem() && !reason.item().isEmpty());
+    }
+
+    /**
+     * One collected write. {@code onConditionFailed} maps a failed condition to the caller's
+     * exception; null marks an unconditional write.
+     */
+    private record Write(
+            String target,
+            TransactWriteItem item,
+            Function<CancellationReason, RuntimeException> onConditionFailed) {}
+
+    private void commit(List<Write> writes) {
+        if (writes.isEmpty()) {
+            return;
+        }
+        try (Span span = Tracing.startSpan("unit-of-work-commit")) {
+            span.attribute(TraceAttributes.ITEM_COUNT, writes.size());
+            final List<TransactWriteItem> items = writes.stream().map(Write::item).toList();
+            for (int conflicts = 0; ; conflicts++) {
+                unitMetrics.batch("unit-of-work", "TransactWriteItems", items.size());
+                try {
+                    dynamoDbClient.transactWriteItems(req -> req.transactItems(items));
+                    log.debug("Committed {} items", items.size());
+                    return;
+                } catch (final TransactionCanceledException e) {
+                    if (!isConflict(e) || conflicts >= MAX_CONFLICT_RETRIES) {
+                        throw failure(writes, e);
+                    }
+                    log.debug("Transaction conflict, retry {}", conflicts + 1);
+                    Backoff.sleep(conflicts + 1);
+                }
+            }
+        }
+    }
+
+    private Uni<Void> commitAsync(List<Write> writes) {
+        if (writes.isEmpty()) {
+            return Uni.createFrom().voidItem();
+        }
+        final List<TransactWriteItem> items = writes.stream().map(Write::item).toList();
+        return Uni.createFrom()
+                .deferred(
+                        () -> {
+                            unitMetrics.batch("unit-of-work", "TransactWriteItems", items.size());
+                            return Uni.createFrom()
+                                    .completionStage(
+                                            dynamoDbAsyncClient.transactWriteItems(
+                                                    req -> req.transactItems(items)));
+                        })
+                .onFailure(e -> e instanceof TransactionCanceledException tce && isConflict(tce))
+                .retry()
+                .withBackOff(Backoff.BASE, Backoff.MAX)
+                .withJitter(1.0)
+                .atMost(MAX_CONFLICT_RETRIES)
+                .invoke(() -> log.debug("Committed {} items", items.size()))
+                .replaceWithVoid()
+                .onFailure(TransactionCanceledException.class)
+                .transform(e -> failure(writes, (TransactionCanceledException) e));
+    }
+
+    /**
+     * Whether a commit was cancelled by a concurrent transaction on one of its items (e.g. another
+     * unit write counting into the same AGG# item). Nothing was written, so the same writes can be
+     * retried.
+     */
+    private static boolean isConflict(TransactionCanceledException e) {
+        return e.hasCancellationReasons()
+                && e.cancellationReasons().stream()
+                        .anyMatch(reason -> TRANSACTION_CONFLICT.equals(reason.code()));
+    }
+
+    /**
+     * Map a cancelled commit to the exception of the first write whose condition failed. Other
+     * cancellations (e.g. conflicts left after the retries) are returned as they are.
+     */
+    private static RuntimeException failure(List<Write> writes, TransactionCanceledException e) {
+        if (!e.hasCancellationReasons() || e.cancellationReasons().size() != writes.size()) {
+            return e;
+        }
+        final List<CancellationReason> reasons = e.cancellationReasons();
+        for (int i = 0; i < writes.size(); i++) {
+            final Write write = writes.get(i);
+            if (CONDITIONAL_CHECK_FAILED.equals(reasons.get(i).code())
+                    && write.onConditionFailed() != null) {
+                return write.onConditionFailed().apply(reasons.get(i));
+            }
+        }
+        return e;
+    }
+}
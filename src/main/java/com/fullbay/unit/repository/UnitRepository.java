@@ -1,10 +1,19 @@
 package com.fullbay.unit.repository;
 
-import com.amazonaws.xray.AWSXRay;
-import com.amazonaws.xray.entities.Subsegment;
+import com.fullbay.unit.exception.UnitIdCollisionException;
+import com.fullbay.unit.exception.UnitNotFoundException;
+import com.fullbay.unit.exception.VersionConflictException;
+import com.fullbay.unit.metrics.UnitMetrics;
 import com.fullbay.unit.model.entity.Unit;
+import com.fullbay.unit.model.entity.VehicleDimensions;
+import com.fullbay.unit.tracing.Span;
+import com.fullbay.unit.tracing.TraceAttributes;
+import com.fullbay.unit.tracing.Tracing;
+import com.fullbay.unit.util.Backoff;
 import com.fullbay.util.JacksonConverter;
 
+import io.micrometer.core.annotation.Timed;
+
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 
@@ -15,134 +24,177 @@ import org.eclipse.microprofile.config.inject.ConfigProperty;
 
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
 import software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest;
-import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
-import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.KeysAndAttributes;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
 import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
 import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+import software.amazon.awssdk.services.dynamodb.model.ReturnValuesOnConditionCheckFailure;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /** Repository for DynamoDB Unit operations. */
 @ApplicationScoped
 @Slf4j
+@Timed(UnitMetrics.REPOSITORY_CALLS)
 public class UnitRepository {
 
+    private static final int BATCH_GET_CHUNK_SIZE = 100;
+    private static final int MAX_UNPROCESSED_RETRIES = 5;
+    private static final String DIMENSIONS = "dimensions";
+
     private final DynamoDbClient dynamoDbClient;
     private final JacksonConverter jacksonConverter;
+    private final UnitMetrics unitMetrics;
+    private final ItemLoader itemLoader;
     private final String tableName;
 
     @Inject
     public UnitRepository(
             final DynamoDbClient dynamoDbClient,
             final JacksonConverter jacksonConverter,
+            final UnitMetrics unitMetrics,
+            final ItemLoader itemLoader,
             @ConfigProperty(name = "dynamodb.table.name", defaultValue = "g-unit-service")
                     final String tableName) {
         this.dynamoDbClient = dynamoDbClient;
         this.jacksonConverter = jacksonConverter;
+        this.unitMetrics = unitMetrics;
+        this.itemLoader = itemLoader;
         this.tableName = tableName;
     }
 
     /**
-     * Save or update a Unit entity as JSON. Only persists association fields (unitId, customerId,
-     * vin, attributes, timestamps). Vehicle data is stored separately in VIN# items.
+     * Save a new Unit entity as JSON. Only persists association fields (unitId, customerId, vin,
+     * attributes, timestamps, version). Vehicle data is stored separately in VIN# items. The put is
+     * conditional on the ID being unused, so an ID collision can never overwrite another unit.
      *
      * @param entity The entity to save
+     * @throws UnitIdCollisionException if a unit with this ID already exists
      */
     @SneakyThrows
     public void save(Unit entity) {
-        try (Subsegment segment = AWSXRay.beginSubsegment("unit-repository-save")) {
-            segment.putAnnotation("unitId", entity.unitId());
-
-            final String pk = "UNT#" + entity.unitId();
-            final String sk = "UNT#" + entity.unitId();
-
-            // Build slim Unit with only association fields; vehicle fields are null
-            // and filtered out by NON_NULL serialization
-            final Unit slimUnit =
-                    Unit.builder()
-                            .unitId(entity.unitId())
-                            .customerId(entity.customerId())
-                            .vin(entity.vin())
-                            .attributes(entity.attributes())
-                            .createdAt(entity.createdAt())
-                            .updatedAt(entity.updatedAt())
-                            .build();
-
-            // Serialize slim Unit to DynamoDB MAP, filtering out NULL values
-            final Map<String, AttributeValue> unitMap =
-                    jacksonConverter.objectToMap(slimUnit).entrySet().stream()
-                            .filter(e -> e.getValue().nul() == null || !e.getValue().nul())
-                            .collect(
-                                    java.util.stream.Collectors.toMap(
-                                            java.util.Map.Entry::getKey,
-                                            java.util.Map.Entry::getValue));
-
-            // Store PK/SK + key fields as separate attributes + entire Unit as MAP in data field
-            final Map<String, AttributeValue> item = new HashMap<>();
-            item.put("PK", AttributeValue.builder().s(pk).build());
-            item.put("SK", AttributeValue.builder().s(sk).build());
-            item.put("customerId", AttributeValue.builder().s(entity.customerId()).build());
-            item.put("vin", AttributeValue.builder().s(entity.vin()).build());
-            item.put(
-                    "createdAt",
-                    AttributeValue.builder()
-                            .s(entity.createdAt() != null ? entity.createdAt().toString() : "")
-                            .build());
-            item.put(
-                    "updatedAt",
-                    AttributeValue.builder()
-                            .s(entity.updatedAt() != null ? entity.updatedAt().toString() : "")
-                            .build());
-            item.put("data", AttributeValue.builder().m(unitMap).build());
-
-            dynamoDbClient.putItem(req -> req.tableName(tableName).item(item));
+        try (Span span = Tracing.startSpan("unit-repository-save")) {
+            span.attribute(TraceAttributes.UNIT_ID, entity.unitId());
+
+            final Map<String, AttributeValue> item = toItem(jacksonConverter, entity);
+
+            try {
+                dynamoDbClient.putItem(
+                        req ->
+                                req.tableName(tableName)
+                                        .item(item)
+                                        .conditionExpression("attribute_not_exists(PK)"));
+            } catch (final ConditionalCheckFailedException e) {
+                log.warn("Unit ID collision on save: {}", entity.unitId());
+                throw new UnitIdCollisionException(entity.unitId());
+            }
             log.debug("Saved unit: {}", entity.unitId());
         }
     }
 
     /**
-     * Find a Unit by ID.
+     * Find a Unit by ID. Coalesced with concurrent lookups through {@link ItemLoader}.
      *
      * @param unitId The unit ID
      * @return Optional containing the unit if found
      */
     @SneakyThrows
     public Optional<Unit> findById(String unitId) {
-        try (Subsegment segment = AWSXRay.beginSubsegment("unit-repository-findById")) {
-            segment.putAnnotation("unitId", unitId);
+        try (Span span = Tracing.startSpan("unit-repository-findById")) {
+            span.attribute(TraceAttributes.UNIT_ID, unitId);
 
             final String pk = "UNT#" + unitId;
             final String sk = "UNT#" + unitId;
 
-            final GetItemResponse response =
-                    dynamoDbClient.getItem(
-                            GetItemRequest.builder()
-                                    .tableName(tableName)
-                                    .key(
-                                            Map.of(
-                                                    "PK",
-                                                    AttributeValue.builder().s(pk).build(),
-                                                    "SK",
-                                                    AttributeValue.builder().s(sk).build()))
-                                    .build());
+            final Optional<Map<String, AttributeValue>> item = itemLoader.get(pk, sk);
 
-            if (!response.hasItem()) {
+            if (item.isEmpty()) {
                 log.debug("Unit not found: {}", unitId);
                 return Optional.empty();
             }
 
             // Deserialize from DynamoDB MAP data field
-            final Map<String, AttributeValue> unitMap = response.item().get("data").m();
-            final Unit entity = jacksonConverter.mapToObject(unitMap, Unit.class);
+            final Unit entity = fromItem(jacksonConverter, item.get());
             log.debug("Retrieved unit: {}", unitId);
             return Optional.of(entity);
         }
     }
 
+    /**
+     * Find multiple Units by ID using BatchGetItem. Chunked at 100 items per request; unprocessed
+     * keys are retried with backoff a bounded number of times.
+     *
+     * @param unitIds The unit IDs to look up
+     * @return Map of unit ID to Unit for found items
+     */
+    @SneakyThrows
+    public Map<String, Unit> findByIds(Collection<String> unitIds) {
+        try (Span span = Tracing.startSpan("unit-repository-findByIds")) {
+            span.attribute(TraceAttributes.UNIT_COUNT, unitIds.size());
+
+            if (unitIds.isEmpty()) {
+                return Map.of();
+            }
+
+            final Map<String, Unit> result = new HashMap<>();
+            final List<String> idList = new ArrayList<>(new LinkedHashSet<>(unitIds));
+            unitMetrics.fanOut("unit-findByIds", idList.size());
+
+            for (int i = 0; i < idList.size(); i += BATCH_GET_CHUNK_SIZE) {
+                final List<Map<String, AttributeValue>> keys = new ArrayList<>();
+                for (final String unitId :
+                        idList.subList(i, Math.min(i + BATCH_GET_CHUNK_SIZE, idList.size()))) {
+                    keys.add(key(unitId));
+                }
+
+                Map<String, KeysAndAttributes> requestItems =
+                        Map.of(tableName, KeysAndAttributes.builder().keys(keys).build());
+                for (int attempt = 0; !requestItems.isEmpty(); attempt++) {
+                    if (attempt > MAX_UNPROCESSED_RETRIES) {
+                        throw new IllegalStateException(
+                                "Unit batch get left "
+                                        + requestItems.get(tableName).keys().size()
+                                        + " unprocessed keys");
+                    }
+                    if (attempt > 0) {
+                        Backoff.sleep(attempt);
+                    }
+                    unitMetrics.batch(
+                            "unit", "BatchGetItem", requestItems.get(tableName).keys().size());
+                    final BatchGetItemResponse response =
+                            dynamoDbClient.batchGetItem(
+                                    BatchGetItemRequest.builder()
+                                            .requestItems(requestItems)
+                                            .build());
+
+                    final List<Map<String, AttributeValue>> items =
+                            response.responses().get(tableName);
+                    if (items != null) {
+                        for (final Map<String, AttributeValue> item : items) {
+                            final Unit unit = fromItem(jacksonConverter, item);
+                            result.put(unit.unitId(), unit);
+                        }
+                    }
+                    requestItems = response.unprocessedKeys();
+                }
+            }
+
+            log.debug("Found {} units for {} IDs", result.size(), unitIds.size());
+            return result;
+        }
+    }
+
     /**
      * Find units by Customer ID and VIN using GSI.
      *
@@ -152,10 +204,9 @@ public class UnitRepository {
      */
     @SneakyThrows
     public List<Unit> findByCustomerIdAndVin(String customerId, String vin) {
-        try (Subsegment segment =
-                AWSXRay.beginSubsegment("unit-repository-findByCustomerIdAndVin")) {
-            segment.putAnnotation("customerId", customerId);
-            segment.putAnnotation("vin", vin);
+        try (Span span = Tracing.startSpan("unit-repository-findByCustomerIdAndVin")) {
+            span.attribute(TraceAttributes.CUSTOMER_ID, customerId);
+            span.attribute(TraceAttributes.VIN, vin);
 
             final QueryResponse response =
                     dynamoDbClient.query(
@@ -186,8 +237,8 @@ public class UnitRepository {
      */
     @SneakyThrows
     public List<Unit> findByCustomerId(String customerId) {
-        try (Subsegment segment = AWSXRay.beginSubsegment("unit-repository-findByCustomerId")) {
-            segment.putAnnotation("customerId", customerId);
+        try (Span span = Tracing.startSpan("unit-repository-findByCustomerId")) {
+            span.attribute(TraceAttributes.CUSTOMER_ID, customerId);
 
             final QueryResponse response =
                     dynamoDbClient.query(
@@ -207,6 +258,64 @@ public class UnitRepository {
         }
     }
 
+    /**
+     * Walk a customer's units one GSI1 page at a time, in VIN order. Each page of keys is loaded
+     * with one BatchGetItem and handed to {@code consumer} before the next page is queried, so only
+     * one page is held at a time.
+     *
+     * @param customerId The customer ID
+     * @param pageSize Units per page
+     * @param consumer Called once per non-empty page
+     */
+    @SneakyThrows
+    public void forEachPageByCustomerId(
+            String customerId, int pageSize, Consumer<List<Unit>> consumer) {
+        try (Span span = Tracing.startSpan("unit-repository-forEachPageByCustomerId")) {
+            span.attribute(TraceAttributes.CUSTOMER_ID, customerId);
+
+            int total = 0;
+            Map<String, AttributeValue> startKey = null;
+            do {
+                final QueryResponse response =
+                        dynamoDbClient.query(
+                                QueryRequest.builder()
+                                        .tableName(tableName)
+                                        .indexName("GSI1-CustomerVin")
+                                        .keyConditionExpression("customerId = :customerId")
+                                        .expressionAttributeValues(
+                                                Map.of(
+                                                        ":customerId",
+                                                        AttributeValue.builder()
+                                                                .s(customerId)
+                                                                .build()))
+                                        .limit(pageSize)
+                                        .exclusiveStartKey(startKey)
+                                        .build());
+                startKey = response.hasLastEvaluatedKey() ? response.lastEvaluatedKey() : null;
+
+                final List<String> unitIds = new ArrayList<>();
+                for (final Map<String, AttributeValue> item : response.items()) {
+                    unitIds.add(item.get("PK").s().substring("UNT#".length()));
+                }
+                final Map<String, Unit> found = findByIds(unitIds);
+                final List<Unit> page = new ArrayList<>(found.size());
+                for (final String unitId : unitIds) {
+                    final Unit unit = found.get(unitId);
+                    if (unit != null) {
+                        page.add(unit);
+                    }
+                }
+                if (!page.isEmpty()) {
+                    consumer.accept(page);
+                    total += page.size();
+                }
+            } while (startKey != null);
+
+            span.attribute(TraceAttributes.UNIT_COUNT, total);
+            log.debug("Walked {} units for customer: {}", total, customerId);
+        }
+    }
+
     /**
      * Find units by VIN using GSI2-Vin (across all customers).
      *
@@ -215,8 +324,8 @@ public class UnitRepository {
      */
     @SneakyThrows
     public List<Unit> findByVin(String vin) {
-        try (Subsegment segment = AWSXRay.beginSubsegment("unit-repository-findByVin")) {
-            segment.putAnnotation("vin", vin);
+        try (Span span = Tracing.startSpan("unit-repository-findByVin")) {
+            span.attribute(TraceAttributes.VIN, vin);
 
             final QueryResponse response =
                     dynamoDbClient.query(
@@ -251,8 +360,8 @@ public class UnitRepository {
      * @param unitId The unit ID to delete
      */
     public void delete(String unitId) {
-        try (Subsegment segment = AWSXRay.beginSubsegment("unit-repository-delete")) {
-            segment.putAnnotation("unitId", unitId);
+        try (Span span = Tracing.startSpan("unit-repository-delete")) {
+            span.attribute(TraceAttributes.UNIT_ID, unitId);
 
             final String pk = "UNT#" + unitId;
             final String sk = "UNT#" + unitId;
@@ -273,11 +382,174 @@ public class UnitRepository {
     }
 
     /**
-     * Update a Unit entity (same as save - overwrites).
+     * Conditionally overwrite a Unit. The entity must already carry its next version; the write
+     * only succeeds if the stored item is still at {@code entity.version() - 1}, so concurrent
+     * read-modify-write cycles cannot silently lose updates.
      *
      * @param entity The entity to update
+     * @throws UnitNotFoundException if the unit no longer exists
+     * @throws VersionConflictException if another writer updated the unit in the meantime
      */
+    @SneakyThrows
     public void update(Unit entity) {
-        save(entity);
+        try (Span span = Tracing.startSpan("unit-repository-update")) {
+            span.attribute(TraceAttributes.UNIT_ID, entity.unitId());
+
+            final long expectedVersion = entity.version() != null ? entity.version() - 1 : 0L;
+            span.attribute(TraceAttributes.EXPECTED_VERSION, expectedVersion);
+
+            try {
+                dynamoDbClient.putItem(
+                        PutItemRequest.builder()
+                                .tableName(tableName)
+                                .item(toItem(jacksonConverter, entity))
+                                .conditionExpression(versionCondition(expectedVersion))
+                                .expressionAttributeNames(Map.of("#version", "version"))
+                                .expressionAttributeValues(
+                                        Map.of(
+                                                ":expected",
+                                                AttributeValue.builder()
+                                                        .n(String.valueOf(expectedVersion))
+                                                        .build()))
+                                .returnValuesOnConditionCheckFailure(
+                                        ReturnValuesOnConditionCheckFailure.ALL_OLD)
+                                .build());
+            } catch (final ConditionalCheckFailedException e) {
+                throw conditionFailure(entity.unitId(), expectedVersion, e);
+            }
+
+            log.debug("Updated unit: {} to version {}", entity.unitId(), expectedVersion + 1);
+        }
+    }
+
+    /**
+     * Build the UNT# item for a Unit: PK/SK + key fields as separate attributes + slim Unit as MAP
+     * in the data field. Shared with {@link ReactiveUnitRepository}.
+     */
+    static Map<String, AttributeValue> toItem(JacksonConverter jacksonConverter, Unit entity) {
+        // Build slim Unit with only association fields; vehicle fields are null
+        // and filtered out by NON_NULL serialization
+        final Unit slimUnit =
+                Unit.builder()
+                        .unitId(entity.unitId())
+                        .customerId(entity.customerId())
+                        .vin(entity.vin())
+                        .attributes(entity.attributes())
+                        .createdAt(entity.createdAt())
+                        .updatedAt(entity.updatedAt())
+                        .version(entity.version() != null ? entity.version() : 1L)
+                        .build();
+
+        // Serialize slim Unit to DynamoDB MAP, filtering out NULL values
+        final Map<String, AttributeValue> unitMap =
+                jacksonConverter.objectToMap(slimUnit).entrySet().stream()
+                        .filter(e -> e.getValue().nul() == null || !e.getValue().nul())
+                        .collect(
+                                java.util.stream.Collectors.toMap(
+                                        java.util.Map.Entry::getKey,
+                                        java.util.Map.Entry::getValue));
+
+        final Map<String, AttributeValue> item = new HashMap<>(key(entity.unitId()));
+        item.put("customerId", AttributeValue.builder().s(entity.customerId()).build());
+        item.put("vin", AttributeValue.builder().s(entity.vin()).build());
+        item.put(
+                "createdAt",
+                AttributeValue.builder()
+                        .s(entity.createdAt() != null ? entity.createdAt().toString() : "")
+                        .build());
+        // Sort key of GSI3-CustomerUpdated, which rejects empty strings
+        if (entity.updatedAt() != null) {
+            item.put(
+                    "updatedAt", AttributeValue.builder().s(entity.updatedAt().toString()).build());
+        }
+        item.put("version", AttributeValue.builder().n(String.valueOf(slimUnit.version())).build());
+        item.put("data", AttributeValue.builder().m(unitMap).build());
+        if (entity.dimensions() != null) {
+            item.put(DIMENSIONS, AttributeValue.builder().m(toMap(entity.dimensions())).build());
+        }
+        return item;
+    }
+
+    /**
+     * Read a Unit from its UNT# item, with the fleet summary and search index dimensions stored
+     * beside the slim data. Shared with {@link ReactiveUnitRepository}.
+     */
+    @SneakyThrows
+    static Unit fromItem(JacksonConverter jacksonConverter, Map<String, AttributeValue> item) {
+        final Unit unit = jacksonConverter.mapToObject(item.get("data").m(), Unit.class);
+        final AttributeValue dimensions = item.get(DIMENSIONS);
+        return dimensions != null && dimensions.hasM()
+                ? unit.withDimensions(fromMap(dimensions.m()))
+                : unit;
+    }
+
+    private static Map<String, AttributeValue> toMap(VehicleDimensions dimensions) {
+        final Map<String, AttributeValue> map = new HashMap<>();
+        putIfPresent(map, "make", dimensions.make());
+        putIfPresent(map, "model", dimensions.model());
+        if (dimensions.year() != null) {
+            map.put("year", AttributeValue.builder().n(String.valueOf(dimensions.year())).build());
+        }
+        putIfPresent(map, "fuelType", dimensions.fuelType());
+        putIfPresent(map, "vehicleType", dimensions.vehicleType());
+        putIfPresent(map, "bodyClass", dimensions.bodyClass());
+        return map;
+    }
+
+    private static void putIfPresent(Map<String, AttributeValue> map, String name, String value) {
+        if (value != null) {
+            map.put(name, AttributeValue.builder().s(value).build());
+        }
+    }
+
+    private static VehicleDimensions fromMap(Map<String, AttributeValue> map) {
+        return VehicleDimensions.builder()
+                .make(map.containsKey("make") ? map.get("make").s() : null)
+                .model(map.containsKey("model") ? map.get("model").s() : null)
+                .year(map.containsKey("year") ? Integer.valueOf(map.get("year").n()) : null)
+                .fuelType(map.containsKey("fuelType") ? map.get("fuelType").s() : null)
+                .vehicleType(map.containsKey("vehicleType") ? map.get("vehicleType").s() : null)
+                .bodyClass(map.containsKey("bodyClass") ? map.get("bodyClass").s() : null)
+                .build();
+    }
+
+    static Map<String, AttributeValue> key(String unitId) {
+        final String pk = "UNT#" + unitId;
+        return Map.of(
+                "PK",
+                AttributeValue.builder().s(pk).build(),
+                "SK",
+                AttributeValue.builder().s(pk).build());
+    }
+
+    /**
+     * Condition requiring the item to exist at the expected version. Items written before
+     * versioning carry no version attribute and are treated as version 0.
+     */
+    static String versionCondition(long expectedVersion) {
+        if (expectedVersion == 0L) {
+            return "attribute_exists(PK) AND (attribute_not_exists(#version) OR #version ="
+                    + " :expected)";
+        }
+        return "attribute_exists(PK) AND #version = :expected";
+    }
+
+    /** Distinguish a missing unit from a stale version using the item returned on failure. */
+    private static RuntimeException conditionFailure(
+            String unitId, long expectedVersion, ConditionalCheckFailedException e) {
+        return conditionFailure(unitId, expectedVersion, e.hasItem());
+    }
+
+    /**
+     * Map a failed version condition to {@link UnitNotFoundException} or {@link
+     * VersionConflictException}. Shared with {@link UnitOfWork}.
+     */
+    static RuntimeException conditionFailure(String unitId, long expectedVersion, boolean exists) {
+        if (!exists) {
+            log.warn("Conditional write failed, unit not found: {}", unitId);
+            return new UnitNotFoundException(unitId);
+        }
+        log.warn("Conditional write failed, version conflict for unit: {}", unitId);
+        return new VersionConflictException(unitId, expectedVersion);
     }
 }
@@ -0,0 +1,416 @@
+package com.fullbay.unit.repository;
+
+import com.fullbay.unit.exception.InvalidCursorException;
+import com.fullbay.unit.metrics.UnitMetrics;
+import com.fullbay.unit.model.dto.UnitSearchCriteria;
+import com.fullbay.unit.model.entity.VehicleDimensions;
+import com.fullbay.unit.model.response.PageResult;
+import com.fullbay.unit.tracing.Span;
+import com.fullbay.unit.tracing.TraceAttributes;
+import com.fullbay.unit.tracing.Tracing;
+
+import io.micrometer.core.annotation.Timed;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.DeleteRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Repository for materialized fleet search index items. Each unit has one item per access pattern
+ * under PK = "IDX#&lt;customerId&gt;", with the filter values encoded in the sort key so that every
+ * search is a single bounded Query:
+ *
+ * <ul>
+ *   <li>MAKE#&lt;make&gt;#&lt;year&gt;#&lt;unitId&gt;
+ *   <li>MODEL#&lt;make&gt;#&lt;model&gt;#&lt;year&gt;#&lt;unitId&gt;
+ *   <li>FUEL#&lt;fuelType&gt;#&lt;year&gt;#&lt;unitId&gt;
+ *   <li>BODY#&lt;bodyClass&gt;#&lt;year&gt;#&lt;unitId&gt;
+ *   <li>YEAR#&lt;year&gt;#&lt;unitId&gt;
+ * </ul>
+ *
+ * Values are upper-cased and years zero-padded so sort order matches numeric order. Filters not
+ * covered by the chosen sort key are applied as a FilterExpression on the item's own attributes. No
+ * top-level customerId/vin attributes to avoid GSI indexing.
+ */
+@ApplicationScoped
+@Slf4j
+@Timed(UnitMetrics.REPOSITORY_CALLS)
+public class UnitSearchRepository {
+
+    private static final int BATCH_WRITE_CHUNK_SIZE = 25;
+    private static final int MAX_UNPROCESSED_RETRIES = 5;
+    private static final String UNKNOWN = "UNKNOWN";
+    private static final String NO_YEAR = "0000";
+
+    // Sorts after every character used in unit IDs, closing a BETWEEN range
+    private static final String KEY_END = "~";
+
+    private final DynamoDbClient dynamoDbClient;
+    private final UnitMetrics unitMetrics;
+    private final String tableName;
+
+    @Inject
+    public UnitSearchRepository(
+            final DynamoDbClient dynamoDbClient,
+            final UnitMetrics unitMetrics,
+            @ConfigProperty(name = "dynamodb.table.name", defaultValue = "g-unit-service")
+                    final String tableName) {
+        this.dynamoDbClient = dynamoDbClient;
+        this.unitMetrics = unitMetrics;
+        this.tableName = tableName;
+    }
+
+    /**
+     * Write the search index items for a unit.
+     *
+     * @param customerId The customer ID
+     * @param unitId The unit ID
+     * @param dimensions The vehicle values to index the unit under
+     */
+    @SneakyThrows
+    public void put(String customerId, String unitId, VehicleDimensions dimensions) {
+        try (Span span = Tracing.startSpan("unit-search-repository-put")) {
+            span.attribute(TraceAttributes.CUSTOMER_ID, customerId);
+            span.attribute(TraceAttributes.UNIT_ID, unitId);
+
+            final List<WriteRequest> writes = new ArrayList<>();
+            for (final String sk : sortKeys(unitId, dimensions)) {
+                final Map<String, AttributeValue> item = new HashMap<>(key(customerId, sk));
+                item.putAll(attributes(unitId, dimensions));
+                writes.add(
+                        WriteRequest.builder()
+                                .putRequest(PutRequest.builder().item(item).build())
+                                .build());
+            }
+            batchWrite(writes);
+            log.debug("Indexed unit {} for customer: {}", unitId, customerId);
+        }
+    }
+
+    /**
+     * Remove the search index items for a unit. The keys are derived from the values the unit was
+     * indexed under, not its current vehicle data, which may have been re-decoded since.
+     *
+     * @param customerId The customer ID the unit was indexed under
+     * @param unitId The unit ID
+     * @param dimensions The vehicle values the unit was indexed under
+     */
+    @SneakyThrows
+    public void delete(String customerId, String unitId, VehicleDimensions dimensions) {
+        try (Span span = Tracing.startSpan("unit-search-repository-delete")) {
+            span.attribute(TraceAttributes.CUSTOMER_ID, customerId);
+            span.attribute(TraceAttributes.UNIT_ID, unitId);
+
+            deleteKeys(customerId, sortKeys(unitId, dimensions));
+            log.debug("Removed index items for unit {} of customer: {}", unitId, customerId);
+        }
+    }
+
+    /**
+     * Delete index items by sort key.
+     *
+     * @param customerId The customer ID
+     * @param sortKeys The sort keys to delete
+     */
+    public void deleteKeys(String customerId, Collection<String> sortKeys) {
+        final List<WriteRequest> writes = new ArrayList<>();
+        for (final String sk : sortKeys) {
+            writes.add(
+                    WriteRequest.builder()
+                            .deleteRequest(DeleteRequest.builder().key(key(customerId, sk)).build())
+                            .build());
+        }
+        batchWrite(writes);
+    }
+
+    /**
+     * List every index item sort key for a customer (used by reindex to find stale items).
+     *
+     * @param customerId The customer ID
+     * @return All index sort keys in the customer's partition
+     */
+    @SneakyThrows
+    public List<String> findSortKeys(String customerId) {
+        try (Span span = Tracing.startSpan("unit-search-repository-findSortKeys")) {
+            span.attribute(TraceAttributes.CUSTOMER_ID, customerId);
+
+            final List<String> sortKeys = new ArrayList<>();
+            Map<String, AttributeValue> startKey = null;
+            do {
+                final QueryResponse response =
+                        dynamoDbClient.query(
+                                QueryRequest.builder()
+                                        .tableName(tableName)
+                                        .keyConditionExpression("PK = :pk")
+                                        .expressionAttributeValues(
+                                                Map.of(
+                                                        ":pk",
+                                                        AttributeValue.builder()
+                                                                .s("IDX#" + customerId)
+                                                                .build()))
+                                        .projectionExpression("SK")
+                                        .exclusiveStartKey(startKey)
+                                        .build());
+                response.items().forEach(item -> sortKeys.add(item.get("SK").s()));
+                startKey = response.hasLastEvaluatedKey() ? response.lastEvaluatedKey() : null;
+            } while (startKey != null);
+            return sortKeys;
+        }
+    }
+
+    /**
+     * Search a customer's fleet with a single Query against the most selective index pattern.
+     *
+     * @param criteria The search filters (customerId required)
+     * @param limit Maximum number of index items to read for this page
+     * @param cursor Cursor from a previous page, or null for the first page
+     * @return A page of matching unit IDs in sort-key order
+     */
+    @SneakyThrows
+    public PageResult<String> search(UnitSearchCriteria criteria, int limit, String cursor) {
+        try (Span span = Tracing.startSpan("unit-search-repository-search")) {
+            span.attribute(TraceAttributes.CUSTOMER_ID, criteria.getCustomerId());
+
+            final String make = normalizeOrNull(criteria.getMake());
+            final String model = normalizeOrNull(criteria.getModel());
+            final String fuelType = normalizeOrNull(criteria.getFuelType());
+            final String bodyClass = normalizeOrNull(criteria.getBodyClass());
+
+            // Pick the pattern whose prefix covers the most filters; the rest become filters
+            final String prefix;
+            final Map<String, String> residual = new LinkedHashMap<>();
+            if (make != null && model != null) {
+                prefix = "MODEL#" + make + "#" + model + "#";
+            } else if (make != null) {
+                prefix = "MAKE#" + make + "#";
+                putIfPresent(residual, "model", model);
+            } else if (fuelType != null) {
+                prefix = "FUEL#" + fuelType + "#";
+                putIfPresent(residual, "model", model);
+            } else if (bodyClass != null) {
+                prefix = "BODY#" + bodyClass + "#";
+                putIfPresent(residual, "model", model);
+            } else {
+                prefix = "YEAR#";
+                putIfPresent(residual, "model", model);
+            }
+            if (!prefix.startsWith("FUEL#")) {
+                putIfPresent(residual, "fuelType", fuelType);
+            }
+            if (!prefix.startsWith("BODY#")) {
+                putIfPresent(residual, "bodyClass", bodyClass);
+            }
+            span.attribute(TraceAttributes.PATTERN, prefix.substring(0, prefix.indexOf('#')));
+
+            final Map<String, AttributeValue> values = new HashMap<>();
+            values.put(
+                    ":pk", AttributeValue.builder().s("IDX#" + criteria.getCustomerId()).build());
+            final String keyCondition;
+            if (criteria.getYearFrom() != null || criteria.getYearTo() != null) {
+                final String from =
+                        criteria.getYearFrom() != null ? year(criteria.getYearFrom()) : "0001";
+                final String to =
+                        criteria.getYearTo() != null ? year(criteria.getYearTo()) : "9999";
+                keyCondition = "PK = :pk AND SK BETWEEN :lo AND :hi";
+                values.put(":lo", AttributeValue.builder().s(prefix + from).build());
+                values.put(":hi", AttributeValue.builder().s(prefix + to + "#" + KEY_END).build());
+            } else {
+                keyCondition = "PK = :pk AND begins_with(SK, :prefix)";
+                values.put(":prefix", AttributeValue.builder().s(prefix).build());
+            }
+
+            final Map<String, String> names = new HashMap<>();
+            final List<String> filters = new ArrayList<>();
+            residual.forEach(
+                    (attribute, value) -> {
+                        names.put("#" + attribute, attribute);
+                        values.put(":" + attribute, AttributeValue.builder().s(value).build());
+                        filters.add("#" + attribute + " = :" + attribute);
+                    });
+
+            final QueryRequest.Builder request =
+                    QueryRequest.builder()
+                            .tableName(tableName)
+                            .keyConditionExpression(keyCondition)
+                            .expressionAttributeValues(values)
+                            .limit(limit);
+            if (!filters.isEmpty()) {
+                request.filterExpression(String.join(" AND ", filters))
+                        .expressionAttributeNames(names);
+            }
+            if (cursor != null && !cursor.isEmpty()) {
+                request.exclusiveStartKey(
+                        key(criteria.getCustomerId(), decodeCursor(cursor, prefix)));
+            }
+
+            final QueryResponse response = dynamoDbClient.query(request.build());
+            final List<String> unitIds =
+                    response.items().stream().map(item -> item.get("unitId").s()).toList();
+            final String nextCursor =
+                    response.hasLastEvaluatedKey()
+                            ? encodeCursor(response.lastEvaluatedKey().get("SK").s())
+                            : null;
+
+            log.debug(
+                    "Search matched {} units for customer: {} (pattern {})",
+                    unitIds.size(),
+                    criteria.getCustomerId(),
+                    prefix);
+            return PageResult.<String>builder().items(unitIds).nextCursor(nextCursor).build();
+        }
+    }
+
+    /**
+     * Sort keys of every index item for a unit.
+     *
+     * @param unitId The unit ID
+     * @param dimensions The vehicle values to index the unit under
+     * @return One sort key per access pattern
+     */
+    public static List<String> sortKeys(String unitId, VehicleDimensions dimensions) {
+        final String year = year(dimensions.year());
+        final String make = normalize(dimensions.make());
+        final String model = normalize(dimensions.model());
+        final String fuelType = normalize(dimensions.fuelType());
+        final String bodyClass = normalize(dimensions.bodyClass());
+        return List.of(
+                "MAKE#" + make + "#" + year + "#" + unitId,
+                "MODEL#" + make + "#" + model + "#" + year + "#" + unitId,
+                "FUEL#" + fuelType + "#" + year + "#" + unitId,
+                "BODY#" + bodyClass + "#" + year + "#" + unitId,
+                "YEAR#" + year + "#" + unitId);
+    }
+
+    /**
+     * Whether vehicle values satisfy every filter of a search, compared the way they are indexed.
+     * Used to drop units whose index items are stale.
+     *
+     * @param criteria The search filters
+     * @param dimensions The vehicle values to check
+     * @return True if every filter set in the criteria matches
+     */
+    public static boolean matches(UnitSearchCriteria criteria, VehicleDimensions dimensions) {
+        final Integer year = dimensions.year();
+        if (criteria.getYearFrom() != null && (year == null || year < criteria.getYearFrom())) {
+            return false;
+        }
+        if (criteria.getYearTo() != null && (year == null || year > criteria.getYearTo())) {
+            return false;
+        }
+        return matches(criteria.getMake(), dimensions.make())
+                && matches(criteria.getModel(), dimensions.model())
+                && matches(criteria.getFuelType(), dimensions.fuelType())
+                && matches(criteria.getBodyClass(), dimensions.bodyClass());
+    }
+
+    private static boolean matches(String filter, String value) {
+        final String expected = normalizeOrNull(filter);
+        return expected == null || expected.equals(normalize(value));
+    }
+
+    private static Map<String, AttributeValue> attributes(
+            String unitId, VehicleDimensions dimensions) {
+        final Map<String, AttributeValue> attributes = new HashMap<>();
+        attributes.put("unitId", AttributeValue.builder().s(unitId).build());
+        attributes.put("make", AttributeValue.builder().s(normalize(dimensions.make())).build());
+        attributes.put("model", AttributeValue.builder().s(normalize(dimensions.model())).build());
+        attributes.put(
+                "fuelType", AttributeValue.builder().s(normalize(dimensions.fuelType())).build());
+        attributes.put(
+                "bodyClass", AttributeValue.builder().s(normalize(dimensions.bodyClass())).build());
+        return attributes;
+    }
+
+    /** BatchWriteItem in chunks of 25, retrying unprocessed items. */
+    private void batchWrite(List<WriteRequest> writes) {
+        for (int i = 0; i < writes.size(); i += BATCH_WRITE_CHUNK_SIZE) {
+            List<WriteRequest> chunk =
+                    writes.subList(i, Math.min(i + BATCH_WRITE_CHUNK_SIZE, writes.size()));
+            for (int attempt = 0; !chunk.isEmpty(); attempt++) {
+                if (attempt > MAX_UNPROCESSED_RETRIES) {
+                    throw new IllegalStateException(
+                            "Index batch write left " + chunk.size() + " unprocessed items");
+                }
+                final List<WriteRequest> requestChunk = chunk;
+                unitMetrics.batch("search", "BatchWriteItem", requestChunk.size());
+                final BatchWriteItemResponse response =
+                        dynamoDbClient.batchWriteItem(
+                                req -> req.requestItems(Map.of(tableName, requestChunk)));
+                chunk = response.unprocessedItems().getOrDefault(tableName, List.of());
+            }
+        }
+    }
+
+    private static Map<String, AttributeValue> key(String customerId, String sk) {
+        return Map.of(
+                "PK",
+                AttributeValue.builder().s("IDX#" + customerId).build(),
+                "SK",
+                AttributeValue.builder().s(sk).build());
+    }
+
+    private static void putIfPresent(Map<String, String> filters, String name, String value) {
+        if (value != null) {
+            filters.put(name, value);
+        }
+    }
+
+    private static String normalize(String value) {
+        final String normalized = normalizeOrNull(value);
+        return normalized != null ? normalized : UNKNOWN;
+    }
+
+    private static String normalizeOrNull(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        return value.trim().toUpperCase(Locale.ROOT).replace('#', '_');
+    }
+
+    private static String year(Integer year) {
+        return year != null ? String.format("%04d", year) : NO_YEAR;
+    }
+
+    private static String encodeCursor(String sk) {
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(sk.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** The sort key a cursor resumes from; it must lie under the pattern being queried. */
+    private static String decodeCursor(String cursor, String prefix) {
+        final String sk;
+        try {
+            sk = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (final IllegalArgumentException e) {
+            throw new InvalidCursorException();
+        }
+        if (!sk.startsWith(prefix)) {
+            throw new InvalidCursorException();
+        }
+        return sk;
+    }
+}
@@ -1,10 +1,14 @@
 package com.fullbay.unit.repository;
 
-import com.amazonaws.xray.AWSXRay;
-import com.amazonaws.xray.entities.Subsegment;
+import com.fullbay.unit.metrics.UnitMetrics;
 import com.fullbay.unit.model.entity.Vehicle;
+import com.fullbay.unit.tracing.Span;
+import com.fullbay.unit.tracing.TraceAttributes;
+import com.fullbay.unit.tracing.Tracing;
 import com.fullbay.util.JacksonConverter;
 
+import io.micrometer.core.annotation.Timed;
+
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 
@@ -17,39 +21,70 @@ import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
 import software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest;
 import software.amazon.awssdk.services.dynamodb.model.BatchGetItemResponse;
-import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
-import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
 import software.amazon.awssdk.services.dynamodb.model.KeysAndAttributes;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeMap;
 
 /** Repository for DynamoDB Vehicle operations. Stores vehicle data once per VIN. */
 @ApplicationScoped
 @Slf4j
+@Timed(UnitMetrics.REPOSITORY_CALLS)
 public class VehicleRepository {
 
     private final DynamoDbClient dynamoDbClient;
     private final JacksonConverter jacksonConverter;
+    private final UnitMetrics unitMetrics;
+    private final ItemLoader itemLoader;
     private final String tableName;
 
     @Inject
     public VehicleRepository(
             final DynamoDbClient dynamoDbClient,
             final JacksonConverter jacksonConverter,
+            final UnitMetrics unitMetrics,
+            final ItemLoader itemLoader,
             @ConfigProperty(name = "dynamodb.table.name", defaultValue = "g-unit-service")
                     final String tableName) {
         this.dynamoDbClient = dynamoDbClient;
         this.jacksonConverter = jacksonConverter;
+        this.unitMetrics = unitMetrics;
+        this.itemLoader = itemLoader;
         this.tableName = tableName;
     }
 
     private static final int BATCH_GET_CHUNK_SIZE = 100;
 
+    /** Top-level VIN# attribute holding {@link #contentHash(Map)}. */
+    static final String CONTENT_HASH = "contentHash";
+
+    private static final Set<String> TIMESTAMP_FIELDS = Set.of("createdAt", "updatedAt");
+
+    /**
+     * A VIN# item read by {@link #scanSegment}, with its stored {@code contentHash}, or null if it
+     * was written before hashes were stored.
+     */
+    public record Scanned(Vehicle vehicle, String contentHash) {}
+
+    /**
+     * One page of a segmented Scan. {@code lastKey} is null once the segment is exhausted; {@code
+     * scannedCount} counts all items read, VIN# or not.
+     */
+    public record ScanPage(
+            List<Scanned> vehicles, Map<String, AttributeValue> lastKey, int scannedCount) {}
+
     /**
      * Save a Vehicle entity as JSON. PK/SK = "VIN#&lt;vin&gt;". No top-level customerId/vin
      * attributes to avoid GSI indexing.
@@ -58,24 +93,10 @@ public class VehicleRepository {
      */
     @SneakyThrows
     public void save(Vehicle entity) {
-        try (Subsegment segment = AWSXRay.beginSubsegment("vehicle-repository-save")) {
-            segment.putAnnotation("vin", entity.vin());
-
-            final String pk = "VIN#" + entity.vin();
-            final String sk = "VIN#" + entity.vin();
+        try (Span span = Tracing.startSpan("vehicle-repository-save")) {
+            span.attribute(TraceAttributes.VIN, entity.vin());
 
-            final Map<String, AttributeValue> vehicleMap =
-                    jacksonConverter.objectToMap(entity).entrySet().stream()
-                            .filter(e -> e.getValue().nul() == null || !e.getValue().nul())
-                            .collect(
-                                    java.util.stream.Collectors.toMap(
-                                            java.util.Map.Entry::getKey,
-                                            java.util.Map.Entry::getValue));
-
-            final Map<String, AttributeValue> item = new HashMap<>();
-            item.put("PK", AttributeValue.builder().s(pk).build());
-            item.put("SK", AttributeValue.builder().s(sk).build());
-            item.put("data", AttributeValue.builder().m(vehicleMap).build());
+            final Map<String, AttributeValue> item = toItem(jacksonConverter, entity);
 
             dynamoDbClient.putItem(req -> req.tableName(tableName).item(item));
             log.debug("Saved vehicle: {}", entity.vin());
@@ -83,37 +104,27 @@ public class VehicleRepository {
     }
 
     /**
-     * Find a Vehicle by VIN.
+     * Find a Vehicle by VIN. Coalesced with concurrent lookups through {@link ItemLoader}.
      *
      * @param vin The VIN
      * @return Optional containing the vehicle if found
      */
     @SneakyThrows
     public Optional<Vehicle> findByVin(String vin) {
-        try (Subsegment segment = AWSXRay.beginSubsegment("vehicle-repository-findByVin")) {
-            segment.putAnnotation("vin", vin);
+        try (Span span = Tracing.startSpan("vehicle-repository-findByVin")) {
+            span.attribute(TraceAttributes.VIN, vin);
 
             final String pk = "VIN#" + vin;
             final String sk = "VIN#" + vin;
 
-            final GetItemResponse response =
-                    dynamoDbClient.getItem(
-                            GetItemRequest.builder()
-                                    .tableName(tableName)
-                                    .key(
-                                            Map.of(
-                                                    "PK",
-                                                    AttributeValue.builder().s(pk).build(),
-                                                    "SK",
-                                                    AttributeValue.builder().s(sk).build()))
-                                    .build());
+            final Optional<Map<String, AttributeValue>> item = itemLoader.get(pk, sk);
 
-            if (!response.hasItem()) {
+            if (item.isEmpty()) {
                 log.debug("Vehicle not found: {}", vin);
                 return Optional.empty();
             }
 
-            final Map<String, AttributeValue> vehicleMap = response.item().get("data").m();
+            final Map<String, AttributeValue> vehicleMap = item.get().get("data").m();
             final Vehicle entity = jacksonConverter.mapToObject(vehicleMap, Vehicle.class);
             log.debug("Retrieved vehicle: {}", vin);
             return Optional.of(entity);
@@ -128,8 +139,8 @@ public class VehicleRepository {
      */
     @SneakyThrows
     public Map<String, Vehicle> findByVins(Set<String> vins) {
-        try (Subsegment segment = AWSXRay.beginSubsegment("vehicle-repository-findByVins")) {
-            segment.putAnnotation("vinCount", vins.size());
+        try (Span span = Tracing.startSpan("vehicle-repository-findByVins")) {
+            span.attribute(TraceAttributes.VIN_COUNT, vins.size());
 
             if (vins.isEmpty()) {
                 return Map.of();
@@ -137,6 +148,7 @@ public class VehicleRepository {
 
             final Map<String, Vehicle> result = new HashMap<>();
             final List<String> vinList = new ArrayList<>(vins);
+            unitMetrics.fanOut("vehicle-findByVins", vinList.size());
 
             for (int i = 0; i < vinList.size(); i += BATCH_GET_CHUNK_SIZE) {
                 final List<String> chunk =
@@ -153,6 +165,7 @@ public class VehicleRepository {
                                     AttributeValue.builder().s(pk).build()));
                 }
 
+                unitMetrics.batch("vehicle", "BatchGetItem", keys.size());
                 final BatchGetItemResponse response =
                         dynamoDbClient.batchGetItem(
                                 BatchGetItemRequest.builder()
@@ -179,4 +192,140 @@ public class VehicleRepository {
             return result;
         }
     }
+
+    /**
+     * Read one page of VIN# items from one segment of a parallel Scan over the table.
+     *
+     * @param segment The segment, 0 to {@code totalSegments} - 1
+     * @param totalSegments Number of segments the table is split into
+     * @param startKey {@code lastKey} of the previous page, or null to start the segment
+     * @param limit Maximum items to read, VIN# or not
+     * @return The page
+     */
+    @SneakyThrows
+    public ScanPage scanSegment(
+            int segment, int totalSegments, Map<String, AttributeValue> startKey, int limit) {
+        try (Span span = Tracing.startSpan("vehicle-repository-scanSegment")) {
+            span.attribute(TraceAttributes.SEGMENT, segment);
+
+            final ScanResponse response =
+                    dynamoDbClient.scan(
+                            ScanRequest.builder()
+                                    .tableName(tableName)
+                                    .segment(segment)
+                                    .totalSegments(totalSegments)
+                                    .filterExpression("begins_with(PK, :prefix)")
+                                    .expressionAttributeValues(
+                                            Map.of(
+                                                    ":prefix",
+                                                    AttributeValue.builder().s("VIN#").build()))
+                                    .exclusiveStartKey(startKey)
+                                    .limit(limit)
+                                    .build());
+
+            final List<Scanned> vehicles = new ArrayList<>(response.items().size());
+            for (final Map<String, AttributeValue> item : response.items()) {
+                final AttributeValue hash = item.get(CONTENT_HASH);
+                vehicles.add(
+                        new Scanned(
+                                jacksonConverter.mapToObject(item.get("data").m(), Vehicle.class),
+                                hash != null ? hash.s() : null));
+            }
+            span.attribute(TraceAttributes.ITEM_COUNT, response.scannedCount());
+            return new ScanPage(
+                    vehicles,
+                    response.hasLastEvaluatedKey() ? response.lastEvaluatedKey() : null,
+                    response.scannedCount());
+        }
+    }
+
+    /**
+     * Overwrite a scanned VIN# item with new data. Nothing is written if the decoded data is the
+     * same, or if the item was rewritten since it was scanned; the newer write wins.
+     *
+     * @param vehicle The new vehicle data
+     * @param scanned The item as scanned
+     * @return true if the item was written
+     */
+    @SneakyThrows
+    public boolean saveIfChanged(Vehicle vehicle, Scanned scanned) {
+        try (Span span = Tracing.startSpan("vehicle-repository-saveIfChanged")) {
+            span.attribute(TraceAttributes.VIN, vehicle.vin());
+
+            final Map<String, AttributeValue> item = toItem(jacksonConverter, vehicle);
+            final String oldHash =
+                    scanned.contentHash() != null
+                            ? scanned.contentHash()
+                            : toItem(jacksonConverter, scanned.vehicle()).get(CONTENT_HASH).s();
+            if (oldHash.equals(item.get(CONTENT_HASH).s())) {
+                return false;
+            }
+
+            final PutItemRequest.Builder request =
+                    PutItemRequest.builder()
+                            .tableName(tableName)
+                            .item(item)
+                            .expressionAttributeNames(Map.of("#contentHash", CONTENT_HASH));
+            if (scanned.contentHash() != null) {
+                request.conditionExpression("#contentHash = :contentHash")
+                        .expressionAttributeValues(
+                                Map.of(
+                                        ":contentHash",
+                                        AttributeValue.builder().s(scanned.contentHash()).build()));
+            } else {
+                request.conditionExpression(
+                        "attribute_exists(PK) AND attribute_not_exists(#contentHash)");
+            }
+            try {
+                dynamoDbClient.putItem(request.build());
+            } catch (final ConditionalCheckFailedException e) {
+                log.debug("Vehicle {} changed since it was scanned; keeping it", vehicle.vin());
+                return false;
+            }
+            log.debug("Rewrote vehicle: {}", vehicle.vin());
+            return true;
+        }
+    }
+
+    /**
+     * Build the VIN# item for a Vehicle, with a top-level {@code contentHash} of its decoded data.
+     * Shared with {@link ReactiveVehicleRepository} and {@link UnitOfWork}.
+     */
+    static Map<String, AttributeValue> toItem(JacksonConverter jacksonConverter, Vehicle entity) {
+        final Map<String, AttributeValue> vehicleMap =
+                jacksonConverter.objectToMap(entity).entrySet().stream()
+                        .filter(e -> e.getValue().nul() == null || !e.getValue().nul())
+                        .collect(
+                                java.util.stream.Collectors.toMap(
+                                        java.util.Map.Entry::getKey,
+                                        java.util.Map.Entry::getValue));
+
+        final Map<String, AttributeValue> item = new HashMap<>(key(entity.vin()));
+        item.put("data", AttributeValue.builder().m(vehicleMap).build());
+        item.put(CONTENT_HASH, AttributeValue.builder().s(contentHash(vehicleMap)).build());
+        return item;
+    }
+
+    /**
+     * SHA-256 of the vehicle data without its timestamps, so re-decoding a VIN to the same data is
+     * recognized as unchanged. Vehicle fields are all scalars, so the sorted map renders stably.
+     */
+    @SneakyThrows
+    static String contentHash(Map<String, AttributeValue> vehicleMap) {
+        final Map<String, AttributeValue> content = new TreeMap<>(vehicleMap);
+        content.keySet().removeAll(TIMESTAMP_FIELDS);
+        final byte[] digest =
+                MessageDigest.getInstance("SHA-256")
+                        .digest(content.toString().getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().formatHex(digest);
+    }
+
+    static Map<String, AttributeValue> key(String vin) {
+        final String pk = "VIN#" + vin;
+        return Map.of(
+                "PK",
+                AttributeValue.builder().s(pk).build(),
+                "SK",
+                AttributeValue.builder().s(pk).build());
+    }
 }
@@ -0,0 +1,226 @@
+package com.fullbay.unit.repository;
+
+import com.fullbay.unit.metrics.UnitMetrics;
+import com.fullbay.unit.tracing.Span;
+import com.fullbay.unit.tracing.TraceAttributes;
+import com.fullbay.unit.tracing.Tracing;
+
+import io.micrometer.core.annotation.Timed;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Repository for VIN suffix lookup items. One item per unit under PK = "VINSFX#&lt;customerId&gt;"
+ * with SK = "&lt;reversed VIN&gt;#&lt;unitId&gt;", so the last N characters of a VIN become a
+ * begins_with prefix. No top-level customerId/vin attributes to avoid GSI indexing.
+ */
+@ApplicationScoped
+@Slf4j
+@Timed(UnitMetrics.REPOSITORY_CALLS)
+public class VinSuffixRepository {
+
+    private final DynamoDbClient dynamoDbClient;
+    private final String tableName;
+
+    @Inject
+    public VinSuffixRepository(
+            final DynamoDbClient dynamoDbClient,
+            @ConfigProperty(name = "dynamodb.table.name", defaultValue = "g-unit-service")
+                    final String tableName) {
+        this.dynamoDbClient = dynamoDbClient;
+        this.tableName = tableName;
+    }
+
+    /**
+     * Write the suffix lookup item for a unit.
+     *
+     * @param customerId The customer ID
+     * @param unitId The unit ID
+     * @param vin The unit's VIN
+     */
+    @SneakyThrows
+    public void put(String customerId, String unitId, String vin) {
+        try (Span span = Tracing.startSpan("vin-suffix-repository-put")) {
+            span.attribute(TraceAttributes.CUSTOMER_ID, customerId);
+            span.attribute(TraceAttributes.UNIT_ID, unitId);
+
+            final Map<String, AttributeValue> item =
+                    new HashMap<>(key(customerId, sortKey(unitId, vin)));
+            item.put("unitId", AttributeValue.builder().s(unitId).build());
+
+            dynamoDbClient.putItem(req -> req.tableName(tableName).item(item));
+            log.debug("Saved VIN suffix item for unit: {}", unitId);
+        }
+    }
+
+    /**
+     * Remove the suffix lookup item for a unit.
+     *
+     * @param customerId The customer ID the unit was indexed under
+     * @param unitId The unit ID
+     * @param vin The VIN the unit was indexed with
+     */
+    @SneakyThrows
+    public void delete(String customerId, String unitId, String vin) {
+        try (Span span = Tracing.startSpan("vin-suffix-repository-delete")) {
+            span.attribute(TraceAttributes.CUSTOMER_ID, customerId);
+            span.attribute(TraceAttributes.UNIT_ID, unitId);
+
+            deleteKeys(customerId, List.of(sortKey(unitId, vin)));
+            log.debug("Deleted VIN suffix item for unit: {}", unitId);
+        }
+    }
+
+    /**
+     * Delete suffix lookup items by sort key.
+     *
+     * @param customerId The customer ID
+     * @param sortKeys The sort keys to delete
+     */
+    public void deleteKeys(String customerId, Collection<String> sortKeys) {
+        for (final String sk : sortKeys) {
+            dynamoDbClient.deleteItem(
+                    DeleteItemRequest.builder()
+                            .tableName(tableName)
+                            .key(key(customerId, sk))
+                            .build());
+        }
+    }
+
+    /**
+     * Find unit IDs whose VIN ends with the given suffix.
+     *
+     * @param customerId The customer ID
+     * @param vinSuffix The trailing VIN characters
+     * @param limit Maximum number of unit IDs to return
+     * @return Matching unit IDs
+     */
+    @SneakyThrows
+    public List<String> findUnitIds(String customerId, String vinSuffix, int limit) {
+        try (Span span = Tracing.startSpan("vin-suffix-repository-findUnitIds")) {
+            span.attribute(TraceAttributes.CUSTOMER_ID, customerId);
+            span.attribute(TraceAttributes.VIN_SUFFIX, vinSuffix);
+
+            final String prefix = reverse(vinSuffix);
+            final List<String> unitIds = new ArrayList<>();
+            Map<String, AttributeValue> startKey = null;
+            do {
+                final QueryResponse response =
+                        dynamoDbClient.query(
+                                QueryRequest.builder()
+                                        .tableName(tableName)
+                                        .keyConditionExpression(
+                                                "PK = :pk AND begins_with(SK, :prefix)")
+                                        .expressionAttributeValues(
+                                                Map.of(
+                                                        ":pk",
+                                                        AttributeValue.builder()
+                                                                .s("VINSFX#" + customerId)
+                                                                .build(),
+                                                        ":prefix",
+                                                        AttributeValue.builder().s(prefix).build()))
+                                        .limit(limit - unitIds.size())
+                                        .exclusiveStartKey(startKey)
+                                        .build());
+                response.items().forEach(item -> unitIds.add(item.get("unitId").s()));
+                startKey = response.hasLastEvaluatedKey() ? response.lastEvaluatedKey() : null;
+            } while (startKey != null && unitIds.size() < limit);
+
+            log.debug(
+                    "Found {} units for customer: {} vinSuffix: {}",
+                    unitIds.size(),
+                    customerId,
+                    vinSuffix);
+            return unitIds;
+        }
+    }
+
+    /**
+     * List every suffix lookup sort key for a customer (used by reindex to find stale items).
+     *
+     * @param customerId The customer ID
+     * @return All suffix sort keys in the customer's partition
+     */
+    @SneakyThrows
+    public List<String> findSortKeys(String customerId) {
+        try (Span span = Tracing.startSpan("vin-suffix-repository-findSortKeys")) {
+            span.attribute(TraceAttributes.CUSTOMER_ID, customerId);
+
+            final List<String> sortKeys = new ArrayList<>();
+            Map<String, AttributeValue> startKey = null;
+            do {
+                final QueryResponse response =
+                        dynamoDbClient.query(
+                                QueryRequest.builder()
+                                        .tableName(tableName)
+                                        .keyConditionExpression("PK = :pk")
+                                        .expressionAttributeValues(
+                                                Map.of(
+                                                        ":pk",
+                                                        AttributeValue.builder()
+                                                                .s("VINSFX#" + customerId)
+                                                                .build()))
+                                        .projectionExpression("SK")
+                                        .exclusiveStartKey(startKey)
+                                        .build());
+                response.items().forEach(item -> sortKeys.add(item.get("SK").s()));
+                startKey = response.hasLastEvaluatedKey() ? response.lastEvaluatedKey() : null;
+            } while (startKey != null);
+            return sortKeys;
+        }
+    }
+
+    /**
+     * Sort key of the suffix lookup item for a unit.
+     *
+     * @param unitId The unit ID
+     * @param vin The unit's VIN
+     * @return Reversed, upper-cased VIN followed by the unit ID
+     */
+    public static String sortKey(String unitId, String vin) {
+        return reverse(vin) + "#" + unitId;
+    }
+
+    /**
+     * Whether a VIN ends with the given suffix, compared the way suffixes are indexed. Used to drop
+     * units whose suffix lookup items are stale.
+     *
+     * @param vin The unit's current VIN
+     * @param vinSuffix The trailing VIN characters searched for
+     * @return True if the VIN ends with the suffix
+     */
+    public static boolean matches(String vin, String vinSuffix) {
+        return vin != null && reverse(vin).startsWith(reverse(vinSuffix));
+    }
+
+    private static String reverse(String value) {
+        return new StringBuilder(value.trim().toUpperCase(Locale.ROOT)).reverse().toString();
+    }
+
+    private static Map<String, AttributeValue> key(String customerId, String sk) {
+        return Map.of(
+                "PK",
+                AttributeValue.builder().s("VINSFX#" + customerId).build(),
+                "SK",
+                AttributeValue.builder().s(sk).build());
+    }
+}
@@ -0,0 +1,149 @@
+package com.fullbay.unit.resource;
+
+import com.fullbay.unit.metrics.UnitMetrics;
+import com.fullbay.unit.model.entity.BackfillJob;
+import com.fullbay.unit.model.response.ApiResponse;
+import com.fullbay.unit.service.BackfillService;
+
+import io.micrometer.core.annotation.Timed;
+import io.smallrye.common.annotation.RunOnVirtualThread;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import org.eclipse.microprofile.openapi.annotations.Operation;
+import org.eclipse.microprofile.openapi.annotations.media.Content;
+import org.eclipse.microprofile.openapi.annotations.media.Schema;
+import org.eclipse.microprofile.openapi.annotations.parameters.Parameter;
+import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
+import org.eclipse.microprofile.openapi.annotations.responses.APIResponses;
+import org.eclipse.microprofile.openapi.annotations.tags.Tag;
+
+import java.net.URI;
+import java.util.Locale;
+
+/** REST resource for operator-run backfills of stored vehicle data. */
+@Path("/backfills")
+@ApplicationScoped
+@RequiredArgsConstructor
+@Slf4j
+@Timed(UnitMetrics.RESOURCE_REQUESTS)
+@RunOnVirtualThread
+@Tag(name = "Backfills", description = "Vehicle data backfills")
+public class BackfillResource {
+
+    private final BackfillService backfillService;
+
+    /**
+     * Start a backfill over all stored vehicles.
+     *
+     * @param mode vcdb to resolve missing VCDB IDs, remap to re-decode every VIN
+     * @param segments Parallel scan segments; {@code backfill.segments} when omitted
+     * @return 202 with the started job
+     */
+    @POST
+    @Produces(MediaType.APPLICATION_JSON)
+    @Operation(
+            summary = "Start backfill",
+            description =
+                    "Scan all VIN# items in parallel segments and rewrite vehicles whose VCDB IDs"
+                            + " (vcdb) or NHTSA decode (remap) changed")
+    @APIResponses(
+            value = {
+                @APIResponse(
+                        responseCode = "202",
+                        description = "Backfill started",
+                        content =
+                                @Content(
+                                        mediaType = MediaType.APPLICATION_JSON,
+                                        schema = @Schema(implementation = BackfillJob.class))),
+                @APIResponse(responseCode = "400", description = "Invalid request"),
+                @APIResponse(
+                        responseCode = "501",
+                        description = "Backfills are disabled in this deployment")
+            })
+    public Response startBackfill(
+            @QueryParam("mode")
+                    @NotBlank(message = "mode is required")
+                    @Pattern(regexp = "vcdb|remap", message = "mode must be vcdb or remap")
+                    @Parameter(name = "mode", description = "vcdb or remap (required)")
+                    String mode,
+            @QueryParam("segments")
+                    @Min(value = 1, message = "segments must be at least 1")
+                    @Max(value = 64, message = "segments must be at most 64")
+                    @Parameter(description = "Parallel scan segments (optional, max 64)")
+                    Integer segments) {
+        log.info("Start backfill request - mode: {}, segments: {}", mode, segments);
+        final BackfillJob job =
+                backfillService.start(
+                        BackfillJob.Mode.valueOf(mode.toUpperCase(Locale.ROOT)), segments);
+        return Response.accepted(ApiResponse.<BackfillJob>builder().data(job).build())
+                .location(URI.create("backfills/" + job.jobId()))
+                .type(MediaType.APPLICATION_JSON)
+                .build();
+    }
+
+    /**
+     * Get a backfill's progress.
+     *
+     * @param jobId The job ID
+     * @return API response with the job
+     */
+    @GET
+    @Path("/{jobId}")
+    @Produces(MediaType.APPLICATION_JSON)
+    @Operation(summary = "Get backfill", description = "Progress of a backfill job")
+    @APIResponses(
+            value = {
+                @APIResponse(responseCode = "200", description = "Backfill retrieved successfully"),
+                @APIResponse(responseCode = "404", description = "Backfill not found")
+            })
+    public ApiResponse<BackfillJob> getBackfill(@PathParam("jobId") String jobId) {
+        log.info("Get backfill request - jobId: {}", jobId);
+        return ApiResponse.<BackfillJob>builder().data(backfillService.getJob(jobId)).build();
+    }
+
+    /**
+     * Continue an interrupted backfill's unfinished segments from their checkpoints.
+     *
+     * @param jobId The job ID
+     * @return 202 with the job as it is now
+     */
+    @POST
+    @Path("/{jobId}/resume")
+    @Produces(MediaType.APPLICATION_JSON)
+    @Operation(
+            summary = "Resume backfill",
+            description =
+                    "Continue unfinished segments from their last checkpoint once their leases"
+                            + " have lapsed")
+    @APIResponses(
+            value = {
+                @APIResponse(responseCode = "202", description = "Backfill resumed"),
+                @APIResponse(responseCode = "404", description = "Backfill not found"),
+                @APIResponse(
+                        responseCode = "501",
+                        description = "Backfills are disabled in this deployment")
+            })
+    public Response resumeBackfill(@PathParam("jobId") String jobId) {
+        log.info("Resume backfill request - jobId: {}", jobId);
+        final BackfillJob job = backfillService.resume(jobId);
+        return Response.accepted(ApiResponse.<BackfillJob>builder().data(job).build())
+                .type(MediaType.APPLICATION_JSON)
+                .build();
+    }
+}
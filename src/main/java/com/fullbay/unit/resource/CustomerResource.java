@@ -0,0 +1,126 @@
+package com.fullbay.unit.resource;
+
+import com.fullbay.unit.metrics.UnitMetrics;
+import com.fullbay.unit.model.entity.FleetSummary;
+import com.fullbay.unit.model.response.ApiResponse;
+import com.fullbay.unit.service.FleetSummaryService;
+import com.fullbay.unit.service.UnitSearchService;
+
+import io.micrometer.core.annotation.Timed;
+import io.smallrye.common.annotation.RunOnVirtualThread;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import org.eclipse.microprofile.openapi.annotations.Operation;
+import org.eclipse.microprofile.openapi.annotations.media.Content;
+import org.eclipse.microprofile.openapi.annotations.media.Schema;
+import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
+import org.eclipse.microprofile.openapi.annotations.responses.APIResponses;
+import org.eclipse.microprofile.openapi.annotations.tags.Tag;
+
+import java.util.Map;
+
+/** REST resource for customer-scoped fleet views. */
+@Path("/customers")
+@ApplicationScoped
+@RequiredArgsConstructor
+@Slf4j
+@Timed(UnitMetrics.RESOURCE_REQUESTS)
+@RunOnVirtualThread
+@Tag(name = "Customers", description = "Customer fleet operations")
+public class CustomerResource {
+
+    private final FleetSummaryService fleetSummaryService;
+    private final UnitSearchService unitSearchService;
+
+    /**
+     * Get a customer's fleet summary from its aggregate item.
+     *
+     * @param customerId The customer ID
+     * @return API response with unit counts by make, year, fuel type and vehicle type
+     */
+    @GET
+    @Path("/{customerId}/units/summary")
+    @Produces(MediaType.APPLICATION_JSON)
+    @Operation(
+            summary = "Get fleet summary",
+            description = "Unit counts by make, year, fuel type and vehicle type for a customer")
+    @APIResponses(
+            value = {
+                @APIResponse(
+                        responseCode = "200",
+                        description = "Fleet summary retrieved successfully",
+                        content =
+                                @Content(
+                                        mediaType = MediaType.APPLICATION_JSON,
+                                        schema = @Schema(implementation = FleetSummary.class)))
+            })
+    public ApiResponse<FleetSummary> getFleetSummary(@PathParam("customerId") String customerId) {
+        log.info("Get fleet summary request - customerId: {}", customerId);
+        final FleetSummary summary = fleetSummaryService.getSummary(customerId);
+        return ApiResponse.<FleetSummary>builder().data(summary).build();
+    }
+
+    /**
+     * Rebuild a customer's fleet summary from its units, correcting counter drift.
+     *
+     * @param customerId The customer ID
+     * @return API response with the rebuilt summary
+     */
+    @POST
+    @Path("/{customerId}/units/summary/rebuild")
+    @Produces(MediaType.APPLICATION_JSON)
+    @Operation(
+            summary = "Rebuild fleet summary",
+            description = "Recompute a customer's fleet summary from its units")
+    @APIResponses(
+            value = {
+                @APIResponse(
+                        responseCode = "200",
+                        description = "Fleet summary rebuilt successfully",
+                        content =
+                                @Content(
+                                        mediaType = MediaType.APPLICATION_JSON,
+                                        schema = @Schema(implementation = FleetSummary.class)))
+            })
+    public ApiResponse<FleetSummary> rebuildFleetSummary(
+            @PathParam("customerId") String customerId) {
+        log.info("Rebuild fleet summary request - customerId: {}", customerId);
+        final FleetSummary summary = fleetSummaryService.rebuild(customerId);
+        return ApiResponse.<FleetSummary>builder().data(summary).build();
+    }
+
+    /**
+     * Rewrite a customer's fleet search index from its units, removing stale items.
+     *
+     * @param customerId The customer ID
+     * @return API response with the number of units indexed
+     */
+    @POST
+    @Path("/{customerId}/units/search-index/rebuild")
+    @Produces(MediaType.APPLICATION_JSON)
+    @Operation(
+            summary = "Rebuild fleet search index",
+            description = "Rewrite a customer's search index items from its units")
+    @APIResponses(
+            value = {
+                @APIResponse(
+                        responseCode = "200",
+                        description = "Search index rebuilt successfully")
+            })
+    public ApiResponse<Map<String, Object>> rebuildSearchIndex(
+            @PathParam("customerId") String customerId) {
+        log.info("Rebuild search index request - customerId: {}", customerId);
+        final int indexed = unitSearchService.reindex(customerId);
+        return ApiResponse.<Map<String, Object>>builder().data(Map.of("indexed", indexed)).build();
+    }
+}
@@ -0,0 +1,170 @@
+package com.fullbay.unit.resource;
+
+import com.fullbay.unit.metrics.UnitMetrics;
+import com.fullbay.unit.model.entity.ImportJob;
+import com.fullbay.unit.model.response.ApiResponse;
+import com.fullbay.unit.service.ImportService;
+
+import io.micrometer.core.annotation.Timed;
+import io.smallrye.common.annotation.RunOnVirtualThread;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.DefaultValue;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HeaderParam;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import org.eclipse.microprofile.openapi.annotations.Operation;
+import org.eclipse.microprofile.openapi.annotations.media.Content;
+import org.eclipse.microprofile.openapi.annotations.media.Schema;
+import org.eclipse.microprofile.openapi.annotations.parameters.Parameter;
+import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
+import org.eclipse.microprofile.openapi.annotations.responses.APIResponses;
+import org.eclipse.microprofile.openapi.annotations.tags.Tag;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/** REST resource for asynchronous fleet imports from CSV or NDJSON uploads. */
+@Path("/imports")
+@ApplicationScoped
+@RequiredArgsConstructor
+@Slf4j
+@Timed(UnitMetrics.RESOURCE_REQUESTS)
+@RunOnVirtualThread
+@Tag(name = "Imports", description = "Bulk fleet imports")
+public class ImportResource {
+
+    static final String TEXT_CSV = "text/csv";
+    static final String APPLICATION_NDJSON = "application/x-ndjson";
+
+    private final ImportService importService;
+
+    /**
+     * Start an import. The upload is parsed and stored before this returns; units are created in
+     * the background.
+     *
+     * @param customerId The customer the units are created for
+     * @param contentType text/csv or application/x-ndjson
+     * @param body The upload
+     * @return 202 with the queued job
+     */
+    @POST
+    @Consumes({TEXT_CSV, APPLICATION_NDJSON})
+    @Produces(MediaType.APPLICATION_JSON)
+    @Operation(
+            summary = "Import units",
+            description =
+                    "Queue creation of units from a CSV (vin column) or NDJSON ({\"vin\": ...})"
+                            + " upload. VINs are deduplicated and decoded in the background.")
+    @APIResponses(
+            value = {
+                @APIResponse(
+                        responseCode = "202",
+                        description = "Import queued",
+                        content =
+                                @Content(
+                                        mediaType = MediaType.APPLICATION_JSON,
+                                        schema = @Schema(implementation = ImportJob.class))),
+                @APIResponse(responseCode = "400", description = "Invalid request"),
+                @APIResponse(
+                        responseCode = "501",
+                        description = "Imports are disabled in this deployment")
+            })
+    public Response startImport(
+            @QueryParam("customerId")
+                    @NotBlank(message = "customerId is required")
+                    @Parameter(name = "customerId", description = "Customer ID (required)")
+                    String customerId,
+            @HeaderParam(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) {
+        log.info("Start import request - customerId: {}", customerId);
+        final ImportService.Format format =
+                contentType != null && contentType.startsWith(APPLICATION_NDJSON)
+                        ? ImportService.Format.NDJSON
+                        : ImportService.Format.CSV;
+        final ImportJob job = importService.startImport(customerId, format, body);
+        return Response.accepted(ApiResponse.<ImportJob>builder().data(job).build())
+                .location(URI.create("imports/" + job.jobId()))
+                .type(MediaType.APPLICATION_JSON)
+                .build();
+    }
+
+    /**
+     * Get an import's progress and first row errors.
+     *
+     * @param jobId The job ID
+     * @param errorLimit Maximum number of row errors to include
+     * @return API response with the job and its errors
+     */
+    @GET
+    @Path("/{jobId}")
+    @Produces(MediaType.APPLICATION_JSON)
+    @Operation(summary = "Get import", description = "Progress and row errors of an import job")
+    @APIResponses(
+            value = {
+                @APIResponse(responseCode = "200", description = "Import retrieved successfully"),
+                @APIResponse(responseCode = "404", description = "Import not found")
+            })
+    public ApiResponse<Map<String, Object>> getImport(
+            @PathParam("jobId") String jobId,
+            @QueryParam("errorLimit")
+                    @DefaultValue("100")
+                    @Min(value = 0, message = "errorLimit must be at least 0")
+                    @Max(value = 1000, message = "errorLimit must be at most 1000")
+                    @Parameter(description = "Row errors to include (default 100, max 1000)")
+                    int errorLimit) {
+        log.info("Get import request - jobId: {}", jobId);
+        final Map<String, Object> data = new LinkedHashMap<>();
+        data.put("job", importService.getJob(jobId));
+        data.put("errors", errorLimit > 0 ? importService.getErrors(jobId, errorLimit) : List.of());
+        return ApiResponse.<Map<String, Object>>builder().data(data).build();
+    }
+
+    /**
+     * Continue an interrupted import from its last checkpoint.
+     *
+     * @param jobId The job ID
+     * @return 202 with the job as it is now
+     */
+    @POST
+    @Path("/{jobId}/resume")
+    @Produces(MediaType.APPLICATION_JSON)
+    @Operation(
+            summary = "Resume import",
+            description =
+                    "Continue an interrupted import from its last checkpoint once its lease has"
+                            + " lapsed")
+    @APIResponses(
+            value = {
+                @APIResponse(responseCode = "202", description = "Import queued"),
+                @APIResponse(responseCode = "404", description = "Import not found"),
+                @APIResponse(
+                        responseCode = "501",
+                        description = "Imports are disabled in this deployment")
+            })
+    public Response resumeImport(@PathParam("jobId") String jobId) {
+        log.info("Resume import request - jobId: {}", jobId);
+        final ImportJob job = importService.resume(jobId);
+        return Response.accepted(ApiResponse.<ImportJob>builder().data(job).build())
+                .type(MediaType.APPLICATION_JSON)
+                .build();
+    }
+}
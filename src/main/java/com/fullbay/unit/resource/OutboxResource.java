@@ -0,0 +1,68 @@
+package com.fullbay.unit.resource;
+
+import com.fullbay.unit.exception.FeatureDisabledException;
+import com.fullbay.unit.metrics.UnitMetrics;
+import com.fullbay.unit.model.response.ApiResponse;
+import com.fullbay.unit.outbox.OutboxRelay;
+
+import io.micrometer.core.annotation.Timed;
+import io.smallrye.common.annotation.RunOnVirtualThread;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import org.eclipse.microprofile.openapi.annotations.Operation;
+import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
+import org.eclipse.microprofile.openapi.annotations.responses.APIResponses;
+import org.eclipse.microprofile.openapi.annotations.tags.Tag;
+
+/**
+ * REST resource for draining the change-event outbox on demand. In Lambda, where the background
+ * relay cannot run, an EventBridge schedule invokes it (see {@code terraform/outbox.tf}).
+ */
+@Path("/outbox")
+@ApplicationScoped
+@RequiredArgsConstructor
+@Slf4j
+@Timed(UnitMetrics.RESOURCE_REQUESTS)
+@RunOnVirtualThread
+@Tag(name = "Outbox", description = "Change-event outbox")
+public class OutboxResource {
+
+    private final OutboxRelay outboxRelay;
+
+    /**
+     * Publish and remove every pending change event.
+     *
+     * @return API response with the number of events published
+     */
+    @POST
+    @Path("/drain")
+    @Produces(MediaType.APPLICATION_JSON)
+    @Operation(
+            summary = "Drain outbox",
+            description = "Publish every pending change event and remove it from the outbox")
+    @APIResponses(
+            value = {
+                @APIResponse(responseCode = "200", description = "Outbox drained"),
+                @APIResponse(
+                        responseCode = "501",
+                        description = "The configured publisher is not durable")
+            })
+    public ApiResponse<Integer> drain() {
+        if (!outboxRelay.canDrain()) {
+            throw new FeatureDisabledException(
+                    "Outbox drain needs a durable outbox.publisher; memory, or file under Lambda,"
+                            + " would drop the events");
+        }
+        final int published = outboxRelay.drain();
+        log.info("Drained outbox - published: {}", published);
+        return ApiResponse.<Integer>builder().data(published).build();
+    }
+}
@@ -0,0 +1,222 @@
+package com.fullbay.unit.resource;
+
+import com.fullbay.unit.metrics.ServerTimed;
+import com.fullbay.unit.metrics.UnitMetrics;
+import com.fullbay.unit.model.dto.CreateUnitFromVinRequest;
+import com.fullbay.unit.model.entity.Unit;
+import com.fullbay.unit.model.response.ApiResponse;
+import com.fullbay.unit.service.ReactiveUnitService;
+
+import io.micrometer.core.annotation.Timed;
+import io.quarkus.resteasy.reactive.server.EndpointDisabled;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.validation.Valid;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import org.eclipse.microprofile.openapi.annotations.Operation;
+import org.eclipse.microprofile.openapi.annotations.enums.SchemaType;
+import org.eclipse.microprofile.openapi.annotations.media.Content;
+import org.eclipse.microprofile.openapi.annotations.media.Schema;
+import org.eclipse.microprofile.openapi.annotations.parameters.Parameter;
+import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
+import org.eclipse.microprofile.openapi.annotations.responses.APIResponses;
+import org.eclipse.microprofile.openapi.annotations.tags.Tag;
+import org.jboss.resteasy.reactive.RestStreamElementType;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Non-blocking Unit reads and VIN creation on {@link ReactiveUnitService}. Endpoints return {@link
+ * Uni}/{@link Multi} and run on the I/O thread, so no thread is held while DynamoDB, NHTSA or
+ * parts-service calls are in flight. Responses match {@link UnitResource}. Built only when {@code
+ * unit.reactive.enabled} is true (container mode).
+ */
+@Path("/rx/units")
+@ApplicationScoped
+@RequiredArgsConstructor
+@Slf4j
+@Timed(UnitMetrics.RESOURCE_REQUESTS)
+@EndpointDisabled(name = "unit.reactive.enabled", stringValue = "false", disableIfMissing = true)
+@Tag(name = "Units (reactive)", description = "Non-blocking unit operations")
+public class ReactiveUnitResource {
+
+    static final String NDJSON = "application/x-ndjson";
+
+    private final ReactiveUnitService unitService;
+
+    /**
+     * List units by customer ID, VIN, or both.
+     *
+     * @param customerId Optional customer ID to filter
+     * @param vin Optional VIN to search
+     * @return API response with units
+     */
+    @GET
+    @ServerTimed
+    @Produces(MediaType.APPLICATION_JSON)
+    @Operation(
+            summary = "List units (reactive)",
+            description = "List units by customer ID, VIN, or customer ID and VIN")
+    @APIResponses(
+            value = {
+                @APIResponse(
+                        responseCode = "200",
+                        description = "Units retrieved successfully",
+                        content =
+                                @Content(
+                                        mediaType = MediaType.APPLICATION_JSON,
+                                        schema =
+                                                @Schema(
+                                                        type = SchemaType.ARRAY,
+                                                        implementation = Unit.class)))
+            })
+    public Uni<ApiResponse<Map<String, Object>>> listUnits(
+            @QueryParam("customerId")
+                    @Parameter(name = "customerId", description = "Filter units by customer ID")
+                    String customerId,
+            @QueryParam("vin") @Parameter(name = "vin", description = "Filter units by VIN")
+                    String vin) {
+        log.info("Reactive list units request - customerId: {}, vin: {}", customerId, vin);
+        return units(customerId, vin)
+                .collect()
+                .asList()
+                .map(
+                        units ->
+                                ApiResponse.<Map<String, Object>>builder()
+                                        .data(Map.of("items", units, "count", units.size()))
+                                        .build());
+    }
+
+    /**
+     * Stream units by customer ID, VIN, or both as newline-delimited JSON. Each Query page is
+     * written as soon as its vehicles are resolved, so memory is bounded by one page.
+     *
+     * @param customerId Optional customer ID to filter
+     * @param vin Optional VIN to search
+     * @return One unit per line
+     */
+    @GET
+    @Path("/stream")
+    @Produces(NDJSON)
+    @RestStreamElementType(MediaType.APPLICATION_JSON)
+    @Operation(
+            summary = "Stream units (reactive)",
+            description = "Stream units by customer ID, VIN, or both as newline-delimited JSON")
+    @APIResponse(responseCode = "200", description = "Units streamed")
+    public Multi<Unit> streamUnits(
+            @QueryParam("customerId")
+                    @Parameter(name = "customerId", description = "Filter units by customer ID")
+                    String customerId,
+            @QueryParam("vin") @Parameter(name = "vin", description = "Filter units by VIN")
+                    String vin) {
+        log.info("Reactive stream units request - customerId: {}, vin: {}", customerId, vin);
+        return units(customerId, vin);
+    }
+
+    /**
+     * Get a single unit by ID.
+     *
+     * @param unitId The unit ID
+     * @return API response with unit
+     */
+    @GET
+    @Path("/{unitId}")
+    @ServerTimed
+    @Produces(MediaType.APPLICATION_JSON)
+    @Operation(summary = "Get unit by ID (reactive)", description = "Retrieve a unit by its ID")
+    @APIResponses(
+            value = {
+                @APIResponse(
+                        responseCode = "200",
+                        description = "Unit retrieved successfully",
+                        content =
+                                @Content(
+                                        mediaType = MediaType.APPLICATION_JSON,
+                                        schema = @Schema(implementation = Unit.class))),
+                @APIResponse(responseCode = "404", description = "Unit not found")
+            })
+    public Uni<Response> getUnit(@PathParam("unitId") String unitId) {
+        log.info("Reactive get unit request - unitId: {}", unitId);
+        return unitService
+                .getUnitById(unitId)
+                .map(
+                        unit ->
+                                Response.ok(ApiResponse.<Unit>builder().data(unit).build())
+                                        .tag(UnitResource.versionTag(unit))
+                                        .type(MediaType.APPLICATION_JSON)
+                                        .build());
+    }
+
+    /**
+     * Create a new unit from VIN via NHTSA API.
+     *
+     * @param request The create from VIN request (vin and customerId)
+     * @return API response with created unit
+     */
+    @POST
+    @Path("/vin")
+    @ServerTimed
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    @Operation(
+            summary = "Create unit from VIN (reactive)",
+            description = "Create a new unit by decoding VIN via NHTSA API")
+    @APIResponses(
+            value = {
+                @APIResponse(
+                        responseCode = "201",
+                        description = "Unit created successfully",
+                        content =
+                                @Content(
+                                        mediaType = MediaType.APPLICATION_JSON,
+                                        schema = @Schema(implementation = Unit.class))),
+                @APIResponse(responseCode = "400", description = "Invalid request"),
+                @APIResponse(
+                        responseCode = "409",
+                        description = "Unit with this VIN already exists")
+            })
+    public Uni<Response> createUnitFromVin(@Valid CreateUnitFromVinRequest request) {
+        log.info(
+                "Reactive create unit from VIN request - customerId: {}, vin: {}",
+                request.getCustomerId(),
+                request.getVin());
+        return unitService
+                .createUnitFromVin(request.getVin(), request.getCustomerId())
+                .map(
+                        unit ->
+                                Response.status(Response.Status.CREATED)
+                                        .entity(ApiResponse.<Unit>builder().data(unit).build())
+                                        .type(MediaType.APPLICATION_JSON)
+                                        .build());
+    }
+
+    private Multi<Unit> units(String customerId, String vin) {
+        final boolean hasCustomer = customerId != null && !customerId.isEmpty();
+        final boolean hasVin = vin != null && !vin.isEmpty();
+        if (hasCustomer && hasVin) {
+            return unitService.getUnitByCustomerIdAndVin(customerId, vin);
+        }
+        if (hasCustomer) {
+            return unitService.getUnitsByCustomerId(customerId);
+        }
+        if (hasVin) {
+            return unitService.getUnitsByVin(vin);
+        }
+        return Multi.createFrom().iterable(List.of());
+    }
+}
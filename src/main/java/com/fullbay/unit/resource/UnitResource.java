@@ -1,24 +1,45 @@
 package com.fullbay.unit.resource;
 
+import com.fullbay.unit.exception.VersionConflictException;
+import com.fullbay.unit.metrics.ServerTimed;
+import com.fullbay.unit.metrics.UnitMetrics;
 import com.fullbay.unit.model.dto.CreateUnitFromVinRequest;
+import com.fullbay.unit.model.dto.UnitSearchCriteria;
 import com.fullbay.unit.model.dto.UpdateUnitRequest;
 import com.fullbay.unit.model.entity.Unit;
 import com.fullbay.unit.model.response.ApiResponse;
+import com.fullbay.unit.model.response.PageResult;
+import com.fullbay.unit.model.response.UnitChanges;
+import com.fullbay.unit.service.ExportService;
 import com.fullbay.unit.service.UnitService;
+import com.fullbay.unit.service.UnitSyncService;
+
+import io.micrometer.core.annotation.Timed;
+import io.smallrye.common.annotation.RunOnVirtualThread;
 
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
 import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.DELETE;
+import jakarta.ws.rs.DefaultValue;
 import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HeaderParam;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.PUT;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -32,31 +53,49 @@ import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
 import org.eclipse.microprofile.openapi.annotations.responses.APIResponses;
 import org.eclipse.microprofile.openapi.annotations.tags.Tag;
 
+import java.time.Instant;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
-/** REST resource for Unit management. */
+/**
+ * REST resource for Unit management. Endpoints run on virtual threads when {@code
+ * quarkus.virtual-threads.enabled} is set (container mode), otherwise on the worker pool.
+ */
 @Path("/units")
 @ApplicationScoped
 @RequiredArgsConstructor
 @Slf4j
+@Timed(UnitMetrics.RESOURCE_REQUESTS)
+@RunOnVirtualThread
+@ServerTimed
 @Tag(name = "Units", description = "Unit management operations")
 public class UnitResource {
 
+    private static final String TEXT_CSV = "text/csv";
+    private static final String APPLICATION_NDJSON = "application/x-ndjson";
+    private static final String ISO_INSTANT =
+            "\\d{4}-\\d{2}-\\d{2}T\\d{2}:\\d{2}:\\d{2}(\\.\\d{1,9})?Z";
+
     private final UnitService unitService;
+    private final UnitSyncService unitSyncService;
+    private final ExportService exportService;
 
     /**
      * List units or search by query parameters.
      *
      * @param customerId Optional customer ID to filter
      * @param vin Optional VIN to search
+     * @param vinSuffix Optional trailing VIN characters to search within the customer's fleet
      * @return API response with units
      */
     @GET
     @Produces(MediaType.APPLICATION_JSON)
     @Operation(
             summary = "List or search units",
-            description = "List all units or search by customer ID or VIN")
+            description =
+                    "List all units or search by customer ID, VIN, or customer ID and VIN suffix")
     @APIResponses(
             value = {
                 @APIResponse(
@@ -78,8 +117,23 @@ public class UnitResource {
                     String customerId,
             @QueryParam("vin")
                     @Parameter(name = "vin", description = "Filter units by VIN (optional)")
-                    String vin) {
-        log.info("List units request - customerId: {}, vin: {}", customerId, vin);
+                    String vin,
+            @QueryParam("vinSuffix")
+                    @Size(
+                            min = 4,
+                            max = 17,
+                            message = "vinSuffix must be between 4 and 17 characters")
+                    @Parameter(
+                            name = "vinSuffix",
+                            description =
+                                    "Filter a customer's units by trailing VIN characters"
+                                            + " (optional, requires customerId)")
+                    String vinSuffix) {
+        log.info(
+                "List units request - customerId: {}, vin: {}, vinSuffix: {}",
+                customerId,
+                vin,
+                vinSuffix);
 
         if (customerId != null && !customerId.isEmpty() && vin != null && !vin.isEmpty()) {
             final List<Unit> units = unitService.getUnitByCustomerIdAndVin(customerId, vin);
@@ -88,6 +142,17 @@ public class UnitResource {
                     .build();
         }
 
+        if (customerId != null
+                && !customerId.isEmpty()
+                && vinSuffix != null
+                && !vinSuffix.isEmpty()) {
+            final List<Unit> units =
+                    unitService.getUnitsByCustomerIdAndVinSuffix(customerId, vinSuffix);
+            return ApiResponse.<Map<String, Object>>builder()
+                    .data(Map.of("items", units, "count", units.size()))
+                    .build();
+        }
+
         if (customerId != null && !customerId.isEmpty()) {
             final List<Unit> units = unitService.getUnitsByCustomerId(customerId);
             return ApiResponse.<Map<String, Object>>builder()
@@ -107,6 +172,224 @@ public class UnitResource {
                 .build();
     }
 
+    /**
+     * Search a customer's fleet by vehicle attributes. Each page is a single bounded Query against
+     * the materialized search index, not a scan of the fleet.
+     *
+     * @param customerId Customer ID (required)
+     * @param yearFrom Optional minimum model year (inclusive)
+     * @param yearTo Optional maximum model year (inclusive)
+     * @param make Optional make
+     * @param model Optional model
+     * @param fuelType Optional primary fuel type
+     * @param bodyClass Optional body class
+     * @param limit Page size (default 50, max 500)
+     * @param cursor Optional cursor from a previous page
+     * @return API response with matching units and the next cursor
+     */
+    @GET
+    @Path("/search")
+    @Produces(MediaType.APPLICATION_JSON)
+    @Operation(
+            summary = "Search units",
+            description =
+                    "Search a customer's fleet by year range, make, model, fuel type and body"
+                            + " class")
+    @APIResponses(
+            value = {
+                @APIResponse(
+                        responseCode = "200",
+                        description = "Units retrieved successfully",
+                        content =
+                                @Content(
+                                        mediaType = MediaType.APPLICATION_JSON,
+                                        schema =
+                                                @Schema(
+                                                        type = SchemaType.ARRAY,
+                                                        implementation = Unit.class))),
+                @APIResponse(responseCode = "400", description = "Invalid request")
+            })
+    public ApiResponse<Map<String, Object>> searchUnits(
+            @QueryParam("customerId")
+                    @NotBlank(message = "customerId is required")
+                    @Parameter(name = "customerId", description = "Customer ID (required)")
+                    String customerId,
+            @QueryParam("yearFrom") @Parameter(description = "Minimum model year") Integer yearFrom,
+            @QueryParam("yearTo") @Parameter(description = "Maximum model year") Integer yearTo,
+            @QueryParam("make") @Parameter(description = "Make") String make,
+            @QueryParam("model") @Parameter(description = "Model") String model,
+            @QueryParam("fuelType") @Parameter(description = "Primary fuel type") String fuelType,
+            @QueryParam("bodyClass") @Parameter(description = "Body class") String bodyClass,
+            @QueryParam("limit")
+                    @DefaultValue("50")
+                    @Min(value = 1, message = "limit must be at least 1")
+                    @Max(value = 500, message = "limit must be at most 500")
+                    @Parameter(description = "Page size (default 50, max 500)")
+                    int limit,
+            @QueryParam("cursor") @Parameter(description = "Cursor from a previous page")
+                    String cursor) {
+        log.info(
+                "Search units request - customerId: {}, yearFrom: {}, yearTo: {}, make: {},"
+                        + " model: {}, fuelType: {}, bodyClass: {}",
+                customerId,
+                yearFrom,
+                yearTo,
+                make,
+                model,
+                fuelType,
+                bodyClass);
+
+        final UnitSearchCriteria criteria =
+                UnitSearchCriteria.builder()
+                        .customerId(customerId)
+                        .yearFrom(yearFrom)
+                        .yearTo(yearTo)
+                        .make(make)
+                        .model(model)
+                        .fuelType(fuelType)
+                        .bodyClass(bodyClass)
+                        .build();
+        final PageResult<Unit> page = unitService.searchUnits(criteria, limit, cursor);
+
+        final Map<String, Object> data = new LinkedHashMap<>();
+        data.put("items", page.getItems());
+        data.put("count", page.getItems().size());
+        data.put("nextCursor", page.getNextCursor());
+        return ApiResponse.<Map<String, Object>>builder().data(data).build();
+    }
+
+    /**
+     * Delta sync: a customer's units changed since the last sync, and the IDs of units deleted or
+     * moved to another customer. Pages are in change order; apply {@code deleted} before {@code
+     * items}. Send the last page's {@code syncedTo} as {@code since} next time.
+     *
+     * @param customerId Customer ID (required)
+     * @param since {@code syncedTo} from the previous sync; omit for a full sync
+     * @param limit Page size (default 100, max 500)
+     * @param cursor Optional cursor from a previous page
+     * @return API response with changed slim units, deleted IDs and the next cursor
+     */
+    @GET
+    @Path("/changes")
+    @Produces(MediaType.APPLICATION_JSON)
+    @Operation(
+            summary = "Units changed since a time",
+            description =
+                    "Delta sync of a customer's units: changed slim units and deleted unit IDs,"
+                            + " oldest change first")
+    @APIResponses(
+            value = {
+                @APIResponse(
+                        responseCode = "200",
+                        description = "Changes retrieved successfully",
+                        content =
+                                @Content(
+                                        mediaType = MediaType.APPLICATION_JSON,
+                                        schema = @Schema(implementation = UnitChanges.class))),
+                @APIResponse(responseCode = "400", description = "Invalid request")
+            })
+    public ApiResponse<Map<String, Object>> getChanges(
+            @QueryParam("customerId")
+                    @NotBlank(message = "customerId is required")
+                    @Parameter(name = "customerId", description = "Customer ID (required)")
+                    String customerId,
+            @QueryParam("since")
+                    @Pattern(
+                            regexp = ISO_INSTANT,
+                            message = "since must be an ISO-8601 UTC timestamp")
+                    @Parameter(
+                            description =
+                                    "syncedTo from the previous sync, e.g."
+                                            + " 2025-01-01T00:00:00Z (optional)")
+                    String since,
+            @QueryParam("limit")
+                    @DefaultValue("100")
+                    @Min(value = 1, message = "limit must be at least 1")
+                    @Max(value = 500, message = "limit must be at most 500")
+                    @Parameter(description = "Page size (default 100, max 500)")
+                    int limit,
+            @QueryParam("cursor") @Parameter(description = "Cursor from a previous page")
+                    String cursor) {
+        log.info("Unit changes request - customerId: {}, since: {}", customerId, since);
+
+        final UnitChanges page =
+                unitSyncService.getChanges(
+                        customerId,
+                        since != null && !since.isEmpty() ? Instant.parse(since) : null,
+                        limit,
+                        cursor);
+
+        final Map<String, Object> data = new LinkedHashMap<>();
+        data.put("items", page.getItems());
+        data.put("deleted", page.getDeleted());
+        data.put("count", page.getItems().size() + page.getDeleted().size());
+        data.put("nextCursor", page.getNextCursor());
+        data.put("syncedTo", page.getSyncedTo());
+        data.put("reset", page.isReset());
+        return ApiResponse.<Map<String, Object>>builder().data(data).build();
+    }
+
+    /**
+     * Stream a customer's whole fleet, enriched with vehicle data, as CSV or NDJSON. Rows are
+     * written as each page is read; there is no envelope, and a failure after the first page ends
+     * the stream early rather than returning an error body.
+     *
+     * @param customerId Customer ID (required)
+     * @param format csv (default) or ndjson
+     * @param columns Comma-separated unit fields to include; all fields when omitted
+     * @return The streamed export
+     */
+    @GET
+    @Path("/export")
+    @Produces({TEXT_CSV, APPLICATION_NDJSON})
+    @Operation(
+            summary = "Export units",
+            description =
+                    "Stream all of a customer's units with vehicle data as CSV (with a header row)"
+                            + " or NDJSON, optionally limited to the given columns")
+    @APIResponses(
+            value = {
+                @APIResponse(
+                        responseCode = "200",
+                        description = "Export streamed",
+                        content = {
+                            @Content(mediaType = TEXT_CSV),
+                            @Content(mediaType = APPLICATION_NDJSON)
+                        }),
+                @APIResponse(responseCode = "400", description = "Invalid request"),
+                @APIResponse(
+                        responseCode = "501",
+                        description = "Exports are not enabled in this deployment")
+            })
+    public Response exportUnits(
+            @QueryParam("customerId")
+                    @NotBlank(message = "customerId is required")
+                    @Parameter(name = "customerId", description = "Customer ID (required)")
+                    String customerId,
+            @QueryParam("format")
+                    @DefaultValue("csv")
+                    @Pattern(regexp = "csv|ndjson", message = "format must be csv or ndjson")
+                    @Parameter(description = "csv (default) or ndjson")
+                    String format,
+            @QueryParam("columns")
+                    @Parameter(
+                            description =
+                                    "Comma-separated unit fields, e.g. unitId,vin,year,make,model"
+                                            + " (optional, default all)")
+                    String columns) {
+        log.info("Export units request - customerId: {}, format: {}", customerId, format);
+
+        final ExportService.Format exportFormat =
+                ExportService.Format.valueOf(format.toUpperCase(Locale.ROOT));
+        final List<String> selected = exportService.columns(columns);
+        final StreamingOutput body =
+                out -> exportService.export(customerId, exportFormat, selected, out);
+        return Response.ok(body)
+                .type(exportFormat == ExportService.Format.CSV ? TEXT_CSV : APPLICATION_NDJSON)
+                .header("Content-Disposition", "attachment; filename=\"units." + format + "\"")
+                .build();
+    }
+
     /**
      * Get a single unit by ID.
      *
@@ -128,10 +411,11 @@ public class UnitResource {
                                         schema = @Schema(implementation = Unit.class))),
                 @APIResponse(responseCode = "404", description = "Unit not found")
             })
-    public ApiResponse<Unit> getUnit(@PathParam("unitId") String unitId) {
+    public Response getUnit(@PathParam("unitId") String unitId) {
         log.info("Get unit request - unitId: {}", unitId);
         final Unit unit = unitService.getUnitById(unitId);
-        return ApiResponse.<Unit>builder().data(unit).build();
+        final ApiResponse<Unit> response = ApiResponse.<Unit>builder().data(unit).build();
+        return Response.ok(response).tag(versionTag(unit)).type(MediaType.APPLICATION_JSON).build();
     }
 
     /**
@@ -176,9 +460,12 @@ public class UnitResource {
     }
 
     /**
-     * Update an existing unit.
+     * Update an existing unit. When If-Match carries the unit's version (its ETag), the update
+     * fails with 412 if the stored unit is at another version. The unit is always read first, since
+     * its change event needs the customer and VIN.
      *
      * @param unitId The unit ID
+     * @param ifMatch Optional If-Match header with the expected version
      * @param request The update request
      * @return API response with updated unit
      */
@@ -197,13 +484,26 @@ public class UnitResource {
                                 @Content(
                                         mediaType = MediaType.APPLICATION_JSON,
                                         schema = @Schema(implementation = Unit.class))),
-                @APIResponse(responseCode = "404", description = "Unit not found")
+                @APIResponse(responseCode = "404", description = "Unit not found"),
+                @APIResponse(
+                        responseCode = "409",
+                        description = "Unit kept changing concurrently (no If-Match)"),
+                @APIResponse(
+                        responseCode = "412",
+                        description = "Unit was modified since the If-Match version")
             })
-    public ApiResponse<Unit> updateUnit(
-            @PathParam("unitId") String unitId, @Valid UpdateUnitRequest request) {
-        log.info("Update unit request - unitId: {}", unitId);
-        final Unit unit = unitService.updateUnit(unitId, request);
-        return ApiResponse.<Unit>builder().data(unit).build();
+    public Response updateUnit(
+            @PathParam("unitId") String unitId,
+            @HeaderParam(HttpHeaders.IF_MATCH)
+                    @Parameter(
+                            name = "If-Match",
+                            description = "Expected unit version (ETag) for a conditional update")
+                    String ifMatch,
+            @Valid UpdateUnitRequest request) {
+        log.info("Update unit request - unitId: {}, ifMatch: {}", unitId, ifMatch);
+        final Unit unit = unitService.updateUnit(unitId, request, parseIfMatch(unitId, ifMatch));
+        final ApiResponse<Unit> response = ApiResponse.<Unit>builder().data(unit).build();
+        return Response.ok(response).tag(versionTag(unit)).type(MediaType.APPLICATION_JSON).build();
     }
 
     /**
@@ -218,11 +518,35 @@ public class UnitResource {
     @APIResponses(
             value = {
                 @APIResponse(responseCode = "204", description = "Unit deleted successfully"),
-                @APIResponse(responseCode = "404", description = "Unit not found")
+                @APIResponse(responseCode = "404", description = "Unit not found"),
+                @APIResponse(responseCode = "409", description = "Unit kept changing concurrently")
             })
     public Response deleteUnit(@PathParam("unitId") String unitId) {
         log.info("Delete unit request - unitId: {}", unitId);
         unitService.deleteUnit(unitId);
         return Response.noContent().build();
     }
+
+    /** ETag for a unit is its version; units written before versioning report version 0. */
+    static EntityTag versionTag(Unit unit) {
+        return new EntityTag(String.valueOf(unit.version() != null ? unit.version() : 0L));
+    }
+
+    /** Parse an If-Match header into a version. Absent or "*" means unconditional. */
+    private static Long parseIfMatch(String unitId, String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || "*".equals(ifMatch.trim())) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        tag = tag.replace("\"", "");
+        try {
+            return Long.parseLong(tag);
+        } catch (final NumberFormatException e) {
+            // An entity tag we never issued cannot match the current representation
+            throw new VersionConflictException(unitId, ifMatch);
+        }
+    }
 }
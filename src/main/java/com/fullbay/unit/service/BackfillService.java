@@ -0,0 +1,304 @@
+package com.fullbay.unit.service;
+
+import com.fullbay.unit.exception.BackfillJobNotFoundException;
+import com.fullbay.unit.exception.FeatureDisabledException;
+import com.fullbay.unit.model.entity.BackfillJob;
+import com.fullbay.unit.model.entity.Vehicle;
+import com.fullbay.unit.repository.BackfillJobRepository;
+import com.fullbay.unit.repository.BackfillJobRepository.Segment;
+import com.fullbay.unit.repository.VehicleRepository;
+import com.fullbay.unit.repository.VehicleRepository.ScanPage;
+import com.fullbay.unit.repository.VehicleRepository.Scanned;
+import com.fullbay.unit.tracing.Span;
+import com.fullbay.unit.tracing.TraceAttributes;
+import com.fullbay.unit.tracing.Tracing;
+import com.fullbay.unit.util.IdGenerator;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Operator-run backfills of stored vehicles. A job splits a parallel Scan of the table into
+ * segments and runs one runner per segment. Each runner reads pages of {@code backfill.page-size}
+ * items, re-runs VCDB resolution or a full NHTSA re-decode for the VIN# items, and writes back only
+ * vehicles whose decoded data changed (by {@code contentHash}). Units of a rewritten vehicle are
+ * then moved to its new dimensions, with their fleet summary counts and search index items. Reads
+ * across all segments are held to {@code backfill.max-items-per-second}. Every page is checkpointed
+ * under the segment's lease; {@link #resume} continues segments whose runner died from their last
+ * checkpoint.
+ *
+ * <p>Like imports, runners are background threads that Lambda would freeze between invocations, so
+ * backfills are off unless {@code backfill.enabled} is set.
+ */
+@ApplicationScoped
+@Slf4j
+public class BackfillService {
+
+    private final BackfillJobRepository backfillJobRepository;
+    private final VehicleRepository vehicleRepository;
+    private final UnitService unitService;
+    private final boolean enabled;
+    private final int defaultSegments;
+    private final int pageSize;
+    private final long permitIntervalNanos;
+    private final Duration lease;
+    private final Executor executor;
+
+    private long nextPermitNanos = System.nanoTime();
+
+    @Inject
+    public BackfillService(
+            BackfillJobRepository backfillJobRepository,
+            VehicleRepository vehicleRepository,
+            UnitService unitService,
+            @ConfigProperty(name = "backfill.enabled", defaultValue = "false") boolean enabled,
+            @ConfigProperty(name = "backfill.segments", defaultValue = "4") int defaultSegments,
+            @ConfigProperty(name = "backfill.page-size", defaultValue = "100") int pageSize,
+            @ConfigProperty(name = "backfill.max-items-per-second", defaultValue = "200")
+                    double maxItemsPerSecond,
+            @ConfigProperty(name = "backfill.lease", defaultValue = "5m") Duration lease) {
+        this(
+                backfillJobRepository,
+                vehicleRepository,
+                unitService,
+                enabled,
+                defaultSegments,
+                pageSize,
+                maxItemsPerSecond,
+                lease,
+                Executors.newCachedThreadPool(daemon("backfill-segment")));
+    }
+
+    BackfillService(
+            BackfillJobRepository backfillJobRepository,
+            VehicleRepository vehicleRepository,
+            UnitService unitService,
+            boolean enabled,
+            int defaultSegments,
+            int pageSize,
+            double maxItemsPerSecond,
+            Duration lease,
+            Executor executor) {
+        this.backfillJobRepository = backfillJobRepository;
+        this.vehicleRepository = vehicleRepository;
+        this.unitService = unitService;
+        this.enabled = enabled;
+        this.defaultSegments = defaultSegments;
+        this.pageSize = pageSize;
+        this.permitIntervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / maxItemsPerSecond);
+        this.lease = lease;
+        this.executor = executor;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (executor instanceof ExecutorService service) {
+            service.shutdownNow();
+        }
+    }
+
+    /**
+     * Create a job and start one runner per segment.
+     *
+     * @param mode What to re-run for each vehicle
+     * @param segments Number of scan segments, or null for {@code backfill.segments}
+     * @return The new job
+     * @throws FeatureDisabledException if backfills are not enabled in this deployment
+     */
+    public BackfillJob start(BackfillJob.Mode mode, Integer segments) {
+        requireEnabled();
+        try (Span span = Tracing.startSpan("backfill-service-start")) {
+            final String jobId = IdGenerator.generateJobId();
+            span.attribute(TraceAttributes.JOB_ID, jobId);
+
+            final int segmentCount = segments != null ? segments : defaultSegments;
+            backfillJobRepository.create(jobId, mode, segmentCount, Instant.now());
+            log.info("Started {} backfill job {} with {} segments", mode, jobId, segmentCount);
+
+            for (int i = 0; i < segmentCount; i++) {
+                final int index = i;
+                executor.execute(() -> runSegment(jobId, mode, index, segmentCount));
+            }
+            return getJob(jobId);
+        }
+    }
+
+    /**
+     * Get a job's progress.
+     *
+     * @param jobId The job ID
+     * @return The job
+     * @throws BackfillJobNotFoundException if the job does not exist or has expired
+     */
+    public BackfillJob getJob(String jobId) {
+        return backfillJobRepository
+                .findById(jobId)
+                .orElseThrow(() -> new BackfillJobNotFoundException(jobId));
+    }
+
+    /**
+     * Restart runners for a job's unfinished segments. Each continues from its last checkpoint once
+     * no runner holds its lease.
+     *
+     * @param jobId The job ID
+     * @return The job as it is now
+     * @throws BackfillJobNotFoundException if the job does not exist or has expired
+     * @throws FeatureDisabledException if backfills are not enabled in this deployment
+     */
+    public BackfillJob resume(String jobId) {
+        requireEnabled();
+        final BackfillJob job = getJob(jobId);
+        if (job.status() != BackfillJob.Status.COMPLETED) {
+            for (final Segment segment : backfillJobRepository.findOpenSegments(jobId)) {
+                executor.execute(
+                        () -> runSegment(jobId, job.mode(), segment.index(), job.segments()));
+            }
+        }
+        return job;
+    }
+
+    private void requireEnabled() {
+        if (!enabled) {
+            throw new FeatureDisabledException(
+                    "Backfills need a long-running deployment; set backfill.enabled");
+        }
+    }
+
+    /** Work through one segment from its checkpoint while holding its lease. */
+    void runSegment(String jobId, BackfillJob.Mode mode, int index, int segments) {
+        final String owner = UUID.randomUUID().toString();
+        try {
+            final Segment segment =
+                    backfillJobRepository
+                            .claim(jobId, index, owner, Instant.now().plus(lease))
+                            .orElse(null);
+            if (segment == null) {
+                return;
+            }
+            log.info("Running backfill job {} segment {}", jobId, index);
+
+            Map<String, AttributeValue> startKey = segment.startKey();
+            do {
+                acquirePermits(pageSize);
+                final ScanPage page =
+                        vehicleRepository.scanSegment(index, segments, startKey, pageSize);
+                if (!processPage(jobId, mode, index, owner, page)) {
+                    return;
+                }
+                startKey = page.lastKey();
+            } while (startKey != null);
+            log.info("Backfill job {} segment {} done", jobId, index);
+        } catch (final RuntimeException e) {
+            log.error("Backfill job {} segment {} stopped; resume to continue", jobId, index, e);
+        }
+    }
+
+    private boolean processPage(
+            String jobId, BackfillJob.Mode mode, int index, String owner, ScanPage page) {
+        try (Span span = Tracing.startSpan("backfill-service-processPage")) {
+            span.attribute(TraceAttributes.JOB_ID, jobId);
+            span.attribute(TraceAttributes.SEGMENT, index);
+
+            int updated = 0;
+            int failed = 0;
+            for (final Scanned scanned : page.vehicles()) {
+                try {
+                    final Vehicle vehicle = backfill(mode, scanned.vehicle());
+                    if (vehicleRepository.saveIfChanged(vehicle, scanned)) {
+                        unitService.redimensionUnits(scanned.vehicle(), vehicle);
+                        updated++;
+                    }
+                } catch (final RuntimeException e) {
+                    failed++;
+                    log.warn(
+                            "Backfill of vehicle {} failed: {}",
+                            scanned.vehicle().vin(),
+                            e.getMessage());
+                }
+            }
+            span.attribute(TraceAttributes.ITEM_COUNT, page.vehicles().size());
+            return backfillJobRepository.checkpoint(
+                    jobId,
+                    index,
+                    owner,
+                    page.lastKey(),
+                    page.scannedCount(),
+                    page.vehicles().size(),
+                    updated,
+                    failed,
+                    Instant.now().plus(lease));
+        }
+    }
+
+    /**
+     * The vehicle as it would be stored if decoded today. VCDB mode only calls parts-service for
+     * vehicles missing an ID. Re-decodes share the NHTSA rate limit with API requests but may queue
+     * for up to {@code backfill.lease}. A re-decode keeps the stored VCDB IDs when resolution fails
+     * for the same year, make and model, so a parts-service outage cannot erase them.
+     */
+    Vehicle backfill(BackfillJob.Mode mode, Vehicle stored) {
+        if (mode == BackfillJob.Mode.VCDB) {
+            if (stored.baseVehicleId() != null
+                    && stored.makeId() != null
+                    && stored.modelId() != null) {
+                return stored;
+            }
+            return unitService.enrichVehicleWithVcdbIds(stored).withUpdatedAt(Instant.now());
+        }
+
+        final Vehicle decoded = unitService.decodeVehicle(stored.vin(), Instant.now().plus(lease));
+        Vehicle remapped = unitService.enrichVehicleWithVcdbIds(decoded);
+        if (remapped.baseVehicleId() == null
+                && Objects.equals(remapped.year(), stored.year())
+                && Objects.equals(remapped.make(), stored.make())
+                && Objects.equals(remapped.model(), stored.model())) {
+            remapped =
+                    remapped.withBaseVehicleId(stored.baseVehicleId())
+                            .withMakeId(stored.makeId())
+                            .withModelId(stored.modelId());
+        }
+        return remapped.withCreatedAt(stored.createdAt());
+    }
+
+    /** Space scan reads {@code backfill.max-items-per-second} apart across all segments. */
+    @SneakyThrows
+    private void acquirePermits(int items) {
+        final long wait;
+        synchronized (this) {
+            final long now = System.nanoTime();
+            final long slot = Math.max(nextPermitNanos, now);
+            nextPermitNanos = slot + permitIntervalNanos * items;
+            wait = slot - now;
+        }
+        if (wait > 0) {
+            TimeUnit.NANOSECONDS.sleep(wait);
+        }
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return r -> {
+            final Thread thread = new Thread(r, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
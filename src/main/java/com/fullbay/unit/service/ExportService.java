@@ -0,0 +1,224 @@
+package com.fullbay.unit.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import com.fullbay.unit.exception.FeatureDisabledException;
+import com.fullbay.unit.exception.UnknownColumnException;
+import com.fullbay.unit.model.entity.Unit;
+import com.fullbay.unit.model.entity.Vehicle;
+import com.fullbay.unit.repository.UnitRepository;
+import com.fullbay.unit.repository.VehicleRepository;
+import com.fullbay.unit.tracing.Span;
+import com.fullbay.unit.tracing.TraceAttributes;
+import com.fullbay.unit.tracing.Tracing;
+
+import jakarta.enterprise.context.ApplicationScoped;
+
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.io.BufferedWriter;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Streams a customer's fleet as CSV or NDJSON. Units are read one page of {@code export.page-size}
+ * at a time, enriched with one {@link VehicleRepository#findByVins} batch per page, and written and
+ * flushed before the next page is read, so memory use does not grow with the fleet.
+ *
+ * <p>Behind the ALB, a Lambda response is capped at 1 MB, which a large fleet's export exceeds and
+ * which would be cut off mid-stream. Exports are therefore switched off unless {@code
+ * export.enabled} is set, which only long-running deployments (%container, %dev) do.
+ */
+@ApplicationScoped
+@Slf4j
+public class ExportService {
+
+    /** Output formats. */
+    public enum Format {
+        CSV,
+        NDJSON
+    }
+
+    private static final TypeReference<Map<String, Object>> MAP_TYPE_REF = new TypeReference<>() {};
+
+    private final UnitRepository unitRepository;
+    private final VehicleRepository vehicleRepository;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final int pageSize;
+    private final List<String> allColumns;
+
+    public ExportService(
+            UnitRepository unitRepository,
+            VehicleRepository vehicleRepository,
+            ObjectMapper objectMapper,
+            @ConfigProperty(name = "export.enabled", defaultValue = "false") boolean enabled,
+            @ConfigProperty(name = "export.page-size", defaultValue = "100") int pageSize) {
+        this.unitRepository = unitRepository;
+        this.vehicleRepository = vehicleRepository;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.pageSize = pageSize;
+        this.allColumns =
+                objectMapper
+                        .getSerializationConfig()
+                        .introspect(objectMapper.constructType(Unit.class))
+                        .findProperties()
+                        .stream()
+                        .map(BeanPropertyDefinition::getName)
+                        .toList();
+    }
+
+    /**
+     * Resolve a comma-separated column list against the {@link Unit} fields. Called before the
+     * response starts so a bad column is still a 400, and a disabled export still a 501.
+     *
+     * @param spec Column names, e.g. "unitId,vin,year,make", or null for all fields
+     * @return The columns in request order, without repeats
+     * @throws UnknownColumnException if a name is not a unit field
+     * @throws FeatureDisabledException if exports are not enabled in this deployment
+     */
+    public List<String> columns(String spec) {
+        if (!enabled) {
+            throw new FeatureDisabledException(
+                    "Exports need a long-running deployment; set export.enabled");
+        }
+        if (spec == null || spec.isBlank()) {
+            return allColumns;
+        }
+        final Set<String> known = new HashSet<>(allColumns);
+        final Set<String> columns = new LinkedHashSet<>();
+        for (final String name : spec.split(",")) {
+            final String column = name.trim();
+            if (column.isEmpty()) {
+                continue;
+            }
+            if (!known.contains(column)) {
+                throw new UnknownColumnException(column);
+            }
+            columns.add(column);
+        }
+        return columns.isEmpty() ? allColumns : List.copyOf(columns);
+    }
+
+    /**
+     * Write a customer's units to {@code out}, in VIN order. CSV starts with a header row; empty
+     * cells are missing values. NDJSON has one object per unit with the non-null columns.
+     *
+     * @param customerId The customer ID
+     * @param format CSV or NDJSON
+     * @param columns Columns from {@link #columns}
+     * @param out The response stream; flushed after every page, not closed
+     */
+    @SneakyThrows
+    public void export(String customerId, Format format, List<String> columns, OutputStream out) {
+        try (Span span = Tracing.startSpan("export-service-export")) {
+            span.attribute(TraceAttributes.CUSTOMER_ID, customerId);
+
+            final Writer writer =
+                    new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            if (format == Format.CSV) {
+                writeCsvRow(writer, new ArrayList<>(columns));
+            }
+            final AtomicInteger rows = new AtomicInteger();
+            unitRepository.forEachPageByCustomerId(
+                    customerId,
+                    pageSize,
+                    page -> rows.addAndGet(writePage(writer, format, columns, page)));
+            writer.flush();
+
+            span.attribute(TraceAttributes.UNIT_COUNT, rows.get());
+            log.info("Exported {} units for customer {} as {}", rows.get(), customerId, format);
+        }
+    }
+
+    @SneakyThrows
+    private int writePage(Writer writer, Format format, List<String> columns, List<Unit> page) {
+        final Set<String> vins = new HashSet<>();
+        for (final Unit unit : page) {
+            if (unit.vin() != null) {
+                vins.add(unit.vin());
+            }
+        }
+        final Map<String, Vehicle> vehicles = vehicleRepository.findByVins(vins);
+
+        for (final Unit unit : page) {
+            final Map<String, Object> fields = fields(unit, vehicles.get(unit.vin()));
+            if (format == Format.CSV) {
+                final List<Object> cells = new ArrayList<>(columns.size());
+                for (final String column : columns) {
+                    cells.add(fields.get(column));
+                }
+                writeCsvRow(writer, cells);
+            } else {
+                final Map<String, Object> row = new LinkedHashMap<>();
+                for (final String column : columns) {
+                    final Object value = fields.get(column);
+                    if (value != null) {
+                        row.put(column, value);
+                    }
+                }
+                writer.write(objectMapper.writeValueAsString(row));
+                writer.write('\n');
+            }
+        }
+        writer.flush();
+        return page.size();
+    }
+
+    /** Unit fields overlaid with vehicle fields, as {@link UnitService#enrichWithVehicle} does. */
+    private Map<String, Object> fields(Unit unit, Vehicle vehicle) {
+        final Map<String, Object> fields = objectMapper.convertValue(unit, MAP_TYPE_REF);
+        if (vehicle != null) {
+            final Map<String, Object> vehicleFields =
+                    objectMapper.convertValue(vehicle, MAP_TYPE_REF);
+            vehicleFields.keySet().removeAll(UnitService.UNIT_FIELD_NAMES);
+            fields.putAll(vehicleFields);
+        }
+        return fields;
+    }
+
+    @SneakyThrows
+    private void writeCsvRow(Writer writer, List<?> cells) {
+        for (int i = 0; i < cells.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(csvCell(cells.get(i)));
+        }
+        writer.write("\r\n");
+    }
+
+    /** RFC 4180 cell: quoted when it holds a comma, quote or line break. Maps and lists as JSON. */
+    @SneakyThrows
+    private String csvCell(Object value) {
+        if (value == null) {
+            return "";
+        }
+        final String text =
+                value instanceof Map || value instanceof List
+                        ? objectMapper.writeValueAsString(value)
+                        : value.toString();
+        if (text.indexOf(',') < 0
+                && text.indexOf('"') < 0
+                && text.indexOf('\n') < 0
+                && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
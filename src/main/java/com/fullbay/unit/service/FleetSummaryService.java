@@ -0,0 +1,189 @@
+package com.fullbay.unit.service;
+
+import com.fullbay.unit.model.entity.FleetSummary;
+import com.fullbay.unit.model.entity.Unit;
+import com.fullbay.unit.model.entity.Vehicle;
+import com.fullbay.unit.model.entity.VehicleDimensions;
+import com.fullbay.unit.repository.FleetSummaryRepository;
+import com.fullbay.unit.repository.UnitOfWork;
+import com.fullbay.unit.repository.UnitRepository;
+import com.fullbay.unit.repository.VehicleRepository;
+import com.fullbay.unit.tracing.Span;
+import com.fullbay.unit.tracing.TraceAttributes;
+import com.fullbay.unit.tracing.Tracing;
+
+import jakarta.enterprise.context.ApplicationScoped;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains per-customer fleet aggregates. Unit writes add counter deltas to the customer's AGG#
+ * item inside their own transaction, taken from the vehicle dimensions stored on the unit; a
+ * rebuild recomputes the item from the fleet to correct any drift.
+ */
+@ApplicationScoped
+@Slf4j
+public class FleetSummaryService {
+
+    static final String UNKNOWN = "UNKNOWN";
+
+    private final FleetSummaryRepository fleetSummaryRepository;
+    private final UnitRepository unitRepository;
+    private final VehicleRepository vehicleRepository;
+
+    public FleetSummaryService(
+            FleetSummaryRepository fleetSummaryRepository,
+            UnitRepository unitRepository,
+            VehicleRepository vehicleRepository) {
+        this.fleetSummaryRepository = fleetSummaryRepository;
+        this.unitRepository = unitRepository;
+        this.vehicleRepository = vehicleRepository;
+    }
+
+    /**
+     * Get a customer's fleet summary. Customers without an aggregate item have an empty fleet.
+     *
+     * @param customerId The customer ID
+     * @return The fleet summary
+     */
+    public FleetSummary getSummary(String customerId) {
+        try (Span span = Tracing.startSpan("fleet-summary-service-getSummary")) {
+            span.attribute(TraceAttributes.CUSTOMER_ID, customerId);
+
+            return fleetSummaryRepository
+                    .findByCustomerId(customerId)
+                    .orElseGet(
+                            () ->
+                                    FleetSummary.builder()
+                                            .customerId(customerId)
+                                            .total(0L)
+                                            .byMake(Map.of())
+                                            .byYear(Map.of())
+                                            .byFuelType(Map.of())
+                                            .byVehicleType(Map.of())
+                                            .build());
+        }
+    }
+
+    /**
+     * Count a newly created unit in the same transaction that saves it.
+     *
+     * @param transaction The transaction saving the unit
+     * @param unit The new unit, carrying the dimensions it is counted under
+     */
+    public void recordCreate(UnitOfWork.Transaction transaction, Unit unit) {
+        transaction.addFleetCounts(unit.customerId(), counters(dimensionsOf(unit), 1L));
+    }
+
+    /**
+     * Remove a unit from its customer's counts in the same transaction that deletes it.
+     *
+     * @param transaction The transaction deleting the unit
+     * @param unit The unit as read
+     */
+    public void recordDelete(UnitOfWork.Transaction transaction, Unit unit) {
+        transaction.addFleetCounts(unit.customerId(), counters(dimensionsOf(unit), -1L));
+    }
+
+    /**
+     * Move a unit's counts in the same transaction that updates it. The previous counts come from
+     * the dimensions stored on the unit as read, so they are taken back exactly. A no-op when
+     * neither the customer nor the dimensions changed.
+     *
+     * @param transaction The transaction updating the unit
+     * @param before The unit as read
+     * @param after The updated unit, carrying the dimensions it is now counted under
+     */
+    public void recordUpdate(UnitOfWork.Transaction transaction, Unit before, Unit after) {
+        final VehicleDimensions afterDimensions = dimensionsOf(after);
+        final VehicleDimensions beforeDimensions =
+                before.dimensions() == null && before.vin().equals(after.vin())
+                        ? afterDimensions
+                        : dimensionsOf(before);
+        if (before.customerId().equals(after.customerId())) {
+            // Same item: net the two deltas into one update, which is empty if nothing moved
+            final Map<String, Long> deltas = new HashMap<>(counters(beforeDimensions, -1L));
+            counters(afterDimensions, 1L)
+                    .forEach((name, delta) -> deltas.merge(name, delta, Long::sum));
+            transaction.addFleetCounts(after.customerId(), deltas);
+            return;
+        }
+        transaction.addFleetCounts(before.customerId(), counters(beforeDimensions, -1L));
+        transaction.addFleetCounts(after.customerId(), counters(afterDimensions, 1L));
+    }
+
+    /**
+     * The dimensions a unit is counted under: those stored on it, or for units saved before
+     * dimensions were stored, those of its current vehicle data.
+     *
+     * @param unit The unit
+     * @return The dimensions
+     */
+    public VehicleDimensions dimensionsOf(Unit unit) {
+        if (unit.dimensions() != null) {
+            return unit.dimensions();
+        }
+        return VehicleDimensions.of(vehicleRepository.findByVin(unit.vin()).orElse(null));
+    }
+
+    /**
+     * Recompute a customer's aggregate item from the fleet, replacing drifted counters.
+     *
+     * @param customerId The customer ID
+     * @return The rebuilt summary
+     */
+    public FleetSummary rebuild(String customerId) {
+        try (Span span = Tracing.startSpan("fleet-summary-service-rebuild")) {
+            span.attribute(TraceAttributes.CUSTOMER_ID, customerId);
+
+            final List<Unit> units = unitRepository.findByCustomerId(customerId);
+            // Units without stored dimensions are counted under their current vehicle data
+            final Set<String> vins =
+                    units.stream()
+                            .filter(u -> u.dimensions() == null && u.vin() != null)
+                            .map(Unit::vin)
+                            .collect(Collectors.toSet());
+            final Map<String, Vehicle> vehicles = vehicleRepository.findByVins(vins);
+
+            final Map<String, Long> totals = new HashMap<>();
+            for (final Unit unit : units) {
+                final VehicleDimensions dimensions =
+                        unit.dimensions() != null
+                                ? unit.dimensions()
+                                : VehicleDimensions.of(vehicles.get(unit.vin()));
+                counters(dimensions, 1L)
+                        .forEach((name, delta) -> totals.merge(name, delta, Long::sum));
+            }
+
+            fleetSummaryRepository.replace(customerId, totals);
+            log.info("Rebuilt fleet summary for customer {}: {} units", customerId, units.size());
+            return getSummary(customerId);
+        }
+    }
+
+    /** Counter deltas for one unit counted under the given dimensions. */
+    static Map<String, Long> counters(VehicleDimensions dimensions, long delta) {
+        final Map<String, Long> deltas = new HashMap<>();
+        deltas.put(FleetSummaryRepository.TOTAL, delta);
+        deltas.put(counterName(FleetSummaryRepository.MAKE, dimensions.make()), delta);
+        deltas.put(
+                counterName(
+                        FleetSummaryRepository.YEAR,
+                        dimensions.year() != null ? String.valueOf(dimensions.year()) : null),
+                delta);
+        deltas.put(counterName(FleetSummaryRepository.FUEL_TYPE, dimensions.fuelType()), delta);
+        deltas.put(
+                counterName(FleetSummaryRepository.VEHICLE_TYPE, dimensions.vehicleType()), delta);
+        return deltas;
+    }
+
+    private static String counterName(String dimension, String value) {
+        return dimension + "#" + (value == null || value.isBlank() ? UNKNOWN : value);
+    }
+}
@@ -0,0 +1,474 @@
+package com.fullbay.unit.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fullbay.unit.exception.DuplicateVinException;
+import com.fullbay.unit.exception.FeatureDisabledException;
+import com.fullbay.unit.exception.ImportJobNotFoundException;
+import com.fullbay.unit.exception.NHTSARateLimitedException;
+import com.fullbay.unit.model.entity.ImportJob;
+import com.fullbay.unit.model.entity.ImportRowError;
+import com.fullbay.unit.repository.ImportJobRepository;
+import com.fullbay.unit.repository.ImportJobRepository.Row;
+import com.fullbay.unit.tracing.Span;
+import com.fullbay.unit.tracing.TraceAttributes;
+import com.fullbay.unit.tracing.Tracing;
+import com.fullbay.unit.util.IdGenerator;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Asynchronous fleet imports. An upload is stream-parsed once: VINs are validated, deduplicated and
+ * stored in chunks of {@code imports.chunk-size}, and the job is queued. A runner takes a lease on
+ * the job and creates units chunk by chunk through {@link UnitService#createUnitFromVin}, at most
+ * {@code imports.concurrency} at a time, checkpointing after each chunk and renewing the lease
+ * while a chunk runs. Decodes are paced by the shared NHTSA rate limit and queue for at most the
+ * job's lease; rows that get no call slot in time are requeued within the chunk rather than failed.
+ * A job whose runner died is picked up by {@link #resume} once its lease lapses, from the last
+ * checkpoint; VINs of a half-done chunk that were already created are skipped as duplicates.
+ *
+ * <p>Runners are background threads, which Lambda freezes as soon as the invocation that started
+ * them returns. Imports are therefore switched off unless {@code imports.enabled} is set, which
+ * only long-running deployments (%container, %dev) do.
+ */
+@ApplicationScoped
+@Slf4j
+public class ImportService {
+
+    /** Accepted upload formats. */
+    public enum Format {
+        CSV,
+        NDJSON
+    }
+
+    private static final int MIN_VIN_LENGTH = 5;
+    private static final int MAX_VIN_LENGTH = 50;
+    private static final int ERROR_FLUSH_SIZE = 100;
+
+    private final ImportJobRepository importJobRepository;
+    private final UnitService unitService;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final int chunkSize;
+    private final Duration lease;
+    private final Executor jobExecutor;
+    private final ExecutorService rowExecutor;
+
+    @Inject
+    public ImportService(
+            ImportJobRepository importJobRepository,
+            UnitService unitService,
+            ObjectMapper objectMapper,
+            @ConfigProperty(name = "imports.enabled", defaultValue = "false") boolean enabled,
+            @ConfigProperty(name = "imports.chunk-size", defaultValue = "500") int chunkSize,
+            @ConfigProperty(name = "imports.concurrency", defaultValue = "4") int concurrency,
+            @ConfigProperty(name = "imports.lease", defaultValue = "5m") Duration lease) {
+        this(
+                importJobRepository,
+                unitService,
+                objectMapper,
+                enabled,
+                chunkSize,
+                concurrency,
+                lease,
+                Executors.newCachedThreadPool(daemon("import-job")));
+    }
+
+    ImportService(
+            ImportJobRepository importJobRepository,
+            UnitService unitService,
+            ObjectMapper objectMapper,
+            boolean enabled,
+            int chunkSize,
+            int concurrency,
+            Duration lease,
+            Executor jobExecutor) {
+        this.importJobRepository = importJobRepository;
+        this.unitService = unitService;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.chunkSize = chunkSize;
+        this.lease = lease;
+        this.jobExecutor = jobExecutor;
+        this.rowExecutor = Executors.newFixedThreadPool(concurrency, daemon("import-row"));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (jobExecutor instanceof ExecutorService executor) {
+            executor.shutdownNow();
+        }
+        rowExecutor.shutdownNow();
+    }
+
+    /**
+     * Parse an upload into a new job and queue it.
+     *
+     * @param customerId The customer the units are created for
+     * @param format The upload format
+     * @param body The upload; CSV uses the "vin" column if there is a header, else the first
+     * @return The queued job
+     * @throws FeatureDisabledException if imports are not enabled in this deployment
+     */
+    @SneakyThrows
+    public ImportJob startImport(String customerId, Format format, InputStream body) {
+        requireEnabled();
+        try (Span span = Tracing.startSpan("import-service-startImport")) {
+            span.attribute(TraceAttributes.CUSTOMER_ID, customerId);
+
+            final String jobId = IdGenerator.generateJobId();
+            span.attribute(TraceAttributes.JOB_ID, jobId);
+
+            final Set<String> seen = new HashSet<>();
+            final List<Row> chunk = new ArrayList<>();
+            final List<ImportRowError> errors = new ArrayList<>();
+            int totalRows = 0;
+            int chunkCount = 0;
+            int duplicates = 0;
+            int invalid = 0;
+            int vinColumn = format == Format.CSV ? -1 : 0;
+
+            try (BufferedReader reader =
+                    new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+                int lineNumber = 0;
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    lineNumber++;
+                    if (line.isBlank()) {
+                        continue;
+                    }
+                    if (vinColumn < 0) {
+                        vinColumn = headerColumn(line);
+                        if (vinColumn >= 0) {
+                            continue;
+                        }
+                        vinColumn = 0;
+                    }
+                    totalRows++;
+
+                    final String vin;
+                    try {
+                        vin = format == Format.CSV ? csvVin(line, vinColumn) : ndjsonVin(line);
+                    } catch (final JsonProcessingException e) {
+                        errors.add(error(lineNumber, null, "INVALID_ROW", "Row is not JSON"));
+                        invalid++;
+                        continue;
+                    }
+                    if (vin.length() < MIN_VIN_LENGTH || vin.length() > MAX_VIN_LENGTH) {
+                        errors.add(
+                                error(
+                                        lineNumber,
+                                        vin,
+                                        "INVALID_VIN",
+                                        "vin must be between 5 and 50 characters"));
+                        invalid++;
+                        continue;
+                    }
+                    if (!seen.add(vin)) {
+                        duplicates++;
+                        continue;
+                    }
+
+                    chunk.add(new Row(lineNumber, vin));
+                    if (chunk.size() == chunkSize) {
+                        importJobRepository.putChunk(jobId, chunkCount++, List.copyOf(chunk));
+                        chunk.clear();
+                    }
+                    if (errors.size() >= ERROR_FLUSH_SIZE) {
+                        importJobRepository.putErrors(jobId, List.copyOf(errors));
+                        errors.clear();
+                    }
+                }
+            }
+            if (!chunk.isEmpty()) {
+                importJobRepository.putChunk(jobId, chunkCount++, List.copyOf(chunk));
+            }
+            if (!errors.isEmpty()) {
+                importJobRepository.putErrors(jobId, errors);
+            }
+
+            final Instant now = Instant.now();
+            final ImportJob job =
+                    ImportJob.builder()
+                            .jobId(jobId)
+                            .customerId(customerId)
+                            .status(ImportJob.Status.PENDING)
+                            .totalRows(totalRows)
+                            .vinCount(seen.size())
+                            .chunkCount(chunkCount)
+                            .nextChunk(0)
+                            .created(0)
+                            .skipped(duplicates)
+                            .failed(invalid)
+                            .createdAt(now)
+                            .updatedAt(now)
+                            .build();
+            importJobRepository.create(job);
+            log.info(
+                    "Queued import job {} for customer {}: {} rows, {} VINs in {} chunks",
+                    jobId,
+                    customerId,
+                    totalRows,
+                    seen.size(),
+                    chunkCount);
+
+            jobExecutor.execute(() -> run(jobId));
+            return job;
+        }
+    }
+
+    /**
+     * Get a job's progress.
+     *
+     * @param jobId The job ID
+     * @return The job
+     * @throws ImportJobNotFoundException if the job does not exist or has expired
+     */
+    public ImportJob getJob(String jobId) {
+        return importJobRepository
+                .findById(jobId)
+                .orElseThrow(() -> new ImportJobNotFoundException(jobId));
+    }
+
+    /**
+     * Get a job's first row errors, in line order.
+     *
+     * @param jobId The job ID
+     * @param limit Maximum number of errors
+     * @return The errors
+     */
+    public List<ImportRowError> getErrors(String jobId, int limit) {
+        return importJobRepository.findErrors(jobId, limit);
+    }
+
+    /**
+     * Queue an interrupted job again. It continues from its last checkpoint once no runner holds
+     * its lease; completed and still-running jobs are left alone.
+     *
+     * @param jobId The job ID
+     * @return The job as it is now
+     * @throws ImportJobNotFoundException if the job does not exist or has expired
+     * @throws FeatureDisabledException if imports are not enabled in this deployment
+     */
+    public ImportJob resume(String jobId) {
+        requireEnabled();
+        final ImportJob job = getJob(jobId);
+        if (job.status() != ImportJob.Status.COMPLETED) {
+            jobExecutor.execute(() -> run(jobId));
+        }
+        return job;
+    }
+
+    private void requireEnabled() {
+        if (!enabled) {
+            throw new FeatureDisabledException(
+                    "Imports need a long-running deployment; set imports.enabled");
+        }
+    }
+
+    /** Process a job from its checkpoint while holding its lease. */
+    void run(String jobId) {
+        final String owner = UUID.randomUUID().toString();
+        try {
+            Optional<ImportJob> job =
+                    importJobRepository.claim(jobId, owner, Instant.now().plus(lease));
+            if (job.isEmpty()) {
+                return;
+            }
+            if (job.get().chunkCount() == 0) {
+                importJobRepository.complete(jobId, owner);
+                return;
+            }
+            log.info("Running import job {} from chunk {}", jobId, job.get().nextChunk());
+            while (job.isPresent() && job.get().status() != ImportJob.Status.COMPLETED) {
+                job = processChunk(job.get(), owner);
+            }
+        } catch (final RuntimeException e) {
+            log.error("Import job {} stopped; resume to continue", jobId, e);
+        }
+    }
+
+    private Optional<ImportJob> processChunk(ImportJob job, String owner) {
+        try (Span span = Tracing.startSpan("import-service-processChunk")) {
+            span.attribute(TraceAttributes.JOB_ID, job.jobId());
+
+            final int index = job.nextChunk();
+            final AtomicInteger created = new AtomicInteger();
+            final AtomicInteger skipped = new AtomicInteger();
+            final List<ImportRowError> errors = Collections.synchronizedList(new ArrayList<>());
+            final AtomicBoolean leaseLost = new AtomicBoolean();
+
+            List<Row> pending = importJobRepository.findChunk(job.jobId(), index);
+            while (!pending.isEmpty()) {
+                final List<Row> rateLimited = Collections.synchronizedList(new ArrayList<>());
+                final List<CompletableFuture<Void>> tasks = new ArrayList<>(pending.size());
+                for (final Row row : pending) {
+                    tasks.add(
+                            CompletableFuture.runAsync(
+                                    () -> {
+                                        if (leaseLost.get()) {
+                                            return;
+                                        }
+                                        try {
+                                            unitService.createUnitFromVin(
+                                                    row.vin(),
+                                                    job.customerId(),
+                                                    Instant.now().plus(lease));
+                                            created.incrementAndGet();
+                                        } catch (final DuplicateVinException e) {
+                                            skipped.incrementAndGet();
+                                        } catch (final NHTSARateLimitedException e) {
+                                            rateLimited.add(row);
+                                        } catch (final RuntimeException e) {
+                                            errors.add(
+                                                    error(
+                                                            row.line(),
+                                                            row.vin(),
+                                                            "CREATE_FAILED",
+                                                            e.getMessage()));
+                                        }
+                                    },
+                                    rowExecutor));
+                }
+                final CompletableFuture<Void> round =
+                        CompletableFuture.allOf(tasks.toArray(CompletableFuture[]::new));
+                if (!awaitRows(round, job.jobId(), owner)) {
+                    // Rows not yet started are left to the runner that took the lease over
+                    leaseLost.set(true);
+                    round.join();
+                    return Optional.empty();
+                }
+                if (rateLimited.size() == pending.size()) {
+                    throw new IllegalStateException(
+                            "No NHTSA call slot for any row of chunk "
+                                    + index
+                                    + " within the lease");
+                }
+                if (!rateLimited.isEmpty()) {
+                    log.info(
+                            "Import job {} chunk {}: requeueing {} rate-limited rows",
+                            job.jobId(),
+                            index,
+                            rateLimited.size());
+                }
+                pending = List.copyOf(rateLimited);
+            }
+
+            if (!errors.isEmpty()) {
+                importJobRepository.putErrors(job.jobId(), List.copyOf(errors));
+            }
+            log.debug(
+                    "Import job {} chunk {}: {} created, {} skipped, {} failed",
+                    job.jobId(),
+                    index,
+                    created.get(),
+                    skipped.get(),
+                    errors.size());
+            return importJobRepository.completeChunk(
+                    job.jobId(),
+                    owner,
+                    index,
+                    created.get(),
+                    skipped.get(),
+                    errors.size(),
+                    Instant.now().plus(lease));
+        }
+    }
+
+    /**
+     * Wait for a chunk's rows, renewing the lease every third of its length so that a chunk slower
+     * than the lease is not taken over by {@link #resume} while it runs.
+     *
+     * @return false if the lease was lost to another runner
+     */
+    private boolean awaitRows(CompletableFuture<Void> rows, String jobId, String owner) {
+        final long heartbeatMillis = Math.max(1, lease.toMillis() / 3);
+        while (true) {
+            try {
+                rows.get(heartbeatMillis, TimeUnit.MILLISECONDS);
+                return true;
+            } catch (final TimeoutException e) {
+                if (!importJobRepository.renewLease(jobId, owner, Instant.now().plus(lease))) {
+                    return false;
+                }
+            } catch (final ExecutionException e) {
+                throw new IllegalStateException("Import row failed", e.getCause());
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while importing job " + jobId, e);
+            }
+        }
+    }
+
+    /** Index of the "vin" column if the line is a header, else -1. */
+    private static int headerColumn(String line) {
+        final String[] cells = line.split(",", -1);
+        for (int i = 0; i < cells.length; i++) {
+            if ("VIN".equals(clean(cells[i]))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String csvVin(String line, int column) {
+        final String[] cells = line.split(",", -1);
+        return column < cells.length ? clean(cells[column]) : "";
+    }
+
+    private String ndjsonVin(String line) throws JsonProcessingException {
+        return clean(objectMapper.readTree(line).path("vin").asText(""));
+    }
+
+    private static String clean(String cell) {
+        String value = cell.trim();
+        if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+            value = value.substring(1, value.length() - 1).trim();
+        }
+        return value.toUpperCase(Locale.ROOT);
+    }
+
+    private static ImportRowError error(int line, String vin, String code, String message) {
+        return ImportRowError.builder().line(line).vin(vin).code(code).message(message).build();
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return r -> {
+            final Thread thread = new Thread(r, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
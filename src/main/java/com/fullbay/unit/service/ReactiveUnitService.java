@@ -0,0 +1,367 @@
+package com.fullbay.unit.service;
+
+import com.fullbay.unit.exception.DuplicateVinException;
+import com.fullbay.unit.exception.UnitIdCollisionException;
+import com.fullbay.unit.exception.UnitNotFoundException;
+import com.fullbay.unit.integration.nhtsa.NHTSAMapper;
+import com.fullbay.unit.integration.nhtsa.NHTSARateLimiter;
+import com.fullbay.unit.integration.nhtsa.ReactiveNHTSAClient;
+import com.fullbay.unit.integration.parts.ReactivePartsServiceClient;
+import com.fullbay.unit.model.entity.Unit;
+import com.fullbay.unit.model.entity.UnitChangeEvent.Op;
+import com.fullbay.unit.model.entity.Vehicle;
+import com.fullbay.unit.model.entity.VehicleDimensions;
+import com.fullbay.unit.repository.ReactiveUnitRepository;
+import com.fullbay.unit.repository.ReactiveVehicleRepository;
+import com.fullbay.unit.repository.UnitOfWork;
+import com.fullbay.unit.tracing.ReactiveTracing;
+import com.fullbay.unit.tracing.Span;
+import com.fullbay.unit.tracing.TraceAttributes;
+import com.fullbay.unit.util.IdGenerator;
+
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+
+import jakarta.enterprise.context.ApplicationScoped;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.eclipse.microprofile.rest.client.inject.RestClient;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Non-blocking variant of {@link UnitService} for reads and VIN creation. Every DynamoDB and REST
+ * call is asynchronous, so no thread waits on I/O; list reads pipeline Query pages, vehicle batch
+ * gets and enrichment. Fleet summary and search index maintenance on create stay blocking and run
+ * on the worker pool. Merging and VCDB rules are shared with {@link UnitService}, and decodes share
+ * its {@link NHTSARateLimiter}.
+ */
+@ApplicationScoped
+@Slf4j
+public class ReactiveUnitService {
+
+    private final ReactiveUnitRepository unitRepository;
+    private final ReactiveVehicleRepository vehicleRepository;
+    private final UnitOfWork unitOfWork;
+    private final ReactiveNHTSAClient nhtsaClient;
+    private final NHTSARateLimiter nhtsaRateLimiter;
+    private final ReactivePartsServiceClient partsServiceClient;
+    private final UnitService unitService;
+    private final FleetSummaryService fleetSummaryService;
+    private final UnitSearchService unitSearchService;
+
+    public ReactiveUnitService(
+            ReactiveUnitRepository unitRepository,
+            ReactiveVehicleRepository vehicleRepository,
+            UnitOfWork unitOfWork,
+            @RestClient ReactiveNHTSAClient nhtsaClient,
+            NHTSARateLimiter nhtsaRateLimiter,
+            @RestClient ReactivePartsServiceClient partsServiceClient,
+            UnitService unitService,
+            FleetSummaryService fleetSummaryService,
+            UnitSearchService unitSearchService) {
+        this.unitRepository = unitRepository;
+        this.vehicleRepository = vehicleRepository;
+        this.unitOfWork = unitOfWork;
+        this.nhtsaClient = nhtsaClient;
+        this.nhtsaRateLimiter = nhtsaRateLimiter;
+        this.partsServiceClient = partsServiceClient;
+        this.unitService = unitService;
+        this.fleetSummaryService = fleetSummaryService;
+        this.unitSearchService = unitSearchService;
+    }
+
+    /**
+     * Create a new Unit from VIN. Same steps, transaction and failures as {@link
+     * UnitService#createUnitFromVin(String, String)}.
+     *
+     * @param vin The VIN to decode
+     * @param customerId The customer ID
+     * @return The created unit enriched with vehicle data
+     */
+    public Uni<Unit> createUnitFromVin(String vin, String customerId) {
+        return ReactiveTracing.traced(
+                "reactive-unit-service-createUnitFromVin",
+                span -> {
+                    span.attribute(TraceAttributes.CUSTOMER_ID, customerId);
+                    span.attribute(TraceAttributes.VIN, vin);
+
+                    return unitRepository
+                            .findByCustomerIdAndVin(customerId, vin)
+                            .onItem()
+                            .transformToIterable(page -> page)
+                            .toUni()
+                            .flatMap(
+                                    existing -> {
+                                        if (existing != null) {
+                                            log.warn(
+                                                    "Duplicate VIN detected for customer {}: {}",
+                                                    customerId,
+                                                    vin);
+                                            return Uni.createFrom()
+                                                    .failure(new DuplicateVinException(vin));
+                                        }
+                                        log.debug("Calling NHTSA API for VIN: {}", vin);
+                                        return nhtsaRateLimiter.callAsync(
+                                                () -> nhtsaClient.decodeVin(vin, "json"));
+                                    })
+                            .map(
+                                    nhtsaResponse -> {
+                                        final Vehicle vehicle =
+                                                NHTSAMapper.toVehicle(nhtsaResponse, vin);
+                                        if (vehicle == null) {
+                                            log.error(
+                                                    "Failed to map NHTSA response to vehicle for"
+                                                            + " VIN: {}",
+                                                    vin);
+                                            throw new IllegalStateException(
+                                                    "NHTSA response mapping failed for VIN: "
+                                                            + vin);
+                                        }
+                                        return vehicle;
+                                    })
+                            .flatMap(this::enrichVehicleWithVcdbIds)
+                            .flatMap(
+                                    vehicle ->
+                                            saveNewUnit(customerId, vin, vehicle)
+                                                    .flatMap(
+                                                            unit -> {
+                                                                span.attribute(
+                                                                        TraceAttributes.UNIT_ID,
+                                                                        unit.unitId());
+                                                                log.info(
+                                                                        "Created unit from VIN: {}",
+                                                                        unit.unitId());
+                                                                return recordCreate(unit);
+                                                            })
+                                                    .map(
+                                                            unit ->
+                                                                    unitService.enrichWithVehicle(
+                                                                            unit, vehicle)));
+                });
+    }
+
+    /**
+     * Get a Unit by ID, enriched with vehicle data.
+     *
+     * @param unitId The unit ID
+     * @return The unit; fails with {@link UnitNotFoundException} if not found
+     */
+    public Uni<Unit> getUnitById(String unitId) {
+        return ReactiveTracing.traced(
+                "reactive-unit-service-getUnitById",
+                span -> {
+                    span.attribute(TraceAttributes.UNIT_ID, unitId);
+                    return unitRepository
+                            .findById(unitId)
+                            .map(
+                                    unit ->
+                                            unit.orElseThrow(
+                                                    () -> {
+                                                        log.warn("Unit not found: {}", unitId);
+                                                        return new UnitNotFoundException(unitId);
+                                                    }))
+                            .flatMap(
+                                    unit ->
+                                            vehicleRepository
+                                                    .findByVin(unit.vin())
+                                                    .map(
+                                                            vehicle ->
+                                                                    unitService.enrichWithVehicle(
+                                                                            unit,
+                                                                            vehicle.orElse(null))));
+                });
+    }
+
+    /**
+     * Stream a customer's units, enriched with vehicle data, as each Query page resolves.
+     *
+     * @param customerId The customer ID
+     * @return The customer's units
+     */
+    public Multi<Unit> getUnitsByCustomerId(String customerId) {
+        return enrich(unitRepository.findByCustomerId(customerId));
+    }
+
+    /**
+     * Stream a customer's units with the given VIN, enriched with vehicle data.
+     *
+     * @param customerId The customer ID
+     * @param vin The VIN
+     * @return The matching units
+     */
+    public Multi<Unit> getUnitByCustomerIdAndVin(String customerId, String vin) {
+        return enrich(unitRepository.findByCustomerIdAndVin(customerId, vin));
+    }
+
+    /**
+     * Stream units with the given VIN across all customers, enriched with vehicle data.
+     *
+     * @param vin The VIN
+     * @return The matching units
+     */
+    public Multi<Unit> getUnitsByVin(String vin) {
+        return enrich(unitRepository.findByVin(vin));
+    }
+
+    /**
+     * Enrich each page with one vehicle batch get. The next page's vehicles are fetched while the
+     * current page is emitted, and page order is kept.
+     */
+    private Multi<Unit> enrich(Multi<List<Unit>> pages) {
+        return pages.onItem()
+                .transformToUni(this::enrichWithVehicles)
+                .concatenate(true)
+                .onItem()
+                .transformToIterable(units -> units);
+    }
+
+    private Uni<List<Unit>> enrichWithVehicles(List<Unit> units) {
+        if (units.isEmpty()) {
+            return Uni.createFrom().item(units);
+        }
+        final Set<String> vins =
+                units.stream().map(Unit::vin).filter(Objects::nonNull).collect(Collectors.toSet());
+        return vehicleRepository
+                .findByVins(vins)
+                .map(
+                        (Map<String, Vehicle> vehicles) ->
+                                units.stream()
+                                        .map(
+                                                u ->
+                                                        unitService.enrichWithVehicle(
+                                                                u, vehicles.get(u.vin())))
+                                        .toList());
+    }
+
+    /**
+     * Commit a new UNT# item with its vehicle, change event and fleet summary counts, regenerating
+     * the ID on a collision.
+     */
+    private Uni<Unit> saveNewUnit(String customerId, String vin, Vehicle vehicle) {
+        return Uni.createFrom()
+                .deferred(
+                        () -> {
+                            final Instant now = Instant.now();
+                            final Unit unit =
+                                    Unit.builder()
+                                            .unitId(IdGenerator.generateUnitId())
+                                            .customerId(customerId)
+                                            .vin(vin)
+                                            .createdAt(now)
+                                            .updatedAt(now)
+                                            .version(1L)
+                                            .dimensions(VehicleDimensions.of(vehicle))
+                                            .build();
+                            log.debug("Generated unit ID: {}", unit.unitId());
+                            final UnitOfWork.Transaction transaction =
+                                    unitOfWork
+                                            .begin()
+                                            .saveVehicle(vehicle)
+                                            .saveNewUnit(unit)
+                                            .appendEvent(
+                                                    UnitService.changeEvent(unit, 1L, Op.CREATE));
+                            // Stored dimensions are set, so this does no I/O
+                            fleetSummaryService.recordCreate(transaction, unit);
+                            return transaction.commitAsync().replaceWith(unit);
+                        })
+                .onFailure(UnitIdCollisionException.class)
+                .retry()
+                .atMost(UnitService.MAX_ID_ATTEMPTS - 1);
+    }
+
+    /** Search index upkeep uses the blocking client; keep it off I/O threads. */
+    private Uni<Unit> recordCreate(Unit unit) {
+        return Uni.createFrom()
+                .item(
+                        () -> {
+                            unitSearchService.recordCreate(unit);
+                            return unit;
+                        })
+                .runSubscriptionOn(Infrastructure.getDefaultWorkerPool());
+    }
+
+    /**
+     * Resolve VCDB IDs through the three chained parts-service lookups. Non-fatal: on failure or no
+     * match the vehicle is returned unchanged.
+     */
+    private Uni<Vehicle> enrichVehicleWithVcdbIds(Vehicle vehicle) {
+        if (vehicle.year() == null || vehicle.make() == null || vehicle.model() == null) {
+            log.debug("Skipping VCDB lookup - missing year/make/model");
+            return Uni.createFrom().item(vehicle);
+        }
+
+        return ReactiveTracing.traced(
+                "reactive-parts-service-vcdb-lookup",
+                span -> {
+                    span.attribute(TraceAttributes.YEAR, vehicle.year());
+                    span.attribute(TraceAttributes.MAKE, vehicle.make());
+                    span.attribute(TraceAttributes.MODEL, vehicle.model());
+
+                    return partsServiceClient
+                            .findMakesByName(vehicle.make())
+                            .map(UnitService::firstMatch)
+                            .flatMap(
+                                    make -> {
+                                        if (make == null) {
+                                            log.info("No VCDB make match for: {}", vehicle.make());
+                                            return Uni.createFrom().item(vehicle);
+                                        }
+                                        return resolveModel(vehicle, make.getMakeId(), span);
+                                    })
+                            .onFailure()
+                            .recoverWithItem(
+                                    e -> {
+                                        log.warn(
+                                                "Parts-service VCDB lookup failed, continuing"
+                                                        + " without VCDB IDs: {}",
+                                                e.getMessage());
+                                        return vehicle;
+                                    });
+                });
+    }
+
+    private Uni<Vehicle> resolveModel(Vehicle vehicle, String makeId, Span span) {
+        return partsServiceClient
+                .findModelsByName(makeId, vehicle.model())
+                .map(UnitService::firstMatch)
+                .flatMap(
+                        model -> {
+                            if (model == null) {
+                                log.info(
+                                        "No VCDB model match for: {} (makeId={})",
+                                        vehicle.model(),
+                                        makeId);
+                                return Uni.createFrom().item(vehicle);
+                            }
+                            final String modelId = model.getModelId();
+                            return partsServiceClient
+                                    .findVehicles(String.valueOf(vehicle.year()), makeId, modelId)
+                                    .map(UnitService::firstMatch)
+                                    .map(
+                                            match -> {
+                                                if (match == null) {
+                                                    log.info(
+                                                            "No VCDB vehicle match for year={},"
+                                                                    + " makeId={}, modelId={}",
+                                                            vehicle.year(),
+                                                            makeId,
+                                                            modelId);
+                                                    return vehicle;
+                                                }
+                                                span.attribute(
+                                                        TraceAttributes.BASE_VEHICLE_ID,
+                                                        match.getBaseVehicleId());
+                                                return UnitService.withVcdbIds(
+                                                        vehicle, makeId, modelId, match);
+                                            });
+                        });
+    }
+}
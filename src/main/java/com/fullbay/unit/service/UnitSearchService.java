@@ -0,0 +1,189 @@
+package com.fullbay.unit.service;
+
+import com.fullbay.unit.model.dto.UnitSearchCriteria;
+import com.fullbay.unit.model.entity.Unit;
+import com.fullbay.unit.model.entity.Vehicle;
+import com.fullbay.unit.model.entity.VehicleDimensions;
+import com.fullbay.unit.model.response.PageResult;
+import com.fullbay.unit.repository.UnitRepository;
+import com.fullbay.unit.repository.UnitSearchRepository;
+import com.fullbay.unit.repository.VehicleRepository;
+import com.fullbay.unit.repository.VinSuffixRepository;
+import com.fullbay.unit.tracing.Span;
+import com.fullbay.unit.tracing.TraceAttributes;
+import com.fullbay.unit.tracing.Tracing;
+
+import jakarta.enterprise.context.ApplicationScoped;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains the materialized fleet search index. Unit writes add and remove a unit's IDX# items,
+ * keyed by the vehicle dimensions stored on the unit; a reindex rewrites a customer's partition
+ * from the fleet to correct any drift.
+ */
+@ApplicationScoped
+@Slf4j
+public class UnitSearchService {
+
+    private final UnitSearchRepository unitSearchRepository;
+    private final VinSuffixRepository vinSuffixRepository;
+    private final UnitRepository unitRepository;
+    private final VehicleRepository vehicleRepository;
+
+    public UnitSearchService(
+            UnitSearchRepository unitSearchRepository,
+            VinSuffixRepository vinSuffixRepository,
+            UnitRepository unitRepository,
+            VehicleRepository vehicleRepository) {
+        this.unitSearchRepository = unitSearchRepository;
+        this.vinSuffixRepository = vinSuffixRepository;
+        this.unitRepository = unitRepository;
+        this.vehicleRepository = vehicleRepository;
+    }
+
+    /**
+     * Find unit IDs matching the criteria with a single bounded Query.
+     *
+     * @param criteria The search filters (customerId required)
+     * @param limit Page size
+     * @param cursor Cursor from a previous page, or null
+     * @return A page of matching unit IDs
+     */
+    public PageResult<String> search(UnitSearchCriteria criteria, int limit, String cursor) {
+        return unitSearchRepository.search(criteria, limit, cursor);
+    }
+
+    /**
+     * Find unit IDs whose VIN ends with the given characters with a single begins_with Query.
+     *
+     * @param customerId The customer ID
+     * @param vinSuffix The trailing VIN characters
+     * @param limit Maximum number of unit IDs to return
+     * @return Matching unit IDs
+     */
+    public List<String> findUnitIdsByVinSuffix(String customerId, String vinSuffix, int limit) {
+        return vinSuffixRepository.findUnitIds(customerId, vinSuffix, limit);
+    }
+
+    /**
+     * Index a newly created unit.
+     *
+     * @param unit The created unit, carrying the dimensions to index it under
+     */
+    public void recordCreate(Unit unit) {
+        try {
+            unitSearchRepository.put(unit.customerId(), unit.unitId(), dimensionsOf(unit));
+        } catch (Exception e) {
+            logFailure(unit.customerId(), e);
+        }
+        try {
+            vinSuffixRepository.put(unit.customerId(), unit.unitId(), unit.vin());
+        } catch (Exception e) {
+            logFailure(unit.customerId(), e);
+        }
+    }
+
+    /**
+     * Remove a deleted unit from the index, by the keys it was indexed under.
+     *
+     * @param unit The deleted unit, carrying the dimensions it was indexed under
+     */
+    public void recordDelete(Unit unit) {
+        try {
+            unitSearchRepository.delete(unit.customerId(), unit.unitId(), dimensionsOf(unit));
+        } catch (Exception e) {
+            logFailure(unit.customerId(), e);
+        }
+        try {
+            vinSuffixRepository.delete(unit.customerId(), unit.unitId(), unit.vin());
+        } catch (Exception e) {
+            logFailure(unit.customerId(), e);
+        }
+    }
+
+    /**
+     * Re-index a unit whose customer or VIN changed. No-op when neither changed.
+     *
+     * @param before The unit before the update
+     * @param after The unit after the update
+     */
+    public void recordUpdate(Unit before, Unit after) {
+        if (before.customerId().equals(after.customerId()) && before.vin().equals(after.vin())) {
+            return;
+        }
+        recordDelete(before);
+        recordCreate(after);
+    }
+
+    /**
+     * Rewrite a customer's search and VIN suffix partitions from the fleet, removing stale items.
+     *
+     * @param customerId The customer ID
+     * @return Number of units indexed
+     */
+    public int reindex(String customerId) {
+        try (Span span = Tracing.startSpan("unit-search-service-reindex")) {
+            span.attribute(TraceAttributes.CUSTOMER_ID, customerId);
+
+            final List<Unit> units = unitRepository.findByCustomerId(customerId);
+            // Units without stored dimensions are indexed under their current vehicle data
+            final Set<String> vins =
+                    units.stream()
+                            .filter(u -> u.dimensions() == null && u.vin() != null)
+                            .map(Unit::vin)
+                            .collect(Collectors.toSet());
+            final Map<String, Vehicle> vehicles = vehicleRepository.findByVins(vins);
+
+            final Set<String> expected = new HashSet<>();
+            final Set<String> expectedSuffixes = new HashSet<>();
+            for (final Unit unit : units) {
+                final VehicleDimensions dimensions =
+                        unit.dimensions() != null
+                                ? unit.dimensions()
+                                : VehicleDimensions.of(vehicles.get(unit.vin()));
+                expected.addAll(UnitSearchRepository.sortKeys(unit.unitId(), dimensions));
+                unitSearchRepository.put(customerId, unit.unitId(), dimensions);
+                expectedSuffixes.add(VinSuffixRepository.sortKey(unit.unitId(), unit.vin()));
+                vinSuffixRepository.put(customerId, unit.unitId(), unit.vin());
+            }
+
+            final List<String> stale =
+                    unitSearchRepository.findSortKeys(customerId).stream()
+                            .filter(sk -> !expected.contains(sk))
+                            .toList();
+            unitSearchRepository.deleteKeys(customerId, stale);
+            final List<String> staleSuffixes =
+                    vinSuffixRepository.findSortKeys(customerId).stream()
+                            .filter(sk -> !expectedSuffixes.contains(sk))
+                            .toList();
+            vinSuffixRepository.deleteKeys(customerId, staleSuffixes);
+
+            log.info(
+                    "Reindexed {} units for customer {} ({} stale items removed)",
+                    units.size(),
+                    customerId,
+                    stale.size() + staleSuffixes.size());
+            return units.size();
+        }
+    }
+
+    /** Units are expected to carry their dimensions; a missing one is indexed as unknown. */
+    private static VehicleDimensions dimensionsOf(Unit unit) {
+        return unit.dimensions() != null ? unit.dimensions() : VehicleDimensions.of(null);
+    }
+
+    /** Non-fatal: the unit write has already succeeded, and a reindex repairs the index. */
+    private static void logFailure(String customerId, Exception e) {
+        log.warn(
+                "Search index update failed for customer {}, reindex required: {}",
+                customerId,
+                e.getMessage());
+    }
+}
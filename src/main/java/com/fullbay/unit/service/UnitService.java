@@ -1,24 +1,38 @@
 package com.fullbay.unit.service;
 
-import com.amazonaws.xray.AWSXRay;
-import com.amazonaws.xray.entities.Subsegment;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fullbay.unit.exception.DuplicateVinException;
+import com.fullbay.unit.exception.NHTSARateLimitedException;
+import com.fullbay.unit.exception.UnitIdCollisionException;
 import com.fullbay.unit.exception.UnitNotFoundException;
+import com.fullbay.unit.exception.UpdateConflictException;
+import com.fullbay.unit.exception.VersionConflictException;
 import com.fullbay.unit.integration.nhtsa.NHTSAClient;
 import com.fullbay.unit.integration.nhtsa.NHTSAMapper;
+import com.fullbay.unit.integration.nhtsa.NHTSARateLimiter;
 import com.fullbay.unit.integration.nhtsa.NHTSAVinDecodeResponse;
 import com.fullbay.unit.integration.parts.PartsApiResponse;
 import com.fullbay.unit.integration.parts.PartsMake;
 import com.fullbay.unit.integration.parts.PartsModel;
 import com.fullbay.unit.integration.parts.PartsServiceClient;
 import com.fullbay.unit.integration.parts.PartsVehicle;
+import com.fullbay.unit.model.dto.UnitSearchCriteria;
 import com.fullbay.unit.model.dto.UpdateUnitRequest;
 import com.fullbay.unit.model.entity.Unit;
+import com.fullbay.unit.model.entity.UnitChangeEvent;
+import com.fullbay.unit.model.entity.UnitChangeEvent.Op;
 import com.fullbay.unit.model.entity.Vehicle;
+import com.fullbay.unit.model.entity.VehicleDimensions;
+import com.fullbay.unit.model.response.PageResult;
+import com.fullbay.unit.repository.UnitOfWork;
 import com.fullbay.unit.repository.UnitRepository;
+import com.fullbay.unit.repository.UnitSearchRepository;
 import com.fullbay.unit.repository.VehicleRepository;
+import com.fullbay.unit.repository.VinSuffixRepository;
+import com.fullbay.unit.tracing.Span;
+import com.fullbay.unit.tracing.TraceAttributes;
+import com.fullbay.unit.tracing.Tracing;
 import com.fullbay.unit.util.IdGenerator;
 
 import jakarta.annotation.PostConstruct;
@@ -28,6 +42,7 @@ import lombok.extern.slf4j.Slf4j;
 
 import org.eclipse.microprofile.rest.client.inject.RestClient;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -40,26 +55,41 @@ import java.util.stream.Collectors;
 public class UnitService {
 
     private static final TypeReference<Map<String, Object>> MAP_TYPE_REF = new TypeReference<>() {};
-    private static final Set<String> UNIT_FIELD_NAMES =
+    static final Set<String> UNIT_FIELD_NAMES =
             Set.of("unitId", "customerId", "vin", "attributes", "createdAt", "updatedAt");
+    private static final int VIN_SUFFIX_MAX_RESULTS = 100;
+    static final int MAX_ID_ATTEMPTS = 3;
+    static final int MAX_WRITE_ATTEMPTS = 3;
 
     private final UnitRepository unitRepository;
     private final VehicleRepository vehicleRepository;
+    private final UnitOfWork unitOfWork;
     private final NHTSAClient nhtsaClient;
+    private final NHTSARateLimiter nhtsaRateLimiter;
     private final PartsServiceClient partsServiceClient;
     private final ObjectMapper objectMapper;
+    private final FleetSummaryService fleetSummaryService;
+    private final UnitSearchService unitSearchService;
 
     public UnitService(
             UnitRepository unitRepository,
             VehicleRepository vehicleRepository,
+            UnitOfWork unitOfWork,
             @RestClient NHTSAClient nhtsaClient,
+            NHTSARateLimiter nhtsaRateLimiter,
             @RestClient PartsServiceClient partsServiceClient,
-            ObjectMapper objectMapper) {
+            ObjectMapper objectMapper,
+            FleetSummaryService fleetSummaryService,
+            UnitSearchService unitSearchService) {
         this.unitRepository = unitRepository;
         this.vehicleRepository = vehicleRepository;
+        this.unitOfWork = unitOfWork;
         this.nhtsaClient = nhtsaClient;
+        this.nhtsaRateLimiter = nhtsaRateLimiter;
         this.partsServiceClient = partsServiceClient;
         this.objectMapper = objectMapper;
+        this.fleetSummaryService = fleetSummaryService;
+        this.unitSearchService = unitSearchService;
     }
 
     /** SnapStart warmup: initialize service on startup. */
@@ -69,18 +99,35 @@ public class UnitService {
     }
 
     /**
-     * Create a new Unit from VIN by calling NHTSA API. Saves vehicle data as a separate VIN# item
-     * and the unit association as a slim UNT# item.
+     * Create a new Unit from VIN by calling NHTSA API. Vehicle data (a separate VIN# item) and the
+     * slim UNT# association are committed in one transaction.
      *
      * @param vin The VIN to decode
      * @param customerId The customer ID
      * @return The created unit enriched with vehicle data
      * @throws DuplicateVinException if VIN already exists for this customer
+     * @throws NHTSARateLimitedException if no NHTSA call slot frees up within {@code
+     *     nhtsa.rate-limit.max-wait}
      */
     public Unit createUnitFromVin(String vin, String customerId) {
-        try (Subsegment segment = AWSXRay.beginSubsegment("unit-service-createUnitFromVin")) {
-            segment.putAnnotation("customerId", customerId);
-            segment.putAnnotation("vin", vin);
+        return createUnitFromVin(vin, customerId, null);
+    }
+
+    /**
+     * Create a new Unit from VIN, waiting for an NHTSA call slot until the given deadline. Used by
+     * bulk callers that can queue longer than an API request.
+     *
+     * @param vin The VIN to decode
+     * @param customerId The customer ID
+     * @param deadline Latest time to start the NHTSA call, or null for the default wait
+     * @return The created unit enriched with vehicle data
+     * @throws DuplicateVinException if VIN already exists for this customer
+     * @throws NHTSARateLimitedException if no NHTSA call slot frees up before the deadline
+     */
+    public Unit createUnitFromVin(String vin, String customerId, Instant deadline) {
+        try (Span span = Tracing.startSpan("unit-service-createUnitFromVin")) {
+            span.attribute(TraceAttributes.CUSTOMER_ID, customerId);
+            span.attribute(TraceAttributes.VIN, vin);
 
             // Check for duplicate VIN within customer
             final List<Unit> existing = unitRepository.findByCustomerIdAndVin(customerId, vin);
@@ -89,40 +136,17 @@ public class UnitService {
                 throw new DuplicateVinException(vin);
             }
 
-            // Generate ID
-            final String unitId = IdGenerator.generateUnitId();
-            segment.putAnnotation("unitId", unitId);
-            log.debug("Generated unit ID: {}", unitId);
-
-            // Call NHTSA API to decode VIN
-            log.debug("Calling NHTSA API for VIN: {}", vin);
-            final NHTSAVinDecodeResponse nhtsaResponse = nhtsaClient.decodeVin(vin, "json");
-
-            // Map NHTSA response to Vehicle entity
-            Vehicle vehicle = NHTSAMapper.toVehicle(nhtsaResponse, vin);
-            if (vehicle == null) {
-                log.error("Failed to map NHTSA response to vehicle for VIN: {}", vin);
-                throw new IllegalStateException("NHTSA response mapping failed for VIN: " + vin);
-            }
+            Vehicle vehicle = decodeVehicle(vin, deadline);
 
             // Enrich with VCDB IDs from parts-service
             vehicle = enrichVehicleWithVcdbIds(vehicle);
 
-            // Save vehicle data as VIN# item
-            vehicleRepository.save(vehicle);
+            // Commit VIN# and UNT# items together under a fresh unit ID
+            final Unit unit = saveNewUnit(customerId, vin, vehicle);
+            span.attribute(TraceAttributes.UNIT_ID, unit.unitId());
+            log.info("Created unit from VIN: {}", unit.unitId());
 
-            // Build slim unit association and save as UNT# item
-            final java.time.Instant now = java.time.Instant.now();
-            final Unit unit =
-                    Unit.builder()
-                            .unitId(unitId)
-                            .customerId(customerId)
-                            .vin(vin)
-                            .createdAt(now)
-                            .updatedAt(now)
-                            .build();
-            unitRepository.save(unit);
-            log.info("Created unit from VIN: {}", unitId);
+            unitSearchService.recordCreate(unit);
 
             // Return enriched unit with vehicle data for the API response
             return enrichWithVehicle(unit, vehicle);
@@ -137,8 +161,8 @@ public class UnitService {
      * @throws UnitNotFoundException if unit not found
      */
     public Unit getUnitById(String unitId) {
-        try (Subsegment segment = AWSXRay.beginSubsegment("unit-service-getUnitById")) {
-            segment.putAnnotation("unitId", unitId);
+        try (Span span = Tracing.startSpan("unit-service-getUnitById")) {
+            span.attribute(TraceAttributes.UNIT_ID, unitId);
 
             final Unit unit =
                     unitRepository
@@ -163,10 +187,9 @@ public class UnitService {
      * @return List of matching units
      */
     public List<Unit> getUnitByCustomerIdAndVin(String customerId, String vin) {
-        try (Subsegment segment =
-                AWSXRay.beginSubsegment("unit-service-getUnitByCustomerIdAndVin")) {
-            segment.putAnnotation("customerId", customerId);
-            segment.putAnnotation("vin", vin);
+        try (Span span = Tracing.startSpan("unit-service-getUnitByCustomerIdAndVin")) {
+            span.attribute(TraceAttributes.CUSTOMER_ID, customerId);
+            span.attribute(TraceAttributes.VIN, vin);
 
             final List<Unit> units = unitRepository.findByCustomerIdAndVin(customerId, vin);
             log.debug("Found {} units for customer: {} vin: {}", units.size(), customerId, vin);
@@ -174,6 +197,42 @@ public class UnitService {
         }
     }
 
+    /**
+     * Get a customer's Units whose VIN ends with the given characters, enriched with vehicle data.
+     *
+     * @param customerId The customer ID
+     * @param vinSuffix The trailing VIN characters (e.g. the last 6-8 typed by a technician)
+     * @return List of matching units
+     */
+    public List<Unit> getUnitsByCustomerIdAndVinSuffix(String customerId, String vinSuffix) {
+        try (Span span = Tracing.startSpan("unit-service-getUnitsByCustomerIdAndVinSuffix")) {
+            span.attribute(TraceAttributes.CUSTOMER_ID, customerId);
+            span.attribute(TraceAttributes.VIN_SUFFIX, vinSuffix);
+
+            final List<String> unitIds =
+                    unitSearchService.findUnitIdsByVinSuffix(
+                            customerId, vinSuffix, VIN_SUFFIX_MAX_RESULTS);
+            final Map<String, Unit> units = unitRepository.findByIds(unitIds);
+            // Skip units deleted, moved to another customer or renumbered since the item was read
+            final List<Unit> matches =
+                    unitIds.stream()
+                            .map(units::get)
+                            .filter(
+                                    u ->
+                                            u != null
+                                                    && customerId.equals(u.customerId())
+                                                    && VinSuffixRepository.matches(
+                                                            u.vin(), vinSuffix))
+                            .toList();
+            log.debug(
+                    "Found {} units for customer: {} vinSuffix: {}",
+                    matches.size(),
+                    customerId,
+                    vinSuffix);
+            return enrichWithVehicles(matches);
+        }
+    }
+
     /**
      * Get Units by VIN (across all customers), enriched with vehicle data.
      *
@@ -181,8 +240,8 @@ public class UnitService {
      * @return List of matching units
      */
     public List<Unit> getUnitsByVin(String vin) {
-        try (Subsegment segment = AWSXRay.beginSubsegment("unit-service-getUnitsByVin")) {
-            segment.putAnnotation("vin", vin);
+        try (Span span = Tracing.startSpan("unit-service-getUnitsByVin")) {
+            span.attribute(TraceAttributes.VIN, vin);
 
             final List<Unit> units = unitRepository.findByVin(vin);
             log.debug("Found {} units for vin: {}", units.size(), vin);
@@ -197,8 +256,8 @@ public class UnitService {
      * @return List of unit DTOs
      */
     public List<Unit> getUnitsByCustomerId(String customerId) {
-        try (Subsegment segment = AWSXRay.beginSubsegment("unit-service-getUnitsByCustomerId")) {
-            segment.putAnnotation("customerId", customerId);
+        try (Span span = Tracing.startSpan("unit-service-getUnitsByCustomerId")) {
+            span.attribute(TraceAttributes.CUSTOMER_ID, customerId);
 
             final List<Unit> units = unitRepository.findByCustomerId(customerId);
             log.debug("Retrieved {} units for customer: {}", units.size(), customerId);
@@ -206,6 +265,55 @@ public class UnitService {
         }
     }
 
+    /**
+     * Search a customer's fleet by vehicle attributes, enriched with vehicle data. Backed by the
+     * materialized search index, so each page is one bounded Query plus batch gets.
+     *
+     * @param criteria The search filters (customerId required)
+     * @param limit Page size
+     * @param cursor Cursor from a previous page, or null
+     * @return A page of matching units
+     */
+    public PageResult<Unit> searchUnits(UnitSearchCriteria criteria, int limit, String cursor) {
+        try (Span span = Tracing.startSpan("unit-service-searchUnits")) {
+            span.attribute(TraceAttributes.CUSTOMER_ID, criteria.getCustomerId());
+
+            final PageResult<String> page = unitSearchService.search(criteria, limit, cursor);
+            final Map<String, Unit> units = unitRepository.findByIds(page.getItems());
+            final Map<String, Vehicle> vehicles =
+                    vehicleRepository.findByVins(
+                            units.values().stream()
+                                    .map(Unit::vin)
+                                    .filter(v -> v != null)
+                                    .collect(Collectors.toSet()));
+
+            // Keep index order; skip units deleted, moved to another customer or no longer
+            // matching since the index item was read
+            final List<Unit> ordered =
+                    page.getItems().stream()
+                            .map(units::get)
+                            .filter(
+                                    u ->
+                                            u != null
+                                                    && criteria.getCustomerId()
+                                                            .equals(u.customerId())
+                                                    && UnitSearchRepository.matches(
+                                                            criteria,
+                                                            VehicleDimensions.of(
+                                                                    vehicles.get(u.vin()))))
+                            .map(u -> enrichWithVehicle(u, vehicles.get(u.vin())))
+                            .toList();
+            log.debug(
+                    "Search found {} units for customer: {}",
+                    ordered.size(),
+                    criteria.getCustomerId());
+            return PageResult.<Unit>builder()
+                    .items(ordered)
+                    .nextCursor(page.getNextCursor())
+                    .build();
+        }
+    }
+
     /**
      * Update a Unit's association fields (customerId, vin, attributes). Vehicle data is read-only.
      *
@@ -215,127 +323,379 @@ public class UnitService {
      * @throws UnitNotFoundException if unit not found
      */
     public Unit updateUnit(String unitId, UpdateUnitRequest request) {
-        try (Subsegment segment = AWSXRay.beginSubsegment("unit-service-updateUnit")) {
-            segment.putAnnotation("unitId", unitId);
-
-            final Unit entity =
-                    unitRepository
-                            .findById(unitId)
-                            .orElseThrow(
-                                    () -> {
-                                        log.warn("Unit not found for update: {}", unitId);
-                                        return new UnitNotFoundException(unitId);
-                                    });
+        return updateUnit(unitId, request, null);
+    }
 
-            // If VIN is being updated, check for duplicates within customer
-            if (request.getVin() != null && !request.getVin().equals(entity.vin())) {
-                final String targetCustomerId =
-                        request.getCustomerId() != null
-                                ? request.getCustomerId()
-                                : entity.customerId();
-                final List<Unit> duplicates =
-                        unitRepository.findByCustomerIdAndVin(targetCustomerId, request.getVin());
-                if (!duplicates.isEmpty()) {
+    /**
+     * Update a Unit's association fields, optionally guarded by the version the caller last saw.
+     * The unit is read first, since its change event needs the customer and VIN, and written back
+     * conditionally together with the event. Without an expected version, a write that loses a race
+     * with another writer is retried from a fresh read, up to {@link #MAX_WRITE_ATTEMPTS} times.
+     *
+     * @param unitId The unit ID
+     * @param request The update request
+     * @param expectedVersion The version from If-Match, or null if the caller did not send one
+     * @return The updated unit enriched with vehicle data
+     * @throws UnitNotFoundException if unit not found
+     * @throws VersionConflictException if the unit is not at the expected version
+     * @throws UpdateConflictException if, without an expected version, every attempt lost a race
+     */
+    public Unit updateUnit(String unitId, UpdateUnitRequest request, Long expectedVersion) {
+        try (Span span = Tracing.startSpan("unit-service-updateUnit")) {
+            span.attribute(TraceAttributes.UNIT_ID, unitId);
+
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    return updateAtCurrentVersion(unitId, request, expectedVersion);
+                } catch (VersionConflictException e) {
+                    if (expectedVersion != null) {
+                        throw e;
+                    }
+                    if (attempt >= MAX_WRITE_ATTEMPTS) {
+                        throw new UpdateConflictException(unitId);
+                    }
                     log.warn(
-                            "Duplicate VIN detected during update for customer {}: {}",
-                            targetCustomerId,
-                            request.getVin());
-                    throw new DuplicateVinException(request.getVin());
+                            "Unit {} changed during update on attempt {}, retrying",
+                            unitId,
+                            attempt);
                 }
             }
+        }
+    }
 
-            // Update only association fields
-            Unit updated = entity;
-            if (request.getCustomerId() != null) {
-                updated = updated.withCustomerId(request.getCustomerId());
-            }
-            if (request.getVin() != null) {
-                updated = updated.withVin(request.getVin());
-            }
-            if (request.getAttributes() != null) {
-                updated = updated.withAttributes(request.getAttributes());
+    /** One attempt of an update: read, check and conditional write. */
+    private Unit updateAtCurrentVersion(
+            String unitId, UpdateUnitRequest request, Long expectedVersion) {
+        final Unit stored =
+                unitRepository
+                        .findById(unitId)
+                        .orElseThrow(
+                                () -> {
+                                    log.warn("Unit not found for update: {}", unitId);
+                                    return new UnitNotFoundException(unitId);
+                                });
+
+        final long currentVersion = stored.version() != null ? stored.version() : 0L;
+        if (expectedVersion != null && expectedVersion != currentVersion) {
+            log.warn(
+                    "Version conflict for unit {}: expected {}, found {}",
+                    unitId,
+                    expectedVersion,
+                    currentVersion);
+            throw new VersionConflictException(unitId, expectedVersion);
+        }
+
+        // A moved unit's counts and index items are taken back under the dimensions it was saved
+        // with; units saved before dimensions were stored use their current vehicle data
+        final boolean vinChanged =
+                request.getVin() != null && !request.getVin().equals(stored.vin());
+        final boolean moved =
+                vinChanged
+                        || (request.getCustomerId() != null
+                                && !request.getCustomerId().equals(stored.customerId()));
+        Optional<Vehicle> vehicle = null;
+        Unit entity = stored;
+        if (moved && stored.dimensions() == null) {
+            vehicle = vehicleRepository.findByVin(stored.vin());
+            entity = stored.withDimensions(VehicleDimensions.of(vehicle.orElse(null)));
+        }
+
+        // If VIN is being updated, check for duplicates within customer
+        if (vinChanged) {
+            final String targetCustomerId =
+                    request.getCustomerId() != null ? request.getCustomerId() : entity.customerId();
+            final List<Unit> duplicates =
+                    unitRepository.findByCustomerIdAndVin(targetCustomerId, request.getVin());
+            if (!duplicates.isEmpty()) {
+                log.warn(
+                        "Duplicate VIN detected during update for customer {}: {}",
+                        targetCustomerId,
+                        request.getVin());
+                throw new DuplicateVinException(request.getVin());
             }
+        }
+
+        // Update only association fields
+        Unit updated = entity;
+        if (request.getCustomerId() != null) {
+            updated = updated.withCustomerId(request.getCustomerId());
+        }
+        if (request.getVin() != null) {
+            updated = updated.withVin(request.getVin());
+        }
+        if (request.getAttributes() != null) {
+            updated = updated.withAttributes(request.getAttributes());
+        }
 
-            // Update timestamp
-            updated = updated.withUpdatedAt(java.time.Instant.now());
+        // A renumbered unit is recounted and reindexed under the new VIN's vehicle data
+        if (vinChanged) {
+            vehicle = vehicleRepository.findByVin(updated.vin());
+            updated = updated.withDimensions(VehicleDimensions.of(vehicle.orElse(null)));
+        }
 
-            unitRepository.update(updated);
-            log.info("Updated unit: {}", unitId);
+        // Update timestamp and bump version; the write is conditional on the version read
+        updated = updated.withUpdatedAt(Instant.now()).withVersion(currentVersion + 1);
+
+        final UnitOfWork.Transaction transaction =
+                unitOfWork
+                        .begin()
+                        .updateUnit(updated)
+                        .appendEvent(changeEvent(updated, updated.version(), Op.UPDATE));
+        if (!entity.customerId().equals(updated.customerId())) {
+            // The unit leaves the previous customer's delta sync, and drops any tombstone
+            // from an earlier stay with the new one
+            transaction
+                    .writeTombstone(entity.customerId(), unitId, updated.updatedAt())
+                    .deleteTombstone(updated.customerId(), unitId);
+        }
+        if (moved) {
+            fleetSummaryService.recordUpdate(transaction, entity, updated);
+        }
+        transaction.commit();
+        log.info("Updated unit: {} (version {})", unitId, updated.version());
 
-            // Return enriched with vehicle data from the (possibly new) VIN
-            final Optional<Vehicle> vehicle = vehicleRepository.findByVin(updated.vin());
-            return enrichWithVehicle(updated, vehicle.orElse(null));
+        // Return enriched with vehicle data from the (possibly new) VIN
+        if (vehicle == null) {
+            vehicle = vehicleRepository.findByVin(updated.vin());
+        }
+        if (moved) {
+            unitSearchService.recordUpdate(entity, updated);
         }
+        return enrichWithVehicle(updated, vehicle.orElse(null));
     }
 
     /**
-     * Delete a Unit association. Vehicle data (VIN# item) is left for other units sharing the VIN.
+     * Delete a Unit association, together with its change event and delta-sync tombstone. Vehicle
+     * data (VIN# item) is left for other units sharing the VIN. The delete is conditional on the
+     * version read, and retried from a fresh read if the unit changed in between.
      *
      * @param unitId The unit ID
      * @throws UnitNotFoundException if unit not found
+     * @throws UpdateConflictException if the unit kept changing between the read and the delete
      */
     public void deleteUnit(String unitId) {
-        try (Subsegment segment = AWSXRay.beginSubsegment("unit-service-deleteUnit")) {
-            segment.putAnnotation("unitId", unitId);
+        try (Span span = Tracing.startSpan("unit-service-deleteUnit")) {
+            span.attribute(TraceAttributes.UNIT_ID, unitId);
+
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    deleteAtCurrentVersion(unitId);
+                    return;
+                } catch (VersionConflictException e) {
+                    if (attempt >= MAX_WRITE_ATTEMPTS) {
+                        throw new UpdateConflictException(unitId);
+                    }
+                    log.warn(
+                            "Unit {} changed during delete on attempt {}, retrying",
+                            unitId,
+                            attempt);
+                }
+            }
+        }
+    }
+
+    /**
+     * Move the units of a VIN whose stored vehicle data was rewritten (e.g. by a backfill remap)
+     * onto the new vehicle's dimensions: their fleet summary counts and search index items follow,
+     * and each move is a versioned update with its change event. Units already counted under those
+     * dimensions are left alone. Package-private for {@link BackfillService}.
+     *
+     * @param previous The vehicle as stored before the rewrite
+     * @param vehicle The vehicle as stored now
+     * @return Number of units moved
+     * @throws UpdateConflictException if a unit kept changing between the read and the write
+     */
+    int redimensionUnits(Vehicle previous, Vehicle vehicle) {
+        try (Span span = Tracing.startSpan("unit-service-redimensionUnits")) {
+            span.attribute(TraceAttributes.VIN, vehicle.vin());
+
+            final VehicleDimensions dimensions = VehicleDimensions.of(vehicle);
+            int moved = 0;
+            for (final Unit unit : unitRepository.findByVin(vehicle.vin())) {
+                for (int attempt = 1; ; attempt++) {
+                    try {
+                        if (redimensionAtCurrentVersion(unit.unitId(), previous, dimensions)) {
+                            moved++;
+                        }
+                        break;
+                    } catch (VersionConflictException e) {
+                        if (attempt >= MAX_WRITE_ATTEMPTS) {
+                            throw new UpdateConflictException(unit.unitId());
+                        }
+                    }
+                }
+            }
+            log.debug("Moved {} units of vin {} to new vehicle dimensions", moved, vehicle.vin());
+            return moved;
+        }
+    }
+
+    /** One attempt of a dimension move: read, compare and conditional write. */
+    private boolean redimensionAtCurrentVersion(
+            String unitId, Vehicle previous, VehicleDimensions dimensions) {
+        final Unit stored = unitRepository.findById(unitId).orElse(null);
+        if (stored == null || !stored.vin().equals(previous.vin())) {
+            return false;
+        }
+        // Units saved before dimensions were stored were counted under the previous vehicle
+        final Unit entity =
+                stored.dimensions() != null
+                        ? stored
+                        : stored.withDimensions(VehicleDimensions.of(previous));
+        if (dimensions.equals(entity.dimensions())) {
+            return false;
+        }
+
+        final long currentVersion = stored.version() != null ? stored.version() : 0L;
+        final Unit updated =
+                entity.withDimensions(dimensions)
+                        .withUpdatedAt(Instant.now())
+                        .withVersion(currentVersion + 1);
+        final UnitOfWork.Transaction transaction =
+                unitOfWork
+                        .begin()
+                        .updateUnit(updated)
+                        .appendEvent(changeEvent(updated, updated.version(), Op.UPDATE));
+        fleetSummaryService.recordUpdate(transaction, entity, updated);
+        transaction.commit();
+
+        unitSearchService.recordUpdate(entity, updated);
+        return true;
+    }
+
+    /** One attempt of a delete: read and conditional delete. */
+    private void deleteAtCurrentVersion(String unitId) {
+        // Verify existence before deletion
+        final Unit stored =
+                unitRepository
+                        .findById(unitId)
+                        .orElseThrow(
+                                () -> {
+                                    log.warn("Unit not found for deletion: {}", unitId);
+                                    return new UnitNotFoundException(unitId);
+                                });
+        // Units saved before dimensions were stored are taken back under their current vehicle
+        final Unit unit =
+                stored.dimensions() != null
+                        ? stored
+                        : stored.withDimensions(
+                                VehicleDimensions.of(
+                                        vehicleRepository.findByVin(stored.vin()).orElse(null)));
+
+        final long version = unit.version() != null ? unit.version() : 0L;
+        final UnitOfWork.Transaction transaction =
+                unitOfWork
+                        .begin()
+                        .deleteUnit(unit)
+                        .writeTombstone(unit.customerId(), unitId, Instant.now())
+                        .appendEvent(changeEvent(unit, version + 1, Op.DELETE));
+        fleetSummaryService.recordDelete(transaction, unit);
+        transaction.commit();
+        log.info("Deleted unit: {}", unitId);
+
+        unitSearchService.recordDelete(unit);
+    }
+
+    /**
+     * Save a new slim UNT# item under a freshly generated ID, together with its vehicle and change
+     * event. The save is conditional on the ID being unused; on a collision nothing is written, and
+     * a new ID is generated and the save retried.
+     */
+    private Unit saveNewUnit(String customerId, String vin, Vehicle vehicle) {
+        for (int attempt = 1; ; attempt++) {
+            final String unitId = IdGenerator.generateUnitId();
+            log.debug("Generated unit ID: {}", unitId);
+
+            final Instant now = Instant.now();
+            final Unit unit =
+                    Unit.builder()
+                            .unitId(unitId)
+                            .customerId(customerId)
+                            .vin(vin)
+                            .createdAt(now)
+                            .updatedAt(now)
+                            .version(1L)
+                            .dimensions(VehicleDimensions.of(vehicle))
+                            .build();
+            try {
+                final UnitOfWork.Transaction transaction =
+                        unitOfWork
+                                .begin()
+                                .saveVehicle(vehicle)
+                                .saveNewUnit(unit)
+                                .appendEvent(changeEvent(unit, 1L, Op.CREATE));
+                fleetSummaryService.recordCreate(transaction, unit);
+                transaction.commit();
+                return unit;
+            } catch (UnitIdCollisionException e) {
+                if (attempt >= MAX_ID_ATTEMPTS) {
+                    throw e;
+                }
+                log.warn("Unit ID collision on attempt {}, regenerating: {}", attempt, unitId);
+            }
+        }
+    }
 
-            // Verify existence before deletion
-            unitRepository
-                    .findById(unitId)
-                    .orElseThrow(
-                            () -> {
-                                log.warn("Unit not found for deletion: {}", unitId);
-                                return new UnitNotFoundException(unitId);
-                            });
+    /**
+     * Decode a VIN through the rate-limited NHTSA API and map the result. Package-private for
+     * {@link BackfillService}.
+     *
+     * @param vin The VIN
+     * @param deadline Latest time to start the NHTSA call, or null for the default wait
+     * @return The decoded vehicle, without VCDB IDs
+     */
+    Vehicle decodeVehicle(String vin, Instant deadline) {
+        log.debug("Calling NHTSA API for VIN: {}", vin);
+        final NHTSAVinDecodeResponse nhtsaResponse =
+                nhtsaRateLimiter.call(() -> nhtsaClient.decodeVin(vin, "json"), deadline);
 
-            unitRepository.delete(unitId);
-            log.info("Deleted unit: {}", unitId);
+        final Vehicle vehicle = NHTSAMapper.toVehicle(nhtsaResponse, vin);
+        if (vehicle == null) {
+            log.error("Failed to map NHTSA response to vehicle for VIN: {}", vin);
+            throw new IllegalStateException("NHTSA response mapping failed for VIN: " + vin);
         }
+        return vehicle;
     }
 
     /**
      * Call parts-service to resolve VCDB baseVehicleId from year/make/model. Non-fatal: if the call
-     * fails or no match is found, the vehicle is returned unchanged.
+     * fails or no match is found, the vehicle is returned unchanged. Package-private for {@link
+     * BackfillService}.
      */
-    private Vehicle enrichVehicleWithVcdbIds(Vehicle vehicle) {
+    Vehicle enrichVehicleWithVcdbIds(Vehicle vehicle) {
         if (vehicle.year() == null || vehicle.make() == null || vehicle.model() == null) {
             log.debug("Skipping VCDB lookup - missing year/make/model");
             return vehicle;
         }
 
-        try (Subsegment segment = AWSXRay.beginSubsegment("parts-service-vcdb-lookup")) {
-            segment.putAnnotation("year", vehicle.year());
-            segment.putAnnotation("make", vehicle.make());
-            segment.putAnnotation("model", vehicle.model());
+        try (Span span = Tracing.startSpan("parts-service-vcdb-lookup")) {
+            span.attribute(TraceAttributes.YEAR, vehicle.year());
+            span.attribute(TraceAttributes.MAKE, vehicle.make());
+            span.attribute(TraceAttributes.MODEL, vehicle.model());
 
             // Step 1: Resolve make name → makeId
-            final PartsApiResponse<java.util.List<PartsMake>> makesResponse =
-                    partsServiceClient.findMakesByName(vehicle.make());
-            if (makesResponse == null
-                    || makesResponse.getData() == null
-                    || makesResponse.getData().isEmpty()) {
+            final PartsMake make = firstMatch(partsServiceClient.findMakesByName(vehicle.make()));
+            if (make == null) {
                 log.info("No VCDB make match for: {}", vehicle.make());
                 return vehicle;
             }
-            final String makeId = makesResponse.getData().get(0).getMakeId();
+            final String makeId = make.getMakeId();
 
             // Step 2: Resolve model name → modelId
-            final PartsApiResponse<java.util.List<PartsModel>> modelsResponse =
-                    partsServiceClient.findModelsByName(makeId, vehicle.model());
-            if (modelsResponse == null
-                    || modelsResponse.getData() == null
-                    || modelsResponse.getData().isEmpty()) {
+            final PartsModel model =
+                    firstMatch(partsServiceClient.findModelsByName(makeId, vehicle.model()));
+            if (model == null) {
                 log.info("No VCDB model match for: {} (makeId={})", vehicle.model(), makeId);
                 return vehicle;
             }
-            final String modelId = modelsResponse.getData().get(0).getModelId();
+            final String modelId = model.getModelId();
 
             // Step 3: Resolve year/makeId/modelId → baseVehicleId
-            final PartsApiResponse<java.util.List<PartsVehicle>> vehiclesResponse =
-                    partsServiceClient.findVehicles(
-                            String.valueOf(vehicle.year()), makeId, modelId);
-            if (vehiclesResponse == null
-                    || vehiclesResponse.getData() == null
-                    || vehiclesResponse.getData().isEmpty()) {
+            final PartsVehicle match =
+                    firstMatch(
+                            partsServiceClient.findVehicles(
+                                    String.valueOf(vehicle.year()), makeId, modelId));
+            if (match == null) {
                 log.info(
                         "No VCDB vehicle match for year={}, makeId={}, modelId={}",
                         vehicle.year(),
@@ -344,25 +704,8 @@ public class UnitService {
                 return vehicle;
             }
 
-            final PartsVehicle match = vehiclesResponse.getData().get(0);
-            log.info(
-                    "VCDB match: baseVehicleId={}, makeId={}, modelId={}",
-                    match.getBaseVehicleId(),
-                    makeId,
-                    modelId);
-
-            Vehicle enriched = vehicle;
-            if (match.getBaseVehicleId() != null) {
-                enriched = enriched.withBaseVehicleId(Integer.parseInt(match.getBaseVehicleId()));
-                segment.putAnnotation("baseVehicleId", match.getBaseVehicleId());
-            }
-            if (makeId != null) {
-                enriched = enriched.withMakeId(Integer.parseInt(makeId));
-            }
-            if (modelId != null) {
-                enriched = enriched.withModelId(Integer.parseInt(modelId));
-            }
-            return enriched;
+            span.attribute(TraceAttributes.BASE_VEHICLE_ID, match.getBaseVehicleId());
+            return withVcdbIds(vehicle, makeId, modelId, match);
         } catch (Exception e) {
             log.warn(
                     "Parts-service VCDB lookup failed, continuing without VCDB IDs: {}",
@@ -371,11 +714,53 @@ public class UnitService {
         }
     }
 
+    /** Outbox event for a unit write. Shared with {@link ReactiveUnitService}. */
+    static UnitChangeEvent changeEvent(Unit unit, long version, Op op) {
+        return UnitChangeEvent.builder()
+                .unitId(unit.unitId())
+                .customerId(unit.customerId())
+                .vin(unit.vin())
+                .version(version)
+                .op(op)
+                .occurredAt(Instant.now())
+                .build();
+    }
+
+    /** First result of a parts-service lookup, or null when it matched nothing. */
+    static <T> T firstMatch(PartsApiResponse<java.util.List<T>> response) {
+        if (response == null || response.getData() == null || response.getData().isEmpty()) {
+            return null;
+        }
+        return response.getData().get(0);
+    }
+
+    /** Apply a resolved VCDB match to a vehicle. Shared with {@link ReactiveUnitService}. */
+    static Vehicle withVcdbIds(Vehicle vehicle, String makeId, String modelId, PartsVehicle match) {
+        log.info(
+                "VCDB match: baseVehicleId={}, makeId={}, modelId={}",
+                match.getBaseVehicleId(),
+                makeId,
+                modelId);
+
+        Vehicle enriched = vehicle;
+        if (match.getBaseVehicleId() != null) {
+            enriched = enriched.withBaseVehicleId(Integer.parseInt(match.getBaseVehicleId()));
+        }
+        if (makeId != null) {
+            enriched = enriched.withMakeId(Integer.parseInt(makeId));
+        }
+        if (modelId != null) {
+            enriched = enriched.withModelId(Integer.parseInt(modelId));
+        }
+        return enriched;
+    }
+
     /**
      * Merge vehicle data into a Unit using ObjectMapper. Unit's own fields (unitId, customerId,
-     * vin, attributes, timestamps) take precedence over vehicle fields.
+     * vin, attributes, timestamps) take precedence over vehicle fields. Package-private for the JMH
+     * benchmarks.
      */
-    private Unit enrichWithVehicle(Unit unit, Vehicle vehicle) {
+    Unit enrichWithVehicle(Unit unit, Vehicle vehicle) {
         if (vehicle == null) {
             return unit;
         }
@@ -387,8 +772,11 @@ public class UnitService {
         return objectMapper.convertValue(unitMap, Unit.class);
     }
 
-    /** Enrich a list of units with vehicle data. Deduplicates VINs for efficient batch lookup. */
-    private List<Unit> enrichWithVehicles(List<Unit> units) {
+    /**
+     * Enrich a list of units with vehicle data. Deduplicates VINs for efficient batch lookup.
+     * Package-private for the JMH benchmarks.
+     */
+    List<Unit> enrichWithVehicles(List<Unit> units) {
         if (units.isEmpty()) {
             return units;
         }
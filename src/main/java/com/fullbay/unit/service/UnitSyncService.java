@@ -0,0 +1,86 @@
+package com.fullbay.unit.service;
+
+import com.fullbay.unit.model.response.UnitChanges;
+import com.fullbay.unit.repository.UnitChangesRepository;
+import com.fullbay.unit.tracing.Span;
+import com.fullbay.unit.tracing.TraceAttributes;
+import com.fullbay.unit.tracing.Tracing;
+
+import jakarta.enterprise.context.ApplicationScoped;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Delta sync for offline clients: pages of a customer's units changed since the client's last sync,
+ * plus the IDs of units that left the fleet, so a sync costs in proportion to the changes rather
+ * than the fleet size.
+ */
+@ApplicationScoped
+@Slf4j
+public class UnitSyncService {
+
+    private final UnitChangesRepository unitChangesRepository;
+    private final Duration lag;
+
+    public UnitSyncService(
+            UnitChangesRepository unitChangesRepository,
+            @ConfigProperty(name = "sync.lag", defaultValue = "5s") Duration lag) {
+        this.unitChangesRepository = unitChangesRepository;
+        this.lag = lag;
+    }
+
+    /**
+     * One page of changes. A missing {@code since}, or one older than the tombstone retention,
+     * returns the whole fleet with {@code reset} set, since deletions before it are no longer
+     * known. The last page's {@code syncedTo} trails the current time by {@code sync.lag}, so
+     * writes still propagating to the index are picked up by the next sync; clients may see a
+     * change twice.
+     *
+     * @param customerId The customer ID
+     * @param since {@code syncedTo} from the client's previous sync, or null
+     * @param limit Page size
+     * @param cursor Cursor from a previous page, or null
+     * @return A page of changes
+     */
+    public UnitChanges getChanges(String customerId, Instant since, int limit, String cursor) {
+        try (Span span = Tracing.startSpan("unit-sync-service-getChanges")) {
+            span.attribute(TraceAttributes.CUSTOMER_ID, customerId);
+
+            final Instant now = Instant.now();
+            final boolean reset =
+                    since == null
+                            || since.isBefore(
+                                    now.minus(unitChangesRepository.tombstoneRetention()));
+            final UnitChanges page =
+                    unitChangesRepository.findChanges(
+                            customerId, reset ? null : since, limit, cursor);
+
+            Instant syncedTo = null;
+            if (page.getNextCursor() == null) {
+                syncedTo = now.minus(lag);
+                if (since != null && syncedTo.isBefore(since)) {
+                    syncedTo = since;
+                }
+            }
+            log.debug(
+                    "Sync for customer {} since {}: {} changed, {} deleted{}",
+                    customerId,
+                    since,
+                    page.getItems().size(),
+                    page.getDeleted().size(),
+                    reset ? " (reset)" : "");
+            return UnitChanges.builder()
+                    .items(page.getItems())
+                    .deleted(page.getDeleted())
+                    .nextCursor(page.getNextCursor())
+                    .syncedTo(syncedTo)
+                    .reset(reset)
+                    .build();
+        }
+    }
+}
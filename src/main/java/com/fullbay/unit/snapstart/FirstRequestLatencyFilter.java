@@ -0,0 +1,56 @@
+package com.fullbay.unit.snapstart;
+
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.ext.Provider;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Logs the latency of the first request served after startup or SnapStart restore, once. Compare
+ * the "First request" log line with snapstart.priming.enabled on and off to measure priming.
+ */
+@Provider
+@Slf4j
+public class FirstRequestLatencyFilter implements ContainerRequestFilter, ContainerResponseFilter {
+
+    private static final String START_PROPERTY = "firstRequestLatency.start";
+    private static final AtomicBoolean PENDING = new AtomicBoolean(true);
+    private static volatile String phase = "startup";
+
+    /**
+     * Arm the filter so the next request is measured again.
+     *
+     * @param newPhase Label for the lifecycle phase the next request follows
+     */
+    static void reset(String newPhase) {
+        phase = newPhase;
+        PENDING.set(true);
+    }
+
+    @Override
+    public void filter(ContainerRequestContext requestContext) {
+        if (PENDING.get()) {
+            requestContext.setProperty(START_PROPERTY, System.nanoTime());
+        }
+    }
+
+    @Override
+    public void filter(
+            ContainerRequestContext requestContext, ContainerResponseContext responseContext) {
+        final Object start = requestContext.getProperty(START_PROPERTY);
+        if (start instanceof Long startNanos && PENDING.compareAndSet(true, false)) {
+            log.info(
+                    "First request after {}: {} {} took {} ms (status {})",
+                    phase,
+                    requestContext.getMethod(),
+                    requestContext.getUriInfo().getPath(),
+                    (System.nanoTime() - startNanos) / 1_000_000,
+                    responseContext.getStatus());
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.fullbay.unit.snapstart;
+
+import com.fullbay.unit.integration.nhtsa.NHTSAResult;
+import com.fullbay.unit.integration.nhtsa.NHTSAVinDecodeResponse;
+import com.fullbay.unit.model.entity.Unit;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/** Synthetic payloads used to exercise hot paths during SnapStart priming. Static utility class. */
+final class PrimingFixtures {
+
+    static final String VIN = "1FUJGLDR0CLBP8834";
+    static final String CUSTOMER_ID = "cst-priming";
+    static final String UNIT_ID = "unt_priming";
+
+    /** Raw vPIC payload, decoded the same way the NHTSA REST client decodes responses. */
+    static final String NHTSA_JSON =
+            """
+            {"Count":8,"Message":"Results returned successfully","SearchCriteria":"VIN:%s",\
+            "Results":[\
+            {"Value":"2012","ValueId":"","Variable":"Model Year","VariableId":29},\
+            {"Value":"FREIGHTLINER","ValueId":"509","Variable":"Make","VariableId":26},\
+            {"Value":"Cascadia","ValueId":"2214","Variable":"Model","VariableId":28},\
+            {"Value":"Diesel","ValueId":"1","Variable":"Fuel Type - Primary","VariableId":24},\
+            {"Value":"TRUCK","ValueId":"3","Variable":"Vehicle Type","VariableId":39},\
+            {"Value":"Truck-Tractor","ValueId":"66","Variable":"Body Class","VariableId":5},\
+            {"Value":"6","ValueId":"","Variable":"Engine Number of Cylinders","VariableId":9},\
+            {"Value":"14.8","ValueId":"","Variable":"Displacement (L)","VariableId":13}]}
+            """
+                    .formatted(VIN);
+
+    private PrimingFixtures() {
+        // Utility class
+    }
+
+    static NHTSAVinDecodeResponse nhtsaResponse() {
+        return NHTSAVinDecodeResponse.builder()
+                .count(8)
+                .message("Results returned successfully")
+                .results(
+                        List.of(
+                                result("Model Year", "2012"),
+                                result("Make", "FREIGHTLINER"),
+                                result("Model", "Cascadia"),
+                                result("Fuel Type - Primary", "Diesel"),
+                                result("Vehicle Type", "TRUCK"),
+                                result("Body Class", "Truck-Tractor"),
+                                result("Engine Number of Cylinders", "6"),
+                                result("Displacement (L)", "14.8")))
+                .build();
+    }
+
+    static Unit unit() {
+        final Instant now = Instant.now();
+        return Unit.builder()
+                .unitId(UNIT_ID)
+                .customerId(CUSTOMER_ID)
+                .vin(VIN)
+                .attributes(Map.of("fleetNumber", "PRIME-1", "odometer", 123456))
+                .createdAt(now)
+                .updatedAt(now)
+                .version(1L)
+                .build();
+    }
+
+    private static NHTSAResult result(String variable, String value) {
+        return NHTSAResult.builder().variable(variable).value(value).build();
+    }
+}
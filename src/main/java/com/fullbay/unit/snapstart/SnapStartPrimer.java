@@ -0,0 +1,291 @@
+package com.fullbay.unit.snapstart;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fullbay.unit.integration.nhtsa.NHTSAMapper;
+import com.fullbay.unit.integration.nhtsa.NHTSAVinDecodeResponse;
+import com.fullbay.unit.model.entity.Unit;
+import com.fullbay.unit.model.entity.Vehicle;
+import com.fullbay.unit.model.response.ApiResponse;
+import com.fullbay.unit.util.IdGenerator;
+import com.fullbay.util.JacksonConverter;
+
+import io.quarkus.runtime.StartupEvent;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.crac.Context;
+import org.crac.Core;
+import org.crac.Resource;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.interceptor.Context.BeforeTransmission;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.KeysAndAttributes;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * SnapStart priming. Registered as a CRaC resource so that, before the snapshot is taken, it runs
+ * synthetic traffic through the hot paths the first real request would otherwise pay for: NHTSA
+ * JSON decoding and mapping, Jackson conversion of the wide Unit/Vehicle classes, JacksonConverter
+ * item mapping and DynamoDB request marshalling. After restore it reseeds ID randomness and
+ * re-establishes the DynamoDB connection.
+ */
+@ApplicationScoped
+@Slf4j
+public class SnapStartPrimer implements Resource {
+
+    private static final TypeReference<Map<String, Object>> MAP_TYPE_REF = new TypeReference<>() {};
+
+    private final ObjectMapper objectMapper;
+    private final JacksonConverter jacksonConverter;
+    private final DynamoDbClient dynamoDbClient;
+    private final boolean enabled;
+    private final int iterations;
+    private final boolean refreshAfterRestore;
+    private final String region;
+    private final String tableName;
+
+    @Inject
+    public SnapStartPrimer(
+            final ObjectMapper objectMapper,
+            final JacksonConverter jacksonConverter,
+            final DynamoDbClient dynamoDbClient,
+            @ConfigProperty(name = "snapstart.priming.enabled", defaultValue = "true")
+                    final boolean enabled,
+            @ConfigProperty(name = "snapstart.priming.iterations", defaultValue = "50")
+                    final int iterations,
+            @ConfigProperty(name = "snapstart.priming.refresh-after-restore", defaultValue = "true")
+                    final boolean refreshAfterRestore,
+            @ConfigProperty(name = "aws.region", defaultValue = "us-west-2") final String region,
+            @ConfigProperty(name = "dynamodb.table.name", defaultValue = "g-unit-service")
+                    final String tableName) {
+        this.objectMapper = objectMapper;
+        this.jacksonConverter = jacksonConverter;
+        this.dynamoDbClient = dynamoDbClient;
+        this.enabled = enabled;
+        this.iterations = iterations;
+        this.refreshAfterRestore = refreshAfterRestore;
+        this.region = region;
+        this.tableName = tableName;
+    }
+
+    /** Register with the global CRaC context once the application has started. */
+    void onStart(@Observes StartupEvent event) {
+        Core.getGlobalContext().register(this);
+        log.info("SnapStart primer registered (enabled={}, iterations={})", enabled, iterations);
+    }
+
+    @Override
+    public void beforeCheckpoint(Context<? extends Resource> context) {
+        if (!enabled) {
+            log.info("SnapStart priming disabled");
+            return;
+        }
+        final long start = System.nanoTime();
+        prime();
+        log.info("SnapStart priming completed in {} ms", (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @Override
+    public void afterRestore(Context<? extends Resource> context) {
+        final long start = System.nanoTime();
+
+        // Every restored instance shares the snapshot's random state
+        IdGenerator.reseed();
+        FirstRequestLatencyFilter.reset("restore");
+
+        if (refreshAfterRestore) {
+            // Connections in the snapshot are dead; open a fresh one before the first request
+            step("refresh-dynamodb-connection", this::refreshDynamoDbConnection);
+        }
+        log.info(
+                "SnapStart restore hooks completed in {} ms",
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /** Run every priming step. Each step is isolated so one failure never blocks the checkpoint. */
+    void prime() {
+        for (int i = 0; i < iterations; i++) {
+            step("nhtsa-decode", this::primeNhtsaDecode);
+            step("object-mapper", this::primeObjectMapper);
+            step("jackson-converter", this::primeJacksonConverter);
+            step("id-generator", IdGenerator::generateUnitId);
+        }
+        // Marshalling is exercised once; it is dominated by one-off class loading
+        step("dynamodb-marshalling", this::primeDynamoDbMarshalling);
+    }
+
+    private void primeNhtsaDecode() throws Exception {
+        final NHTSAVinDecodeResponse decoded =
+                objectMapper.readValue(PrimingFixtures.NHTSA_JSON, NHTSAVinDecodeResponse.class);
+        NHTSAMapper.toVehicle(decoded, PrimingFixtures.VIN);
+        NHTSAMapper.toVehicle(PrimingFixtures.nhtsaResponse(), PrimingFixtures.VIN);
+    }
+
+    /** Mirrors UnitService.enrichWithVehicle and the JSON response encoding. */
+    private void primeObjectMapper() throws Exception {
+        final Unit unit = PrimingFixtures.unit();
+        final Vehicle vehicle =
+                NHTSAMapper.toVehicle(PrimingFixtures.nhtsaResponse(), PrimingFixtures.VIN);
+
+        final Map<String, Object> unitMap = objectMapper.convertValue(unit, MAP_TYPE_REF);
+        unitMap.putAll(objectMapper.convertValue(vehicle, MAP_TYPE_REF));
+        final Unit enriched = objectMapper.convertValue(unitMap, Unit.class);
+
+        final String json =
+                objectMapper.writeValueAsString(
+                        ApiResponse.<Map<String, Object>>builder()
+                                .data(Map.of("items", List.of(enriched), "count", 1))
+                                .build());
+        objectMapper.readValue(json, MAP_TYPE_REF);
+        objectMapper.writeValueAsString(ApiResponse.<Unit>builder().data(enriched).build());
+    }
+
+    /** Mirrors the repositories' data map encoding and decoding. */
+    private void primeJacksonConverter() throws Exception {
+        final Vehicle vehicle =
+                NHTSAMapper.toVehicle(PrimingFixtures.nhtsaResponse(), PrimingFixtures.VIN);
+        final Map<String, AttributeValue> unitMap =
+                jacksonConverter.objectToMap(PrimingFixtures.unit());
+        jacksonConverter.mapToObject(unitMap, Unit.class);
+        final Map<String, AttributeValue> vehicleMap = jacksonConverter.objectToMap(vehicle);
+        jacksonConverter.mapToObject(vehicleMap, Vehicle.class);
+    }
+
+    /**
+     * Marshal and sign each request shape the repositories use, against a throwaway client whose
+     * interceptor aborts before anything is sent. Loads the SDK's marshallers, signer and HTTP
+     * request pipeline without network calls or consumed capacity.
+     */
+    private void primeDynamoDbMarshalling() throws Exception {
+        final Map<String, AttributeValue> key =
+                Map.of(
+                        "PK", AttributeValue.builder().s("UNT#" + PrimingFixtures.UNIT_ID).build(),
+                        "SK", AttributeValue.builder().s("UNT#" + PrimingFixtures.UNIT_ID).build());
+        final Map<String, AttributeValue> item = new HashMap<>(key);
+        item.put("customerId", AttributeValue.builder().s(PrimingFixtures.CUSTOMER_ID).build());
+        item.put("vin", AttributeValue.builder().s(PrimingFixtures.VIN).build());
+        item.put(
+                "data",
+                AttributeValue.builder()
+                        .m(jacksonConverter.objectToMap(PrimingFixtures.unit()))
+                        .build());
+
+        try (DynamoDbClient client =
+                DynamoDbClient.builder()
+                        .region(Region.of(region))
+                        .credentialsProvider(
+                                StaticCredentialsProvider.create(
+                                        AwsBasicCredentials.create("priming", "priming")))
+                        .overrideConfiguration(
+                                o -> o.addExecutionInterceptor(new AbortBeforeTransmission()))
+                        .build()) {
+            aborted(() -> client.getItem(r -> r.tableName(tableName).key(key)));
+            aborted(
+                    () ->
+                            client.putItem(
+                                    r ->
+                                            r.tableName(tableName)
+                                                    .item(item)
+                                                    .conditionExpression(
+                                                            "attribute_not_exists(PK)")));
+            aborted(
+                    () ->
+                            client.query(
+                                    r ->
+                                            r.tableName(tableName)
+                                                    .indexName("GSI1-CustomerVin")
+                                                    .keyConditionExpression(
+                                                            "customerId = :customerId")
+                                                    .expressionAttributeValues(
+                                                            Map.of(
+                                                                    ":customerId",
+                                                                    item.get("customerId")))));
+            aborted(
+                    () ->
+                            client.batchGetItem(
+                                    r ->
+                                            r.requestItems(
+                                                    Map.of(
+                                                            tableName,
+                                                            KeysAndAttributes.builder()
+                                                                    .keys(List.of(key))
+                                                                    .build()))));
+            aborted(
+                    () ->
+                            client.updateItem(
+                                    r ->
+                                            r.tableName(tableName)
+                                                    .key(key)
+                                                    .updateExpression("ADD #total :one")
+                                                    .expressionAttributeNames(
+                                                            Map.of("#total", "total"))
+                                                    .expressionAttributeValues(
+                                                            Map.of(
+                                                                    ":one",
+                                                                    AttributeValue.builder()
+                                                                            .n("1")
+                                                                            .build()))));
+        }
+    }
+
+    /** One cheap GetItem on a key that never exists: re-opens TLS and resolves credentials. */
+    private void refreshDynamoDbConnection() {
+        dynamoDbClient.getItem(
+                r ->
+                        r.tableName(tableName)
+                                .key(
+                                        Map.of(
+                                                "PK",
+                                                AttributeValue.builder().s("PRIME#restore").build(),
+                                                "SK",
+                                                AttributeValue.builder()
+                                                        .s("PRIME#restore")
+                                                        .build())));
+    }
+
+    private static void step(String name, PrimingStep step) {
+        try {
+            step.run();
+        } catch (Exception e) {
+            log.warn("SnapStart priming step {} failed: {}", name, e.getMessage());
+        }
+    }
+
+    private static void aborted(Runnable call) {
+        try {
+            call.run();
+        } catch (RuntimeException expected) {
+            // Every call is aborted before transmission by design
+        }
+    }
+
+    @FunctionalInterface
+    private interface PrimingStep {
+        void run() throws Exception;
+    }
+
+    /** Fails every request after marshalling and signing, before it reaches the wire. */
+    private static final class AbortBeforeTransmission implements ExecutionInterceptor {
+
+        @Override
+        public void beforeTransmission(
+                BeforeTransmission context, ExecutionAttributes executionAttributes) {
+            throw new IllegalStateException("Priming request aborted before transmission");
+        }
+    }
+}
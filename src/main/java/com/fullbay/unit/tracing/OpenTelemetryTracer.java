@@ -0,0 +1,98 @@
+package com.fullbay.unit.tracing;
+
+import io.opentelemetry.api.GlobalOpenTelemetry;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.context.Scope;
+
+/**
+ * OpenTelemetry backend, on whatever SDK registered {@link GlobalOpenTelemetry} (e.g. the ADOT
+ * Lambda layer). Spans under an unsampled parent, or dropped by the sampler, become no-ops.
+ */
+final class OpenTelemetryTracer implements Tracer {
+
+    static final String INSTRUMENTATION_SCOPE = "com.fullbay.unit";
+
+    private final io.opentelemetry.api.trace.Tracer tracer;
+
+    OpenTelemetryTracer() {
+        this(GlobalOpenTelemetry.getTracer(INSTRUMENTATION_SCOPE));
+    }
+
+    OpenTelemetryTracer(io.opentelemetry.api.trace.Tracer tracer) {
+        this.tracer = tracer;
+    }
+
+    @Override
+    public Span startSpan(String name) {
+        final io.opentelemetry.api.trace.Span span = start(name);
+        return span == null ? Span.NOOP : new OpenTelemetrySpan(span, span.makeCurrent());
+    }
+
+    /** Parented to the current context but never made current, so no scope outlives its thread. */
+    @Override
+    public Span startDetachedSpan(String name) {
+        final io.opentelemetry.api.trace.Span span = start(name);
+        return span == null ? Span.NOOP : new OpenTelemetrySpan(span, Scope.noop());
+    }
+
+    /** Start a recording span, or return null when it would be dropped. */
+    private io.opentelemetry.api.trace.Span start(String name) {
+        final SpanContext parent = io.opentelemetry.api.trace.Span.current().getSpanContext();
+        if (parent.isValid() && !parent.isSampled()) {
+            return null;
+        }
+        final io.opentelemetry.api.trace.Span span = tracer.spanBuilder(name).startSpan();
+        if (!span.isRecording()) {
+            span.end();
+            return null;
+        }
+        return span;
+    }
+
+    private static final class OpenTelemetrySpan implements Span {
+
+        private final io.opentelemetry.api.trace.Span span;
+        private final Scope scope;
+
+        private OpenTelemetrySpan(io.opentelemetry.api.trace.Span span, Scope scope) {
+            this.span = span;
+            this.scope = scope;
+        }
+
+        @Override
+        public Span attribute(String key, String value) {
+            if (value != null) {
+                span.setAttribute(key, value);
+            }
+            return this;
+        }
+
+        @Override
+        public Span attribute(String key, Number value) {
+            if (value instanceof Double || value instanceof Float) {
+                span.setAttribute(key, value.doubleValue());
+            } else if (value != null) {
+                span.setAttribute(key, value.longValue());
+            }
+            return this;
+        }
+
+        @Override
+        public Span attribute(String key, long value) {
+            span.setAttribute(key, value);
+            return this;
+        }
+
+        @Override
+        public Span attribute(String key, boolean value) {
+            span.setAttribute(key, value);
+            return this;
+        }
+
+        @Override
+        public void close() {
+            scope.close();
+            span.end();
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.fullbay.unit.tracing;
+
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+
+import java.util.function.Function;
+
+/**
+ * Span helpers for the reactive path. The span opens when the pipeline is subscribed and closes
+ * when it terminates, which is usually on an SDK or Netty thread, so only detached spans are used.
+ * Static utility class.
+ */
+public final class ReactiveTracing {
+
+    private ReactiveTracing() {
+        // Utility class
+    }
+
+    /** Run {@code body} inside a detached span that ends on success, failure or cancellation. */
+    public static <T> Uni<T> traced(String name, Function<Span, Uni<T>> body) {
+        return Uni.createFrom()
+                .deferred(
+                        () -> {
+                            final Span span = Tracing.startDetachedSpan(name);
+                            return body.apply(span).onTermination().invoke(span::close);
+                        });
+    }
+
+    /** Run {@code body} inside a detached span that ends with the stream. */
+    public static <T> Multi<T> tracedMulti(String name, Function<Span, Multi<T>> body) {
+        return Multi.createFrom()
+                .deferred(
+                        () -> {
+                            final Span span = Tracing.startDetachedSpan(name);
+                            return body.apply(span).onTermination().invoke(span::close);
+                        });
+    }
+}
@@ -0,0 +1,30 @@
+package com.fullbay.unit.tracing;
+
+/**
+ * A unit of traced work, closed with try-with-resources. Attributes become X-Ray annotations or
+ * OpenTelemetry span attributes; {@code null} values are dropped.
+ */
+public interface Span extends AutoCloseable {
+
+    /** Shared span for unsampled or untraced work. Every method is a no-op. */
+    Span NOOP = new Span() {};
+
+    default Span attribute(String key, String value) {
+        return this;
+    }
+
+    default Span attribute(String key, Number value) {
+        return this;
+    }
+
+    default Span attribute(String key, long value) {
+        return this;
+    }
+
+    default Span attribute(String key, boolean value) {
+        return this;
+    }
+
+    @Override
+    default void close() {}
+}
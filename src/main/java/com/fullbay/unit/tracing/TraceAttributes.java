@@ -0,0 +1,26 @@
+package com.fullbay.unit.tracing;
+
+/** Span attribute keys, shared so every backend sees the same names. Static utility class. */
+public final class TraceAttributes {
+
+    public static final String CUSTOMER_ID = "customerId";
+    public static final String UNIT_ID = "unitId";
+    public static final String JOB_ID = "jobId";
+    public static final String SEGMENT = "segment";
+    public static final String VIN = "vin";
+    public static final String VIN_SUFFIX = "vinSuffix";
+    public static final String VIN_COUNT = "vinCount";
+    public static final String UNIT_COUNT = "unitCount";
+    public static final String KEY_COUNT = "keyCount";
+    public static final String ITEM_COUNT = "itemCount";
+    public static final String EXPECTED_VERSION = "expectedVersion";
+    public static final String MAKE = "make";
+    public static final String MODEL = "model";
+    public static final String YEAR = "year";
+    public static final String BASE_VEHICLE_ID = "baseVehicleId";
+    public static final String PATTERN = "pattern";
+
+    private TraceAttributes() {
+        // Utility class
+    }
+}
@@ -0,0 +1,20 @@
+package com.fullbay.unit.tracing;
+
+/** Tracing backend. Implementations return {@link Span#NOOP} whenever the span would be dropped. */
+@FunctionalInterface
+public interface Tracer {
+
+    /** Tracer that never records anything. */
+    Tracer NOOP = name -> Span.NOOP;
+
+    Span startSpan(String name);
+
+    /**
+     * Start a span that may be closed on a different thread than the one that opened it, as on the
+     * reactive path. Backends whose spans are bound to the opening thread do not support this and
+     * return {@link Span#NOOP}.
+     */
+    default Span startDetachedSpan(String name) {
+        return Span.NOOP;
+    }
+}
@@ -0,0 +1,32 @@
+package com.fullbay.unit.tracing;
+
+/**
+ * Static tracing facade used by the repositories and services. Starts as a no-op until {@link
+ * TracingConfig} installs the configured backend, so unit tests and benchmarks never trace.
+ */
+public final class Tracing {
+
+    private static volatile Tracer tracer = Tracer.NOOP;
+
+    private Tracing() {
+        // Utility class
+    }
+
+    /** Start a span named {@code <component>-<method>}; close it with try-with-resources. */
+    public static Span startSpan(String name) {
+        return tracer.startSpan(name);
+    }
+
+    /** Start a span that a reactive pipeline closes on completion, on whichever thread that is. */
+    public static Span startDetachedSpan(String name) {
+        return tracer.startDetachedSpan(name);
+    }
+
+    public static Tracer tracer() {
+        return tracer;
+    }
+
+    public static void install(Tracer installed) {
+        tracer = installed == null ? Tracer.NOOP : installed;
+    }
+}
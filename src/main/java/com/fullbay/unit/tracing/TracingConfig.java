@@ -0,0 +1,39 @@
+package com.fullbay.unit.tracing;
+
+import io.quarkus.runtime.StartupEvent;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/** Installs the tracing backend selected by {@code tracing.backend} into {@link Tracing}. */
+@ApplicationScoped
+@Slf4j
+public class TracingConfig {
+
+    /** Supported tracing backends. */
+    public enum Backend {
+        XRAY,
+        OPENTELEMETRY,
+        NONE
+    }
+
+    @ConfigProperty(name = "tracing.backend", defaultValue = "xray")
+    Backend backend;
+
+    void onStart(@Observes StartupEvent event) {
+        Tracing.install(tracer(backend));
+        log.info("Tracing backend: {}", backend);
+    }
+
+    static Tracer tracer(Backend backend) {
+        return switch (backend) {
+            case XRAY -> new XRayTracer();
+            case OPENTELEMETRY -> new OpenTelemetryTracer();
+            case NONE -> Tracer.NOOP;
+        };
+    }
+}
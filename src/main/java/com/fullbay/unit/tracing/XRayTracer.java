@@ -0,0 +1,65 @@
+package com.fullbay.unit.tracing;
+
+import com.amazonaws.xray.AWSXRay;
+import com.amazonaws.xray.AWSXRayRecorder;
+import com.amazonaws.xray.entities.Entity;
+import com.amazonaws.xray.entities.Subsegment;
+
+/**
+ * X-Ray backend. Opens a subsegment only under a sampled parent segment, so untraced invocations
+ * skip the recorder entirely instead of tripping its context-missing strategy.
+ */
+final class XRayTracer implements Tracer {
+
+    @Override
+    public Span startSpan(String name) {
+        final AWSXRayRecorder recorder = AWSXRay.getGlobalRecorder();
+        final Entity parent = recorder.getTraceEntity();
+        if (parent == null || !parent.getParentSegment().isSampled()) {
+            return Span.NOOP;
+        }
+        return new XRaySpan(recorder.beginSubsegment(name));
+    }
+
+    private static final class XRaySpan implements Span {
+
+        private final Subsegment subsegment;
+
+        private XRaySpan(Subsegment subsegment) {
+            this.subsegment = subsegment;
+        }
+
+        @Override
+        public Span attribute(String key, String value) {
+            if (value != null) {
+                subsegment.putAnnotation(key, value);
+            }
+            return this;
+        }
+
+        @Override
+        public Span attribute(String key, Number value) {
+            if (value != null) {
+                subsegment.putAnnotation(key, value);
+            }
+            return this;
+        }
+
+        @Override
+        public Span attribute(String key, long value) {
+            subsegment.putAnnotation(key, value);
+            return this;
+        }
+
+        @Override
+        public Span attribute(String key, boolean value) {
+            subsegment.putAnnotation(key, value);
+            return this;
+        }
+
+        @Override
+        public void close() {
+            subsegment.close();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.fullbay.unit.util;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Capped exponential backoff with full jitter, for retrying DynamoDB calls that were throttled or
+ * conflicted. Attempt {@code n} waits a random time up to {@code BASE * 2^(n-1)}, capped at {@link
+ * #MAX}, so concurrent retries spread out instead of colliding again.
+ */
+public class Backoff {
+
+    public static final Duration BASE = Duration.ofMillis(25);
+    public static final Duration MAX = Duration.ofSeconds(1);
+
+    /**
+     * Delay before the given retry.
+     *
+     * @param attempt The retry number, starting at 1
+     * @return A random delay between 0 and the capped exponential bound
+     */
+    public static Duration delay(int attempt) {
+        final long bound = Math.min(MAX.toMillis(), BASE.toMillis() << Math.min(attempt - 1, 16));
+        return Duration.ofMillis(ThreadLocalRandom.current().nextLong(bound + 1));
+    }
+
+    /**
+     * Block for {@link #delay(int)}.
+     *
+     * @param attempt The retry number, starting at 1
+     * @throws IllegalStateException if interrupted while waiting
+     */
+    public static void sleep(int attempt) {
+        try {
+            Thread.sleep(delay(attempt).toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted during retry backoff", e);
+        }
+    }
+}
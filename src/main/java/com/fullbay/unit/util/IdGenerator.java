@@ -1,25 +1,114 @@
 package com.fullbay.unit.util;
 
 import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
 
-/** Utility for generating Unit IDs. */
+/**
+ * Utility for generating Unit IDs. IDs follow the ULID layout: a 48-bit millisecond timestamp
+ * followed by 80 random bits, both encoded as lowercase Crockford base32. IDs therefore sort by
+ * creation time, and randomness comes from {@link ThreadLocalRandom} so concurrent callers never
+ * contend on a shared generator.
+ *
+ * <p>ThreadLocalRandom state is captured in a SnapStart snapshot, so every restored instance would
+ * replay the same sequence. The random bits are therefore mixed with a per-instance salt drawn from
+ * SecureRandom, which {@link #reseed()} replaces after each restore.
+ */
 public class IdGenerator {
 
-    private static final SecureRandom RANDOM = new SecureRandom();
-    private static final String CHARSET = "abcdefghijklmnopqrstuvwxyz0123456789";
-    private static final int ID_LENGTH = 7;
+    private static final char[] ENCODING = "0123456789abcdefghjkmnpqrstvwxyz".toCharArray();
+    private static final int TIMESTAMP_LENGTH = 10;
+    private static final int RANDOM_LENGTH = 16;
     private static final String PREFIX = "unt_";
+    private static final int ID_LENGTH = PREFIX.length() + TIMESTAMP_LENGTH + RANDOM_LENGTH;
+
+    private static volatile long salt = new SecureRandom().nextLong();
+
+    /** Draw a fresh per-instance salt. Called after SnapStart restore. */
+    public static void reseed() {
+        salt = new SecureRandom().nextLong();
+    }
 
     /**
-     * Generate a unique Unit ID.
+     * Generate a unique, time-sortable Unit ID.
      *
-     * @return Unit ID in format "unt_{7 random alphanumeric lowercase}"
+     * @return Unit ID in format "unt_{10 timestamp chars}{16 random chars}"
      */
     public static String generateUnitId() {
-        final StringBuilder sb = new StringBuilder(PREFIX);
-        for (int i = 0; i < ID_LENGTH; i++) {
-            sb.append(CHARSET.charAt(RANDOM.nextInt(CHARSET.length())));
+        return generateUnitId(System.currentTimeMillis());
+    }
+
+    /**
+     * Generate a unique, time-sortable import or backfill job ID, laid out like a unit ID.
+     *
+     * @return Job ID in format "job_{10 timestamp chars}{16 random chars}"
+     */
+    public static String generateJobId() {
+        return "job_" + generateUnitId().substring(PREFIX.length());
+    }
+
+    /**
+     * Generate a Unit ID for the given creation time.
+     *
+     * @param epochMillis Creation time in milliseconds since the epoch
+     * @return Unit ID in format "unt_{10 timestamp chars}{16 random chars}"
+     */
+    static String generateUnitId(long epochMillis) {
+        final char[] id = new char[ID_LENGTH];
+        PREFIX.getChars(0, PREFIX.length(), id, 0);
+
+        long time = epochMillis;
+        for (int i = PREFIX.length() + TIMESTAMP_LENGTH - 1; i >= PREFIX.length(); i--) {
+            id[i] = ENCODING[(int) (time & 31)];
+            time >>>= 5;
+        }
+
+        // 80 random bits: 60 from the first long, 20 from the second. XOR with the salt is a
+        // bijection, so it keeps per-thread uniqueness while separating restored instances
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        final long instanceSalt = salt;
+        long bits = random.nextLong() ^ instanceSalt;
+        int pos = PREFIX.length() + TIMESTAMP_LENGTH;
+        for (int i = 0; i < 12; i++) {
+            id[pos++] = ENCODING[(int) (bits & 31)];
+            bits >>>= 5;
+        }
+        bits = random.nextLong() ^ Long.rotateLeft(instanceSalt, 32);
+        for (int i = 0; i < RANDOM_LENGTH - 12; i++) {
+            id[pos++] = ENCODING[(int) (bits & 31)];
+            bits >>>= 5;
+        }
+        return new String(id);
+    }
+
+    /**
+     * Decode the creation time embedded in a Unit ID.
+     *
+     * @param unitId The unit ID
+     * @return The creation time, or null for IDs not in the time-sortable format (e.g. legacy
+     *     7-character IDs)
+     */
+    public static Instant timestampOf(String unitId) {
+        if (unitId == null || unitId.length() != ID_LENGTH || !unitId.startsWith(PREFIX)) {
+            return null;
+        }
+        long time = 0L;
+        for (int i = PREFIX.length(); i < PREFIX.length() + TIMESTAMP_LENGTH; i++) {
+            final int value = decode(unitId.charAt(i));
+            if (value < 0) {
+                return null;
+            }
+            time = (time << 5) | value;
+        }
+        return Instant.ofEpochMilli(time);
+    }
+
+    private static int decode(char c) {
+        for (int i = 0; i < ENCODING.length; i++) {
+            if (ENCODING[i] == c) {
+                return i;
+            }
         }
-        return sb.toString();
+        return -1;
     }
 }
@@ -0,0 +1,66 @@
+package com.fullbay.unit;
+
+import static io.restassured.RestAssured.given;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.notNullValue;
+
+import io.quarkus.test.common.QuarkusTestResource;
+import io.quarkus.test.junit.QuarkusIntegrationTest;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Smoke test of the native executable: health, VIN create (NHTSA and parts-service JSON, DynamoDB
+ * item mapping, response serialization) and the error envelopes. A missing reflection or resource
+ * registration shows up here rather than in production. Run against the container build with {@code
+ * ./gradlew testNative -Pdeployment=container -Pnative}.
+ */
+@QuarkusIntegrationTest
+@QuarkusTestResource(NativeStubServer.class)
+class NativeSmokeIT {
+
+    @Test
+    void shouldReportLive() {
+        given().when().get("/q/health/live").then().statusCode(200);
+    }
+
+    @Test
+    void shouldCreateUnitFromVin() {
+        given().contentType("application/json")
+                .body(
+                        """
+                        {"customerId":"cust-native","vin":"%s"}
+                        """
+                                .formatted(NativeStubServer.VIN))
+                .when()
+                .post("/v1/units/vin")
+                .then()
+                .statusCode(201)
+                .body("data.unitId", notNullValue())
+                .body("data.vin", equalTo(NativeStubServer.VIN))
+                .body("data.make", equalTo("FREIGHTLINER"))
+                .body("data.year", equalTo(2012))
+                .body("data.baseVehicleId", equalTo(140123));
+    }
+
+    @Test
+    void shouldReturnNotFoundEnvelope() {
+        given().when()
+                .get("/v1/units/unt_missing")
+                .then()
+                .statusCode(404)
+                .body("error.code", equalTo("UNIT_NOT_FOUND"));
+    }
+
+    @Test
+    void shouldReturnValidationEnvelope() {
+        given().contentType("application/json")
+                .body("{}")
+                .when()
+                .post("/v1/units/vin")
+                .then()
+                .statusCode(400)
+                .body("error.code", equalTo("VALIDATION_ERROR"));
+    }
+}
@@ -0,0 +1,130 @@
+package com.fullbay.unit;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import io.quarkus.test.common.QuarkusTestResourceLifecycleManager;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * One local HTTP server standing in for NHTSA ({@code /api}), parts-service ({@code /v1}) and the
+ * DynamoDB JSON protocol ({@code /}) for the native smoke test. DynamoDB answers as an empty table
+ * that accepts every write, so the native executable runs its real SDK, REST client and Jackson
+ * paths without AWS access.
+ */
+public class NativeStubServer implements QuarkusTestResourceLifecycleManager {
+
+    static final String VIN = "1FUJGLDR0CSBM1234";
+
+    private static final String NHTSA_JSON =
+            """
+            {"Count":3,"Message":"Results returned successfully","SearchCriteria":"VIN:%s",\
+            "Results":[\
+            {"Value":"2012","ValueId":"","Variable":"Model Year","VariableId":29},\
+            {"Value":"FREIGHTLINER","ValueId":"509","Variable":"Make","VariableId":26},\
+            {"Value":"Cascadia","ValueId":"2214","Variable":"Model","VariableId":28}]}
+            """;
+
+    private static final String MAKES_JSON =
+            """
+            {"data":[{"makeId":"509","makeName":"FREIGHTLINER"}]}
+            """;
+
+    private static final String MODELS_JSON =
+            """
+            {"data":[{"modelId":"2214","modelName":"Cascadia"}]}
+            """;
+
+    private static final String VEHICLES_JSON =
+            """
+            {"data":[{"baseVehicleId":"140123","makeId":"509","modelId":"2214"}]}
+            """;
+
+    private HttpServer server;
+
+    @Override
+    public Map<String, String> start() {
+        try {
+            server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to start stub server", e);
+        }
+        server.createContext(
+                "/api",
+                exchange -> {
+                    final String path = exchange.getRequestURI().getPath();
+                    respond(
+                            exchange,
+                            "application/json",
+                            NHTSA_JSON.formatted(path.substring(path.lastIndexOf('/') + 1)));
+                });
+        server.createContext(
+                "/v1",
+                exchange -> {
+                    final String path = exchange.getRequestURI().getPath();
+                    final String body;
+                    if (path.endsWith("/makes")) {
+                        body = MAKES_JSON;
+                    } else if (path.endsWith("/models")) {
+                        body = MODELS_JSON;
+                    } else {
+                        body = VEHICLES_JSON;
+                    }
+                    respond(exchange, "application/json", body);
+                });
+        server.createContext(
+                "/",
+                exchange -> respond(exchange, "application/x-amz-json-1.0", dynamoDb(exchange)));
+        server.start();
+
+        final String baseUrl = "http://localhost:" + server.getAddress().getPort();
+        return Map.of(
+                "quarkus.rest-client.nhtsa.url",
+                baseUrl + "/api",
+                "quarkus.rest-client.parts-service.url",
+                baseUrl + "/v1",
+                "dynamodb.endpoint-override",
+                baseUrl,
+                "aws.accessKeyId",
+                "test",
+                "aws.secretAccessKey",
+                "test",
+                "tracing.backend",
+                "none");
+    }
+
+    @Override
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
+    /** Empty-table answers keyed on the operation in {@code X-Amz-Target}. */
+    private static String dynamoDb(HttpExchange exchange) throws IOException {
+        exchange.getRequestBody().readAllBytes();
+        final String target = exchange.getRequestHeaders().getFirst("X-Amz-Target");
+        final String operation =
+                target == null ? "" : target.substring(target.lastIndexOf('.') + 1);
+        return switch (operation) {
+            case "Query", "Scan" -> "{\"Count\":0,\"Items\":[],\"ScannedCount\":0}";
+            case "BatchGetItem" -> "{\"Responses\":{},\"UnprocessedKeys\":{}}";
+            case "BatchWriteItem" -> "{\"UnprocessedItems\":{}}";
+            default -> "{}";
+        };
+    }
+
+    private static void respond(HttpExchange exchange, String contentType, String body)
+            throws IOException {
+        try (exchange) {
+            final byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", contentType);
+            exchange.sendResponseHeaders(200, bytes.length);
+            exchange.getResponseBody().write(bytes);
+        }
+    }
+}
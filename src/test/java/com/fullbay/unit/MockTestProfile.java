@@ -1,12 +1,12 @@
 package com.fullbay.unit;
 
+import com.fullbay.unit.dynamodb.UnitTableSchema;
 import com.fullbay.util.JacksonConverter;
 
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.enterprise.inject.Alternative;
 import jakarta.enterprise.inject.Produces;
 
-import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 
 import java.util.Collections;
@@ -15,9 +15,11 @@ import java.util.Map;
 /** Test profile that provides mock DynamoDB beans for testing. */
 public class MockTestProfile implements io.quarkus.test.junit.QuarkusTestProfile {
 
+    static final String TABLE_NAME = "g-unit-service-test";
+
     @Override
     public Map<String, String> getConfigOverrides() {
-        return Collections.singletonMap("dynamodb.table.name", "g-unit-service-test");
+        return Collections.singletonMap("dynamodb.table.name", TABLE_NAME);
     }
 
     @Override
@@ -34,8 +36,8 @@ public class MockTestProfile implements io.quarkus.test.junit.QuarkusTestProfile
         @ApplicationScoped
         @Alternative
         public DynamoDbClient dynamoDbClient() {
-            // Return a mock client that doesn't connect to AWS
-            return DynamoDbClient.builder().region(Region.US_WEST_2).build();
+            // In-process table with the production key schema and indexes; never touches AWS
+            return UnitTableSchema.inMemory(TABLE_NAME);
         }
 
         @Produces
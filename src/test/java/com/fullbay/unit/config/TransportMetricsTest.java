@@ -0,0 +1,120 @@
+package com.fullbay.unit.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.sun.net.httpserver.HttpServer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import software.amazon.awssdk.core.metrics.CoreMetric;
+import software.amazon.awssdk.http.HttpExecuteRequest;
+import software.amazon.awssdk.http.HttpExecuteResponse;
+import software.amazon.awssdk.http.HttpMetric;
+import software.amazon.awssdk.http.SdkHttpClient;
+import software.amazon.awssdk.http.SdkHttpFullRequest;
+import software.amazon.awssdk.http.SdkHttpMethod;
+import software.amazon.awssdk.http.apache.ApacheHttpClient;
+import software.amazon.awssdk.metrics.MetricCollection;
+import software.amazon.awssdk.metrics.MetricCollector;
+
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+
+class TransportMetricsTest {
+
+    private TransportMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        metrics = new TransportMetrics();
+    }
+
+    @Test
+    void shouldAggregateCallAndPoolMetrics() {
+        metrics.publish(apiCall(true, 3, 47, 0, Duration.ofMillis(4)));
+        metrics.publish(apiCall(false, 5, 45, 2, Duration.ofMillis(8)));
+
+        Map<String, Object> stats = metrics.snapshot();
+        assertEquals(2L, stats.get("apiCalls"));
+        assertEquals(1L, stats.get("failedCalls"));
+        assertEquals(2L, stats.get("attempts"));
+        assertEquals(5, stats.get("maxLeased"));
+        assertEquals(2, stats.get("maxPending"));
+        assertEquals(50, stats.get("maxConcurrency"));
+        assertEquals(45, stats.get("available"));
+        assertEquals(8.0, stats.get("maxAcquireMillis"));
+    }
+
+    @Test
+    void shouldDeriveReusedConnectionsFromOpenedConnections() {
+        metrics.publish(apiCall(true, 1, 49, 0, Duration.ZERO));
+        metrics.publish(apiCall(true, 1, 49, 0, Duration.ZERO));
+        metrics.publish(apiCall(true, 1, 49, 0, Duration.ZERO));
+        metrics.connectionOpened();
+
+        Map<String, Object> stats = metrics.snapshot();
+        assertEquals(1L, stats.get("connectionsOpened"));
+        assertEquals(2L, stats.get("connectionsReused"));
+    }
+
+    @Test
+    void shouldCountPlainHttpConnectionsOnce() throws Exception {
+        final HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext(
+                "/",
+                exchange -> {
+                    exchange.sendResponseHeaders(200, 2);
+                    exchange.getResponseBody().write("ok".getBytes(StandardCharsets.UTF_8));
+                    exchange.close();
+                });
+        server.start();
+        try (SdkHttpClient client =
+                ApacheHttpClient.builder().dnsResolver(metrics.dnsResolver()).build()) {
+            final URI uri = URI.create("http://localhost:" + server.getAddress().getPort() + "/");
+            for (int i = 0; i < 3; i++) {
+                final HttpExecuteResponse response =
+                        client.prepareRequest(
+                                        HttpExecuteRequest.builder()
+                                                .request(
+                                                        SdkHttpFullRequest.builder()
+                                                                .uri(uri)
+                                                                .method(SdkHttpMethod.GET)
+                                                                .build())
+                                                .build())
+                                .call();
+                try (InputStream body = response.responseBody().orElseThrow()) {
+                    body.readAllBytes();
+                }
+            }
+        } finally {
+            server.stop(0);
+        }
+
+        assertEquals(1L, metrics.snapshot().get("connectionsOpened"));
+    }
+
+    @Test
+    void shouldExposeSnapshotAsInfo() {
+        assertEquals("transport", metrics.name());
+        assertEquals(0L, metrics.data().get("apiCalls"));
+    }
+
+    private static MetricCollection apiCall(
+            boolean successful, int leased, int available, int pending, Duration acquire) {
+        MetricCollector call = MetricCollector.create("ApiCall");
+        call.reportMetric(CoreMetric.API_CALL_SUCCESSFUL, successful);
+        call.reportMetric(CoreMetric.API_CALL_DURATION, Duration.ofMillis(20));
+        MetricCollector http = call.createChild("ApiCallAttempt").createChild("HttpClient");
+        http.reportMetric(HttpMetric.MAX_CONCURRENCY, 50);
+        http.reportMetric(HttpMetric.LEASED_CONCURRENCY, leased);
+        http.reportMetric(HttpMetric.AVAILABLE_CONCURRENCY, available);
+        http.reportMetric(HttpMetric.PENDING_CONCURRENCY_ACQUIRES, pending);
+        http.reportMetric(HttpMetric.CONCURRENCY_ACQUIRE_DURATION, acquire);
+        return call.collect();
+    }
+}
@@ -0,0 +1,1170 @@
+package com.fullbay.unit.dynamodb;
+
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Parser and evaluator for the subset of DynamoDB expressions the in-memory client supports:
+ * condition/filter expressions (comparisons, BETWEEN, IN, AND/OR/NOT, attribute_exists,
+ * attribute_not_exists, attribute_type, begins_with, contains, size), key conditions, update
+ * expressions (SET with +/-, if_not_exists and list_append, REMOVE, ADD, DELETE) and projections.
+ */
+final class Expressions {
+
+    private Expressions() {
+        // Utility class
+    }
+
+    /** A document path: attribute names and list indexes. */
+    record Path(List<Object> segments) {
+
+        String topLevel() {
+            return (String) segments.get(0);
+        }
+
+        @Override
+        public String toString() {
+            final StringBuilder sb = new StringBuilder();
+            for (final Object segment : segments) {
+                if (segment instanceof Integer index) {
+                    sb.append('[').append(index).append(']');
+                } else {
+                    if (!sb.isEmpty()) {
+                        sb.append('.');
+                    }
+                    sb.append(segment);
+                }
+            }
+            return sb.toString();
+        }
+    }
+
+    /** Comparison used by a key condition on the sort key. */
+    enum KeyOperator {
+        EQ,
+        LT,
+        LE,
+        GT,
+        GE,
+        BETWEEN,
+        BEGINS_WITH
+    }
+
+    /** Parsed key condition: hash key equality plus an optional sort key condition. */
+    record KeyCondition(
+            String hashName,
+            AttributeValue hashValue,
+            String rangeName,
+            KeyOperator operator,
+            AttributeValue first,
+            AttributeValue second) {
+
+        boolean rangeMatches(AttributeValue range) {
+            if (operator == null) {
+                return true;
+            }
+            if (range == null) {
+                return false;
+            }
+            final Integer cmp = compare(range, first);
+            if (cmp == null) {
+                return false;
+            }
+            return switch (operator) {
+                case EQ -> cmp == 0;
+                case LT -> cmp < 0;
+                case LE -> cmp <= 0;
+                case GT -> cmp > 0;
+                case GE -> cmp >= 0;
+                case BETWEEN -> cmp >= 0 && compare(range, second) <= 0;
+                case BEGINS_WITH -> beginsWith(range, first);
+            };
+        }
+
+        /** Whether an ascending scan has passed every possible match. */
+        boolean pastUpperBound(AttributeValue range) {
+            if (operator == null || range == null) {
+                return false;
+            }
+            final Integer cmp = compare(range, first);
+            if (cmp == null) {
+                return false;
+            }
+            return switch (operator) {
+                case EQ, LE -> cmp > 0;
+                case LT -> cmp >= 0;
+                case GT, GE -> false;
+                case BETWEEN -> compare(range, second) > 0;
+                case BEGINS_WITH -> cmp > 0 && !beginsWith(range, first);
+            };
+        }
+
+        /** Whether a descending scan has passed every possible match. */
+        boolean pastLowerBound(AttributeValue range) {
+            if (operator == null || range == null) {
+                return false;
+            }
+            final Integer cmp = compare(range, first);
+            if (cmp == null) {
+                return false;
+            }
+            return switch (operator) {
+                case EQ, GE, BETWEEN -> cmp < 0;
+                case GT -> cmp <= 0;
+                case LT, LE -> false;
+                case BEGINS_WITH -> cmp < 0;
+            };
+        }
+
+        /** Smallest sort key value that can match, for seeding an ascending scan. */
+        AttributeValue lowerBound() {
+            if (operator == null) {
+                return null;
+            }
+            return switch (operator) {
+                case EQ, GT, GE, BETWEEN, BEGINS_WITH -> first;
+                case LT, LE -> null;
+            };
+        }
+    }
+
+    /** Compiled update expression. */
+    static final class Update {
+
+        private final List<Action> actions;
+
+        private Update(List<Action> actions) {
+            this.actions = actions;
+        }
+
+        /**
+         * Apply to a copy of the item. Right-hand sides are evaluated against the original item.
+         *
+         * @return The updated item
+         */
+        Map<String, AttributeValue> apply(Map<String, AttributeValue> original) {
+            final List<Runnable> writes = new ArrayList<>();
+            final Map<String, AttributeValue> item = new HashMap<>(original);
+            for (final Action action : actions) {
+                writes.add(action.prepare(original, item));
+            }
+            writes.forEach(Runnable::run);
+            return item;
+        }
+
+        /** Top-level attribute names the expression touches. */
+        Set<String> topLevelNames() {
+            final Set<String> names = new LinkedHashSet<>();
+            actions.forEach(action -> names.add(action.path().topLevel()));
+            return names;
+        }
+    }
+
+    private interface Action {
+        Path path();
+
+        Runnable prepare(Map<String, AttributeValue> original, Map<String, AttributeValue> item);
+    }
+
+    private interface Operand {
+        /** Resolved value, or null when the path does not exist. */
+        AttributeValue value(Map<String, AttributeValue> item);
+    }
+
+    // ------------------------------------------------------------------ public entry points
+
+    static Predicate<Map<String, AttributeValue>> condition(
+            String expression, Map<String, String> names, Map<String, AttributeValue> values) {
+        final Parser parser = new Parser(expression, names, values);
+        final Predicate<Map<String, AttributeValue>> condition = parser.condition();
+        parser.expectEnd();
+        return condition;
+    }
+
+    static KeyCondition keyCondition(
+            String expression, Map<String, String> names, Map<String, AttributeValue> values) {
+        return new Parser(expression, names, values).keyCondition();
+    }
+
+    static Update update(
+            String expression, Map<String, String> names, Map<String, AttributeValue> values) {
+        return new Parser(expression, names, values).update();
+    }
+
+    static List<Path> projection(String expression, Map<String, String> names) {
+        final Parser parser = new Parser(expression, names, Map.of());
+        final List<Path> paths = new ArrayList<>();
+        do {
+            paths.add(parser.path());
+        } while (parser.accept(","));
+        parser.expectEnd();
+        return paths;
+    }
+
+    /** Copy only the projected paths of an item. */
+    static Map<String, AttributeValue> project(Map<String, AttributeValue> item, List<Path> paths) {
+        final Map<String, AttributeValue> projected = new HashMap<>();
+        for (final Path path : paths) {
+            final AttributeValue value = get(item, path);
+            if (value != null) {
+                set(projected, path, value, true);
+            }
+        }
+        return projected;
+    }
+
+    // ------------------------------------------------------------------ document paths
+
+    static AttributeValue get(Map<String, AttributeValue> item, Path path) {
+        AttributeValue current = item.get(path.topLevel());
+        for (int i = 1; i < path.segments().size() && current != null; i++) {
+            final Object segment = path.segments().get(i);
+            if (segment instanceof Integer index) {
+                current =
+                        current.hasL() && index < current.l().size()
+                                ? current.l().get(index)
+                                : null;
+            } else {
+                current = current.hasM() ? current.m().get(segment) : null;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Set a value at a path, rebuilding the enclosing maps and lists.
+     *
+     * @param createParents Create missing intermediate maps (projection) instead of failing
+     *     (update)
+     */
+    static void set(
+            Map<String, AttributeValue> item,
+            Path path,
+            AttributeValue value,
+            boolean createParents) {
+        final String name = path.topLevel();
+        if (path.segments().size() == 1) {
+            item.put(name, value);
+            return;
+        }
+        final AttributeValue parent = item.get(name);
+        item.put(name, setIn(parent, path.segments(), 1, value, createParents, path));
+    }
+
+    private static AttributeValue setIn(
+            AttributeValue parent,
+            List<Object> segments,
+            int position,
+            AttributeValue value,
+            boolean createParents,
+            Path path) {
+        if (position == segments.size()) {
+            return value;
+        }
+        final Object segment = segments.get(position);
+        if (segment instanceof Integer index) {
+            if (parent == null || !parent.hasL()) {
+                throw InMemoryDynamoDbClient.validation(
+                        "The document path provided in the update expression is invalid for"
+                                + " update: "
+                                + path);
+            }
+            final List<AttributeValue> list = new ArrayList<>(parent.l());
+            final AttributeValue child = index < list.size() ? list.get(index) : null;
+            final AttributeValue updated =
+                    setIn(child, segments, position + 1, value, createParents, path);
+            if (index < list.size()) {
+                list.set(index, updated);
+            } else {
+                list.add(updated);
+            }
+            return AttributeValue.builder().l(list).build();
+        }
+        if (parent == null && createParents) {
+            parent = AttributeValue.builder().m(Map.of()).build();
+        }
+        if (parent == null || !parent.hasM()) {
+            throw InMemoryDynamoDbClient.validation(
+                    "The document path provided in the update expression is invalid for update: "
+                            + path);
+        }
+        final Map<String, AttributeValue> map = new HashMap<>(parent.m());
+        map.put(
+                (String) segment,
+                setIn(map.get(segment), segments, position + 1, value, createParents, path));
+        return AttributeValue.builder().m(map).build();
+    }
+
+    static void remove(Map<String, AttributeValue> item, Path path) {
+        if (path.segments().size() == 1) {
+            item.remove(path.topLevel());
+            return;
+        }
+        final AttributeValue parent = item.get(path.topLevel());
+        if (parent != null) {
+            item.put(path.topLevel(), removeIn(parent, path.segments(), 1));
+        }
+    }
+
+    private static AttributeValue removeIn(
+            AttributeValue parent, List<Object> segments, int position) {
+        final Object segment = segments.get(position);
+        final boolean last = position == segments.size() - 1;
+        if (segment instanceof Integer index) {
+            if (!parent.hasL() || index >= parent.l().size()) {
+                return parent;
+            }
+            final List<AttributeValue> list = new ArrayList<>(parent.l());
+            if (last) {
+                list.remove((int) index);
+            } else {
+                list.set(index, removeIn(list.get(index), segments, position + 1));
+            }
+            return AttributeValue.builder().l(list).build();
+        }
+        if (!parent.hasM() || !parent.m().containsKey(segment)) {
+            return parent;
+        }
+        final Map<String, AttributeValue> map = new HashMap<>(parent.m());
+        if (last) {
+            map.remove(segment);
+        } else {
+            map.put((String) segment, removeIn(map.get(segment), segments, position + 1));
+        }
+        return AttributeValue.builder().m(map).build();
+    }
+
+    // ------------------------------------------------------------------ value semantics
+
+    /** Order of two scalar values, or null when they are not comparable. */
+    static Integer compare(AttributeValue a, AttributeValue b) {
+        if (a == null || b == null) {
+            return null;
+        }
+        if (a.s() != null && b.s() != null) {
+            return compareUtf8(a.s(), b.s());
+        }
+        if (a.n() != null && b.n() != null) {
+            return new BigDecimal(a.n()).compareTo(new BigDecimal(b.n()));
+        }
+        if (a.b() != null && b.b() != null) {
+            return compareBytes(a.b().asByteArrayUnsafe(), b.b().asByteArrayUnsafe());
+        }
+        return null;
+    }
+
+    /** UTF-8 byte order, which for valid strings is code point order. */
+    static int compareUtf8(String a, String b) {
+        int i = 0;
+        int j = 0;
+        while (i < a.length() && j < b.length()) {
+            final int ca = a.codePointAt(i);
+            final int cb = b.codePointAt(j);
+            if (ca != cb) {
+                return Integer.compare(ca, cb);
+            }
+            i += Character.charCount(ca);
+            j += Character.charCount(cb);
+        }
+        return Integer.compare(a.length() - i, b.length() - j);
+    }
+
+    private static int compareBytes(byte[] a, byte[] b) {
+        for (int i = 0; i < Math.min(a.length, b.length); i++) {
+            final int cmp = Integer.compare(a[i] & 0xff, b[i] & 0xff);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return Integer.compare(a.length, b.length);
+    }
+
+    static boolean equal(AttributeValue a, AttributeValue b) {
+        if (a == null || b == null) {
+            return false;
+        }
+        final Integer cmp = compare(a, b);
+        if (cmp != null) {
+            return cmp == 0;
+        }
+        if (a.hasSs() && b.hasSs()) {
+            return Set.copyOf(a.ss()).equals(Set.copyOf(b.ss()));
+        }
+        if (a.hasNs() && b.hasNs()) {
+            return numberSet(a).equals(numberSet(b));
+        }
+        if (a.hasBs() && b.hasBs()) {
+            return Set.copyOf(a.bs()).equals(Set.copyOf(b.bs()));
+        }
+        if (a.hasL() && b.hasL()) {
+            if (a.l().size() != b.l().size()) {
+                return false;
+            }
+            for (int i = 0; i < a.l().size(); i++) {
+                if (!equal(a.l().get(i), b.l().get(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        if (a.hasM() && b.hasM()) {
+            if (!a.m().keySet().equals(b.m().keySet())) {
+                return false;
+            }
+            for (final Map.Entry<String, AttributeValue> entry : a.m().entrySet()) {
+                if (!equal(entry.getValue(), b.m().get(entry.getKey()))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return Objects.equals(a.bool(), b.bool())
+                && Objects.equals(a.nul(), b.nul())
+                && (a.bool() != null || a.nul() != null);
+    }
+
+    private static Set<BigDecimal> numberSet(AttributeValue value) {
+        final Set<BigDecimal> numbers = new java.util.HashSet<>();
+        value.ns().forEach(n -> numbers.add(new BigDecimal(n).stripTrailingZeros()));
+        return numbers;
+    }
+
+    static boolean beginsWith(AttributeValue value, AttributeValue prefix) {
+        if (value == null || prefix == null) {
+            return false;
+        }
+        if (value.s() != null && prefix.s() != null) {
+            return value.s().startsWith(prefix.s());
+        }
+        if (value.b() != null && prefix.b() != null) {
+            final byte[] bytes = value.b().asByteArrayUnsafe();
+            final byte[] start = prefix.b().asByteArrayUnsafe();
+            if (start.length > bytes.length) {
+                return false;
+            }
+            for (int i = 0; i < start.length; i++) {
+                if (bytes[i] != start[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private static boolean contains(AttributeValue value, AttributeValue operand) {
+        if (value == null || operand == null) {
+            return false;
+        }
+        if (value.s() != null && operand.s() != null) {
+            return value.s().contains(operand.s());
+        }
+        if (value.hasSs() && operand.s() != null) {
+            return value.ss().contains(operand.s());
+        }
+        if (value.hasNs() && operand.n() != null) {
+            return numberSet(value).contains(new BigDecimal(operand.n()).stripTrailingZeros());
+        }
+        if (value.hasBs() && operand.b() != null) {
+            return value.bs().contains(operand.b());
+        }
+        if (value.hasL()) {
+            return value.l().stream().anyMatch(element -> equal(element, operand));
+        }
+        return false;
+    }
+
+    static String type(AttributeValue value) {
+        if (value.s() != null) {
+            return "S";
+        }
+        if (value.n() != null) {
+            return "N";
+        }
+        if (value.b() != null) {
+            return "B";
+        }
+        if (value.bool() != null) {
+            return "BOOL";
+        }
+        if (value.nul() != null) {
+            return "NULL";
+        }
+        if (value.hasSs()) {
+            return "SS";
+        }
+        if (value.hasNs()) {
+            return "NS";
+        }
+        if (value.hasBs()) {
+            return "BS";
+        }
+        if (value.hasL()) {
+            return "L";
+        }
+        return "M";
+    }
+
+    private static AttributeValue size(AttributeValue value) {
+        if (value == null) {
+            return null;
+        }
+        final int size;
+        if (value.s() != null) {
+            size = value.s().length();
+        } else if (value.b() != null) {
+            size = value.b().asByteArrayUnsafe().length;
+        } else if (value.hasSs()) {
+            size = value.ss().size();
+        } else if (value.hasNs()) {
+            size = value.ns().size();
+        } else if (value.hasBs()) {
+            size = value.bs().size();
+        } else if (value.hasL()) {
+            size = value.l().size();
+        } else if (value.hasM()) {
+            size = value.m().size();
+        } else {
+            return null;
+        }
+        return AttributeValue.builder().n(String.valueOf(size)).build();
+    }
+
+    private static AttributeValue arithmetic(AttributeValue a, AttributeValue b, boolean add) {
+        if (a == null || b == null || a.n() == null || b.n() == null) {
+            throw InMemoryDynamoDbClient.validation(
+                    "An operand in the update expression has an incorrect data type");
+        }
+        final BigDecimal left = new BigDecimal(a.n());
+        final BigDecimal right = new BigDecimal(b.n());
+        return number(add ? left.add(right) : left.subtract(right));
+    }
+
+    static AttributeValue number(BigDecimal value) {
+        return AttributeValue.builder().n(value.stripTrailingZeros().toPlainString()).build();
+    }
+
+    /** ADD semantics: numeric increment or set union; a missing attribute starts empty. */
+    private static AttributeValue add(AttributeValue current, AttributeValue operand) {
+        if (operand.n() != null) {
+            if (current == null) {
+                return number(new BigDecimal(operand.n()));
+            }
+            return arithmetic(current, operand, true);
+        }
+        if (operand.hasSs()) {
+            final Set<String> union =
+                    new LinkedHashSet<>(current != null ? current.ss() : List.of());
+            union.addAll(operand.ss());
+            return AttributeValue.builder().ss(union).build();
+        }
+        if (operand.hasNs()) {
+            final Set<String> union =
+                    new LinkedHashSet<>(current != null ? current.ns() : List.of());
+            union.addAll(operand.ns());
+            return AttributeValue.builder().ns(union).build();
+        }
+        if (operand.hasBs()) {
+            final Set<SdkBytes> union =
+                    new LinkedHashSet<>(current != null ? current.bs() : List.of());
+            union.addAll(operand.bs());
+            return AttributeValue.builder().bs(union).build();
+        }
+        throw InMemoryDynamoDbClient.validation(
+                "Incorrect operand type for operator or function; operator: ADD");
+    }
+
+    /** DELETE semantics: set difference; an emptied set removes the attribute (null). */
+    private static AttributeValue deleteFrom(AttributeValue current, AttributeValue operand) {
+        if (current == null) {
+            return null;
+        }
+        if (current.hasSs() && operand.hasSs()) {
+            final List<String> remaining = new ArrayList<>(current.ss());
+            remaining.removeAll(operand.ss());
+            return remaining.isEmpty() ? null : AttributeValue.builder().ss(remaining).build();
+        }
+        if (current.hasNs() && operand.hasNs()) {
+            final List<String> remaining = new ArrayList<>(current.ns());
+            remaining.removeAll(operand.ns());
+            return remaining.isEmpty() ? null : AttributeValue.builder().ns(remaining).build();
+        }
+        if (current.hasBs() && operand.hasBs()) {
+            final List<SdkBytes> remaining = new ArrayList<>(current.bs());
+            remaining.removeAll(operand.bs());
+            return remaining.isEmpty() ? null : AttributeValue.builder().bs(remaining).build();
+        }
+        throw InMemoryDynamoDbClient.validation(
+                "Incorrect operand type for operator or function; operator: DELETE");
+    }
+
+    // ------------------------------------------------------------------ parser
+
+    private static final class Parser {
+
+        private final String expression;
+        private final List<String> tokens;
+        private final Map<String, String> names;
+        private final Map<String, AttributeValue> values;
+        private int position;
+
+        Parser(String expression, Map<String, String> names, Map<String, AttributeValue> values) {
+            this.expression = expression;
+            this.tokens = tokenize(expression);
+            this.names = names != null ? names : Map.of();
+            this.values = values != null ? values : Map.of();
+        }
+
+        // ---- conditions
+
+        Predicate<Map<String, AttributeValue>> condition() {
+            Predicate<Map<String, AttributeValue>> left = and();
+            while (acceptKeyword("OR")) {
+                left = left.or(and());
+            }
+            return left;
+        }
+
+        private Predicate<Map<String, AttributeValue>> and() {
+            Predicate<Map<String, AttributeValue>> left = not();
+            while (acceptKeyword("AND")) {
+                left = left.and(not());
+            }
+            return left;
+        }
+
+        private Predicate<Map<String, AttributeValue>> not() {
+            if (acceptKeyword("NOT")) {
+                return not().negate();
+            }
+            return primary();
+        }
+
+        private Predicate<Map<String, AttributeValue>> primary() {
+            if (accept("(")) {
+                final Predicate<Map<String, AttributeValue>> inner = condition();
+                expect(")");
+                return inner;
+            }
+            final String token = peek();
+            if (token != null && "(".equals(peek(1))) {
+                switch (token.toLowerCase(Locale.ROOT)) {
+                    case "attribute_exists" -> {
+                        final Path path = functionPath();
+                        expect(")");
+                        return item -> get(item, path) != null;
+                    }
+                    case "attribute_not_exists" -> {
+                        final Path path = functionPath();
+                        expect(")");
+                        return item -> get(item, path) == null;
+                    }
+                    case "attribute_type" -> {
+                        final Path path = functionPath();
+                        expect(",");
+                        final Operand type = operand();
+                        expect(")");
+                        return item -> {
+                            final AttributeValue value = get(item, path);
+                            final AttributeValue expected = type.value(item);
+                            return value != null
+                                    && expected != null
+                                    && type(value).equals(expected.s());
+                        };
+                    }
+                    case "begins_with" -> {
+                        final Path path = functionPath();
+                        expect(",");
+                        final Operand prefix = operand();
+                        expect(")");
+                        return item -> beginsWith(get(item, path), prefix.value(item));
+                    }
+                    case "contains" -> {
+                        final Path path = functionPath();
+                        expect(",");
+                        final Operand operand = operand();
+                        expect(")");
+                        return item -> contains(get(item, path), operand.value(item));
+                    }
+                    default -> {
+                        // size(...) and other operands fall through to a comparison
+                    }
+                }
+            }
+
+            final Operand left = operand();
+            if (acceptKeyword("BETWEEN")) {
+                final Operand low = operand();
+                expectKeyword("AND");
+                final Operand high = operand();
+                return item -> {
+                    final AttributeValue value = left.value(item);
+                    final Integer lower = compare(value, low.value(item));
+                    final Integer upper = compare(value, high.value(item));
+                    return lower != null && upper != null && lower >= 0 && upper <= 0;
+                };
+            }
+            if (acceptKeyword("IN")) {
+                expect("(");
+                final List<Operand> candidates = new ArrayList<>();
+                do {
+                    candidates.add(operand());
+                } while (accept(","));
+                expect(")");
+                return item -> {
+                    final AttributeValue value = left.value(item);
+                    return candidates.stream()
+                            .anyMatch(candidate -> equal(value, candidate.value(item)));
+                };
+            }
+            final String comparator = next();
+            final Operand right = operand();
+            return switch (comparator) {
+                case "=" -> item -> equal(left.value(item), right.value(item));
+                case "<>" -> item -> !equal(left.value(item), right.value(item));
+                case "<" -> item -> ordered(left, right, item, cmp -> cmp < 0);
+                case "<=" -> item -> ordered(left, right, item, cmp -> cmp <= 0);
+                case ">" -> item -> ordered(left, right, item, cmp -> cmp > 0);
+                case ">=" -> item -> ordered(left, right, item, cmp -> cmp >= 0);
+                default -> throw syntax("comparator", comparator);
+            };
+        }
+
+        private static boolean ordered(
+                Operand left,
+                Operand right,
+                Map<String, AttributeValue> item,
+                java.util.function.IntPredicate test) {
+            final Integer cmp = compare(left.value(item), right.value(item));
+            return cmp != null && test.test(cmp);
+        }
+
+        private Path functionPath() {
+            next();
+            expect("(");
+            return path();
+        }
+
+        private Operand operand() {
+            final String token = peek();
+            if (token == null) {
+                throw syntax("operand", "end of expression");
+            }
+            if (token.startsWith(":")) {
+                final AttributeValue value = value(next());
+                return item -> value;
+            }
+            if ("size".equalsIgnoreCase(token) && "(".equals(peek(1))) {
+                final Path path = functionPath();
+                expect(")");
+                return item -> size(get(item, path));
+            }
+            final Path path = path();
+            return item -> get(item, path);
+        }
+
+        Path path() {
+            final List<Object> segments = new ArrayList<>();
+            segments.add(name(next()));
+            while (true) {
+                if (accept(".")) {
+                    segments.add(name(next()));
+                } else if (accept("[")) {
+                    segments.add(Integer.parseInt(next()));
+                    expect("]");
+                } else {
+                    return new Path(List.copyOf(segments));
+                }
+            }
+        }
+
+        private String name(String token) {
+            if (token == null) {
+                throw syntax("attribute name", "end of expression");
+            }
+            if (token.startsWith("#")) {
+                final String name = names.get(token);
+                if (name == null) {
+                    throw InMemoryDynamoDbClient.validation(
+                            "An expression attribute name used in the document path is not"
+                                    + " defined; attribute name: "
+                                    + token);
+                }
+                return name;
+            }
+            if (!Character.isLetter(token.charAt(0)) && token.charAt(0) != '_') {
+                throw syntax("attribute name", token);
+            }
+            return token;
+        }
+
+        private AttributeValue value(String token) {
+            final AttributeValue value = values.get(token);
+            if (value == null) {
+                throw InMemoryDynamoDbClient.validation(
+                        "An expression attribute value used in expression is not defined;"
+                                + " attribute value: "
+                                + token);
+            }
+            return value;
+        }
+
+        // ---- key conditions
+
+        KeyCondition keyCondition() {
+            String hashName = null;
+            AttributeValue hashValue = null;
+            String rangeName = null;
+            KeyOperator operator = null;
+            AttributeValue first = null;
+            AttributeValue second = null;
+
+            do {
+                final boolean parenthesized = accept("(");
+                if ("begins_with".equalsIgnoreCase(peek()) && "(".equals(peek(1))) {
+                    final Path path = functionPath();
+                    expect(",");
+                    rangeName = path.topLevel();
+                    operator = KeyOperator.BEGINS_WITH;
+                    first = value(next());
+                    expect(")");
+                } else {
+                    final String name = path().topLevel();
+                    if (acceptKeyword("BETWEEN")) {
+                        rangeName = name;
+                        operator = KeyOperator.BETWEEN;
+                        first = value(next());
+                        expectKeyword("AND");
+                        second = value(next());
+                    } else {
+                        final String comparator = next();
+                        final AttributeValue value = value(next());
+                        if ("=".equals(comparator) && hashName == null) {
+                            hashName = name;
+                            hashValue = value;
+                        } else {
+                            rangeName = name;
+                            operator =
+                                    switch (comparator) {
+                                        case "=" -> KeyOperator.EQ;
+                                        case "<" -> KeyOperator.LT;
+                                        case "<=" -> KeyOperator.LE;
+                                        case ">" -> KeyOperator.GT;
+                                        case ">=" -> KeyOperator.GE;
+                                        default -> throw syntax("key comparator", comparator);
+                                    };
+                            first = value;
+                        }
+                    }
+                }
+                if (parenthesized) {
+                    expect(")");
+                }
+            } while (acceptKeyword("AND"));
+            expectEnd();
+
+            if (hashName == null) {
+                throw InMemoryDynamoDbClient.validation(
+                        "Query condition missed key schema element");
+            }
+            return new KeyCondition(hashName, hashValue, rangeName, operator, first, second);
+        }
+
+        // ---- update expressions
+
+        Update update() {
+            final List<Action> actions = new ArrayList<>();
+            while (peek() != null) {
+                final String clause = next().toUpperCase(Locale.ROOT);
+                switch (clause) {
+                    case "SET" -> {
+                        do {
+                            actions.add(setAction());
+                        } while (accept(","));
+                    }
+                    case "REMOVE" -> {
+                        do {
+                            final Path path = path();
+                            actions.add(action(path, (original, item) -> () -> remove(item, path)));
+                        } while (accept(","));
+                    }
+                    case "ADD" -> {
+                        do {
+                            final Path path = path();
+                            final AttributeValue operand = value(next());
+                            actions.add(
+                                    action(
+                                            path,
+                                            (original, item) -> {
+                                                final AttributeValue result =
+                                                        add(get(original, path), operand);
+                                                return () -> set(item, path, result, false);
+                                            }));
+                        } while (accept(","));
+                    }
+                    case "DELETE" -> {
+                        do {
+                            final Path path = path();
+                            final AttributeValue operand = value(next());
+                            actions.add(
+                                    action(
+                                            path,
+                                            (original, item) -> {
+                                                final AttributeValue result =
+                                                        deleteFrom(get(original, path), operand);
+                                                return () -> {
+                                                    if (result == null) {
+                                                        remove(item, path);
+                                                    } else {
+                                                        set(item, path, result, false);
+                                                    }
+                                                };
+                                            }));
+                        } while (accept(","));
+                    }
+                    default -> throw syntax("SET, REMOVE, ADD or DELETE", clause);
+                }
+            }
+            if (actions.isEmpty()) {
+                throw InMemoryDynamoDbClient.validation("Update expression is empty");
+            }
+            return new Update(actions);
+        }
+
+        private Action setAction() {
+            final Path path = path();
+            expect("=");
+            final Operand value = setValue();
+            return action(
+                    path,
+                    (original, item) -> {
+                        final AttributeValue result = value.value(original);
+                        if (result == null) {
+                            throw InMemoryDynamoDbClient.validation(
+                                    "The provided expression refers to an attribute that does"
+                                            + " not exist in the item");
+                        }
+                        return () -> set(item, path, result, false);
+                    });
+        }
+
+        private Operand setValue() {
+            final Operand left = setOperand();
+            if (accept("+")) {
+                final Operand right = setOperand();
+                return item -> arithmetic(left.value(item), right.value(item), true);
+            }
+            if (accept("-")) {
+                final Operand right = setOperand();
+                return item -> arithmetic(left.value(item), right.value(item), false);
+            }
+            return left;
+        }
+
+        private Operand setOperand() {
+            final String token = peek();
+            if ("if_not_exists".equalsIgnoreCase(token) && "(".equals(peek(1))) {
+                final Path path = functionPath();
+                expect(",");
+                final Operand fallback = setValue();
+                expect(")");
+                return item -> {
+                    final AttributeValue existing = get(item, path);
+                    return existing != null ? existing : fallback.value(item);
+                };
+            }
+            if ("list_append".equalsIgnoreCase(token) && "(".equals(peek(1))) {
+                next();
+                expect("(");
+                final Operand first = setValue();
+                expect(",");
+                final Operand second = setValue();
+                expect(")");
+                return item -> {
+                    final AttributeValue a = first.value(item);
+                    final AttributeValue b = second.value(item);
+                    if (a == null || b == null || !a.hasL() || !b.hasL()) {
+                        throw InMemoryDynamoDbClient.validation(
+                                "Incorrect operand type for operator or function; operator or"
+                                        + " function: list_append");
+                    }
+                    final List<AttributeValue> list = new ArrayList<>(a.l());
+                    list.addAll(b.l());
+                    return AttributeValue.builder().l(list).build();
+                };
+            }
+            return operand();
+        }
+
+        private static Action action(Path path, ActionBody body) {
+            return new Action() {
+                @Override
+                public Path path() {
+                    return path;
+                }
+
+                @Override
+                public Runnable prepare(
+                        Map<String, AttributeValue> original, Map<String, AttributeValue> item) {
+                    return body.prepare(original, item);
+                }
+            };
+        }
+
+        @FunctionalInterface
+        private interface ActionBody {
+            Runnable prepare(
+                    Map<String, AttributeValue> original, Map<String, AttributeValue> item);
+        }
+
+        // ---- tokens
+
+        private static List<String> tokenize(String expression) {
+            final List<String> tokens = new ArrayList<>();
+            int i = 0;
+            while (i < expression.length()) {
+                final char c = expression.charAt(i);
+                if (Character.isWhitespace(c)) {
+                    i++;
+                } else if (c == '<' || c == '>') {
+                    final boolean twoChar =
+                            i + 1 < expression.length()
+                                    && (expression.charAt(i + 1) == '='
+                                            || (c == '<' && expression.charAt(i + 1) == '>'));
+                    tokens.add(expression.substring(i, twoChar ? i + 2 : i + 1));
+                    i += twoChar ? 2 : 1;
+                } else if ("=(),.[]+-".indexOf(c) >= 0) {
+                    tokens.add(String.valueOf(c));
+                    i++;
+                } else {
+                    final int start = i;
+                    i++;
+                    while (i < expression.length()) {
+                        final char d = expression.charAt(i);
+                        if (!Character.isLetterOrDigit(d) && d != '_') {
+                            break;
+                        }
+                        i++;
+                    }
+                    tokens.add(expression.substring(start, i));
+                }
+            }
+            return tokens;
+        }
+
+        private String peek() {
+            return peek(0);
+        }
+
+        private String peek(int offset) {
+            return position + offset < tokens.size() ? tokens.get(position + offset) : null;
+        }
+
+        private String next() {
+            final String token = peek();
+            if (token != null) {
+                position++;
+            }
+            return token;
+        }
+
+        boolean accept(String token) {
+            if (token.equals(peek())) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        private boolean acceptKeyword(String keyword) {
+            if (keyword.equalsIgnoreCase(peek())) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(String token) {
+            if (!accept(token)) {
+                throw syntax(token, peek());
+            }
+        }
+
+        private void expectKeyword(String keyword) {
+            if (!acceptKeyword(keyword)) {
+                throw syntax(keyword, peek());
+            }
+        }
+
+        void expectEnd() {
+            if (peek() != null) {
+                throw syntax("end of expression", peek());
+            }
+        }
+
+        private RuntimeException syntax(String expected, String found) {
+            return InMemoryDynamoDbClient.validation(
+                    "Invalid expression: expected "
+                            + expected
+                            + " but found "
+                            + (found != null ? "\"" + found + "\"" : "end of expression")
+                            + " in: "
+                            + expression);
+        }
+    }
+
+    /** Approximate stored size of an item in bytes, following DynamoDB's sizing rules. */
+    static long itemSize(Map<String, AttributeValue> item) {
+        long size = 0;
+        for (final Map.Entry<String, AttributeValue> entry : item.entrySet()) {
+            size += entry.getKey().getBytes(StandardCharsets.UTF_8).length;
+            size += valueSize(entry.getValue());
+        }
+        return size;
+    }
+
+    private static long valueSize(AttributeValue value) {
+        if (value.s() != null) {
+            return value.s().getBytes(StandardCharsets.UTF_8).length;
+        }
+        if (value.n() != null) {
+            return value.n().length() / 2 + 1;
+        }
+        if (value.b() != null) {
+            return value.b().asByteArrayUnsafe().length;
+        }
+        if (value.bool() != null || value.nul() != null) {
+            return 1;
+        }
+        if (value.hasSs()) {
+            return value.ss().stream()
+                    .mapToLong(s -> s.getBytes(StandardCharsets.UTF_8).length)
+                    .sum();
+        }
+        if (value.hasNs()) {
+            return value.ns().stream().mapToLong(n -> n.length() / 2 + 1).sum();
+        }
+        if (value.hasBs()) {
+            return value.bs().stream().mapToLong(b -> b.asByteArrayUnsafe().length).sum();
+        }
+        if (value.hasL()) {
+            return 3 + value.l().stream().mapToLong(v -> 1 + valueSize(v)).sum();
+        }
+        if (value.hasM()) {
+            return 3 + itemSize(value.m()) + value.m().size();
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,87 @@
+package com.fullbay.unit.dynamodb;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsResponse;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+/**
+ * {@link DynamoDbAsyncClient} over an {@link InMemoryDynamoDbClient}. Calls complete on another
+ * thread, as SDK futures do. An optional page size is applied to every Query so reactive paging can
+ * be exercised on small tables. Operations outside GetItem, PutItem, Query, BatchGetItem and
+ * TransactWriteItems throw UnsupportedOperationException.
+ */
+public class InMemoryDynamoDbAsyncClient implements DynamoDbAsyncClient {
+
+    private final InMemoryDynamoDbClient delegate;
+    private final Integer queryPageSize;
+    private final Executor executor;
+
+    public InMemoryDynamoDbAsyncClient(InMemoryDynamoDbClient delegate) {
+        this(delegate, null);
+    }
+
+    /**
+     * @param delegate The backing in-memory table
+     * @param queryPageSize Limit applied to every Query, or null for DynamoDB's 1 MB pages
+     */
+    public InMemoryDynamoDbAsyncClient(InMemoryDynamoDbClient delegate, Integer queryPageSize) {
+        this.delegate = delegate;
+        this.queryPageSize = queryPageSize;
+        this.executor = ForkJoinPool.commonPool();
+    }
+
+    @Override
+    public String serviceName() {
+        return delegate.serviceName();
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    @Override
+    public CompletableFuture<GetItemResponse> getItem(GetItemRequest request) {
+        return async(() -> delegate.getItem(request));
+    }
+
+    @Override
+    public CompletableFuture<PutItemResponse> putItem(PutItemRequest request) {
+        return async(() -> delegate.putItem(request));
+    }
+
+    @Override
+    public CompletableFuture<QueryResponse> query(QueryRequest request) {
+        final QueryRequest paged =
+                queryPageSize != null ? request.toBuilder().limit(queryPageSize).build() : request;
+        return async(() -> delegate.query(paged));
+    }
+
+    @Override
+    public CompletableFuture<BatchGetItemResponse> batchGetItem(BatchGetItemRequest request) {
+        return async(() -> delegate.batchGetItem(request));
+    }
+
+    @Override
+    public CompletableFuture<TransactWriteItemsResponse> transactWriteItems(
+            TransactWriteItemsRequest request) {
+        return async(() -> delegate.transactWriteItems(request));
+    }
+
+    private <T> CompletableFuture<T> async(Supplier<T> call) {
+        return CompletableFuture.supplyAsync(call, executor);
+    }
+}
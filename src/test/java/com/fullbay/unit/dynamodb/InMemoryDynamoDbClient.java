@@ -0,0 +1,1448 @@
+package com.fullbay.unit.dynamodb;
+
+import com.fullbay.unit.dynamodb.Expressions.KeyCondition;
+import com.fullbay.unit.dynamodb.Expressions.Path;
+
+import lombok.Builder;
+
+import software.amazon.awssdk.awscore.exception.AwsErrorDetails;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeDefinition;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.CancellationReason;
+import software.amazon.awssdk.services.dynamodb.model.Capacity;
+import software.amazon.awssdk.services.dynamodb.model.ConditionCheck;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.ConsumedCapacity;
+import software.amazon.awssdk.services.dynamodb.model.CreateTableRequest;
+import software.amazon.awssdk.services.dynamodb.model.CreateTableResponse;
+import software.amazon.awssdk.services.dynamodb.model.Delete;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.DeleteTableRequest;
+import software.amazon.awssdk.services.dynamodb.model.DeleteTableResponse;
+import software.amazon.awssdk.services.dynamodb.model.DynamoDbException;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.GlobalSecondaryIndex;
+import software.amazon.awssdk.services.dynamodb.model.KeySchemaElement;
+import software.amazon.awssdk.services.dynamodb.model.KeyType;
+import software.amazon.awssdk.services.dynamodb.model.KeysAndAttributes;
+import software.amazon.awssdk.services.dynamodb.model.ProjectionType;
+import software.amazon.awssdk.services.dynamodb.model.ProvisionedThroughputExceededException;
+import software.amazon.awssdk.services.dynamodb.model.Put;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+import software.amazon.awssdk.services.dynamodb.model.ResourceInUseException;
+import software.amazon.awssdk.services.dynamodb.model.ResourceNotFoundException;
+import software.amazon.awssdk.services.dynamodb.model.ReturnConsumedCapacity;
+import software.amazon.awssdk.services.dynamodb.model.ReturnValue;
+import software.amazon.awssdk.services.dynamodb.model.ReturnValuesOnConditionCheckFailure;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+import software.amazon.awssdk.services.dynamodb.model.Select;
+import software.amazon.awssdk.services.dynamodb.model.TableDescription;
+import software.amazon.awssdk.services.dynamodb.model.TableStatus;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsResponse;
+import software.amazon.awssdk.services.dynamodb.model.TransactionCanceledException;
+import software.amazon.awssdk.services.dynamodb.model.Update;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+/**
+ * In-process {@link DynamoDbClient} for tests and benchmarks. Supports CreateTable/DeleteTable,
+ * GetItem, PutItem, UpdateItem, DeleteItem, Query (table and global secondary indexes), Scan
+ * (including parallel segments), BatchGetItem, BatchWriteItem and TransactWriteItems, with
+ * condition, filter, update and projection expressions.
+ *
+ * <p>Consumed capacity is computed with DynamoDB's rounding rules (4 KB reads, 1 KB writes, GSI
+ * writes, doubled transactional cost), returned when ReturnConsumedCapacity asks for it, and
+ * accumulated in counters. Optional fixed latency, jitter and a throttling probability make
+ * dependency behaviour reproducible; throttled single-item calls throw
+ * ProvisionedThroughputExceededException and throttled batch entries come back unprocessed. No SDK
+ * retries are applied. Operations outside this set throw UnsupportedOperationException.
+ */
+public class InMemoryDynamoDbClient implements DynamoDbClient {
+
+    private static final String SERVICE_NAME = "DynamoDb";
+    private static final long MAX_PAGE_BYTES = 1024 * 1024;
+    private static final int MAX_BATCH_GET = 100;
+    private static final int MAX_BATCH_WRITE = 25;
+    private static final int MAX_TRANSACT_ITEMS = 100;
+
+    private final Map<String, Table> tables = new ConcurrentHashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, LongAdder> operationCounts = new ConcurrentHashMap<>();
+    private final Map<String, double[]> capacityByResource = new ConcurrentHashMap<>();
+
+    private final Duration latency;
+    private final Duration jitter;
+    private final double throttleProbability;
+    private final Random random;
+
+    /** Client with no injected latency or throttling. */
+    public InMemoryDynamoDbClient() {
+        this(null, null, 0.0, null);
+    }
+
+    /**
+     * Client with injected faults.
+     *
+     * @param latency Fixed delay added to every call, or null
+     * @param jitter Upper bound of a uniformly distributed extra delay, or null
+     * @param throttleProbability Probability in [0, 1] that a call or batch entry is throttled
+     * @param seed Seed for jitter and throttling decisions, or null for a random seed
+     */
+    @Builder
+    public InMemoryDynamoDbClient(
+            Duration latency, Duration jitter, double throttleProbability, Long seed) {
+        this.latency = latency != null ? latency : Duration.ZERO;
+        this.jitter = jitter != null ? jitter : Duration.ZERO;
+        this.throttleProbability = throttleProbability;
+        this.random = seed != null ? new Random(seed) : new Random();
+    }
+
+    @Override
+    public String serviceName() {
+        return SERVICE_NAME;
+    }
+
+    @Override
+    public void close() {
+        // Nothing to release
+    }
+
+    // ------------------------------------------------------------------ metering
+
+    /** Number of calls made to an operation, e.g. "Query" or "BatchGetItem". */
+    public long operationCount(String operation) {
+        final LongAdder count = operationCounts.get(operation);
+        return count != null ? count.sum() : 0;
+    }
+
+    /** Total read capacity units consumed across tables and indexes. */
+    public double readCapacityUnits() {
+        return capacityByResource.values().stream().mapToDouble(units -> units[0]).sum();
+    }
+
+    /** Total write capacity units consumed across tables and indexes. */
+    public double writeCapacityUnits() {
+        return capacityByResource.values().stream().mapToDouble(units -> units[1]).sum();
+    }
+
+    /**
+     * Read and write capacity consumed by one table or index.
+     *
+     * @param resource Table name, or "table/indexName" for a global secondary index
+     * @return Two elements: read units, write units
+     */
+    public double[] capacityUnits(String resource) {
+        final double[] units = capacityByResource.get(resource);
+        return units != null ? units.clone() : new double[2];
+    }
+
+    /** Reset operation counts and consumed capacity. Stored items are kept. */
+    public void resetMetrics() {
+        operationCounts.clear();
+        capacityByResource.clear();
+    }
+
+    /** Number of items stored in a table. */
+    public int itemCount(String tableName) {
+        lock.readLock().lock();
+        try {
+            return table(tableName).size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Remove every item from every table, keeping the schemas. */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            tables.values().forEach(Table::clear);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ------------------------------------------------------------------ tables
+
+    @Override
+    public CreateTableResponse createTable(CreateTableRequest request) {
+        enter("CreateTable");
+        lock.writeLock().lock();
+        try {
+            if (tables.containsKey(request.tableName())) {
+                throw error(
+                        ResourceInUseException.builder(),
+                        "ResourceInUseException",
+                        "Table already exists: " + request.tableName());
+            }
+            final Table table = new Table(request);
+            tables.put(request.tableName(), table);
+            return CreateTableResponse.builder().tableDescription(table.describe()).build();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public DeleteTableResponse deleteTable(DeleteTableRequest request) {
+        enter("DeleteTable");
+        lock.writeLock().lock();
+        try {
+            final Table table = table(request.tableName());
+            tables.remove(request.tableName());
+            return DeleteTableResponse.builder().tableDescription(table.describe()).build();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ------------------------------------------------------------------ single-item operations
+
+    @Override
+    public GetItemResponse getItem(GetItemRequest request) {
+        enter("GetItem");
+        throttle();
+        lock.readLock().lock();
+        try {
+            final Table table = table(request.tableName());
+            final Map<String, AttributeValue> item = table.get(table.keyOf(request.key(), true));
+            final Usage usage = new Usage(table.name);
+            usage.read(
+                    null, readUnits(item != null ? itemSize(item) : 0, request.consistentRead()));
+            record(usage);
+
+            final GetItemResponse.Builder response = GetItemResponse.builder();
+            if (item != null) {
+                response.item(
+                        project(
+                                item,
+                                request.projectionExpression(),
+                                request.expressionAttributeNames()));
+            }
+            return response.consumedCapacity(
+                            usage.toConsumedCapacity(request.returnConsumedCapacity()))
+                    .build();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public PutItemResponse putItem(PutItemRequest request) {
+        enter("PutItem");
+        throttle();
+        lock.writeLock().lock();
+        try {
+            final Table table = table(request.tableName());
+            final ItemKey key = table.keyOf(request.item(), false);
+            final Map<String, AttributeValue> old = table.get(key);
+            checkCondition(
+                    old,
+                    request.conditionExpression(),
+                    request.expressionAttributeNames(),
+                    request.expressionAttributeValues(),
+                    request.returnValuesOnConditionCheckFailure());
+
+            final Usage usage = new Usage(table.name);
+            table.write(key, old, request.item(), usage, 1);
+            record(usage);
+
+            final PutItemResponse.Builder response = PutItemResponse.builder();
+            if (old != null && request.returnValues() == ReturnValue.ALL_OLD) {
+                response.attributes(old);
+            }
+            return response.consumedCapacity(
+                            usage.toConsumedCapacity(request.returnConsumedCapacity()))
+                    .build();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public UpdateItemResponse updateItem(UpdateItemRequest request) {
+        enter("UpdateItem");
+        throttle();
+        lock.writeLock().lock();
+        try {
+            final Table table = table(request.tableName());
+            final ItemKey key = table.keyOf(request.key(), true);
+            final Map<String, AttributeValue> old = table.get(key);
+            checkCondition(
+                    old,
+                    request.conditionExpression(),
+                    request.expressionAttributeNames(),
+                    request.expressionAttributeValues(),
+                    request.returnValuesOnConditionCheckFailure());
+
+            final Expressions.Update update =
+                    Expressions.update(
+                            request.updateExpression(),
+                            request.expressionAttributeNames(),
+                            request.expressionAttributeValues());
+            final Map<String, AttributeValue> base = old != null ? old : request.key();
+            final Map<String, AttributeValue> updated = update.apply(base);
+            if (!table.keyOf(updated, false).equals(key)) {
+                throw validation(
+                        "One or more parameter values were invalid: Cannot update attribute"
+                                + " that is part of the key");
+            }
+
+            final Usage usage = new Usage(table.name);
+            table.write(key, old, updated, usage, 1);
+            record(usage);
+
+            final UpdateItemResponse.Builder response = UpdateItemResponse.builder();
+            final ReturnValue returnValue =
+                    request.returnValues() != null ? request.returnValues() : ReturnValue.NONE;
+            switch (returnValue) {
+                case ALL_NEW -> response.attributes(updated);
+                case ALL_OLD -> {
+                    if (old != null) {
+                        response.attributes(old);
+                    }
+                }
+                case UPDATED_NEW -> response.attributes(pick(updated, update.topLevelNames()));
+                case UPDATED_OLD -> {
+                    if (old != null) {
+                        response.attributes(pick(old, update.topLevelNames()));
+                    }
+                }
+                default -> {
+                    // NONE
+                }
+            }
+            return response.consumedCapacity(
+                            usage.toConsumedCapacity(request.returnConsumedCapacity()))
+                    .build();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public DeleteItemResponse deleteItem(DeleteItemRequest request) {
+        enter("DeleteItem");
+        throttle();
+        lock.writeLock().lock();
+        try {
+            final Table table = table(request.tableName());
+            final ItemKey key = table.keyOf(request.key(), true);
+            final Map<String, AttributeValue> old = table.get(key);
+            checkCondition(
+                    old,
+                    request.conditionExpression(),
+                    request.expressionAttributeNames(),
+                    request.expressionAttributeValues(),
+                    request.returnValuesOnConditionCheckFailure());
+
+            final Usage usage = new Usage(table.name);
+            table.write(key, old, null, usage, 1);
+            record(usage);
+
+            final DeleteItemResponse.Builder response = DeleteItemResponse.builder();
+            if (old != null && request.returnValues() == ReturnValue.ALL_OLD) {
+                response.attributes(old);
+            }
+            return response.consumedCapacity(
+                            usage.toConsumedCapacity(request.returnConsumedCapacity()))
+                    .build();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ------------------------------------------------------------------ query and scan
+
+    @Override
+    public QueryResponse query(QueryRequest request) {
+        enter("Query");
+        throttle();
+        lock.readLock().lock();
+        try {
+            final Table table = table(request.tableName());
+            final Index index = table.index(request.indexName());
+            if (request.indexName() != null && Boolean.TRUE.equals(request.consistentRead())) {
+                throw validation("Consistent reads are not supported on global secondary indexes");
+            }
+
+            KeyCondition condition =
+                    Expressions.keyCondition(
+                            request.keyConditionExpression(),
+                            request.expressionAttributeNames(),
+                            request.expressionAttributeValues());
+            if (!condition.hashName().equals(index.hashKey)
+                    && condition.hashName().equals(index.rangeKey)
+                    && index.hashKey.equals(condition.rangeName())
+                    && condition.operator() == Expressions.KeyOperator.EQ) {
+                // Equality terms given in range-then-hash order
+                condition =
+                        new KeyCondition(
+                                condition.rangeName(),
+                                condition.first(),
+                                condition.hashName(),
+                                Expressions.KeyOperator.EQ,
+                                condition.hashValue(),
+                                null);
+            }
+            if (!condition.hashName().equals(index.hashKey)
+                    || (condition.rangeName() != null
+                            && !condition.rangeName().equals(index.rangeKey))) {
+                throw validation("Query condition missed key schema element");
+            }
+
+            final NavigableMap<SortKey, Map<String, AttributeValue>> partition =
+                    index.partition(new Key(condition.hashValue()));
+            final boolean forward = !Boolean.FALSE.equals(request.scanIndexForward());
+            final SortKey start =
+                    request.hasExclusiveStartKey()
+                            ? index.sortKeyOf(request.exclusiveStartKey())
+                            : null;
+
+            NavigableMap<SortKey, Map<String, AttributeValue>> range = partition;
+            if (forward) {
+                if (start != null) {
+                    range = range.tailMap(start, false);
+                } else if (condition.lowerBound() != null) {
+                    range =
+                            range.tailMap(
+                                    new SortKey(new Key(condition.lowerBound()), null, null), true);
+                }
+            } else {
+                range = start != null ? range.headMap(start, false) : range;
+                range = range.descendingMap();
+            }
+
+            final Predicate<Map<String, AttributeValue>> filter =
+                    request.filterExpression() != null
+                            ? Expressions.condition(
+                                    request.filterExpression(),
+                                    request.expressionAttributeNames(),
+                                    request.expressionAttributeValues())
+                            : item -> true;
+            final List<Path> projection =
+                    request.projectionExpression() != null
+                            ? Expressions.projection(
+                                    request.projectionExpression(),
+                                    request.expressionAttributeNames())
+                            : null;
+
+            final Page page = new Page(request.limit());
+            for (final Map.Entry<SortKey, Map<String, AttributeValue>> entry : range.entrySet()) {
+                final AttributeValue rangeValue =
+                        entry.getKey().range() != null ? entry.getKey().range().value() : null;
+                if (forward
+                        ? condition.pastUpperBound(rangeValue)
+                        : condition.pastLowerBound(rangeValue)) {
+                    page.exhausted();
+                    break;
+                }
+                if (!condition.rangeMatches(rangeValue)) {
+                    continue;
+                }
+                final Map<String, AttributeValue> item = index.project(entry.getValue());
+                if (!page.add(item, index.keyAttributes(item), filter, projection)) {
+                    break;
+                }
+            }
+
+            final Usage usage = new Usage(table.name);
+            usage.read(index.name, readUnits(page.bytes, request.consistentRead()));
+            record(usage);
+
+            final QueryResponse.Builder response =
+                    QueryResponse.builder().count(page.items.size()).scannedCount(page.scanned);
+            if (request.select() != Select.COUNT) {
+                response.items(page.items);
+            }
+            if (page.lastEvaluatedKey != null) {
+                response.lastEvaluatedKey(page.lastEvaluatedKey);
+            }
+            return response.consumedCapacity(
+                            usage.toConsumedCapacity(request.returnConsumedCapacity()))
+                    .build();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public ScanResponse scan(ScanRequest request) {
+        enter("Scan");
+        throttle();
+        lock.readLock().lock();
+        try {
+            final Table table = table(request.tableName());
+            final Index index = table.index(request.indexName());
+            final int totalSegments = request.totalSegments() != null ? request.totalSegments() : 1;
+            final int segment = request.segment() != null ? request.segment() : 0;
+            if (segment < 0 || segment >= totalSegments) {
+                throw validation("Segment must be within [0, TotalSegments)");
+            }
+
+            final Predicate<Map<String, AttributeValue>> filter =
+                    request.filterExpression() != null
+                            ? Expressions.condition(
+                                    request.filterExpression(),
+                                    request.expressionAttributeNames(),
+                                    request.expressionAttributeValues())
+                            : item -> true;
+            final List<Path> projection =
+                    request.projectionExpression() != null
+                            ? Expressions.projection(
+                                    request.projectionExpression(),
+                                    request.expressionAttributeNames())
+                            : null;
+
+            NavigableMap<Key, NavigableMap<SortKey, Map<String, AttributeValue>>> partitions =
+                    index.partitions;
+            Key startHash = null;
+            SortKey startSort = null;
+            if (request.hasExclusiveStartKey()) {
+                startHash = new Key(request.exclusiveStartKey().get(index.hashKey));
+                startSort = index.sortKeyOf(request.exclusiveStartKey());
+                partitions = partitions.tailMap(startHash, true);
+            }
+
+            final Page page = new Page(request.limit());
+            outer:
+            for (final Map.Entry<Key, NavigableMap<SortKey, Map<String, AttributeValue>>>
+                    partition : partitions.entrySet()) {
+                if (Math.floorMod(partition.getKey().hashCode(), totalSegments) != segment) {
+                    continue;
+                }
+                NavigableMap<SortKey, Map<String, AttributeValue>> items = partition.getValue();
+                if (partition.getKey().equals(startHash)) {
+                    items = items.tailMap(startSort, false);
+                }
+                for (final Map<String, AttributeValue> stored : items.values()) {
+                    final Map<String, AttributeValue> item = index.project(stored);
+                    if (!page.add(item, index.keyAttributes(item), filter, projection)) {
+                        break outer;
+                    }
+                }
+            }
+
+            final Usage usage = new Usage(table.name);
+            usage.read(index.name, readUnits(page.bytes, request.consistentRead()));
+            record(usage);
+
+            final ScanResponse.Builder response =
+                    ScanResponse.builder().count(page.items.size()).scannedCount(page.scanned);
+            if (request.select() != Select.COUNT) {
+                response.items(page.items);
+            }
+            if (page.lastEvaluatedKey != null) {
+                response.lastEvaluatedKey(page.lastEvaluatedKey);
+            }
+            return response.consumedCapacity(
+                            usage.toConsumedCapacity(request.returnConsumedCapacity()))
+                    .build();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ------------------------------------------------------------------ batch operations
+
+    @Override
+    public BatchGetItemResponse batchGetItem(BatchGetItemRequest request) {
+        enter("BatchGetItem");
+        final int keyCount =
+                request.requestItems().values().stream().mapToInt(k -> k.keys().size()).sum();
+        if (keyCount > MAX_BATCH_GET) {
+            throw validation("Too many items requested for the BatchGetItem call");
+        }
+        final boolean throttleAll = throttled();
+        lock.readLock().lock();
+        try {
+            final Map<String, List<Map<String, AttributeValue>>> responses = new HashMap<>();
+            final Map<String, KeysAndAttributes> unprocessed = new HashMap<>();
+            final Map<String, Usage> usages = new LinkedHashMap<>();
+
+            for (final Map.Entry<String, KeysAndAttributes> entry :
+                    request.requestItems().entrySet()) {
+                final Table table = table(entry.getKey());
+                final KeysAndAttributes keys = entry.getValue();
+                final Usage usage = usages.computeIfAbsent(table.name, Usage::new);
+                final List<Map<String, AttributeValue>> found = new ArrayList<>();
+                final List<Map<String, AttributeValue>> skipped = new ArrayList<>();
+
+                for (final Map<String, AttributeValue> key : keys.keys()) {
+                    if (throttleAll || throttled()) {
+                        skipped.add(key);
+                        continue;
+                    }
+                    final Map<String, AttributeValue> item = table.get(table.keyOf(key, true));
+                    usage.read(
+                            null,
+                            readUnits(item != null ? itemSize(item) : 0, keys.consistentRead()));
+                    if (item != null) {
+                        found.add(
+                                project(
+                                        item,
+                                        keys.projectionExpression(),
+                                        keys.expressionAttributeNames()));
+                    }
+                }
+                responses.put(table.name, found);
+                if (!skipped.isEmpty()) {
+                    unprocessed.put(table.name, keys.toBuilder().keys(skipped).build());
+                }
+            }
+            if (keyCount > 0
+                    && unprocessed.values().stream().mapToInt(k -> k.keys().size()).sum()
+                            == keyCount) {
+                throw throughputExceeded();
+            }
+            usages.values().forEach(this::record);
+
+            return BatchGetItemResponse.builder()
+                    .responses(responses)
+                    .unprocessedKeys(unprocessed)
+                    .consumedCapacity(consumedCapacity(usages, request.returnConsumedCapacity()))
+                    .build();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public BatchWriteItemResponse batchWriteItem(BatchWriteItemRequest request) {
+        enter("BatchWriteItem");
+        final int writeCount = request.requestItems().values().stream().mapToInt(List::size).sum();
+        if (writeCount > MAX_BATCH_WRITE) {
+            throw validation("Too many items requested for the BatchWriteItem call");
+        }
+        final boolean throttleAll = throttled();
+        lock.writeLock().lock();
+        try {
+            final Map<String, List<WriteRequest>> unprocessed = new HashMap<>();
+            final Map<String, Usage> usages = new LinkedHashMap<>();
+
+            for (final Map.Entry<String, List<WriteRequest>> entry :
+                    request.requestItems().entrySet()) {
+                final Table table = table(entry.getKey());
+                final Usage usage = usages.computeIfAbsent(table.name, Usage::new);
+                for (final WriteRequest write : entry.getValue()) {
+                    if (throttleAll || throttled()) {
+                        unprocessed.computeIfAbsent(table.name, t -> new ArrayList<>()).add(write);
+                        continue;
+                    }
+                    if (write.putRequest() != null) {
+                        final Map<String, AttributeValue> item = write.putRequest().item();
+                        final ItemKey key = table.keyOf(item, false);
+                        table.write(key, table.get(key), item, usage, 1);
+                    } else {
+                        final ItemKey key = table.keyOf(write.deleteRequest().key(), true);
+                        table.write(key, table.get(key), null, usage, 1);
+                    }
+                }
+            }
+            if (writeCount > 0
+                    && unprocessed.values().stream().mapToInt(List::size).sum() == writeCount) {
+                throw throughputExceeded();
+            }
+            usages.values().forEach(this::record);
+
+            return BatchWriteItemResponse.builder()
+                    .unprocessedItems(unprocessed)
+                    .consumedCapacity(consumedCapacity(usages, request.returnConsumedCapacity()))
+                    .build();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public TransactWriteItemsResponse transactWriteItems(TransactWriteItemsRequest request) {
+        enter("TransactWriteItems");
+        if (request.transactItems().size() > MAX_TRANSACT_ITEMS) {
+            throw validation("Member must have length less than or equal to 100");
+        }
+        throttle();
+        lock.writeLock().lock();
+        try {
+            // Validate every condition first; nothing is written unless all pass
+            final List<Runnable> writes = new ArrayList<>();
+            final List<CancellationReason> reasons = new ArrayList<>();
+            final Map<String, Usage> usages = new LinkedHashMap<>();
+            final java.util.Set<String> touched = new java.util.HashSet<>();
+            boolean cancelled = false;
+
+            for (final TransactWriteItem transactItem : request.transactItems()) {
+                final TransactTarget target = TransactTarget.of(transactItem);
+                final Table table = table(target.tableName());
+                final ItemKey key = table.keyOf(target.key(), target.keyOnly());
+                if (!touched.add(table.name + "|" + key)) {
+                    throw validation(
+                            "Transaction request cannot include multiple operations on one item");
+                }
+                final Map<String, AttributeValue> old = table.get(key);
+                final boolean passes =
+                        target.conditionExpression() == null
+                                || Expressions.condition(
+                                                target.conditionExpression(),
+                                                target.names(),
+                                                target.values())
+                                        .test(old != null ? old : Map.of());
+                if (!passes) {
+                    cancelled = true;
+                    final CancellationReason.Builder reason =
+                            CancellationReason.builder()
+                                    .code("ConditionalCheckFailed")
+                                    .message("The conditional request failed");
+                    if (old != null
+                            && target.returnValuesOnConditionCheckFailure()
+                                    == ReturnValuesOnConditionCheckFailure.ALL_OLD) {
+                        reason.item(old);
+                    }
+                    reasons.add(reason.build());
+                    continue;
+                }
+                reasons.add(CancellationReason.builder().code("None").build());
+
+                final Usage usage = usages.computeIfAbsent(table.name, Usage::new);
+                if (transactItem.put() != null) {
+                    final Map<String, AttributeValue> item = transactItem.put().item();
+                    writes.add(() -> table.write(key, old, item, usage, 2));
+                } else if (transactItem.update() != null) {
+                    final Update update = transactItem.update();
+                    final Map<String, AttributeValue> updated =
+                            Expressions.update(
+                                            update.updateExpression(),
+                                            update.expressionAttributeNames(),
+                                            update.expressionAttributeValues())
+                                    .apply(old != null ? old : update.key());
+                    writes.add(() -> table.write(key, old, updated, usage, 2));
+                } else if (transactItem.delete() != null) {
+                    writes.add(() -> table.write(key, old, null, usage, 2));
+                } else {
+                    // ConditionCheck consumes a read-sized write unit
+                    usage.write(null, 2 * writeUnits(old != null ? itemSize(old) : 0));
+                }
+            }
+
+            if (cancelled) {
+                throw TransactionCanceledException.builder()
+                        .message(
+                                "Transaction cancelled, please refer cancellation reasons for"
+                                        + " specific reasons")
+                        .cancellationReasons(reasons)
+                        .statusCode(400)
+                        .awsErrorDetails(
+                                AwsErrorDetails.builder()
+                                        .errorCode("TransactionCanceledException")
+                                        .serviceName(SERVICE_NAME)
+                                        .build())
+                        .build();
+            }
+            writes.forEach(Runnable::run);
+            usages.values().forEach(this::record);
+
+            return TransactWriteItemsResponse.builder()
+                    .consumedCapacity(consumedCapacity(usages, request.returnConsumedCapacity()))
+                    .build();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ------------------------------------------------------------------ helpers
+
+    private void enter(String operation) {
+        operationCounts.computeIfAbsent(operation, o -> new LongAdder()).increment();
+        long nanos = latency.toNanos();
+        if (!jitter.isZero()) {
+            synchronized (random) {
+                nanos += (long) (random.nextDouble() * jitter.toNanos());
+            }
+        }
+        if (nanos > 0) {
+            try {
+                Thread.sleep(nanos / 1_000_000, (int) (nanos % 1_000_000));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private boolean throttled() {
+        if (throttleProbability <= 0) {
+            return false;
+        }
+        synchronized (random) {
+            return random.nextDouble() < throttleProbability;
+        }
+    }
+
+    private void throttle() {
+        if (throttled()) {
+            throw throughputExceeded();
+        }
+    }
+
+    private static ProvisionedThroughputExceededException throughputExceeded() {
+        return (ProvisionedThroughputExceededException)
+                error(
+                        ProvisionedThroughputExceededException.builder(),
+                        "ProvisionedThroughputExceededException",
+                        "The level of configured provisioned throughput for the table was"
+                                + " exceeded");
+    }
+
+    static DynamoDbException validation(String message) {
+        return error(DynamoDbException.builder(), "ValidationException", message);
+    }
+
+    private static DynamoDbException error(
+            DynamoDbException.Builder builder, String code, String message) {
+        return (DynamoDbException)
+                builder.message(message)
+                        .statusCode(400)
+                        .awsErrorDetails(
+                                AwsErrorDetails.builder()
+                                        .errorCode(code)
+                                        .errorMessage(message)
+                                        .serviceName(SERVICE_NAME)
+                                        .build())
+                        .build();
+    }
+
+    private Table table(String name) {
+        final Table table = tables.get(name);
+        if (table == null) {
+            throw error(
+                    ResourceNotFoundException.builder(),
+                    "ResourceNotFoundException",
+                    "Requested resource not found: Table: " + name + " not found");
+        }
+        return table;
+    }
+
+    private static void checkCondition(
+            Map<String, AttributeValue> old,
+            String expression,
+            Map<String, String> names,
+            Map<String, AttributeValue> values,
+            ReturnValuesOnConditionCheckFailure returnOnFailure) {
+        if (expression == null) {
+            return;
+        }
+        if (!Expressions.condition(expression, names, values).test(old != null ? old : Map.of())) {
+            final ConditionalCheckFailedException.Builder failure =
+                    ConditionalCheckFailedException.builder();
+            if (old != null && returnOnFailure == ReturnValuesOnConditionCheckFailure.ALL_OLD) {
+                failure.item(old);
+            }
+            throw error(
+                    failure, "ConditionalCheckFailedException", "The conditional request failed");
+        }
+    }
+
+    private static Map<String, AttributeValue> project(
+            Map<String, AttributeValue> item, String expression, Map<String, String> names) {
+        return expression != null
+                ? Expressions.project(item, Expressions.projection(expression, names))
+                : item;
+    }
+
+    private static Map<String, AttributeValue> pick(
+            Map<String, AttributeValue> item, Collection<String> names) {
+        final Map<String, AttributeValue> picked = new HashMap<>();
+        names.forEach(
+                name -> {
+                    if (item.containsKey(name)) {
+                        picked.put(name, item.get(name));
+                    }
+                });
+        return picked;
+    }
+
+    private static long itemSize(Map<String, AttributeValue> item) {
+        return Expressions.itemSize(item);
+    }
+
+    /** Reads are billed per 4 KB (rounded up, minimum one); eventually consistent reads half. */
+    private static double readUnits(long bytes, Boolean consistentRead) {
+        final double units = Math.max(1, Math.ceil(bytes / 4096.0));
+        return Boolean.TRUE.equals(consistentRead) ? units : units / 2;
+    }
+
+    /** Writes are billed per 1 KB (rounded up, minimum one). */
+    private static double writeUnits(long bytes) {
+        return Math.max(1, Math.ceil(bytes / 1024.0));
+    }
+
+    private void record(Usage usage) {
+        usage.units.forEach(
+                (resource, units) -> {
+                    final String key =
+                            resource.isEmpty() ? usage.table : usage.table + "/" + resource;
+                    final double[] totals =
+                            capacityByResource.computeIfAbsent(key, k -> new double[2]);
+                    synchronized (totals) {
+                        totals[0] += units[0];
+                        totals[1] += units[1];
+                    }
+                });
+    }
+
+    private static List<ConsumedCapacity> consumedCapacity(
+            Map<String, Usage> usages, ReturnConsumedCapacity mode) {
+        if (mode == null || mode == ReturnConsumedCapacity.NONE) {
+            return null;
+        }
+        return usages.values().stream().map(usage -> usage.toConsumedCapacity(mode)).toList();
+    }
+
+    // ------------------------------------------------------------------ model
+
+    /** Comparable wrapper for a scalar key attribute. */
+    private record Key(AttributeValue value) implements Comparable<Key> {
+
+        @Override
+        public int compareTo(Key other) {
+            final Integer cmp = Expressions.compare(value, other.value);
+            return cmp != null ? cmp : 0;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key key && compareTo(key) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return value.s() != null
+                    ? value.s().hashCode()
+                    : value.n() != null
+                            ? new java.math.BigDecimal(value.n()).stripTrailingZeros().hashCode()
+                            : value.b().hashCode();
+        }
+    }
+
+    /**
+     * Position of an item inside a partition: the (index) sort key, then the table key so index
+     * entries with equal sort keys stay distinct. Null components sort first.
+     */
+    private record SortKey(Key range, Key tableHash, Key tableRange)
+            implements Comparable<SortKey> {
+
+        private static final Comparator<Key> NULLS_FIRST =
+                Comparator.nullsFirst(Comparator.naturalOrder());
+
+        @Override
+        public int compareTo(SortKey other) {
+            int cmp = NULLS_FIRST.compare(range, other.range);
+            if (cmp == 0) {
+                cmp = NULLS_FIRST.compare(tableHash, other.tableHash);
+            }
+            if (cmp == 0) {
+                cmp = NULLS_FIRST.compare(tableRange, other.tableRange);
+            }
+            return cmp;
+        }
+    }
+
+    /** Primary key of an item. */
+    private record ItemKey(Key hash, Key range) {}
+
+    /** Table or global secondary index storage: hash key to sorted partition. */
+    private static final class Index {
+
+        private final String name;
+        private final String hashKey;
+        private final String rangeKey;
+        private final ProjectionType projection;
+        private final List<String> nonKeyAttributes;
+        private final String tableHashKey;
+        private final String tableRangeKey;
+        private final NavigableMap<Key, NavigableMap<SortKey, Map<String, AttributeValue>>>
+                partitions = new TreeMap<>();
+
+        Index(
+                String name,
+                String hashKey,
+                String rangeKey,
+                ProjectionType projection,
+                List<String> nonKeyAttributes,
+                String tableHashKey,
+                String tableRangeKey) {
+            this.name = name;
+            this.hashKey = hashKey;
+            this.rangeKey = rangeKey;
+            this.projection = projection;
+            this.nonKeyAttributes = nonKeyAttributes;
+            this.tableHashKey = tableHashKey;
+            this.tableRangeKey = tableRangeKey;
+        }
+
+        boolean isTable() {
+            return name == null;
+        }
+
+        NavigableMap<SortKey, Map<String, AttributeValue>> partition(Key hash) {
+            final NavigableMap<SortKey, Map<String, AttributeValue>> partition =
+                    partitions.get(hash);
+            return partition != null ? partition : new TreeMap<>();
+        }
+
+        /** Whether an item has this index's key attributes (sparse indexes skip it otherwise). */
+        boolean indexes(Map<String, AttributeValue> item) {
+            return item != null
+                    && scalar(item.get(hashKey))
+                    && (rangeKey == null || scalar(item.get(rangeKey)));
+        }
+
+        private static boolean scalar(AttributeValue value) {
+            return value != null && (value.s() != null || value.n() != null || value.b() != null);
+        }
+
+        SortKey sortKeyOf(Map<String, AttributeValue> item) {
+            final Key range = rangeKey != null ? key(item, rangeKey) : null;
+            if (isTable()) {
+                return new SortKey(range, null, null);
+            }
+            return new SortKey(
+                    range,
+                    key(item, tableHashKey),
+                    tableRangeKey != null ? key(item, tableRangeKey) : null);
+        }
+
+        private static Key key(Map<String, AttributeValue> item, String attribute) {
+            final AttributeValue value = item.get(attribute);
+            if (value == null) {
+                throw validation("The provided starting key is invalid: missing " + attribute);
+            }
+            return new Key(value);
+        }
+
+        void put(Map<String, AttributeValue> item) {
+            partitions
+                    .computeIfAbsent(new Key(item.get(hashKey)), k -> new TreeMap<>())
+                    .put(sortKeyOf(item), item);
+        }
+
+        void remove(Map<String, AttributeValue> item) {
+            final Key hash = new Key(item.get(hashKey));
+            final NavigableMap<SortKey, Map<String, AttributeValue>> partition =
+                    partitions.get(hash);
+            if (partition != null) {
+                partition.remove(sortKeyOf(item));
+                if (partition.isEmpty()) {
+                    partitions.remove(hash);
+                }
+            }
+        }
+
+        /** Attributes of the item visible through this index. */
+        Map<String, AttributeValue> project(Map<String, AttributeValue> item) {
+            if (isTable() || projection == ProjectionType.ALL) {
+                return item;
+            }
+            final Map<String, AttributeValue> projected = new HashMap<>();
+            for (final String attribute : keyAttributeNames()) {
+                if (item.containsKey(attribute)) {
+                    projected.put(attribute, item.get(attribute));
+                }
+            }
+            if (projection == ProjectionType.INCLUDE) {
+                nonKeyAttributes.forEach(
+                        attribute -> {
+                            if (item.containsKey(attribute)) {
+                                projected.put(attribute, item.get(attribute));
+                            }
+                        });
+            }
+            return projected;
+        }
+
+        /** LastEvaluatedKey attributes for an item: table key plus index key. */
+        Map<String, AttributeValue> keyAttributes(Map<String, AttributeValue> item) {
+            final Map<String, AttributeValue> keys = new HashMap<>();
+            for (final String attribute : keyAttributeNames()) {
+                if (item.containsKey(attribute)) {
+                    keys.put(attribute, item.get(attribute));
+                }
+            }
+            return keys;
+        }
+
+        private List<String> keyAttributeNames() {
+            final List<String> names = new ArrayList<>();
+            names.add(tableHashKey);
+            if (tableRangeKey != null) {
+                names.add(tableRangeKey);
+            }
+            names.add(hashKey);
+            if (rangeKey != null) {
+                names.add(rangeKey);
+            }
+            return names;
+        }
+    }
+
+    /** A table with its key schema, items and global secondary indexes. */
+    private static final class Table {
+
+        private final String name;
+        private final CreateTableRequest definition;
+        private final Index primary;
+        private final Map<String, Index> indexes = new LinkedHashMap<>();
+        private final Map<String, String> attributeTypes = new HashMap<>();
+
+        Table(CreateTableRequest request) {
+            this.name = request.tableName();
+            this.definition = request;
+            for (final AttributeDefinition attribute : request.attributeDefinitions()) {
+                attributeTypes.put(attribute.attributeName(), attribute.attributeTypeAsString());
+            }
+            final String hashKey = keyName(request.keySchema(), KeyType.HASH);
+            final String rangeKey = keyName(request.keySchema(), KeyType.RANGE);
+            this.primary =
+                    new Index(
+                            null,
+                            hashKey,
+                            rangeKey,
+                            ProjectionType.ALL,
+                            List.of(),
+                            hashKey,
+                            rangeKey);
+            for (final GlobalSecondaryIndex gsi : request.globalSecondaryIndexes()) {
+                indexes.put(
+                        gsi.indexName(),
+                        new Index(
+                                gsi.indexName(),
+                                keyName(gsi.keySchema(), KeyType.HASH),
+                                keyName(gsi.keySchema(), KeyType.RANGE),
+                                gsi.projection().projectionType(),
+                                gsi.projection().nonKeyAttributes(),
+                                hashKey,
+                                rangeKey));
+            }
+        }
+
+        private static String keyName(List<KeySchemaElement> schema, KeyType type) {
+            return schema.stream()
+                    .filter(element -> element.keyType() == type)
+                    .map(KeySchemaElement::attributeName)
+                    .findFirst()
+                    .orElse(null);
+        }
+
+        TableDescription describe() {
+            return TableDescription.builder()
+                    .tableName(name)
+                    .tableStatus(TableStatus.ACTIVE)
+                    .keySchema(definition.keySchema())
+                    .attributeDefinitions(definition.attributeDefinitions())
+                    .itemCount((long) size())
+                    .build();
+        }
+
+        Index index(String indexName) {
+            if (indexName == null) {
+                return primary;
+            }
+            final Index index = indexes.get(indexName);
+            if (index == null) {
+                throw validation("The table does not have the specified index: " + indexName);
+            }
+            return index;
+        }
+
+        int size() {
+            return primary.partitions.values().stream().mapToInt(Map::size).sum();
+        }
+
+        void clear() {
+            primary.partitions.clear();
+            indexes.values().forEach(index -> index.partitions.clear());
+        }
+
+        /**
+         * Extract and validate the primary key of an item or key map.
+         *
+         * @param exact Whether the map must contain only key attributes
+         */
+        ItemKey keyOf(Map<String, AttributeValue> attributes, boolean exact) {
+            final int expected = primary.rangeKey != null ? 2 : 1;
+            if (exact && attributes.size() != expected) {
+                throw validation("The provided key element does not match the schema");
+            }
+            final Key hash = keyValue(attributes, primary.hashKey);
+            final Key range =
+                    primary.rangeKey != null ? keyValue(attributes, primary.rangeKey) : null;
+            return new ItemKey(hash, range);
+        }
+
+        private Key keyValue(Map<String, AttributeValue> attributes, String attribute) {
+            final AttributeValue value = attributes.get(attribute);
+            final String type = attributeTypes.getOrDefault(attribute, "S");
+            final boolean matches =
+                    value != null
+                            && switch (type) {
+                                case "N" -> value.n() != null;
+                                case "B" -> value.b() != null;
+                                default -> value.s() != null && !value.s().isEmpty();
+                            };
+            if (!matches) {
+                throw validation(
+                        "One or more parameter values were invalid: Missing the key "
+                                + attribute
+                                + " in the item");
+            }
+            return new Key(value);
+        }
+
+        Map<String, AttributeValue> get(ItemKey key) {
+            final NavigableMap<SortKey, Map<String, AttributeValue>> partition =
+                    primary.partitions.get(key.hash());
+            return partition != null ? partition.get(new SortKey(key.range(), null, null)) : null;
+        }
+
+        /**
+         * Replace (or delete, when item is null) the item at a key, maintaining indexes and
+         * charging write capacity.
+         */
+        void write(
+                ItemKey key,
+                Map<String, AttributeValue> old,
+                Map<String, AttributeValue> item,
+                Usage usage,
+                int multiplier) {
+            final Map<String, AttributeValue> stored = item != null ? Map.copyOf(item) : null;
+            usage.write(
+                    null,
+                    multiplier
+                            * writeUnits(
+                                    Math.max(
+                                            old != null ? itemSize(old) : 0,
+                                            stored != null ? itemSize(stored) : 0)));
+            if (old != null) {
+                primary.remove(old);
+            }
+            if (stored != null) {
+                primary.put(stored);
+            }
+
+            for (final Index index : indexes.values()) {
+                final boolean wasIndexed = index.indexes(old);
+                final boolean isIndexed = index.indexes(stored);
+                if (wasIndexed) {
+                    index.remove(old);
+                }
+                if (isIndexed) {
+                    index.put(stored);
+                }
+                // One index write per projected item removed or added; an in-place change
+                // costs one write, and nothing when no projected attribute changed
+                final int writes;
+                if (wasIndexed && isIndexed) {
+                    final boolean moved =
+                            !new Key(old.get(index.hashKey))
+                                            .equals(new Key(stored.get(index.hashKey)))
+                                    || index.sortKeyOf(old).compareTo(index.sortKeyOf(stored)) != 0;
+                    writes = moved ? 2 : index.project(old).equals(index.project(stored)) ? 0 : 1;
+                } else {
+                    writes = wasIndexed || isIndexed ? 1 : 0;
+                }
+                if (writes > 0) {
+                    final long size = itemSize(index.project(isIndexed ? stored : old));
+                    usage.write(index.name, multiplier * writes * writeUnits(size));
+                }
+            }
+        }
+    }
+
+    /** Items collected for a Query or Scan page, honouring Limit and the 1 MB page size. */
+    private static final class Page {
+
+        private final Integer limit;
+        private final List<Map<String, AttributeValue>> items = new ArrayList<>();
+        private int scanned;
+        private long bytes;
+        private Map<String, AttributeValue> lastEvaluatedKey;
+        private Map<String, AttributeValue> lastKey;
+
+        Page(Integer limit) {
+            this.limit = limit;
+        }
+
+        /**
+         * Evaluate one item.
+         *
+         * @return Whether the page has room for more
+         */
+        boolean add(
+                Map<String, AttributeValue> stored,
+                Map<String, AttributeValue> key,
+                Predicate<Map<String, AttributeValue>> filter,
+                List<Path> projection) {
+            if ((limit != null && scanned >= limit) || bytes >= MAX_PAGE_BYTES) {
+                lastEvaluatedKey = lastKey;
+                return false;
+            }
+            scanned++;
+            bytes += itemSize(stored);
+            lastKey = key;
+            if (filter.test(stored)) {
+                items.add(projection != null ? Expressions.project(stored, projection) : stored);
+            }
+            return true;
+        }
+
+        /** The key condition excludes everything after this point; no continuation needed. */
+        void exhausted() {
+            lastEvaluatedKey = null;
+        }
+    }
+
+    /** Capacity consumed by one request against one table, split by table and index. */
+    private static final class Usage {
+
+        private final String table;
+        private final Map<String, double[]> units = new LinkedHashMap<>();
+
+        Usage(String table) {
+            this.table = table;
+        }
+
+        void read(String index, double amount) {
+            units.computeIfAbsent(index != null ? index : "", k -> new double[2])[0] += amount;
+        }
+
+        void write(String index, double amount) {
+            units.computeIfAbsent(index != null ? index : "", k -> new double[2])[1] += amount;
+        }
+
+        ConsumedCapacity toConsumedCapacity(ReturnConsumedCapacity mode) {
+            if (mode == null || mode == ReturnConsumedCapacity.NONE) {
+                return null;
+            }
+            double read = 0;
+            double write = 0;
+            for (final double[] amounts : units.values()) {
+                read += amounts[0];
+                write += amounts[1];
+            }
+            final ConsumedCapacity.Builder capacity =
+                    ConsumedCapacity.builder()
+                            .tableName(table)
+                            .capacityUnits(read + write)
+                            .readCapacityUnits(read)
+                            .writeCapacityUnits(write);
+            if (mode == ReturnConsumedCapacity.INDEXES) {
+                final Map<String, Capacity> indexes = new HashMap<>();
+                units.forEach(
+                        (resource, amounts) -> {
+                            final Capacity c =
+                                    Capacity.builder()
+                                            .capacityUnits(amounts[0] + amounts[1])
+                                            .readCapacityUnits(amounts[0])
+                                            .writeCapacityUnits(amounts[1])
+                                            .build();
+                            if (resource.isEmpty()) {
+                                capacity.table(c);
+                            } else {
+                                indexes.put(resource, c);
+                            }
+                        });
+                if (!indexes.isEmpty()) {
+                    capacity.globalSecondaryIndexes(indexes);
+                }
+            }
+            return capacity.build();
+        }
+    }
+
+    /** Uniform view of the four TransactWriteItem shapes. */
+    private record TransactTarget(
+            String tableName,
+            Map<String, AttributeValue> key,
+            boolean keyOnly,
+            String conditionExpression,
+            Map<String, String> names,
+            Map<String, AttributeValue> values,
+            ReturnValuesOnConditionCheckFailure returnValuesOnConditionCheckFailure) {
+
+        static TransactTarget of(TransactWriteItem item) {
+            if (item.put() != null) {
+                final Put put = item.put();
+                return new TransactTarget(
+                        put.tableName(),
+                        put.item(),
+                        false,
+                        put.conditionExpression(),
+                        put.expressionAttributeNames(),
+                        put.expressionAttributeValues(),
+                        put.returnValuesOnConditionCheckFailure());
+            }
+            if (item.update() != null) {
+                final Update update = item.update();
+                return new TransactTarget(
+                        update.tableName(),
+                        update.key(),
+                        true,
+                        update.conditionExpression(),
+                        update.expressionAttributeNames(),
+                        update.expressionAttributeValues(),
+                        update.returnValuesOnConditionCheckFailure());
+            }
+            if (item.delete() != null) {
+                final Delete delete = item.delete();
+                return new TransactTarget(
+                        delete.tableName(),
+                        delete.key(),
+                        true,
+                        delete.conditionExpression(),
+                        delete.expressionAttributeNames(),
+                        delete.expressionAttributeValues(),
+                        delete.returnValuesOnConditionCheckFailure());
+            }
+            final ConditionCheck check = item.conditionCheck();
+            if (check == null) {
+                throw validation("TransactItems entry has no operation");
+            }
+            return new TransactTarget(
+                    check.tableName(),
+                    check.key(),
+                    true,
+                    check.conditionExpression(),
+                    check.expressionAttributeNames(),
+                    check.expressionAttributeValues(),
+                    check.returnValuesOnConditionCheckFailure());
+        }
+    }
+}
@@ -0,0 +1,314 @@
+package com.fullbay.unit.dynamodb;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.ConsumedCapacity;
+import software.amazon.awssdk.services.dynamodb.model.ProvisionedThroughputExceededException;
+import software.amazon.awssdk.services.dynamodb.model.PutRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+import software.amazon.awssdk.services.dynamodb.model.ReturnConsumedCapacity;
+import software.amazon.awssdk.services.dynamodb.model.ReturnValue;
+import software.amazon.awssdk.services.dynamodb.model.ReturnValuesOnConditionCheckFailure;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
+import software.amazon.awssdk.services.dynamodb.model.TransactionCanceledException;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+class InMemoryDynamoDbClientTest {
+
+    private static final String TABLE = "g-unit-service-test";
+
+    private InMemoryDynamoDbClient client;
+
+    @BeforeEach
+    void setUp() {
+        client = UnitTableSchema.inMemory(TABLE);
+    }
+
+    @Test
+    void shouldPutAndGetItem() {
+        client.putItem(req -> req.tableName(TABLE).item(unit("u1", "c1", "VIN1")));
+
+        final Map<String, AttributeValue> item =
+                client.getItem(req -> req.tableName(TABLE).key(key("UNT#u1"))).item();
+
+        assertEquals("c1", item.get("customerId").s());
+        assertFalse(client.getItem(req -> req.tableName(TABLE).key(key("UNT#u2"))).hasItem());
+    }
+
+    @Test
+    void shouldRejectPutWhenConditionFailsAndReturnOldItem() {
+        client.putItem(req -> req.tableName(TABLE).item(unit("u1", "c1", "VIN1")));
+
+        final ConditionalCheckFailedException e =
+                assertThrows(
+                        ConditionalCheckFailedException.class,
+                        () ->
+                                client.putItem(
+                                        req ->
+                                                req.tableName(TABLE)
+                                                        .item(unit("u1", "c2", "VIN2"))
+                                                        .conditionExpression(
+                                                                "attribute_not_exists(PK)")
+                                                        .returnValuesOnConditionCheckFailure(
+                                                                ReturnValuesOnConditionCheckFailure
+                                                                        .ALL_OLD)));
+
+        assertTrue(e.hasItem());
+        assertEquals("c1", e.item().get("customerId").s());
+    }
+
+    @Test
+    void shouldApplyUpdateExpressionWithNestedSetAndAdd() {
+        final Map<String, AttributeValue> item = new HashMap<>(unit("u1", "c1", "VIN1"));
+        item.put("version", n("1"));
+        item.put("data", AttributeValue.builder().m(Map.of("version", n("1"))).build());
+        client.putItem(req -> req.tableName(TABLE).item(item));
+
+        final Map<String, AttributeValue> updated =
+                client.updateItem(
+                                req ->
+                                        req.tableName(TABLE)
+                                                .key(key("UNT#u1"))
+                                                .updateExpression(
+                                                        "SET #data.#version = :next, #version ="
+                                                                + " :next ADD #total :one")
+                                                .conditionExpression("#version = :expected")
+                                                .expressionAttributeNames(
+                                                        Map.of(
+                                                                "#data", "data",
+                                                                "#version", "version",
+                                                                "#total", "total"))
+                                                .expressionAttributeValues(
+                                                        Map.of(
+                                                                ":next", n("2"),
+                                                                ":expected", n("1"),
+                                                                ":one", n("1")))
+                                                .returnValues(ReturnValue.ALL_NEW))
+                        .attributes();
+
+        assertEquals("2", updated.get("version").n());
+        assertEquals("2", updated.get("data").m().get("version").n());
+        assertEquals("1", updated.get("total").n());
+    }
+
+    @Test
+    void shouldQueryKeysOnlyIndexInVinOrder() {
+        client.putItem(req -> req.tableName(TABLE).item(unit("u1", "c1", "VIN2")));
+        client.putItem(req -> req.tableName(TABLE).item(unit("u2", "c1", "VIN1")));
+        client.putItem(req -> req.tableName(TABLE).item(unit("u3", "c2", "VIN3")));
+
+        final QueryResponse response =
+                client.query(
+                        req ->
+                                req.tableName(TABLE)
+                                        .indexName("GSI1-CustomerVin")
+                                        .keyConditionExpression("customerId = :c")
+                                        .expressionAttributeValues(Map.of(":c", s("c1"))));
+
+        assertEquals(2, response.count());
+        assertEquals("UNT#u2", response.items().get(0).get("PK").s());
+        assertEquals("UNT#u1", response.items().get(1).get("PK").s());
+        assertNull(response.items().get(0).get("data"));
+    }
+
+    @Test
+    void shouldPageBeginsWithQueryAndApplyFilter() {
+        for (int i = 0; i < 5; i++) {
+            final String sk = "MAKE#FORD#" + (2015 + i) + "#u" + i;
+            client.putItem(
+                    req ->
+                            req.tableName(TABLE)
+                                    .item(
+                                            Map.of(
+                                                    "PK", s("IDX#c1"),
+                                                    "SK", s(sk),
+                                                    "model",
+                                                            s(
+                                                                    sk.endsWith("3")
+                                                                            ? "F150"
+                                                                            : "F250"))));
+        }
+        client.putItem(
+                req -> req.tableName(TABLE).item(Map.of("PK", s("IDX#c1"), "SK", s("YEAR#2015"))));
+
+        final List<String> sortKeys = new ArrayList<>();
+        Map<String, AttributeValue> start = null;
+        int pages = 0;
+        do {
+            final Map<String, AttributeValue> exclusiveStart = start;
+            final QueryResponse page =
+                    client.query(
+                            req ->
+                                    req.tableName(TABLE)
+                                            .keyConditionExpression(
+                                                    "PK = :pk AND begins_with(SK, :prefix)")
+                                            .filterExpression("#model <> :model")
+                                            .expressionAttributeNames(Map.of("#model", "model"))
+                                            .expressionAttributeValues(
+                                                    Map.of(
+                                                            ":pk", s("IDX#c1"),
+                                                            ":prefix", s("MAKE#FORD#"),
+                                                            ":model", s("F150")))
+                                            .limit(2)
+                                            .exclusiveStartKey(exclusiveStart));
+            page.items().forEach(item -> sortKeys.add(item.get("SK").s()));
+            start = page.hasLastEvaluatedKey() ? page.lastEvaluatedKey() : null;
+            pages++;
+        } while (start != null);
+
+        assertEquals(3, pages);
+        assertEquals(
+                List.of(
+                        "MAKE#FORD#2015#u0",
+                        "MAKE#FORD#2016#u1",
+                        "MAKE#FORD#2017#u2",
+                        "MAKE#FORD#2019#u4"),
+                sortKeys);
+    }
+
+    @Test
+    void shouldQuerySortKeyBetween() {
+        for (int year = 2010; year <= 2020; year++) {
+            final String sk = "YEAR#" + year + "#u" + year;
+            client.putItem(
+                    req -> req.tableName(TABLE).item(Map.of("PK", s("IDX#c1"), "SK", s(sk))));
+        }
+
+        final QueryResponse response =
+                client.query(
+                        req ->
+                                req.tableName(TABLE)
+                                        .keyConditionExpression(
+                                                "PK = :pk AND SK BETWEEN :lo AND :hi")
+                                        .expressionAttributeValues(
+                                                Map.of(
+                                                        ":pk", s("IDX#c1"),
+                                                        ":lo", s("YEAR#2012"),
+                                                        ":hi", s("YEAR#2014#~"))));
+
+        assertEquals(3, response.count());
+    }
+
+    @Test
+    void shouldCancelTransactionWithoutWritingAnything() {
+        client.putItem(req -> req.tableName(TABLE).item(unit("u1", "c1", "VIN1")));
+
+        final TransactionCanceledException e =
+                assertThrows(
+                        TransactionCanceledException.class,
+                        () ->
+                                client.transactWriteItems(
+                                        req ->
+                                                req.transactItems(
+                                                        TransactWriteItem.builder()
+                                                                .put(
+                                                                        p ->
+                                                                                p.tableName(TABLE)
+                                                                                        .item(
+                                                                                                unit(
+                                                                                                        "u2",
+                                                                                                        "c1",
+                                                                                                        "VIN2")))
+                                                                .build(),
+                                                        TransactWriteItem.builder()
+                                                                .put(
+                                                                        p ->
+                                                                                p.tableName(TABLE)
+                                                                                        .item(
+                                                                                                unit(
+                                                                                                        "u1",
+                                                                                                        "c9",
+                                                                                                        "VIN1"))
+                                                                                        .conditionExpression(
+                                                                                                "attribute_not_exists(PK)"))
+                                                                .build())));
+
+        assertEquals("None", e.cancellationReasons().get(0).code());
+        assertEquals("ConditionalCheckFailed", e.cancellationReasons().get(1).code());
+        assertEquals(1, client.itemCount(TABLE));
+    }
+
+    @Test
+    void shouldReportConsumedCapacityPerIndex() {
+        final ConsumedCapacity capacity =
+                client.putItem(
+                                req ->
+                                        req.tableName(TABLE)
+                                                .item(unit("u1", "c1", "VIN1"))
+                                                .returnConsumedCapacity(
+                                                        ReturnConsumedCapacity.INDEXES))
+                        .consumedCapacity();
+
+        assertEquals(3.0, capacity.capacityUnits());
+        assertEquals(1.0, capacity.table().writeCapacityUnits());
+        assertEquals(2, capacity.globalSecondaryIndexes().size());
+
+        client.getItem(req -> req.tableName(TABLE).key(key("UNT#u1")));
+        assertEquals(0.5, client.readCapacityUnits());
+        assertEquals(3.0, client.writeCapacityUnits());
+        assertEquals(1, client.operationCount("GetItem"));
+    }
+
+    @Test
+    void shouldThrottleSingleCallsAndLeaveBatchEntriesUnprocessed() {
+        final InMemoryDynamoDbClient throttled =
+                InMemoryDynamoDbClient.builder().throttleProbability(1.0).seed(42L).build();
+        UnitTableSchema.create(throttled, TABLE);
+
+        assertThrows(
+                ProvisionedThroughputExceededException.class,
+                () -> throttled.getItem(req -> req.tableName(TABLE).key(key("UNT#u1"))));
+
+        final InMemoryDynamoDbClient flaky =
+                InMemoryDynamoDbClient.builder().throttleProbability(0.5).seed(7L).build();
+        UnitTableSchema.create(flaky, TABLE);
+        final List<WriteRequest> writes = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            writes.add(
+                    WriteRequest.builder()
+                            .putRequest(
+                                    PutRequest.builder()
+                                            .item(unit("u" + i, "c1", "VIN" + i))
+                                            .build())
+                            .build());
+        }
+
+        final BatchWriteItemResponse response =
+                flaky.batchWriteItem(req -> req.requestItems(Map.of(TABLE, writes)));
+
+        final int unprocessed = response.unprocessedItems().getOrDefault(TABLE, List.of()).size();
+        assertTrue(unprocessed > 0 && unprocessed < 20);
+        assertEquals(20 - unprocessed, flaky.itemCount(TABLE));
+    }
+
+    private static Map<String, AttributeValue> unit(String unitId, String customerId, String vin) {
+        final Map<String, AttributeValue> item = new HashMap<>(key("UNT#" + unitId));
+        item.put("customerId", s(customerId));
+        item.put("vin", s(vin));
+        item.put("data", AttributeValue.builder().m(Map.of("unitId", s(unitId))).build());
+        return item;
+    }
+
+    private static Map<String, AttributeValue> key(String pk) {
+        return Map.of("PK", s(pk), "SK", s(pk));
+    }
+
+    private static AttributeValue s(String value) {
+        return AttributeValue.builder().s(value).build();
+    }
+
+    private static AttributeValue n(String value) {
+        return AttributeValue.builder().n(value).build();
+    }
+}
@@ -0,0 +1,86 @@
+package com.fullbay.unit.dynamodb;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeDefinition;
+import software.amazon.awssdk.services.dynamodb.model.BillingMode;
+import software.amazon.awssdk.services.dynamodb.model.GlobalSecondaryIndex;
+import software.amazon.awssdk.services.dynamodb.model.KeySchemaElement;
+import software.amazon.awssdk.services.dynamodb.model.KeyType;
+import software.amazon.awssdk.services.dynamodb.model.Projection;
+import software.amazon.awssdk.services.dynamodb.model.ProjectionType;
+import software.amazon.awssdk.services.dynamodb.model.ScalarAttributeType;
+
+/** The unit service table as defined in terraform/main.tf. Static utility class. */
+public final class UnitTableSchema {
+
+    private UnitTableSchema() {
+        // Utility class
+    }
+
+    /**
+     * Create the single table with PK/SK and the GSI1-CustomerVin, GSI2-Vin and
+     * GSI3-CustomerUpdated indexes.
+     *
+     * @param client The client to create the table with
+     * @param tableName The table name
+     */
+    public static void create(DynamoDbClient client, String tableName) {
+        client.createTable(
+                req ->
+                        req.tableName(tableName)
+                                .billingMode(BillingMode.PAY_PER_REQUEST)
+                                .attributeDefinitions(
+                                        attribute("PK"),
+                                        attribute("SK"),
+                                        attribute("customerId"),
+                                        attribute("vin"),
+                                        attribute("updatedAt"))
+                                .keySchema(key("PK", KeyType.HASH), key("SK", KeyType.RANGE))
+                                .globalSecondaryIndexes(
+                                        keysOnlyIndex("GSI1-CustomerVin", "customerId", "vin"),
+                                        keysOnlyIndex("GSI2-Vin", "vin", "PK"),
+                                        GlobalSecondaryIndex.builder()
+                                                .indexName("GSI3-CustomerUpdated")
+                                                .keySchema(
+                                                        key("customerId", KeyType.HASH),
+                                                        key("updatedAt", KeyType.RANGE))
+                                                .projection(
+                                                        Projection.builder()
+                                                                .projectionType(
+                                                                        ProjectionType.INCLUDE)
+                                                                .nonKeyAttributes("data", "unitId")
+                                                                .build())
+                                                .build()));
+    }
+
+    /**
+     * In-memory client with the unit service table already created.
+     *
+     * @param tableName The table name
+     * @return A ready-to-use client
+     */
+    public static InMemoryDynamoDbClient inMemory(String tableName) {
+        final InMemoryDynamoDbClient client = new InMemoryDynamoDbClient();
+        create(client, tableName);
+        return client;
+    }
+
+    private static AttributeDefinition attribute(String name) {
+        return AttributeDefinition.builder()
+                .attributeName(name)
+                .attributeType(ScalarAttributeType.S)
+                .build();
+    }
+
+    private static KeySchemaElement key(String name, KeyType type) {
+        return KeySchemaElement.builder().attributeName(name).keyType(type).build();
+    }
+
+    private static GlobalSecondaryIndex keysOnlyIndex(String name, String hash, String range) {
+        return GlobalSecondaryIndex.builder()
+                .indexName(name)
+                .keySchema(key(hash, KeyType.HASH), key(range, KeyType.RANGE))
+                .projection(Projection.builder().projectionType(ProjectionType.KEYS_ONLY).build())
+                .build();
+    }
+}
@@ -0,0 +1,53 @@
+package com.fullbay.unit.health;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.fullbay.unit.dynamodb.UnitTableSchema;
+
+import org.eclipse.microprofile.health.HealthCheckResponse;
+import org.junit.jupiter.api.Test;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.ResourceNotFoundException;
+
+import java.time.Duration;
+import java.util.function.Consumer;
+
+class DynamoDbReadinessCheckTest {
+
+    private static final String TABLE = "g-unit-service-test";
+
+    @Test
+    void shouldBeUpWhenTableIsReachable() {
+        final DynamoDbReadinessCheck check =
+                new DynamoDbReadinessCheck(
+                        UnitTableSchema.inMemory(TABLE), Duration.ofSeconds(2), TABLE);
+
+        final HealthCheckResponse response = check.call();
+
+        assertEquals(HealthCheckResponse.Status.UP, response.getStatus());
+        assertEquals(DynamoDbReadinessCheck.NAME, response.getName());
+        assertEquals(TABLE, response.getData().orElseThrow().get("table"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldBeDownWhenTableIsUnreachable() {
+        final DynamoDbClient client = mock(DynamoDbClient.class);
+        when(client.getItem(any(Consumer.class)))
+                .thenThrow(ResourceNotFoundException.builder().message("no table").build());
+        when(client.getItem(any(GetItemRequest.class)))
+                .thenThrow(ResourceNotFoundException.builder().message("no table").build());
+        final DynamoDbReadinessCheck check =
+                new DynamoDbReadinessCheck(client, Duration.ofSeconds(2), TABLE);
+
+        final HealthCheckResponse response = check.call();
+
+        assertEquals(HealthCheckResponse.Status.DOWN, response.getStatus());
+        assertEquals("no table", response.getData().orElseThrow().get("error"));
+    }
+}
@@ -0,0 +1,206 @@
+package com.fullbay.unit.integration.nhtsa;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.fullbay.unit.dynamodb.UnitTableSchema;
+import com.fullbay.unit.exception.NHTSARateLimitedException;
+import com.fullbay.unit.repository.RateBudgetRepository;
+
+import io.smallrye.mutiny.Uni;
+
+import jakarta.ws.rs.ProcessingException;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.Response;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+class NHTSARateLimiterTest {
+
+    private static final String TABLE = "g-unit-service-test";
+
+    @Test
+    void shouldAllowBurstThenRejectPastDeadline() {
+        final NHTSARateLimiter limiter = limiter(true, 1, 3, null);
+        final AtomicInteger calls = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            limiter.call(calls::incrementAndGet, Instant.now());
+        }
+
+        // The fourth slot is a second out at 1 call/s
+        assertThrows(
+                NHTSARateLimitedException.class,
+                () -> limiter.call(calls::incrementAndGet, Instant.now().plusMillis(100)));
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    void shouldHalveRateOncePerSecondOnThrottling() {
+        final NHTSARateLimiter limiter = limiter(true, 8, 10, null);
+
+        for (int i = 0; i < 2; i++) {
+            assertThrows(
+                    WebApplicationException.class,
+                    () ->
+                            limiter.call(
+                                    () -> {
+                                        throw httpError(429);
+                                    }));
+        }
+        assertEquals(4, limiter.rate(), 0.001);
+
+        // Client errors other than 429 say nothing about capacity
+        assertThrows(
+                WebApplicationException.class,
+                () ->
+                        limiter.call(
+                                () -> {
+                                    throw httpError(404);
+                                }));
+        assertEquals(4, limiter.rate(), 0.001);
+    }
+
+    @Test
+    void shouldTreatTimeoutsAndConnectionFailuresAsThrottling() {
+        final NHTSARateLimiter limiter = limiter(true, 8, 10, null);
+
+        assertThrows(
+                ProcessingException.class,
+                () ->
+                        limiter.call(
+                                () -> {
+                                    throw new ProcessingException("Read timed out");
+                                }));
+
+        assertEquals(4, limiter.rate(), 0.001);
+    }
+
+    @Test
+    void shouldPaceAsyncCallsFromTheSameBucket() {
+        final NHTSARateLimiter limiter = limiter(true, 2, 1, null);
+
+        assertEquals(
+                "ok", limiter.callAsync(() -> Uni.createFrom().item("ok")).await().indefinitely());
+        assertEquals(2.25, limiter.rate(), 0.001);
+
+        // The bucket is empty, so the next slot is a timer, not an immediate call
+        final long start = System.nanoTime();
+        limiter.callAsync(() -> Uni.createFrom().item("ok")).await().indefinitely();
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() >= 300);
+    }
+
+    @Test
+    void shouldRejectAsyncCallPastDeadlineWithoutCalling() {
+        final NHTSARateLimiter limiter = limiter(true, 1, 1, null);
+        final AtomicInteger calls = new AtomicInteger();
+        final Supplier<Uni<Integer>> call = () -> Uni.createFrom().item(calls::incrementAndGet);
+
+        limiter.callAsync(call, Instant.now()).await().indefinitely();
+
+        assertThrows(
+                NHTSARateLimitedException.class,
+                () ->
+                        limiter.callAsync(call, Instant.now().plusMillis(100))
+                                .await()
+                                .indefinitely());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void shouldLowerRateOnAsyncThrottling() {
+        final NHTSARateLimiter limiter = limiter(true, 8, 10, null);
+
+        assertThrows(
+                ProcessingException.class,
+                () ->
+                        limiter.callAsync(
+                                        () ->
+                                                Uni.createFrom()
+                                                        .failure(
+                                                                new ProcessingException(
+                                                                        "Connection refused")))
+                                .await()
+                                .indefinitely());
+
+        assertEquals(4, limiter.rate(), 0.001);
+    }
+
+    @Test
+    void shouldRaiseRateOnSuccessUpToMax() {
+        final NHTSARateLimiter limiter = limiter(true, 2, 10, null);
+
+        limiter.call(() -> "ok");
+        assertEquals(2.25, limiter.rate(), 0.001);
+
+        for (int i = 0; i < 9; i++) {
+            limiter.call(() -> "ok");
+        }
+        assertTrue(limiter.rate() <= 4);
+    }
+
+    @Test
+    void shouldRejectWhenSharedBudgetIsSpent() {
+        final RateBudgetRepository budget =
+                new RateBudgetRepository(UnitTableSchema.inMemory(TABLE), TABLE);
+        final NHTSARateLimiter limiter = limiter(true, 2, 10, budget);
+        final long second = Instant.now().getEpochSecond();
+        // Other instances already spent the next few seconds
+        for (long s = second; s <= second + 2; s++) {
+            budget.tryTake("nhtsa", s, 2);
+            budget.tryTake("nhtsa", s, 2);
+        }
+
+        assertThrows(
+                NHTSARateLimitedException.class,
+                () -> limiter.call(() -> "ok", Instant.now().plusMillis(500)));
+    }
+
+    @Test
+    void shouldTakeFromSharedBudget() {
+        final RateBudgetRepository budget =
+                new RateBudgetRepository(UnitTableSchema.inMemory(TABLE), TABLE);
+        final NHTSARateLimiter limiter = limiter(true, 2, 10, budget);
+
+        assertEquals("ok", limiter.call(() -> "ok", Instant.now().plusSeconds(5)));
+    }
+
+    @Test
+    void shouldPassThroughWhenDisabled() {
+        final NHTSARateLimiter limiter = limiter(false, 1, 1, null);
+        final AtomicInteger calls = new AtomicInteger();
+
+        for (int i = 0; i < 10; i++) {
+            limiter.call(calls::incrementAndGet, Instant.now());
+        }
+
+        assertEquals(10, calls.get());
+    }
+
+    private static NHTSARateLimiter limiter(
+            boolean enabled, double rate, int burst, RateBudgetRepository budget) {
+        return new NHTSARateLimiter(
+                budget,
+                enabled,
+                rate,
+                1,
+                4,
+                burst,
+                0.5,
+                0.5,
+                Duration.ofSeconds(5),
+                budget != null);
+    }
+
+    private static WebApplicationException httpError(int status) {
+        final Response response = mock(Response.class);
+        when(response.getStatus()).thenReturn(status);
+        when(response.getStatusInfo()).thenReturn(Response.Status.fromStatusCode(status));
+        return new WebApplicationException(response);
+    }
+}
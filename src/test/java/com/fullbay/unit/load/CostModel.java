@@ -0,0 +1,63 @@
+package com.fullbay.unit.load;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Duration;
+
+/**
+ * Compute cost per request of a load run, from {@code load.cost.*} system properties. Defaults are
+ * us-west-2 on-demand list prices (x86). Immutable.
+ *
+ * <p>Lambda bills each request's duration at the configured memory size. The mock event server
+ * serves requests one at a time, so a run's busy time per request is its elapsed time divided by
+ * the requests served. A container is billed by the hour whatever it serves, so its cost per
+ * request is the hourly price over the measured throughput: a fully utilised task, the best case.
+ */
+@Value
+@Builder
+public class CostModel {
+
+    int lambdaMemoryMb;
+    double lambdaGbSecond;
+    double lambdaRequest;
+
+    /** Hourly price of one container task, e.g. Fargate 1 vCPU / 2 GB. */
+    double containerHourly;
+
+    static CostModel fromSystemProperties() {
+        return CostModel.builder()
+                .lambdaMemoryMb(Integer.getInteger("load.cost.lambda-memory-mb", 1024))
+                .lambdaGbSecond(doubleProperty("load.cost.lambda-gb-second", 0.0000166667))
+                .lambdaRequest(doubleProperty("load.cost.lambda-request", 0.0000002))
+                .containerHourly(doubleProperty("load.cost.container-hourly", 0.04937))
+                .build();
+    }
+
+    /**
+     * Cost of one million requests.
+     *
+     * @param mode Deployment the run was measured against
+     * @param requests Requests served during the run
+     * @param elapsed Run length
+     */
+    double perMillionRequests(DeploymentMode mode, long requests, Duration elapsed) {
+        if (requests == 0) {
+            return 0;
+        }
+        final double seconds = elapsed.toNanos() / 1e9;
+        final double perRequest =
+                switch (mode) {
+                    case LAMBDA ->
+                            seconds / requests * (lambdaMemoryMb / 1024.0) * lambdaGbSecond
+                                    + lambdaRequest;
+                    case CONTAINER -> containerHourly / 3600.0 / (requests / seconds);
+                };
+        return perRequest * 1_000_000;
+    }
+
+    private static double doubleProperty(String property, double defaultValue) {
+        final String value = System.getProperty(property);
+        return value == null || value.isBlank() ? defaultValue : Double.parseDouble(value);
+    }
+}
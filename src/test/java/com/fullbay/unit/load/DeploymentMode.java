@@ -0,0 +1,42 @@
+package com.fullbay.unit.load;
+
+import java.util.Map;
+
+/**
+ * How the application under load is deployed, decided by the build: {@code -Pdeployment=container}
+ * leaves the Lambda runtime off the classpath. Lambda mode sends requests through the mock event
+ * server, which, like a Lambda instance, serves one request at a time; container mode sends them to
+ * the HTTP server, with the %container runtime settings applied.
+ */
+enum DeploymentMode {
+    LAMBDA,
+    CONTAINER;
+
+    private static final String LAMBDA_RUNTIME_CLASS =
+            "io.quarkus.amazon.lambda.runtime.AbstractLambdaPollLoop";
+
+    static DeploymentMode current() {
+        try {
+            Class.forName(LAMBDA_RUNTIME_CLASS, false, DeploymentMode.class.getClassLoader());
+            return LAMBDA;
+        } catch (ClassNotFoundException e) {
+            return CONTAINER;
+        }
+    }
+
+    /** Config overrides that put the requests on {@code port} and apply the mode's settings. */
+    Map<String, String> configOverrides(int port) {
+        return switch (this) {
+            case LAMBDA ->
+                    Map.of("quarkus.lambda.mock-event-server.test-port", String.valueOf(port));
+            case CONTAINER ->
+                    Map.of(
+                            "quarkus.http.test-port",
+                            String.valueOf(port),
+                            "quarkus.virtual-threads.enabled",
+                            "true",
+                            "dynamodb.coalescing.enabled",
+                            "true");
+        };
+    }
+}
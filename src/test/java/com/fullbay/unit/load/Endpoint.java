@@ -0,0 +1,19 @@
+package com.fullbay.unit.load;
+
+/** UnitResource endpoints exercised by the load harness. */
+public enum Endpoint {
+    CREATE("POST /units/vin"),
+    GET("GET /units/{unitId}"),
+    LIST("GET /units?customerId"),
+    UPDATE("PUT /units/{unitId}");
+
+    private final String label;
+
+    Endpoint(String label) {
+        this.label = label;
+    }
+
+    public String label() {
+        return label;
+    }
+}
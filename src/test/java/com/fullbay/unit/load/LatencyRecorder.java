@@ -0,0 +1,107 @@
+package com.fullbay.unit.load;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Per-endpoint latency and status recording. Keeps every sample so percentiles are exact; a
+ * 30-second run at a few thousand requests per second needs well under 10 MB.
+ */
+public class LatencyRecorder {
+
+    private final Map<Endpoint, Samples> samples = new EnumMap<>(Endpoint.class);
+
+    public LatencyRecorder() {
+        for (final Endpoint endpoint : Endpoint.values()) {
+            samples.put(endpoint, new Samples());
+        }
+    }
+
+    public void record(Endpoint endpoint, long nanos, int status) {
+        samples.get(endpoint).add(nanos, status);
+    }
+
+    public long total() {
+        return samples.values().stream().mapToLong(Samples::count).sum();
+    }
+
+    /** A fixed-width table with one row per endpoint that received traffic. */
+    public String report(Duration elapsed) {
+        final StringBuilder report = new StringBuilder();
+        report.append(
+                "%-24s %8s %8s %9s %9s %9s %9s %9s%n"
+                        .formatted(
+                                "endpoint",
+                                "requests",
+                                "errors",
+                                "req/s",
+                                "p50 ms",
+                                "p95 ms",
+                                "p99 ms",
+                                "max ms"));
+        final double seconds = elapsed.toNanos() / 1_000_000_000.0;
+        for (final Map.Entry<Endpoint, Samples> entry : samples.entrySet()) {
+            final Samples endpointSamples = entry.getValue();
+            final long[] sorted = endpointSamples.sorted();
+            if (sorted.length == 0) {
+                continue;
+            }
+            report.append(
+                    "%-24s %8d %8d %9.1f %9.2f %9.2f %9.2f %9.2f%n"
+                            .formatted(
+                                    entry.getKey().label(),
+                                    sorted.length,
+                                    endpointSamples.errors(),
+                                    sorted.length / seconds,
+                                    millis(percentile(sorted, 50)),
+                                    millis(percentile(sorted, 95)),
+                                    millis(percentile(sorted, 99)),
+                                    millis(sorted[sorted.length - 1])));
+        }
+        return report.toString();
+    }
+
+    /** Nearest-rank percentile of an ascending array. */
+    static long percentile(long[] sorted, double percentile) {
+        final int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    /** Growable sample buffer for one endpoint. */
+    private static final class Samples {
+
+        private long[] nanos = new long[1024];
+        private int count;
+        private long errors;
+
+        synchronized void add(long latency, int status) {
+            if (count == nanos.length) {
+                nanos = Arrays.copyOf(nanos, count * 2);
+            }
+            nanos[count++] = latency;
+            if (status < 200 || status >= 300) {
+                errors++;
+            }
+        }
+
+        synchronized long count() {
+            return count;
+        }
+
+        synchronized long errors() {
+            return errors;
+        }
+
+        synchronized long[] sorted() {
+            final long[] copy = Arrays.copyOf(nanos, count);
+            Arrays.sort(copy);
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.fullbay.unit.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop traffic generator. Each worker picks an endpoint by the configured mix, sends one
+ * request, records its latency and status, and repeats until the run ends.
+ */
+@Slf4j
+public class LoadDriver {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final URI baseUri;
+    private final LoadSettings settings;
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicLong vinSequence = new AtomicLong();
+    private final AtomicLong seedCustomers = new AtomicLong();
+    private final List<String> unitIds = new ArrayList<>();
+    private final Endpoint[] weighted;
+
+    public LoadDriver(URI baseUri, LoadSettings settings) {
+        this.baseUri = baseUri;
+        this.settings = settings;
+        this.httpClient =
+                HttpClient.newBuilder()
+                        .version(HttpClient.Version.HTTP_1_1)
+                        .connectTimeout(Duration.ofSeconds(5))
+                        .build();
+        this.weighted = weighted(settings.getMix());
+    }
+
+    /** Create {@code unitsPerCustomer} units for every customer, so reads have targets. */
+    public void seed() throws Exception {
+        run(
+                settings.getCustomers(),
+                () -> {
+                    final String customerId = customerId((int) seedCustomers.getAndIncrement());
+                    for (int i = 0; i < settings.getUnitsPerCustomer(); i++) {
+                        create(customerId);
+                    }
+                    return null;
+                });
+        log.info("Seeded {} units", unitCount());
+    }
+
+    /**
+     * Drive the configured mix for {@code duration}.
+     *
+     * @return the latencies recorded during the run
+     */
+    public LatencyRecorder drive(Duration duration) throws Exception {
+        final LatencyRecorder recorder = new LatencyRecorder();
+        final long deadline = System.nanoTime() + duration.toNanos();
+        run(
+                settings.getConcurrency(),
+                () -> {
+                    final ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (System.nanoTime() < deadline) {
+                        final Endpoint endpoint = weighted[random.nextInt(weighted.length)];
+                        final long start = System.nanoTime();
+                        final int status = send(endpoint, random);
+                        recorder.record(endpoint, System.nanoTime() - start, status);
+                    }
+                    return null;
+                });
+        return recorder;
+    }
+
+    private int send(Endpoint endpoint, ThreadLocalRandom random) {
+        final String customerId = customerId(random.nextInt(settings.getCustomers()));
+        try {
+            return switch (endpoint) {
+                case CREATE -> create(customerId);
+                case GET -> get("/units/" + randomUnitId(random));
+                case LIST -> get("/units?customerId=" + customerId);
+                case UPDATE -> update(randomUnitId(random), random.nextInt(1_000_000));
+            };
+        } catch (IOException e) {
+            return 0;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        }
+    }
+
+    private int create(String customerId) throws IOException, InterruptedException {
+        final String vin = "1FUJGLDR%09d".formatted(vinSequence.incrementAndGet());
+        final String body = json(Map.of("customerId", customerId, "vin", vin));
+        final HttpResponse<String> response =
+                exchange(
+                        HttpRequest.newBuilder(uri("/units/vin"))
+                                .header("Content-Type", "application/json")
+                                .POST(HttpRequest.BodyPublishers.ofString(body)));
+        if (response.statusCode() == 201) {
+            final JsonNode unitId =
+                    objectMapper.readTree(response.body()).path("data").path("unitId");
+            if (unitId.isTextual()) {
+                synchronized (unitIds) {
+                    unitIds.add(unitId.asText());
+                }
+            }
+        }
+        return response.statusCode();
+    }
+
+    private int get(String path) throws IOException, InterruptedException {
+        return exchange(HttpRequest.newBuilder(uri(path))).statusCode();
+    }
+
+    /** A read-then-write update (no If-Match) of the unit's attributes. */
+    private int update(String unitId, int odometer) throws IOException, InterruptedException {
+        final String body = json(Map.of("attributes", Map.of("odometer", odometer)));
+        return exchange(
+                        HttpRequest.newBuilder(uri("/units/" + unitId))
+                                .header("Content-Type", "application/json")
+                                .PUT(HttpRequest.BodyPublishers.ofString(body)))
+                .statusCode();
+    }
+
+    private HttpResponse<String> exchange(HttpRequest.Builder request)
+            throws IOException, InterruptedException {
+        return httpClient.send(
+                request.timeout(REQUEST_TIMEOUT).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private String randomUnitId(ThreadLocalRandom random) {
+        synchronized (unitIds) {
+            if (unitIds.isEmpty()) {
+                return "unt_missing";
+            }
+            return unitIds.get(random.nextInt(unitIds.size()));
+        }
+    }
+
+    private int unitCount() {
+        synchronized (unitIds) {
+            return unitIds.size();
+        }
+    }
+
+    private URI uri(String path) {
+        return baseUri.resolve(baseUri.getPath() + path);
+    }
+
+    private String json(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** Run {@code workers} copies of {@code task} in parallel and wait for all of them. */
+    private static void run(int workers, Callable<Void> task) throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(workers);
+        try {
+            final List<Future<Void>> futures = new ArrayList<>();
+            for (int i = 0; i < workers; i++) {
+                futures.add(executor.submit(task));
+            }
+            for (final Future<Void> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private static String customerId(int index) {
+        return "cst-load-%03d".formatted(index);
+    }
+
+    /** Expand the mix weights into a lookup array, so picking an endpoint is one random index. */
+    private static Endpoint[] weighted(Map<Endpoint, Integer> mix) {
+        final List<Endpoint> endpoints = new ArrayList<>();
+        mix.forEach(
+                (endpoint, weight) -> {
+                    for (int i = 0; i < weight; i++) {
+                        endpoints.add(endpoint);
+                    }
+                });
+        if (endpoints.isEmpty()) {
+            throw new IllegalArgumentException("load.mix has no traffic");
+        }
+        return endpoints.toArray(Endpoint[]::new);
+    }
+}
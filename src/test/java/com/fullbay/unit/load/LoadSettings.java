@@ -0,0 +1,103 @@
+package com.fullbay.unit.load;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Load harness settings, read from {@code load.*} system properties. {@code ./gradlew loadTest}
+ * forwards {@code -Pload.*} project properties, e.g. {@code -Pload.concurrency=64
+ * -Pload.nhtsa.latency=200ms -Pload.mix=create:5,get:70,list:20,update:5}. Immutable.
+ */
+@Value
+@Builder
+public class LoadSettings {
+
+    /** Closed-loop workers, each with at most one request in flight. */
+    int concurrency;
+
+    /** Traffic run before measuring; its latencies are discarded. */
+    Duration warmup;
+
+    /** Measured traffic run. */
+    Duration duration;
+
+    /** Distinct customers the traffic is spread over. */
+    int customers;
+
+    /** Units created per customer before the warmup, so reads and lists hit populated fleets. */
+    int unitsPerCustomer;
+
+    /** Relative weight of each endpoint in the traffic mix. */
+    Map<Endpoint, Integer> mix;
+
+    StubBehavior nhtsa;
+    StubBehavior partsService;
+
+    /** Per-call latency of the in-memory DynamoDB stand-in. */
+    Duration dynamoDbLatency;
+
+    Duration dynamoDbJitter;
+
+    /** Fraction of DynamoDB calls that are throttled (or batch entries left unprocessed). */
+    double dynamoDbThrottleProbability;
+
+    /** Port the requests are sent to: the Lambda mock event server, or the HTTP server. */
+    int port;
+
+    static LoadSettings fromSystemProperties() {
+        return LoadSettings.builder()
+                .concurrency(Integer.getInteger("load.concurrency", 16))
+                .warmup(duration("load.warmup", Duration.ofSeconds(10)))
+                .duration(duration("load.duration", Duration.ofSeconds(30)))
+                .customers(Integer.getInteger("load.customers", 20))
+                .unitsPerCustomer(Integer.getInteger("load.units-per-customer", 25))
+                .mix(mix(System.getProperty("load.mix", "create:10,get:60,list:20,update:10")))
+                .nhtsa(StubBehavior.fromSystemProperties("load.nhtsa", Duration.ofMillis(120)))
+                .partsService(
+                        StubBehavior.fromSystemProperties(
+                                "load.parts-service", Duration.ofMillis(20)))
+                .dynamoDbLatency(duration("load.dynamodb.latency", Duration.ofMillis(5)))
+                .dynamoDbJitter(duration("load.dynamodb.jitter", Duration.ofMillis(3)))
+                .dynamoDbThrottleProbability(
+                        Double.parseDouble(
+                                System.getProperty("load.dynamodb.throttle-probability", "0")))
+                .port(Integer.getInteger("load.port", 8081))
+                .build();
+    }
+
+    /** Parse {@code 250ms}, {@code 30s}, {@code 5m} or an ISO-8601 duration. */
+    static Duration duration(String property, Duration defaultValue) {
+        final String value = System.getProperty(property);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        final String trimmed = value.trim();
+        if (trimmed.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(trimmed.substring(0, trimmed.length() - 2)));
+        }
+        if (trimmed.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(trimmed.substring(0, trimmed.length() - 1)));
+        }
+        if (trimmed.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(trimmed.substring(0, trimmed.length() - 1)));
+        }
+        return Duration.parse(trimmed);
+    }
+
+    /** Parse {@code create:10,get:60,...}; endpoints left out get no traffic. */
+    static Map<Endpoint, Integer> mix(String value) {
+        final Map<Endpoint, Integer> mix = new EnumMap<>(Endpoint.class);
+        for (final String entry : value.split(",")) {
+            final String[] parts = entry.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid load.mix entry: " + entry);
+            }
+            mix.put(Endpoint.valueOf(parts[0].trim().toUpperCase()), Integer.parseInt(parts[1]));
+        }
+        return mix;
+    }
+}
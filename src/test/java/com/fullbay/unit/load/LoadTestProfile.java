@@ -0,0 +1,75 @@
+package com.fullbay.unit.load;
+
+import com.fullbay.unit.dynamodb.InMemoryDynamoDbClient;
+import com.fullbay.unit.dynamodb.UnitTableSchema;
+
+import io.quarkus.test.junit.QuarkusTestProfile;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Alternative;
+import jakarta.enterprise.inject.Produces;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Boots the whole application against stub downstream services: the REST clients point at {@link
+ * StubServers} and DynamoDB is an in-memory table with configurable per-call latency. Requests go
+ * to the Lambda mock event server or the HTTP server, depending on the {@link DeploymentMode}.
+ */
+public class LoadTestProfile implements QuarkusTestProfile {
+
+    static final String TABLE_NAME = "g-unit-service-load";
+
+    @Override
+    public Map<String, String> getConfigOverrides() {
+        final Map<String, String> overrides =
+                new HashMap<>(
+                        DeploymentMode.current()
+                                .configOverrides(LoadSettings.fromSystemProperties().getPort()));
+        overrides.put("dynamodb.table.name", TABLE_NAME);
+        // Per-request INFO logging would dominate the measurement
+        overrides.put("quarkus.log.category.\"com.fullbay.unit\".level", "WARN");
+        return overrides;
+    }
+
+    @Override
+    public Set<Class<?>> getEnabledAlternatives() {
+        return Set.of(LoadDynamoDbConfig.class);
+    }
+
+    @Override
+    public List<TestResourceEntry> testResources() {
+        return List.of(new TestResourceEntry(StubServers.class));
+    }
+
+    @Override
+    public String getConfigProfile() {
+        return "test";
+    }
+
+    /** In-memory DynamoDB with the latency and throttling from {@link LoadSettings}. */
+    @Alternative
+    @ApplicationScoped
+    public static class LoadDynamoDbConfig {
+
+        @Produces
+        @ApplicationScoped
+        @Alternative
+        public DynamoDbClient dynamoDbClient() {
+            final LoadSettings settings = LoadSettings.fromSystemProperties();
+            final InMemoryDynamoDbClient client =
+                    InMemoryDynamoDbClient.builder()
+                            .latency(settings.getDynamoDbLatency())
+                            .jitter(settings.getDynamoDbJitter())
+                            .throttleProbability(settings.getDynamoDbThrottleProbability())
+                            .build();
+            UnitTableSchema.create(client, TABLE_NAME);
+            return client;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.fullbay.unit.load;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/** Latency and error distribution of a stubbed downstream service. Immutable. */
+@Value
+@Builder
+public class StubBehavior {
+
+    /** Fixed delay before every response. */
+    Duration latency;
+
+    /** Uniform random delay added on top of {@code latency}. */
+    Duration jitter;
+
+    /** Fraction of requests, 0.0 to 1.0, answered with a 503. */
+    double errorRate;
+
+    /**
+     * Read {@code <prefix>.latency}, {@code <prefix>.jitter} and {@code <prefix>.error-rate} from
+     * system properties.
+     */
+    static StubBehavior fromSystemProperties(String prefix, Duration defaultLatency) {
+        return StubBehavior.builder()
+                .latency(LoadSettings.duration(prefix + ".latency", defaultLatency))
+                .jitter(LoadSettings.duration(prefix + ".jitter", defaultLatency.dividedBy(2)))
+                .errorRate(Double.parseDouble(System.getProperty(prefix + ".error-rate", "0")))
+                .build();
+    }
+
+    /**
+     * Sleep for one sampled latency.
+     *
+     * @return true if this request should fail
+     */
+    boolean delay() throws InterruptedException {
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        long millis = latency.toMillis();
+        if (!jitter.isZero()) {
+            millis += random.nextLong(jitter.toMillis() + 1);
+        }
+        if (millis > 0) {
+            Thread.sleep(millis);
+        }
+        return random.nextDouble() < errorRate;
+    }
+
+    @Override
+    public String toString() {
+        return "%dms +0-%dms, %.1f%% errors"
+                .formatted(latency.toMillis(), jitter.toMillis(), errorRate * 100);
+    }
+}
@@ -0,0 +1,145 @@
+package com.fullbay.unit.load;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import io.quarkus.test.common.QuarkusTestResourceLifecycleManager;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * Local stand-ins for the NHTSA vPIC API and parts-service, started before the application and
+ * wired in by overriding the REST client URLs. Each answers every request after a delay sampled
+ * from its {@link StubBehavior}, failing the configured fraction with a 503.
+ */
+@Slf4j
+public class StubServers implements QuarkusTestResourceLifecycleManager {
+
+    private static final String NHTSA_JSON =
+            """
+            {"Count":8,"Message":"Results returned successfully","SearchCriteria":"VIN:%s",\
+            "Results":[\
+            {"Value":"2012","ValueId":"","Variable":"Model Year","VariableId":29},\
+            {"Value":"FREIGHTLINER","ValueId":"509","Variable":"Make","VariableId":26},\
+            {"Value":"Cascadia","ValueId":"2214","Variable":"Model","VariableId":28},\
+            {"Value":"Diesel","ValueId":"1","Variable":"Fuel Type - Primary","VariableId":24},\
+            {"Value":"TRUCK","ValueId":"3","Variable":"Vehicle Type","VariableId":39},\
+            {"Value":"Truck-Tractor","ValueId":"66","Variable":"Body Class","VariableId":5},\
+            {"Value":"6","ValueId":"","Variable":"Engine Number of Cylinders","VariableId":9},\
+            {"Value":"14.8","ValueId":"","Variable":"Displacement (L)","VariableId":13}]}
+            """;
+
+    private static final String MAKES_JSON =
+            """
+            {"data":[{"makeId":"509","makeName":"FREIGHTLINER"}]}
+            """;
+
+    private static final String MODELS_JSON =
+            """
+            {"data":[{"modelId":"2214","modelName":"Cascadia"}]}
+            """;
+
+    private static final String VEHICLES_JSON =
+            """
+            {"data":[{"baseVehicleId":"140123","makeId":"509","modelId":"2214"}]}
+            """;
+
+    private HttpServer nhtsa;
+    private HttpServer partsService;
+    private ExecutorService executor;
+
+    @Override
+    public Map<String, String> start() {
+        final LoadSettings settings = LoadSettings.fromSystemProperties();
+        // Stub latency is spent sleeping; never let the stubs themselves become the bottleneck
+        executor = Executors.newCachedThreadPool();
+        try {
+            nhtsa =
+                    server(
+                            settings.getNhtsa(),
+                            path ->
+                                    NHTSA_JSON.formatted(
+                                            path.substring(path.lastIndexOf('/') + 1)));
+            partsService =
+                    server(
+                            settings.getPartsService(),
+                            path -> {
+                                if (path.endsWith("/models")) {
+                                    return MODELS_JSON;
+                                }
+                                return path.endsWith("/makes") ? MAKES_JSON : VEHICLES_JSON;
+                            });
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to start stub servers", e);
+        }
+        log.info(
+                "Stub servers started - nhtsa: {}, parts-service: {}",
+                settings.getNhtsa(),
+                settings.getPartsService());
+
+        return Map.of(
+                "quarkus.rest-client.nhtsa.url", baseUrl(nhtsa) + "/api",
+                "quarkus.rest-client.parts-service.url", baseUrl(partsService) + "/v1",
+                // The stubs measure the service, not vPIC's limits
+                "nhtsa.rate-limit.enabled", "false");
+    }
+
+    @Override
+    public void stop() {
+        if (nhtsa != null) {
+            nhtsa.stop(0);
+        }
+        if (partsService != null) {
+            partsService.stop(0);
+        }
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private HttpServer server(StubBehavior behavior, Function<String, String> body)
+            throws IOException {
+        final HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> respond(exchange, behavior, body));
+        server.setExecutor(executor);
+        server.start();
+        return server;
+    }
+
+    private static void respond(
+            HttpExchange exchange, StubBehavior behavior, Function<String, String> body)
+            throws IOException {
+        try (exchange) {
+            final boolean fail;
+            try {
+                fail = behavior.delay();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            final int status = fail ? 503 : 200;
+            final byte[] bytes =
+                    (fail ? "{\"message\":\"Service Unavailable\"}" : body.apply(path(exchange)))
+                            .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, bytes.length);
+            exchange.getResponseBody().write(bytes);
+        }
+    }
+
+    private static String path(HttpExchange exchange) {
+        return exchange.getRequestURI().getPath();
+    }
+
+    private static String baseUrl(HttpServer server) {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+}
@@ -0,0 +1,57 @@
+package com.fullbay.unit.load;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+
+/**
+ * End-to-end load run: seeds fleets, warms up, then drives the configured create/get/list/update
+ * mix and prints p50/p95/p99 per endpoint and the compute cost per million requests. Excluded from
+ * the default test run; run with {@code ./gradlew loadTest}, adding {@code -Pdeployment=container}
+ * to measure the container deployment instead of Lambda.
+ */
+@QuarkusTest
+@TestProfile(LoadTestProfile.class)
+@Tag("load")
+class UnitLoadTest {
+
+    @Test
+    void reportLatencyPercentilesPerEndpoint() throws Exception {
+        final LoadSettings settings = LoadSettings.fromSystemProperties();
+        final DeploymentMode mode = DeploymentMode.current();
+        final CostModel cost = CostModel.fromSystemProperties();
+        final LoadDriver driver =
+                new LoadDriver(
+                        URI.create("http://localhost:" + settings.getPort() + "/v1"), settings);
+
+        driver.seed();
+        driver.drive(settings.getWarmup());
+        final LatencyRecorder recorder = driver.drive(settings.getDuration());
+
+        System.out.printf(
+                "%nLoad run (%s): %d workers, %s, nhtsa %s, parts-service %s, dynamodb %dms"
+                    + " +0-%dms%n%sCompute cost: $%.2f per million requests%n",
+                mode,
+                settings.getConcurrency(),
+                settings.getDuration(),
+                settings.getNhtsa(),
+                settings.getPartsService(),
+                settings.getDynamoDbLatency().toMillis(),
+                settings.getDynamoDbJitter().toMillis(),
+                recorder.report(settings.getDuration()),
+                cost.perMillionRequests(mode, recorder.total(), settings.getDuration()));
+        if (mode == DeploymentMode.LAMBDA && settings.getConcurrency() > 1) {
+            // Lambda scales out instead of queueing, so only a single worker shows its latency
+            System.out.println(
+                    "Latencies include queueing behind one instance; use -Pload.concurrency=1"
+                            + " for per-instance Lambda latency");
+        }
+        assertTrue(recorder.total() > 0);
+    }
+}
@@ -0,0 +1,97 @@
+package com.fullbay.unit.metrics;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.core.MultivaluedHashMap;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.core.StreamingOutput;
+import jakarta.ws.rs.core.UriInfo;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.io.ByteArrayOutputStream;
+
+class CapacityResponseFilterTest {
+
+    private SimpleMeterRegistry registry;
+    private RequestCapacity capacity;
+    private CapacityResponseFilter filter;
+    private ContainerRequestContext request;
+    private ContainerResponseContext response;
+    private MultivaluedMap<String, Object> headers;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        capacity = new RequestCapacity();
+        filter = new CapacityResponseFilter(capacity, new UnitMetrics(registry), true);
+
+        final UriInfo uriInfo = mock(UriInfo.class);
+        when(uriInfo.getPathParameters()).thenReturn(new MultivaluedHashMap<>());
+        final MultivaluedMap<String, String> query = new MultivaluedHashMap<>();
+        query.putSingle("customerId", "cst-1");
+        when(uriInfo.getQueryParameters()).thenReturn(query);
+        request = mock(ContainerRequestContext.class);
+        when(request.getUriInfo()).thenReturn(uriInfo);
+
+        headers = new MultivaluedHashMap<>();
+        response = mock(ContainerResponseContext.class);
+        when(response.getHeaders()).thenReturn(headers);
+    }
+
+    @Test
+    void shouldAttributeCapacityBeforeBodyIsWritten() {
+        capacity.add("GetItem", 0.5, 0);
+        when(response.getEntity()).thenReturn("unit");
+
+        filter.filter(request, response);
+
+        assertEquals(0.5, customerRead(), 0.001);
+        assertNotNull(headers.getFirst(CapacityResponseFilter.HEADER));
+    }
+
+    @Test
+    void shouldAttributeStreamedBodyOnceWritten() throws Exception {
+        // The export reads its pages while the body is written
+        final StreamingOutput body = out -> capacity.add("Query", 1.5, 0);
+        when(response.getEntity()).thenReturn(body);
+
+        filter.filter(request, response);
+
+        assertEquals(0, customerRead(), 0.001);
+        final ArgumentCaptor<Object> entity = ArgumentCaptor.forClass(Object.class);
+        verify(response).setEntity(entity.capture());
+        ((StreamingOutput) entity.getValue()).write(new ByteArrayOutputStream());
+        assertEquals(1.5, customerRead(), 0.001);
+        assertNull(headers.getFirst(CapacityResponseFilter.HEADER));
+    }
+
+    @Test
+    void shouldSkipRequestsWithoutDynamoDbCalls() {
+        when(response.getEntity()).thenReturn("unit");
+
+        filter.filter(request, response);
+
+        verify(response, never()).setEntity(any());
+        assertTrue(headers.isEmpty());
+        assertEquals(0, customerRead(), 0.001);
+    }
+
+    private double customerRead() {
+        final Counter counter =
+                registry.find(UnitMetrics.CUSTOMER_CAPACITY)
+                        .tag("customerId", "cst-1")
+                        .tag("type", "read")
+                        .counter();
+        return counter != null ? counter.count() : 0;
+    }
+}
@@ -0,0 +1,134 @@
+package com.fullbay.unit.metrics;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.quarkus.arc.Arc;
+import io.quarkus.arc.ArcContainer;
+import io.quarkus.arc.ClientProxy;
+import io.quarkus.arc.InjectableBean;
+import io.quarkus.arc.InstanceHandle;
+import io.quarkus.arc.ManagedContext;
+
+import jakarta.enterprise.context.ContextNotActiveException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.SdkExecutionAttribute;
+import software.amazon.awssdk.services.dynamodb.model.Capacity;
+import software.amazon.awssdk.services.dynamodb.model.ConsumedCapacity;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+
+import java.util.concurrent.CompletableFuture;
+
+class ConsumedCapacityInterceptorTest {
+
+    private RequestCapacity capacity;
+    private ManagedContext requestContext;
+    private MockedStatic<Arc> arc;
+    private ConsumedCapacityInterceptor interceptor;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        capacity = new RequestCapacity();
+        requestContext = mock(ManagedContext.class);
+        final InstanceHandle<RequestCapacity> handle = mock(InstanceHandle.class);
+        when(handle.get()).thenReturn(new ProxiedCapacity(capacity));
+        final ArcContainer container = mock(ArcContainer.class);
+        when(container.requestContext()).thenReturn(requestContext);
+        when(container.instance(RequestCapacity.class)).thenReturn(handle);
+        arc = mockStatic(Arc.class);
+        arc.when(Arc::container).thenReturn(container);
+
+        interceptor = new ConsumedCapacityInterceptor(new UnitMetrics(new SimpleMeterRegistry()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        arc.close();
+    }
+
+    @Test
+    void shouldAttributeAsyncCompletionToCallingRequest() {
+        when(requestContext.isActive()).thenReturn(true, false);
+        final ExecutionAttributes attributes = attributes();
+
+        interceptor.beforeExecution(mock(Context.BeforeExecution.class), attributes);
+        // Completes on another thread, after the request context is gone
+        CompletableFuture.runAsync(() -> interceptor.afterExecution(completed(0.5), attributes))
+                .join();
+
+        assertEquals(0.5, capacity.read(), 0.001);
+        assertEquals(1, capacity.calls());
+    }
+
+    @Test
+    void shouldNotAttributeCallsOutsideRequest() {
+        when(requestContext.isActive()).thenReturn(false);
+        final ExecutionAttributes attributes = attributes();
+
+        interceptor.beforeExecution(mock(Context.BeforeExecution.class), attributes);
+        interceptor.afterExecution(completed(0.5), attributes);
+
+        assertEquals(0, capacity.calls());
+    }
+
+    private static ExecutionAttributes attributes() {
+        final ExecutionAttributes attributes = new ExecutionAttributes();
+        attributes.putAttribute(SdkExecutionAttribute.OPERATION_NAME, "GetItem");
+        return attributes;
+    }
+
+    private static Context.AfterExecution completed(double units) {
+        final Context.AfterExecution context = mock(Context.AfterExecution.class);
+        when(context.response())
+                .thenReturn(
+                        GetItemResponse.builder()
+                                .consumedCapacity(
+                                        ConsumedCapacity.builder()
+                                                .tableName("g-unit-service")
+                                                .capacityUnits(units)
+                                                .table(
+                                                        Capacity.builder()
+                                                                .capacityUnits(units)
+                                                                .build())
+                                                .build())
+                                .build());
+        return context;
+    }
+
+    /**
+     * Stands in for Arc's client proxy, which looks the instance up in the active request context
+     * on every call and fails without one.
+     */
+    private static class ProxiedCapacity extends RequestCapacity implements ClientProxy {
+
+        private final RequestCapacity instance;
+
+        ProxiedCapacity(RequestCapacity instance) {
+            this.instance = instance;
+        }
+
+        @Override
+        public Object arc_contextualInstance() {
+            return instance;
+        }
+
+        @Override
+        public InjectableBean<?> arc_bean() {
+            return null;
+        }
+
+        @Override
+        synchronized void add(String operation, double readUnits, double writeUnits) {
+            throw new ContextNotActiveException();
+        }
+    }
+}
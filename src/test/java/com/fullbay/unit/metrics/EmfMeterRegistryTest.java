@@ -0,0 +1,130 @@
+package com.fullbay.unit.metrics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.Timer;
+
+import jakarta.annotation.Priority;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+class EmfMeterRegistryTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private List<String> lines;
+    private EmfMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        lines = new ArrayList<>();
+        registry =
+                new EmfMeterRegistry("UnitService", Set.of("customerId"), lines::add, Clock.SYSTEM);
+    }
+
+    @Test
+    void shouldWriteTimerValuesAsEmfDocument() throws Exception {
+        final Timer timer =
+                Timer.builder(UnitMetrics.CLIENT_REQUESTS)
+                        .tag("client", "nhtsa")
+                        .tag("operation", "decodeVin")
+                        .register(registry);
+        timer.record(Duration.ofMillis(120));
+        timer.record(Duration.ofMillis(80));
+
+        registry.flush();
+
+        assertEquals(1, lines.size());
+        final JsonNode document = objectMapper.readTree(lines.get(0));
+        final JsonNode directive = document.path("_aws").path("CloudWatchMetrics").get(0);
+        assertEquals("UnitService", directive.path("Namespace").asText());
+        assertEquals("client", directive.path("Dimensions").get(0).get(0).asText());
+        assertEquals("operation", directive.path("Dimensions").get(0).get(1).asText());
+        assertEquals(
+                UnitMetrics.CLIENT_REQUESTS,
+                directive.path("Metrics").get(0).path("Name").asText());
+        assertEquals("Milliseconds", directive.path("Metrics").get(0).path("Unit").asText());
+        assertEquals("nhtsa", document.path("client").asText());
+        assertEquals(120.0, document.path(UnitMetrics.CLIENT_REQUESTS).get(0).asDouble(), 0.001);
+        assertEquals(80.0, document.path(UnitMetrics.CLIENT_REQUESTS).get(1).asDouble(), 0.001);
+        assertEquals(2, timer.count());
+    }
+
+    @Test
+    void shouldOnlyWriteValuesRecordedSinceLastFlush() throws Exception {
+        final UnitMetrics unitMetrics = new UnitMetrics(registry);
+        unitMetrics.batch("vehicle", "BatchGetItem", 100);
+        registry.flush();
+        unitMetrics.batch("vehicle", "BatchGetItem", 7);
+        registry.flush();
+        registry.flush();
+
+        assertEquals(2, lines.size());
+        final JsonNode second = objectMapper.readTree(lines.get(1));
+        assertEquals(7.0, second.path(UnitMetrics.BATCH_SIZE).asDouble(), 0.001);
+        assertEquals(
+                "Count",
+                second.path("_aws")
+                        .path("CloudWatchMetrics")
+                        .get(0)
+                        .path("Metrics")
+                        .get(0)
+                        .path("Unit")
+                        .asText());
+    }
+
+    @Test
+    void shouldSplitMoreThanOneHundredValuesAcrossDocuments() throws Exception {
+        final UnitMetrics unitMetrics = new UnitMetrics(registry);
+        for (int i = 0; i < 150; i++) {
+            unitMetrics.fanOut("vehicle-findByVins", i);
+        }
+
+        registry.flush();
+
+        assertEquals(2, lines.size());
+        assertEquals(100, objectMapper.readTree(lines.get(0)).path(UnitMetrics.FANOUT_SIZE).size());
+        assertEquals(50, objectMapper.readTree(lines.get(1)).path(UnitMetrics.FANOUT_SIZE).size());
+    }
+
+    @Test
+    void shouldWriteCustomerIdAsPropertyNotDimension() throws Exception {
+        new UnitMetrics(registry).customerCapacity("cst-xyz789", 1.5, 0);
+
+        registry.flush();
+
+        final JsonNode document = objectMapper.readTree(lines.get(0));
+        final JsonNode dimensions =
+                document.path("_aws").path("CloudWatchMetrics").get(0).path("Dimensions").get(0);
+        assertEquals(1, dimensions.size());
+        assertEquals("type", dimensions.get(0).asText());
+        assertEquals("cst-xyz789", document.path("customerId").asText());
+        assertEquals(1.5, document.path(UnitMetrics.CUSTOMER_CAPACITY).asDouble(), 0.001);
+    }
+
+    @Test
+    void shouldIgnoreMetersOutsideTheApplicationNamespace() {
+        Timer.builder("http.server.requests").register(registry).record(Duration.ofMillis(5));
+
+        registry.flush();
+
+        assertTrue(lines.isEmpty());
+    }
+
+    @Test
+    void shouldFlushAfterEveryRecordingResponseFilter() {
+        // Response filters run in descending priority order
+        final int flush = EmfFlushFilter.class.getAnnotation(Priority.class).value();
+        assertTrue(flush < CapacityResponseFilter.class.getAnnotation(Priority.class).value());
+        assertTrue(flush < ServerTimingFilter.class.getAnnotation(Priority.class).value());
+    }
+}
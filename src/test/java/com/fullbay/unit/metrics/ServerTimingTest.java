@@ -0,0 +1,166 @@
+package com.fullbay.unit.metrics;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import io.quarkus.arc.Arc;
+import io.quarkus.arc.ArcContainer;
+import io.quarkus.arc.ClientProxy;
+import io.quarkus.arc.InjectableBean;
+import io.quarkus.arc.InstanceHandle;
+import io.quarkus.arc.ManagedContext;
+
+import jakarta.enterprise.context.ContextNotActiveException;
+import jakarta.ws.rs.core.MultivaluedHashMap;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.core.StreamingOutput;
+import jakarta.ws.rs.ext.WriterInterceptorContext;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+
+import java.util.concurrent.CompletableFuture;
+
+class ServerTimingTest {
+
+    private RequestTimings timings;
+    private ServerTiming serverTiming;
+    private ServerTimingInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() {
+        timings = new RequestTimings();
+        serverTiming = mock(ServerTiming.class);
+        interceptor = new ServerTimingInterceptor(serverTiming);
+    }
+
+    @Test
+    void shouldFormatDependenciesCapacityAndTotal() {
+        final RequestCapacity capacity = new RequestCapacity();
+        capacity.add("GetItem", 0.5, 0);
+        timings.start(1_000_000);
+        timings.record(ServerTiming.DYNAMODB, 2_000_000);
+        timings.record(ServerTiming.DYNAMODB, 1_500_000);
+        timings.record("nhtsa", 118_040_000);
+        timings.record(ServerTiming.JSON, 600_000);
+
+        assertEquals(
+                "dynamodb;dur=3.5;desc=\"2 calls\", nhtsa;dur=118.0;desc=\"1 call\","
+                        + " json;dur=0.6, capacity;desc=\"read=0.5, write=0.0, calls=1;"
+                        + " GetItem=0.5/0.0\", total;dur=140.0",
+                timings.header(capacity, 141_000_000));
+    }
+
+    @Test
+    void shouldOmitCapacityAndTotalWhenUnknown() {
+        timings.record("parts-service", 20_000_000);
+
+        assertEquals(
+                "parts-service;dur=20.0;desc=\"1 call\"", timings.header(new RequestCapacity(), 0));
+    }
+
+    @Test
+    void shouldRecordSuccessfulAndFailedDynamoDbCalls() {
+        when(serverTiming.current()).thenReturn(timings);
+
+        final ExecutionAttributes succeeded = new ExecutionAttributes();
+        interceptor.beforeExecution(mock(Context.BeforeExecution.class), succeeded);
+        interceptor.afterExecution(mock(Context.AfterExecution.class), succeeded);
+        final ExecutionAttributes failed = new ExecutionAttributes();
+        interceptor.beforeExecution(mock(Context.BeforeExecution.class), failed);
+        interceptor.onExecutionFailure(mock(Context.FailedExecution.class), failed);
+
+        assertEquals(2, timings.calls(ServerTiming.DYNAMODB));
+        assertTrue(timings.nanos(ServerTiming.DYNAMODB) > 0);
+    }
+
+    @Test
+    void shouldSendHeaderBeforeStreamedBodyWithoutBuffering() throws Exception {
+        when(serverTiming.current()).thenReturn(timings);
+        timings.start(System.nanoTime());
+        final WriterInterceptorContext context = mock(WriterInterceptorContext.class);
+        final MultivaluedMap<String, Object> headers = new MultivaluedHashMap<>();
+        when(context.getEntity()).thenReturn((StreamingOutput) out -> {});
+        when(context.getHeaders()).thenReturn(headers);
+
+        new ServerTimingFilter(serverTiming, new RequestCapacity()).aroundWriteTo(context);
+
+        verify(context, never()).setOutputStream(any());
+        verify(context).proceed();
+        assertTrue(((String) headers.getFirst(ServerTiming.HEADER)).startsWith("total;dur="));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldRecordAsyncCompletionIntoRequestBean() {
+        final ManagedContext requestContext = mock(ManagedContext.class);
+        when(requestContext.isActive()).thenReturn(true, false);
+        final InstanceHandle<RequestTimings> handle = mock(InstanceHandle.class);
+        when(handle.get()).thenReturn(new ProxiedTimings(timings));
+        final ArcContainer container = mock(ArcContainer.class);
+        when(container.requestContext()).thenReturn(requestContext);
+        when(container.instance(RequestTimings.class)).thenReturn(handle);
+
+        try (MockedStatic<Arc> arc = mockStatic(Arc.class)) {
+            arc.when(Arc::container).thenReturn(container);
+            final ServerTimingInterceptor beanInterceptor =
+                    new ServerTimingInterceptor(new ServerTiming(true));
+
+            final ExecutionAttributes attributes = new ExecutionAttributes();
+            beanInterceptor.beforeExecution(mock(Context.BeforeExecution.class), attributes);
+            // Completes on another thread, after the request context is gone
+            CompletableFuture.runAsync(
+                            () ->
+                                    beanInterceptor.afterExecution(
+                                            mock(Context.AfterExecution.class), attributes))
+                    .join();
+        }
+
+        assertEquals(1, timings.calls(ServerTiming.DYNAMODB));
+    }
+
+    @Test
+    void shouldRecordNothingWhenDisabled() {
+        when(serverTiming.current()).thenReturn(null);
+
+        final ExecutionAttributes attributes = new ExecutionAttributes();
+        interceptor.beforeExecution(mock(Context.BeforeExecution.class), attributes);
+        interceptor.afterExecution(mock(Context.AfterExecution.class), attributes);
+
+        assertEquals(0, timings.calls(ServerTiming.DYNAMODB));
+        assertNull(new ServerTiming(false).current());
+    }
+
+    /**
+     * Stands in for Arc's client proxy, which looks the instance up in the active request context
+     * on every call and fails without one.
+     */
+    private static class ProxiedTimings extends RequestTimings implements ClientProxy {
+
+        private final RequestTimings instance;
+
+        ProxiedTimings(RequestTimings instance) {
+            this.instance = instance;
+        }
+
+        @Override
+        public Object arc_contextualInstance() {
+            return instance;
+        }
+
+        @Override
+        public InjectableBean<?> arc_bean() {
+            return null;
+        }
+
+        @Override
+        synchronized void record(String dependency, long nanos) {
+            throw new ContextNotActiveException();
+        }
+    }
+}
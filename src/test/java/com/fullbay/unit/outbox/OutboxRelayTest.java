@@ -0,0 +1,153 @@
+package com.fullbay.unit.outbox;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fullbay.unit.dynamodb.InMemoryDynamoDbAsyncClient;
+import com.fullbay.unit.dynamodb.InMemoryDynamoDbClient;
+import com.fullbay.unit.dynamodb.UnitTableSchema;
+import com.fullbay.unit.metrics.UnitMetrics;
+import com.fullbay.unit.model.entity.UnitChangeEvent;
+import com.fullbay.unit.model.entity.UnitChangeEvent.Op;
+import com.fullbay.unit.repository.OutboxRepository;
+import com.fullbay.unit.repository.UnitChangesRepository;
+import com.fullbay.unit.repository.UnitOfWork;
+import com.fullbay.util.JacksonConverter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.IntStream;
+
+class OutboxRelayTest {
+
+    private static final String TABLE = "g-unit-service-test";
+
+    private InMemoryDynamoDbClient client;
+    private OutboxRepository outboxRepository;
+    private InMemoryUnitChangePublisher publisher;
+    private UnitOfWork unitOfWork;
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        client = UnitTableSchema.inMemory(TABLE);
+        final UnitMetrics unitMetrics = new UnitMetrics(new SimpleMeterRegistry());
+        final JacksonConverter jacksonConverter = new JacksonConverter();
+        outboxRepository =
+                new OutboxRepository(
+                        client, jacksonConverter, unitMetrics, 4, Duration.ofDays(7), TABLE);
+        unitOfWork =
+                new UnitOfWork(
+                        client,
+                        new InMemoryDynamoDbAsyncClient(client),
+                        outboxRepository,
+                        new UnitChangesRepository(
+                                client, jacksonConverter, Duration.ofDays(30), TABLE),
+                        jacksonConverter,
+                        unitMetrics,
+                        TABLE);
+        publisher = new InMemoryUnitChangePublisher(100);
+        relay = new OutboxRelay(outboxRepository, publisher, 2, false, Duration.ofSeconds(1));
+    }
+
+    @Test
+    void shouldPublishEachUnitsEventsInOrderAndEmptyOutbox() {
+        final Instant start = Instant.parse("2025-01-01T00:00:00Z");
+        IntStream.rangeClosed(1, 3)
+                .forEach(
+                        v -> {
+                            append(event("unt-a", v, start.plusSeconds(v)));
+                            append(event("unt-b", v, start.plusSeconds(v)));
+                        });
+
+        assertEquals(6, relay.drain());
+
+        final List<UnitChangeEvent> published = publisher.events();
+        assertEquals(6, published.size());
+        assertEquals(List.of(1L, 2L, 3L), versions(published, "unt-a"));
+        assertEquals(List.of(1L, 2L, 3L), versions(published, "unt-b"));
+        assertEquals(0, client.itemCount(TABLE));
+        assertEquals(0, relay.drain());
+    }
+
+    @Test
+    void shouldKeepEventsWhenPublishFails() {
+        append(event("unt-a", 1, Instant.parse("2025-01-01T00:00:00Z")));
+        final OutboxRelay failing =
+                new OutboxRelay(
+                        outboxRepository,
+                        events -> {
+                            throw new IllegalStateException("down");
+                        },
+                        25,
+                        false,
+                        Duration.ofSeconds(1));
+
+        assertThrows(IllegalStateException.class, failing::drain);
+
+        assertEquals(1, relay.drain());
+        assertEquals("unt-a", publisher.events().get(0).unitId());
+    }
+
+    @Test
+    void shouldRefuseToRelayIntoMemoryPublisherOutsideDevAndTest() {
+        final OutboxRelay lossy =
+                new OutboxRelay(outboxRepository, publisher, 25, true, Duration.ofSeconds(1));
+
+        // Plain JUnit runs in the NORMAL (prod) launch mode
+        assertFalse(lossy.canDrain());
+        assertThrows(IllegalStateException.class, () -> lossy.onStart(null));
+    }
+
+    @Test
+    void shouldStartWithDurablePublisher() {
+        final OutboxRelay durable =
+                new OutboxRelay(outboxRepository, events -> {}, 25, true, Duration.ofSeconds(1));
+
+        assertTrue(durable.canDrain());
+        durable.onStart(null);
+        durable.onStop(null);
+    }
+
+    @Test
+    void shouldRefuseToRelayIntoFileOnInstanceDisk(@TempDir Path dir) {
+        final FileUnitChangePublisher instanceFile =
+                new FileUnitChangePublisher(
+                        dir.resolve("unit-changes.ndjson"), new ObjectMapper(), false);
+        final OutboxRelay lossy =
+                new OutboxRelay(outboxRepository, instanceFile, 25, true, Duration.ofSeconds(1));
+
+        assertFalse(lossy.canDrain());
+        assertThrows(IllegalStateException.class, () -> lossy.onStart(null));
+    }
+
+    private void append(UnitChangeEvent event) {
+        unitOfWork.begin().appendEvent(event).commit();
+    }
+
+    private static List<Long> versions(List<UnitChangeEvent> events, String unitId) {
+        return events.stream()
+                .filter(e -> unitId.equals(e.unitId()))
+                .map(UnitChangeEvent::version)
+                .toList();
+    }
+
+    private static UnitChangeEvent event(String unitId, long version, Instant occurredAt) {
+        return UnitChangeEvent.builder()
+                .unitId(unitId)
+                .customerId("cst-1")
+                .vin("1FUJGLDR0CLBP8834")
+                .version(version)
+                .op(Op.UPDATE)
+                .occurredAt(occurredAt)
+                .build();
+    }
+}
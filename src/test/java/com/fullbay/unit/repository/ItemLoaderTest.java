@@ -0,0 +1,195 @@
+package com.fullbay.unit.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fullbay.unit.dynamodb.InMemoryDynamoDbClient;
+import com.fullbay.unit.dynamodb.UnitTableSchema;
+import com.fullbay.unit.metrics.UnitMetrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.ProvisionedThroughputExceededException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+class ItemLoaderTest {
+
+    private static final String TABLE = "g-unit-service-test";
+    private static final Duration WINDOW = Duration.ofMillis(50);
+
+    private InMemoryDynamoDbClient client;
+    private SimpleMeterRegistry registry;
+    private UnitMetrics unitMetrics;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        client = UnitTableSchema.inMemory(TABLE);
+        registry = new SimpleMeterRegistry();
+        unitMetrics = new UnitMetrics(registry);
+        executor = Executors.newCachedThreadPool();
+        for (int i = 0; i < 10; i++) {
+            final String key = "UNT#unt-" + i;
+            final String n = String.valueOf(i);
+            client.putItem(
+                    req ->
+                            req.tableName(TABLE)
+                                    .item(Map.of("PK", s(key), "SK", s(key), "n", s(n))));
+        }
+        client.resetMetrics();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void shouldUseGetItemWhenDisabled() {
+        final ItemLoader loader = new ItemLoader(client, unitMetrics, false, WINDOW, 100, TABLE);
+
+        assertEquals("3", loader.get("UNT#unt-3", "UNT#unt-3").orElseThrow().get("n").s());
+        assertTrue(loader.get("UNT#unt-99", "UNT#unt-99").isEmpty());
+        assertEquals(2, client.operationCount("GetItem"));
+        assertEquals(0, client.operationCount("BatchGetItem"));
+    }
+
+    @Test
+    void shouldCoalesceConcurrentLookupsIntoOneBatch() throws Exception {
+        final ItemLoader loader = new ItemLoader(client, unitMetrics, true, WINDOW, 100, TABLE);
+
+        final List<Optional<Map<String, AttributeValue>>> results =
+                concurrently(12, i -> loader.get("UNT#unt-" + i, "UNT#unt-" + i));
+
+        for (int i = 0; i < 12; i++) {
+            if (i < 10) {
+                assertEquals(String.valueOf(i), results.get(i).orElseThrow().get("n").s());
+            } else {
+                assertTrue(results.get(i).isEmpty());
+            }
+        }
+        assertEquals(1, client.operationCount("BatchGetItem"));
+        assertEquals(0, client.operationCount("GetItem"));
+    }
+
+    @Test
+    void shouldDeduplicateKeysInFlight() throws Exception {
+        final ItemLoader loader = new ItemLoader(client, unitMetrics, true, WINDOW, 100, TABLE);
+
+        final List<Optional<Map<String, AttributeValue>>> results =
+                concurrently(8, i -> loader.get("UNT#unt-1", "UNT#unt-1"));
+
+        results.forEach(result -> assertEquals("1", result.orElseThrow().get("n").s()));
+        assertEquals(1, client.operationCount("BatchGetItem"));
+        assertEquals(1.0, batchSizes().max());
+    }
+
+    @Test
+    void shouldCloseBatchAtMaxSize() throws Exception {
+        final ItemLoader loader =
+                new ItemLoader(client, unitMetrics, true, Duration.ofSeconds(5), 2, TABLE);
+
+        final long start = System.nanoTime();
+        concurrently(4, i -> loader.get("UNT#unt-" + i, "UNT#unt-" + i));
+
+        assertEquals(2, client.operationCount("BatchGetItem"));
+        assertEquals(2.0, batchSizes().max());
+        // Full batches are issued without waiting out the window
+        assertTrue(
+                Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofSeconds(5)) < 0);
+    }
+
+    @Test
+    void shouldFailEveryWaiterWhenBatchFails() throws Exception {
+        final DynamoDbClient failing = mock(DynamoDbClient.class);
+        when(failing.batchGetItem(any(BatchGetItemRequest.class)))
+                .thenThrow(ProvisionedThroughputExceededException.builder().build());
+        final ItemLoader loader = new ItemLoader(failing, unitMetrics, true, WINDOW, 100, TABLE);
+
+        final ExecutionException failure =
+                assertThrows(
+                        ExecutionException.class,
+                        () -> concurrently(3, i -> loader.get("UNT#unt-" + i, "UNT#unt-" + i)));
+        assertInstanceOf(ProvisionedThroughputExceededException.class, failure.getCause());
+    }
+
+    @Test
+    void shouldGiveUpOnKeysLeftUnprocessed() throws Exception {
+        final DynamoDbClient throttled = mock(DynamoDbClient.class);
+        when(throttled.batchGetItem(any(BatchGetItemRequest.class)))
+                .thenAnswer(
+                        invocation ->
+                                BatchGetItemResponse.builder()
+                                        .responses(Map.of(TABLE, List.of()))
+                                        .unprocessedKeys(
+                                                invocation
+                                                        .<BatchGetItemRequest>getArgument(0)
+                                                        .requestItems())
+                                        .build());
+        final ItemLoader loader = new ItemLoader(throttled, unitMetrics, true, WINDOW, 100, TABLE);
+
+        final ExecutionException failure =
+                assertThrows(
+                        ExecutionException.class,
+                        () -> concurrently(2, i -> loader.get("UNT#unt-" + i, "UNT#unt-" + i)));
+        assertInstanceOf(IllegalStateException.class, failure.getCause());
+        verify(throttled, times(6)).batchGetItem(any(BatchGetItemRequest.class));
+    }
+
+    private <T> List<T> concurrently(int callers, Lookup<T> lookup) throws Exception {
+        final CountDownLatch ready = new CountDownLatch(callers);
+        final List<Future<T>> futures = new ArrayList<>();
+        for (int i = 0; i < callers; i++) {
+            final int index = i;
+            final Callable<T> call =
+                    () -> {
+                        ready.countDown();
+                        ready.await();
+                        return lookup.get(index);
+                    };
+            futures.add(executor.submit(call));
+        }
+        final List<T> results = new ArrayList<>();
+        for (final Future<T> future : futures) {
+            results.add(future.get());
+        }
+        return results;
+    }
+
+    private DistributionSummary batchSizes() {
+        return registry.get(UnitMetrics.BATCH_SIZE).tag("repository", "item-loader").summary();
+    }
+
+    private static AttributeValue s(String value) {
+        return AttributeValue.builder().s(value).build();
+    }
+
+    @FunctionalInterface
+    private interface Lookup<T> {
+        T get(int index);
+    }
+}
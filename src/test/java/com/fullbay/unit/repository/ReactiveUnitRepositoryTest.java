@@ -0,0 +1,233 @@
+package com.fullbay.unit.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fullbay.unit.dynamodb.InMemoryDynamoDbAsyncClient;
+import com.fullbay.unit.dynamodb.InMemoryDynamoDbClient;
+import com.fullbay.unit.dynamodb.UnitTableSchema;
+import com.fullbay.unit.exception.UnitIdCollisionException;
+import com.fullbay.unit.metrics.UnitMetrics;
+import com.fullbay.unit.model.entity.Unit;
+import com.fullbay.unit.model.entity.Vehicle;
+import com.fullbay.util.JacksonConverter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemResponse;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+class ReactiveUnitRepositoryTest {
+
+    private static final String TABLE = "g-unit-service-test";
+    private static final int PAGE_SIZE = 40;
+
+    private InMemoryDynamoDbClient client;
+    private ReactiveUnitRepository repository;
+    private ReactiveVehicleRepository vehicleRepository;
+
+    @BeforeEach
+    void setUp() {
+        client = UnitTableSchema.inMemory(TABLE);
+        final InMemoryDynamoDbAsyncClient asyncClient =
+                new InMemoryDynamoDbAsyncClient(client, PAGE_SIZE);
+        final UnitMetrics unitMetrics = new UnitMetrics(new SimpleMeterRegistry());
+        repository =
+                new ReactiveUnitRepository(asyncClient, new JacksonConverter(), unitMetrics, TABLE);
+        vehicleRepository =
+                new ReactiveVehicleRepository(
+                        asyncClient, new JacksonConverter(), unitMetrics, TABLE);
+    }
+
+    @Test
+    void shouldSaveAndFindById() {
+        repository.save(unit("unt-1", "cst-1", "1HGCM82633A004352")).await().indefinitely();
+
+        final Unit found = repository.findById("unt-1").await().indefinitely().orElseThrow();
+
+        assertEquals("cst-1", found.customerId());
+        assertEquals(1L, found.version());
+        assertTrue(repository.findById("unt-2").await().indefinitely().isEmpty());
+    }
+
+    @Test
+    void shouldRejectDuplicateIdOnSave() {
+        repository.save(unit("unt-1", "cst-1", "1HGCM82633A004352")).await().indefinitely();
+
+        assertThrows(
+                UnitIdCollisionException.class,
+                () ->
+                        repository
+                                .save(unit("unt-1", "cst-2", "1FUJGLDR0CLBP8834"))
+                                .await()
+                                .indefinitely());
+    }
+
+    @Test
+    void shouldResolveEveryQueryPageInOrder() {
+        final List<String> ids = new ArrayList<>();
+        IntStream.range(0, 130)
+                .forEach(
+                        i -> {
+                            final String unitId = "unt-%03d".formatted(i);
+                            ids.add(unitId);
+                            repository
+                                    .save(unit(unitId, "cst-1", "VIN%014d".formatted(i)))
+                                    .await()
+                                    .indefinitely();
+                        });
+
+        final List<List<Unit>> pages =
+                repository.findByCustomerId("cst-1").collect().asList().await().indefinitely();
+
+        assertEquals(4, pages.size());
+        assertEquals(PAGE_SIZE, pages.get(0).size());
+        assertEquals(ids, pages.stream().flatMap(List::stream).map(Unit::unitId).sorted().toList());
+        assertEquals(
+                pages.stream().flatMap(List::stream).map(Unit::vin).sorted().toList(),
+                pages.stream().flatMap(List::stream).map(Unit::vin).toList());
+        assertEquals(pages.size(), client.operationCount("BatchGetItem"));
+    }
+
+    @Test
+    void shouldQueryByVinAndCustomerThroughIndexes() {
+        repository.save(unit("unt-1", "cst-1", "1HGCM82633A004352")).await().indefinitely();
+        repository.save(unit("unt-2", "cst-1", "1FUJGLDR0CLBP8834")).await().indefinitely();
+        repository.save(unit("unt-3", "cst-2", "1HGCM82633A004352")).await().indefinitely();
+
+        assertEquals(
+                List.of("unt-2"),
+                repository
+                        .findByCustomerIdAndVin("cst-1", "1FUJGLDR0CLBP8834")
+                        .collect()
+                        .asList()
+                        .await()
+                        .indefinitely()
+                        .stream()
+                        .flatMap(List::stream)
+                        .map(Unit::unitId)
+                        .toList());
+        assertEquals(
+                2,
+                repository
+                        .findByVin("1HGCM82633A004352")
+                        .collect()
+                        .asList()
+                        .await()
+                        .indefinitely()
+                        .stream()
+                        .mapToInt(List::size)
+                        .sum());
+    }
+
+    @Test
+    void shouldBatchGetUnitsAcrossChunksKeepingRequestOrder() {
+        final List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 150; i++) {
+            final String unitId = "unt-%03d".formatted(i);
+            ids.add(0, unitId);
+            repository.save(unit(unitId, "cst-1", "VIN%014d".formatted(i))).await().indefinitely();
+        }
+        client.resetMetrics();
+
+        final List<String> requested = new ArrayList<>(ids);
+        requested.add(75, "unt-missing");
+        final List<Unit> found = repository.findByIds(requested).await().indefinitely();
+
+        assertEquals(ids, found.stream().map(Unit::unitId).toList());
+        assertEquals(2, client.operationCount("BatchGetItem"));
+    }
+
+    @Test
+    void shouldRetryUnprocessedKeysThenGiveUp() {
+        repository.save(unit("unt-1", "cst-1", "1HGCM82633A004352")).await().indefinitely();
+        final AtomicInteger unprocessedResponses = new AtomicInteger(1);
+        final AtomicInteger calls = new AtomicInteger();
+        final InMemoryDynamoDbAsyncClient throttled =
+                new InMemoryDynamoDbAsyncClient(client, PAGE_SIZE) {
+                    @Override
+                    public CompletableFuture<BatchGetItemResponse> batchGetItem(
+                            BatchGetItemRequest request) {
+                        calls.incrementAndGet();
+                        if (unprocessedResponses.getAndDecrement() > 0) {
+                            return CompletableFuture.completedFuture(
+                                    BatchGetItemResponse.builder()
+                                            .responses(Map.of(TABLE, List.of()))
+                                            .unprocessedKeys(request.requestItems())
+                                            .build());
+                        }
+                        return super.batchGetItem(request);
+                    }
+                };
+        final ReactiveUnitRepository retrying =
+                new ReactiveUnitRepository(
+                        throttled,
+                        new JacksonConverter(),
+                        new UnitMetrics(new SimpleMeterRegistry()),
+                        TABLE);
+
+        assertEquals(
+                List.of("unt-1"),
+                retrying.findByIds(List.of("unt-1")).await().indefinitely().stream()
+                        .map(Unit::unitId)
+                        .toList());
+        assertEquals(2, calls.get());
+
+        calls.set(0);
+        unprocessedResponses.set(Integer.MAX_VALUE);
+        assertThrows(
+                IllegalStateException.class,
+                () -> retrying.findByIds(List.of("unt-1")).await().indefinitely());
+        assertEquals(6, calls.get());
+    }
+
+    @Test
+    void shouldSaveAndBatchGetVehicles() {
+        vehicleRepository.save(vehicle("1HGCM82633A004352")).await().indefinitely();
+        vehicleRepository.save(vehicle("1FUJGLDR0CLBP8834")).await().indefinitely();
+
+        assertEquals(
+                2020,
+                vehicleRepository
+                        .findByVin("1HGCM82633A004352")
+                        .await()
+                        .indefinitely()
+                        .orElseThrow()
+                        .year());
+
+        final Map<String, Vehicle> vehicles =
+                vehicleRepository
+                        .findByVins(Set.of("1HGCM82633A004352", "1FUJGLDR0CLBP8834", "MISSING"))
+                        .await()
+                        .indefinitely();
+
+        assertEquals(Set.of("1HGCM82633A004352", "1FUJGLDR0CLBP8834"), vehicles.keySet());
+    }
+
+    private static Unit unit(String unitId, String customerId, String vin) {
+        final Instant now = Instant.now();
+        return Unit.builder()
+                .unitId(unitId)
+                .customerId(customerId)
+                .vin(vin)
+                .createdAt(now)
+                .updatedAt(now)
+                .version(1L)
+                .build();
+    }
+
+    private static Vehicle vehicle(String vin) {
+        return Vehicle.builder().vin(vin).year(2020).make("Honda").model("Accord").build();
+    }
+}
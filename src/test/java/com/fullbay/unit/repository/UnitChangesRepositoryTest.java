@@ -0,0 +1,198 @@
+package com.fullbay.unit.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fullbay.unit.dynamodb.InMemoryDynamoDbAsyncClient;
+import com.fullbay.unit.dynamodb.InMemoryDynamoDbClient;
+import com.fullbay.unit.dynamodb.UnitTableSchema;
+import com.fullbay.unit.exception.InvalidCursorException;
+import com.fullbay.unit.metrics.UnitMetrics;
+import com.fullbay.unit.model.entity.Unit;
+import com.fullbay.unit.model.response.UnitChanges;
+import com.fullbay.util.JacksonConverter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+class UnitChangesRepositoryTest {
+
+    private static final String TABLE = "g-unit-service-test";
+    private static final Instant T0 = Instant.parse("2025-01-01T00:00:00Z");
+
+    private UnitRepository unitRepository;
+    private UnitChangesRepository unitChangesRepository;
+    private UnitOfWork unitOfWork;
+
+    @BeforeEach
+    void setUp() {
+        final InMemoryDynamoDbClient client = UnitTableSchema.inMemory(TABLE);
+        final UnitMetrics unitMetrics = new UnitMetrics(new SimpleMeterRegistry());
+        final JacksonConverter jacksonConverter = new JacksonConverter();
+        final ItemLoader itemLoader =
+                new ItemLoader(client, unitMetrics, false, Duration.ZERO, 100, TABLE);
+        unitRepository =
+                new UnitRepository(client, jacksonConverter, unitMetrics, itemLoader, TABLE);
+        unitChangesRepository =
+                new UnitChangesRepository(client, jacksonConverter, Duration.ofDays(30), TABLE);
+        unitOfWork =
+                new UnitOfWork(
+                        client,
+                        new InMemoryDynamoDbAsyncClient(client),
+                        new OutboxRepository(
+                                client,
+                                jacksonConverter,
+                                unitMetrics,
+                                1,
+                                Duration.ofDays(7),
+                                TABLE),
+                        unitChangesRepository,
+                        jacksonConverter,
+                        unitMetrics,
+                        TABLE);
+    }
+
+    @Test
+    void shouldReturnOnlyUnitsChangedAfterSince() {
+        unitRepository.save(unit("unt-1", "cst-1", T0.plusSeconds(1)));
+        unitRepository.save(unit("unt-2", "cst-1", T0.plusSeconds(5)));
+        unitRepository.save(unit("unt-3", "cst-1", T0.plusMillis(5_500)));
+        unitRepository.save(unit("unt-4", "cst-2", T0.plusSeconds(9)));
+
+        final UnitChanges page =
+                unitChangesRepository.findChanges("cst-1", T0.plusSeconds(5), 100, null);
+
+        assertEquals(List.of("unt-3"), page.getItems().stream().map(Unit::unitId).toList());
+        assertTrue(page.getDeleted().isEmpty());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void shouldReportDeletedAndMovedUnits() {
+        final Unit deleted = unit("unt-1", "cst-1", T0);
+        final Unit moved = unit("unt-2", "cst-1", T0);
+        unitRepository.save(deleted);
+        unitRepository.save(moved);
+
+        unitOfWork
+                .begin()
+                .deleteUnit(deleted)
+                .writeTombstone("cst-1", "unt-1", T0.plusSeconds(10))
+                .commit();
+        unitOfWork
+                .begin()
+                .updateUnit(
+                        moved.withCustomerId("cst-2")
+                                .withUpdatedAt(T0.plusSeconds(20))
+                                .withVersion(2L))
+                .writeTombstone("cst-1", "unt-2", T0.plusSeconds(20))
+                .commit();
+
+        final UnitChanges cst1 = unitChangesRepository.findChanges("cst-1", T0, 100, null);
+        final UnitChanges cst2 = unitChangesRepository.findChanges("cst-2", T0, 100, null);
+
+        assertTrue(cst1.getItems().isEmpty());
+        assertEquals(List.of("unt-1", "unt-2"), cst1.getDeleted());
+        assertEquals(List.of("unt-2"), cst2.getItems().stream().map(Unit::unitId).toList());
+    }
+
+    @Test
+    void shouldDropTombstoneWhenUnitMovesBack() {
+        final Unit unit = unit("unt-1", "cst-1", T0);
+        unitRepository.save(unit);
+        final Unit moved =
+                unit.withCustomerId("cst-2").withUpdatedAt(T0.plusSeconds(10)).withVersion(2L);
+        unitOfWork
+                .begin()
+                .updateUnit(moved)
+                .writeTombstone("cst-1", "unt-1", T0.plusSeconds(10))
+                .deleteTombstone("cst-2", "unt-1")
+                .commit();
+        unitOfWork
+                .begin()
+                .updateUnit(
+                        moved.withCustomerId("cst-1")
+                                .withUpdatedAt(T0.plusSeconds(20))
+                                .withVersion(3L))
+                .writeTombstone("cst-2", "unt-1", T0.plusSeconds(20))
+                .deleteTombstone("cst-1", "unt-1")
+                .commit();
+
+        final UnitChanges cst1 = unitChangesRepository.findChanges("cst-1", T0, 100, null);
+        final UnitChanges cst2 = unitChangesRepository.findChanges("cst-2", T0, 100, null);
+
+        assertEquals(List.of("unt-1"), cst1.getItems().stream().map(Unit::unitId).toList());
+        assertTrue(cst1.getDeleted().isEmpty());
+        assertTrue(cst2.getItems().isEmpty());
+        assertEquals(List.of("unt-1"), cst2.getDeleted());
+    }
+
+    @Test
+    void shouldRejectMalformedCursor() {
+        final String foreignKey =
+                Base64.getUrlEncoder()
+                        .withoutPadding()
+                        .encodeToString(
+                                "2025-01-01T00:00:00Z|VIN#1FUJGLDR0CLBP8834|VIN#1FUJGLDR0CLBP8834"
+                                        .getBytes(StandardCharsets.UTF_8));
+
+        assertThrows(
+                InvalidCursorException.class,
+                () -> unitChangesRepository.findChanges("cst-1", T0, 100, "not a cursor!"));
+        assertThrows(
+                InvalidCursorException.class,
+                () -> unitChangesRepository.findChanges("cst-1", T0, 100, "bm9wZQ"));
+        assertThrows(
+                InvalidCursorException.class,
+                () -> unitChangesRepository.findChanges("cst-1", T0, 100, foreignKey));
+    }
+
+    @Test
+    void shouldSkipTombstonesOnFullSync() {
+        final Unit deleted = unit("unt-1", "cst-1", T0);
+        unitRepository.save(deleted);
+        unitRepository.save(unit("unt-2", "cst-1", T0));
+        unitOfWork.begin().deleteUnit(deleted).writeTombstone("cst-1", "unt-1", T0).commit();
+
+        final UnitChanges page = unitChangesRepository.findChanges("cst-1", null, 100, null);
+
+        assertEquals(List.of("unt-2"), page.getItems().stream().map(Unit::unitId).toList());
+        assertTrue(page.getDeleted().isEmpty());
+    }
+
+    @Test
+    void shouldPageInChangeOrder() {
+        for (int i = 5; i >= 1; i--) {
+            unitRepository.save(unit("unt-" + i, "cst-1", T0.plusSeconds(i)));
+        }
+
+        final List<String> unitIds = new ArrayList<>();
+        String cursor = null;
+        do {
+            final UnitChanges page = unitChangesRepository.findChanges("cst-1", T0, 2, cursor);
+            page.getItems().forEach(u -> unitIds.add(u.unitId()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertEquals(List.of("unt-1", "unt-2", "unt-3", "unt-4", "unt-5"), unitIds);
+    }
+
+    private static Unit unit(String unitId, String customerId, Instant updatedAt) {
+        return Unit.builder()
+                .unitId(unitId)
+                .customerId(customerId)
+                .vin("1FUJGLDR0CLBP8834")
+                .createdAt(T0)
+                .updatedAt(updatedAt)
+                .version(1L)
+                .build();
+    }
+}
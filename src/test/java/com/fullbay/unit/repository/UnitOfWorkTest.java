@@ -0,0 +1,385 @@
+package com.fullbay.unit.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fullbay.unit.dynamodb.InMemoryDynamoDbAsyncClient;
+import com.fullbay.unit.dynamodb.InMemoryDynamoDbClient;
+import com.fullbay.unit.dynamodb.UnitTableSchema;
+import com.fullbay.unit.exception.UnitIdCollisionException;
+import com.fullbay.unit.exception.UnitNotFoundException;
+import com.fullbay.unit.exception.VersionConflictException;
+import com.fullbay.unit.metrics.UnitMetrics;
+import com.fullbay.unit.model.entity.FleetSummary;
+import com.fullbay.unit.model.entity.Unit;
+import com.fullbay.unit.model.entity.UnitChangeEvent;
+import com.fullbay.unit.model.entity.UnitChangeEvent.Op;
+import com.fullbay.unit.model.entity.Vehicle;
+import com.fullbay.unit.model.entity.VehicleDimensions;
+import com.fullbay.util.JacksonConverter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import software.amazon.awssdk.services.dynamodb.model.CancellationReason;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsResponse;
+import software.amazon.awssdk.services.dynamodb.model.TransactionCanceledException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class UnitOfWorkTest {
+
+    private static final String TABLE = "g-unit-service-test";
+    private static final String VIN = "1FUJGLDR0CLBP8834";
+
+    private InMemoryDynamoDbClient client;
+    private UnitOfWork unitOfWork;
+    private OutboxRepository outboxRepository;
+    private UnitRepository unitRepository;
+    private VehicleRepository vehicleRepository;
+    private FleetSummaryRepository fleetSummaryRepository;
+
+    @BeforeEach
+    void setUp() {
+        client = UnitTableSchema.inMemory(TABLE);
+        final UnitMetrics unitMetrics = new UnitMetrics(new SimpleMeterRegistry());
+        final JacksonConverter jacksonConverter = new JacksonConverter();
+        final ItemLoader itemLoader =
+                new ItemLoader(client, unitMetrics, false, Duration.ZERO, 100, TABLE);
+        outboxRepository =
+                new OutboxRepository(
+                        client, jacksonConverter, unitMetrics, 1, Duration.ofDays(7), TABLE);
+        unitOfWork =
+                new UnitOfWork(
+                        client,
+                        new InMemoryDynamoDbAsyncClient(client),
+                        outboxRepository,
+                        new UnitChangesRepository(
+                                client, jacksonConverter, Duration.ofDays(30), TABLE),
+                        jacksonConverter,
+                        unitMetrics,
+                        TABLE);
+        unitRepository =
+                new UnitRepository(client, jacksonConverter, unitMetrics, itemLoader, TABLE);
+        vehicleRepository =
+                new VehicleRepository(client, jacksonConverter, unitMetrics, itemLoader, TABLE);
+        fleetSummaryRepository = new FleetSummaryRepository(client, TABLE);
+    }
+
+    @Test
+    void shouldCommitVehicleAndUnitInOneCall() {
+        unitOfWork.begin().saveVehicle(vehicle("Cascadia")).saveNewUnit(unit("unt-1")).commit();
+
+        assertEquals("Cascadia", vehicleRepository.findByVin(VIN).orElseThrow().model());
+        assertEquals("cst-1", unitRepository.findById("unt-1").orElseThrow().customerId());
+        assertEquals(1, client.operationCount("TransactWriteItems"));
+        assertEquals(0, client.operationCount("PutItem"));
+    }
+
+    @Test
+    void shouldSkipUnchangedVehicle() {
+        final Vehicle original = vehicle("Cascadia");
+        unitOfWork.begin().saveVehicle(original).saveNewUnit(unit("unt-1")).commit();
+
+        client.resetMetrics();
+
+        // Same decode later: only timestamps differ, so the stored vehicle is kept
+        unitOfWork
+                .begin()
+                .saveVehicle(
+                        original.withUpdatedAt(Instant.parse("2030-01-01T00:00:00Z")),
+                        storedContentHash())
+                .saveNewUnit(unit("unt-2"))
+                .commit();
+
+        assertEquals(
+                original.updatedAt(), vehicleRepository.findByVin(VIN).orElseThrow().updatedAt());
+        assertTrue(unitRepository.findById("unt-2").isPresent());
+        assertEquals(1, client.operationCount("TransactWriteItems"));
+    }
+
+    @Test
+    void shouldRewriteVehicleWhenStoredHashUnknown() {
+        unitOfWork.begin().saveVehicle(vehicle("Cascadia")).saveNewUnit(unit("unt-1")).commit();
+        client.resetMetrics();
+
+        final Instant later = Instant.parse("2030-01-01T00:00:00Z");
+        unitOfWork
+                .begin()
+                .saveVehicle(vehicle("Cascadia").withUpdatedAt(later))
+                .saveNewUnit(unit("unt-2"))
+                .commit();
+
+        assertEquals(later, vehicleRepository.findByVin(VIN).orElseThrow().updatedAt());
+        assertEquals(1, client.operationCount("TransactWriteItems"));
+    }
+
+    @Test
+    void shouldOverwriteChangedVehicle() {
+        unitOfWork.begin().saveVehicle(vehicle("Cascadia")).saveNewUnit(unit("unt-1")).commit();
+
+        unitOfWork
+                .begin()
+                .saveVehicle(vehicle("Cascadia Evolution"))
+                .saveNewUnit(unit("unt-2"))
+                .commit();
+
+        assertEquals("Cascadia Evolution", vehicleRepository.findByVin(VIN).orElseThrow().model());
+        assertEquals(2, client.operationCount("TransactWriteItems"));
+    }
+
+    @Test
+    void shouldWriteNothingOnUnitIdCollision() {
+        unitRepository.save(unit("unt-1"));
+
+        assertThrows(
+                UnitIdCollisionException.class,
+                () ->
+                        unitOfWork
+                                .begin()
+                                .saveVehicle(vehicle("Cascadia"))
+                                .saveNewUnit(unit("unt-1"))
+                                .commit());
+
+        assertTrue(vehicleRepository.findByVin(VIN).isEmpty());
+    }
+
+    @Test
+    void shouldAppendEventInSameTransaction() {
+        unitOfWork
+                .begin()
+                .saveVehicle(vehicle("Cascadia"))
+                .saveNewUnit(unit("unt-1"))
+                .appendEvent(event("unt-1", 1L, Op.CREATE))
+                .commit();
+
+        final List<UnitChangeEvent> pending = outboxRepository.findPending(0, 10);
+        assertEquals(1, pending.size());
+        assertEquals(Op.CREATE, pending.get(0).op());
+        assertEquals("cst-1", pending.get(0).customerId());
+        assertEquals(1, client.operationCount("TransactWriteItems"));
+    }
+
+    @Test
+    void shouldDropEventWhenUnitWriteFails() {
+        unitRepository.save(unit("unt-1"));
+
+        assertThrows(
+                UnitIdCollisionException.class,
+                () ->
+                        unitOfWork
+                                .begin()
+                                .saveNewUnit(unit("unt-1"))
+                                .appendEvent(event("unt-1", 1L, Op.CREATE))
+                                .commit());
+
+        assertTrue(outboxRepository.findPending(0, 10).isEmpty());
+    }
+
+    @Test
+    void shouldUpdateUnitAtExpectedVersion() {
+        unitRepository.save(unit("unt-1"));
+
+        unitOfWork
+                .begin()
+                .updateUnit(unit("unt-1").withCustomerId("cst-2").withVersion(2L))
+                .appendEvent(event("unt-1", 2L, Op.UPDATE))
+                .commit();
+
+        assertEquals("cst-2", unitRepository.findById("unt-1").orElseThrow().customerId());
+        assertEquals(1, outboxRepository.findPending(0, 10).size());
+    }
+
+    @Test
+    void shouldRejectStaleUpdate() {
+        unitRepository.save(unit("unt-1"));
+
+        assertThrows(
+                VersionConflictException.class,
+                () ->
+                        unitOfWork
+                                .begin()
+                                .updateUnit(unit("unt-1").withVersion(3L))
+                                .appendEvent(event("unt-1", 3L, Op.UPDATE))
+                                .commit());
+
+        assertTrue(outboxRepository.findPending(0, 10).isEmpty());
+    }
+
+    @Test
+    void shouldDeleteUnitAndFailWhenAlreadyGone() {
+        unitRepository.save(unit("unt-1"));
+
+        unitOfWork
+                .begin()
+                .deleteUnit(unit("unt-1"))
+                .appendEvent(event("unt-1", 2L, Op.DELETE))
+                .commit();
+
+        assertTrue(unitRepository.findById("unt-1").isEmpty());
+        assertThrows(
+                UnitNotFoundException.class,
+                () -> unitOfWork.begin().deleteUnit(unit("unt-1")).commit());
+    }
+
+    @Test
+    void shouldCommitAsyncSkippingUnchangedVehicle() {
+        unitOfWork.begin().saveVehicle(vehicle("Cascadia")).saveNewUnit(unit("unt-1")).commit();
+
+        unitOfWork
+                .begin()
+                .saveVehicle(vehicle("Cascadia"), storedContentHash())
+                .saveNewUnit(unit("unt-2"))
+                .appendEvent(event("unt-2", 1L, Op.CREATE))
+                .commitAsync()
+                .await()
+                .indefinitely();
+
+        assertTrue(unitRepository.findById("unt-2").isPresent());
+        assertEquals(1, outboxRepository.findPending(0, 10).size());
+        assertEquals(2, client.operationCount("TransactWriteItems"));
+    }
+
+    @Test
+    void shouldCountFleetSummaryWithUnit() {
+        final Unit unit = unit("unt-1").withDimensions(VehicleDimensions.of(vehicle("Cascadia")));
+
+        unitOfWork
+                .begin()
+                .saveNewUnit(unit)
+                .addFleetCounts("cst-1", Map.of("total", 1L, "make#FREIGHTLINER", 1L))
+                .commit();
+
+        final FleetSummary summary = fleetSummaryRepository.findByCustomerId("cst-1").orElseThrow();
+        assertEquals(1L, summary.total());
+        assertEquals(1L, summary.byMake().get("FREIGHTLINER"));
+        assertEquals(
+                "Cascadia", unitRepository.findById("unt-1").orElseThrow().dimensions().model());
+        assertEquals(1, client.operationCount("TransactWriteItems"));
+    }
+
+    @Test
+    void shouldDropFleetCountsWhenUnitWriteFails() {
+        unitRepository.save(unit("unt-1"));
+
+        assertThrows(
+                UnitIdCollisionException.class,
+                () ->
+                        unitOfWork
+                                .begin()
+                                .saveNewUnit(unit("unt-1"))
+                                .addFleetCounts("cst-1", Map.of("total", 1L))
+                                .commit());
+
+        assertTrue(fleetSummaryRepository.findByCustomerId("cst-1").isEmpty());
+    }
+
+    @Test
+    void shouldSkipZeroFleetCounts() {
+        unitOfWork
+                .begin()
+                .saveNewUnit(unit("unt-1"))
+                .addFleetCounts("cst-1", Map.of("total", 0L))
+                .commit();
+
+        assertTrue(fleetSummaryRepository.findByCustomerId("cst-1").isEmpty());
+    }
+
+    @Test
+    void shouldRetryTransactionConflict() {
+        final AtomicInteger calls = new AtomicInteger();
+        final InMemoryDynamoDbClient conflicting =
+                new InMemoryDynamoDbClient() {
+                    @Override
+                    public TransactWriteItemsResponse transactWriteItems(
+                            TransactWriteItemsRequest request) {
+                        if (calls.incrementAndGet() == 1) {
+                            throw TransactionCanceledException.builder()
+                                    .cancellationReasons(
+                                            request.transactItems().stream()
+                                                    .map(
+                                                            item ->
+                                                                    CancellationReason.builder()
+                                                                            .code(
+                                                                                    "TransactionConflict")
+                                                                            .build())
+                                                    .toList())
+                                    .build();
+                        }
+                        return super.transactWriteItems(request);
+                    }
+                };
+        UnitTableSchema.create(conflicting, TABLE);
+        final JacksonConverter jacksonConverter = new JacksonConverter();
+        final UnitMetrics unitMetrics = new UnitMetrics(new SimpleMeterRegistry());
+        final UnitOfWork retrying =
+                new UnitOfWork(
+                        conflicting,
+                        new InMemoryDynamoDbAsyncClient(conflicting),
+                        outboxRepository,
+                        new UnitChangesRepository(
+                                conflicting, jacksonConverter, Duration.ofDays(30), TABLE),
+                        jacksonConverter,
+                        unitMetrics,
+                        TABLE);
+
+        retrying.begin()
+                .saveNewUnit(unit("unt-1"))
+                .addFleetCounts("cst-1", Map.of("total", 1L))
+                .commit();
+
+        assertEquals(2, calls.get());
+        assertTrue(
+                new FleetSummaryRepository(conflicting, TABLE)
+                        .findByCustomerId("cst-1")
+                        .isPresent());
+    }
+
+    private String storedContentHash() {
+        return client.getItem(req -> req.tableName(TABLE).key(VehicleRepository.key(VIN)))
+                .item()
+                .get(VehicleRepository.CONTENT_HASH)
+                .s();
+    }
+
+    private static Unit unit(String unitId) {
+        final Instant now = Instant.parse("2025-01-01T00:00:00Z");
+        return Unit.builder()
+                .unitId(unitId)
+                .customerId("cst-1")
+                .vin(VIN)
+                .createdAt(now)
+                .updatedAt(now)
+                .version(1L)
+                .build();
+    }
+
+    private static UnitChangeEvent event(String unitId, long version, Op op) {
+        return UnitChangeEvent.builder()
+                .unitId(unitId)
+                .customerId("cst-1")
+                .vin(VIN)
+                .version(version)
+                .op(op)
+                .occurredAt(Instant.parse("2025-01-01T00:00:00Z"))
+                .build();
+    }
+
+    private static Vehicle vehicle(String model) {
+        final Instant now = Instant.parse("2025-01-01T00:00:00Z");
+        return Vehicle.builder()
+                .vin(VIN)
+                .year(2012)
+                .make("FREIGHTLINER")
+                .model(model)
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+    }
+}
@@ -0,0 +1,165 @@
+package com.fullbay.unit.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.fullbay.unit.dynamodb.InMemoryDynamoDbClient;
+import com.fullbay.unit.dynamodb.UnitTableSchema;
+import com.fullbay.unit.exception.UnitIdCollisionException;
+import com.fullbay.unit.exception.UnitNotFoundException;
+import com.fullbay.unit.exception.VersionConflictException;
+import com.fullbay.unit.metrics.UnitMetrics;
+import com.fullbay.unit.model.entity.Unit;
+import com.fullbay.util.JacksonConverter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemResponse;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class UnitRepositoryTest {
+
+    private static final String TABLE = "g-unit-service-test";
+
+    private InMemoryDynamoDbClient client;
+    private UnitRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        client = UnitTableSchema.inMemory(TABLE);
+        final UnitMetrics unitMetrics = new UnitMetrics(new SimpleMeterRegistry());
+        repository =
+                new UnitRepository(
+                        client,
+                        new JacksonConverter(),
+                        unitMetrics,
+                        new ItemLoader(client, unitMetrics, false, Duration.ZERO, 100, TABLE),
+                        TABLE);
+    }
+
+    @Test
+    void shouldSaveAndFindById() {
+        repository.save(unit("unt-1", "cst-1", "1HGCM82633A004352", 1L));
+
+        final Unit found = repository.findById("unt-1").orElseThrow();
+
+        assertEquals("cst-1", found.customerId());
+        assertEquals(1L, found.version());
+        assertTrue(repository.findById("unt-2").isEmpty());
+    }
+
+    @Test
+    void shouldRejectDuplicateIdOnSave() {
+        repository.save(unit("unt-1", "cst-1", "1HGCM82633A004352", 1L));
+
+        assertThrows(
+                UnitIdCollisionException.class,
+                () -> repository.save(unit("unt-1", "cst-2", "1FUJGLDR0CLBP8834", 1L)));
+    }
+
+    @Test
+    void shouldQueryByCustomerAndVinThroughIndexes() {
+        repository.save(unit("unt-1", "cst-1", "1HGCM82633A004352", 1L));
+        repository.save(unit("unt-2", "cst-1", "1FUJGLDR0CLBP8834", 1L));
+        repository.save(unit("unt-3", "cst-2", "1HGCM82633A004352", 1L));
+
+        assertEquals(2, repository.findByCustomerId("cst-1").size());
+        assertEquals(
+                List.of("unt-2"),
+                repository.findByCustomerIdAndVin("cst-1", "1FUJGLDR0CLBP8834").stream()
+                        .map(Unit::unitId)
+                        .toList());
+        assertEquals(2, repository.findByVin("1HGCM82633A004352").size());
+        assertEquals(2, repository.findByIds(List.of("unt-1", "unt-3", "unt-9")).size());
+    }
+
+    @Test
+    void shouldDetectStaleVersionOnUpdate() {
+        repository.save(unit("unt-1", "cst-1", "1HGCM82633A004352", 1L));
+        repository.update(unit("unt-1", "cst-1", "1HGCM82633A004352", 2L));
+
+        assertThrows(
+                VersionConflictException.class,
+                () -> repository.update(unit("unt-1", "cst-1", "1HGCM82633A004352", 2L)));
+        assertThrows(
+                UnitNotFoundException.class,
+                () -> repository.update(unit("unt-9", "cst-1", "1HGCM82633A004352", 2L)));
+    }
+
+    @Test
+    void shouldDelete() {
+        repository.save(unit("unt-1", "cst-1", "1HGCM82633A004352", 1L));
+
+        repository.delete("unt-1");
+
+        assertTrue(repository.findById("unt-1").isEmpty());
+        assertTrue(repository.findByCustomerId("cst-1").isEmpty());
+    }
+
+    @Test
+    void shouldRetryUnprocessedKeysThenGiveUp() {
+        repository.save(unit("unt-1", "cst-1", "1HGCM82633A004352", 1L));
+        final DynamoDbClient throttled = mock(DynamoDbClient.class);
+        final AtomicInteger calls = new AtomicInteger();
+        when(throttled.batchGetItem(any(BatchGetItemRequest.class)))
+                .thenAnswer(
+                        invocation -> {
+                            final BatchGetItemRequest request = invocation.getArgument(0);
+                            // First attempt comes back unprocessed, the retry reaches the table
+                            return calls.incrementAndGet() == 1
+                                    ? BatchGetItemResponse.builder()
+                                            .responses(Map.of(TABLE, List.of()))
+                                            .unprocessedKeys(request.requestItems())
+                                            .build()
+                                    : client.batchGetItem(request);
+                        });
+        final UnitMetrics unitMetrics = new UnitMetrics(new SimpleMeterRegistry());
+        final UnitRepository retrying =
+                new UnitRepository(
+                        throttled,
+                        new JacksonConverter(),
+                        unitMetrics,
+                        new ItemLoader(throttled, unitMetrics, false, Duration.ZERO, 100, TABLE),
+                        TABLE);
+
+        assertEquals(Set.of("unt-1"), retrying.findByIds(List.of("unt-1", "unt-2")).keySet());
+        assertEquals(2, calls.get());
+
+        when(throttled.batchGetItem(any(BatchGetItemRequest.class)))
+                .thenAnswer(
+                        invocation ->
+                                BatchGetItemResponse.builder()
+                                        .responses(Map.of(TABLE, List.of()))
+                                        .unprocessedKeys(
+                                                invocation
+                                                        .<BatchGetItemRequest>getArgument(0)
+                                                        .requestItems())
+                                        .build());
+        assertThrows(IllegalStateException.class, () -> retrying.findByIds(List.of("unt-1")));
+    }
+
+    private static Unit unit(String unitId, String customerId, String vin, long version) {
+        final Instant now = Instant.parse("2024-01-01T00:00:00Z");
+        return Unit.builder()
+                .unitId(unitId)
+                .customerId(customerId)
+                .vin(vin)
+                .createdAt(now)
+                .updatedAt(now)
+                .version(version)
+                .build();
+    }
+}
@@ -0,0 +1,192 @@
+package com.fullbay.unit.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.fullbay.unit.dynamodb.InMemoryDynamoDbClient;
+import com.fullbay.unit.dynamodb.UnitTableSchema;
+import com.fullbay.unit.exception.InvalidCursorException;
+import com.fullbay.unit.metrics.UnitMetrics;
+import com.fullbay.unit.model.dto.UnitSearchCriteria;
+import com.fullbay.unit.model.entity.VehicleDimensions;
+import com.fullbay.unit.model.response.PageResult;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+class UnitSearchRepositoryTest {
+
+    private static final String TABLE = "g-unit-service-test";
+    private static final String CUSTOMER_ID = "cst-1";
+
+    private InMemoryDynamoDbClient client;
+    private UnitSearchRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        client = spy(UnitTableSchema.inMemory(TABLE));
+        repository =
+                new UnitSearchRepository(client, new UnitMetrics(new SimpleMeterRegistry()), TABLE);
+
+        repository.put(CUSTOMER_ID, "unt-1", vehicle("Freightliner", "Cascadia", 2019, "Diesel"));
+        repository.put(CUSTOMER_ID, "unt-2", vehicle("Freightliner", "M2", 2015, "Diesel"));
+        repository.put(CUSTOMER_ID, "unt-3", vehicle("Freightliner", "Cascadia", 2021, "CNG"));
+        repository.put(CUSTOMER_ID, "unt-4", vehicle("Volvo", "VNL", 2020, "Diesel"));
+        repository.put("cst-2", "unt-5", vehicle("Freightliner", "Cascadia", 2019, "Diesel"));
+    }
+
+    @Test
+    void shouldUseModelPatternWhenMakeAndModelGiven() {
+        final PageResult<String> page =
+                repository.search(
+                        criteria().make("freightliner").model("cascadia").build(), 10, null);
+
+        assertEquals(List.of("unt-1", "unt-3"), page.getItems());
+        final QueryRequest request = lastQuery();
+        assertEquals(
+                "MODEL#FREIGHTLINER#CASCADIA#",
+                request.expressionAttributeValues().get(":prefix").s());
+        assertNull(request.filterExpression());
+    }
+
+    @Test
+    void shouldFilterFieldsOutsideTheSortKey() {
+        final PageResult<String> page =
+                repository.search(
+                        criteria().make("Freightliner").fuelType("diesel").build(), 10, null);
+
+        assertEquals(List.of("unt-2", "unt-1"), page.getItems());
+        final QueryRequest request = lastQuery();
+        assertEquals("MAKE#FREIGHTLINER#", request.expressionAttributeValues().get(":prefix").s());
+        assertEquals("#fuelType = :fuelType", request.filterExpression());
+    }
+
+    @Test
+    void shouldFallBackToFuelThenYearPattern() {
+        assertEquals(
+                List.of("unt-3"),
+                repository.search(criteria().fuelType("CNG").build(), 10, null).getItems());
+        assertEquals("FUEL#CNG#", lastQuery().expressionAttributeValues().get(":prefix").s());
+
+        assertEquals(
+                List.of("unt-2", "unt-1", "unt-4", "unt-3"),
+                repository.search(criteria().build(), 10, null).getItems());
+        assertEquals("YEAR#", lastQuery().expressionAttributeValues().get(":prefix").s());
+    }
+
+    @Test
+    void shouldIncludeBothYearBounds() {
+        assertEquals(
+                List.of("unt-2", "unt-1"),
+                repository
+                        .search(
+                                criteria().make("Freightliner").yearFrom(2015).yearTo(2019).build(),
+                                10,
+                                null)
+                        .getItems());
+        assertEquals(
+                List.of("unt-1", "unt-3"),
+                repository
+                        .search(criteria().make("Freightliner").yearFrom(2016).build(), 10, null)
+                        .getItems());
+        assertEquals(
+                List.of("unt-2"),
+                repository
+                        .search(criteria().make("Freightliner").yearTo(2015).build(), 10, null)
+                        .getItems());
+        assertEquals(
+                "MAKE#FREIGHTLINER#2015#~", lastQuery().expressionAttributeValues().get(":hi").s());
+    }
+
+    @Test
+    void shouldPageThroughFilteredResults() {
+        final UnitSearchCriteria criteria = criteria().fuelType("Diesel").model("Cascadia").build();
+        final List<String> unitIds = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            final PageResult<String> page = repository.search(criteria, 1, cursor);
+            unitIds.addAll(page.getItems());
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(List.of("unt-1"), unitIds);
+        // Filtered-out items still use up a page
+        assertTrue(pages >= 3);
+    }
+
+    @Test
+    void shouldRejectMalformedCursor() {
+        assertThrows(
+                InvalidCursorException.class,
+                () -> repository.search(criteria().build(), 10, "not a cursor!"));
+    }
+
+    @Test
+    void shouldRejectCursorFromAnotherPattern() {
+        final String cursor =
+                Base64.getUrlEncoder()
+                        .withoutPadding()
+                        .encodeToString("YEAR#2019#unt-1".getBytes(StandardCharsets.UTF_8));
+
+        assertThrows(
+                InvalidCursorException.class,
+                () -> repository.search(criteria().make("Volvo").build(), 10, cursor));
+    }
+
+    @Test
+    void shouldDeleteByIndexedDimensions() {
+        repository.delete(CUSTOMER_ID, "unt-4", vehicle("Volvo", "VNL", 2020, "Diesel"));
+
+        assertEquals(
+                List.of("unt-2", "unt-1", "unt-3"),
+                repository.search(criteria().build(), 10, null).getItems());
+        assertTrue(
+                repository.search(criteria().make("Volvo").build(), 10, null).getItems().isEmpty());
+    }
+
+    @Test
+    void shouldMatchCriteriaLikeTheIndex() {
+        final VehicleDimensions cascadia = vehicle("Freightliner", "Cascadia", 2019, "Diesel");
+
+        assertTrue(
+                UnitSearchRepository.matches(
+                        criteria().make(" freightliner ").yearFrom(2019).yearTo(2019).build(),
+                        cascadia));
+        assertFalse(UnitSearchRepository.matches(criteria().model("M2").build(), cascadia));
+        assertFalse(UnitSearchRepository.matches(criteria().yearFrom(2020).build(), cascadia));
+        assertFalse(
+                UnitSearchRepository.matches(
+                        criteria().yearTo(2020).build(), VehicleDimensions.of(null)));
+    }
+
+    private QueryRequest lastQuery() {
+        final ArgumentCaptor<QueryRequest> captor = ArgumentCaptor.forClass(QueryRequest.class);
+        verify(client, atLeastOnce()).query(captor.capture());
+        return captor.getValue();
+    }
+
+    private static UnitSearchCriteria.UnitSearchCriteriaBuilder criteria() {
+        return UnitSearchCriteria.builder().customerId(CUSTOMER_ID);
+    }
+
+    private static VehicleDimensions vehicle(String make, String model, int year, String fuelType) {
+        return VehicleDimensions.builder()
+                .make(make)
+                .model(model)
+                .year(year)
+                .fuelType(fuelType)
+                .build();
+    }
+}
@@ -0,0 +1,59 @@
+package com.fullbay.unit.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fullbay.unit.dynamodb.UnitTableSchema;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+class VinSuffixRepositoryTest {
+
+    private static final String TABLE = "g-unit-service-test";
+    private static final String CUSTOMER_ID = "cst-1";
+
+    private VinSuffixRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new VinSuffixRepository(UnitTableSchema.inMemory(TABLE), TABLE);
+
+        repository.put(CUSTOMER_ID, "unt-1", "1FUJGLDR0CLBP8834");
+        repository.put(CUSTOMER_ID, "unt-2", "3AKJHHDR5JSJA8834");
+        repository.put(CUSTOMER_ID, "unt-3", "1FUJGLDR0CLBP1234");
+        repository.put("cst-2", "unt-4", "1FUJGLDR0CLBP8834");
+    }
+
+    @Test
+    void shouldStoreReversedVin() {
+        assertEquals(
+                "4388PBLC0RDLGJUF1#unt-1",
+                VinSuffixRepository.sortKey("unt-1", "1fujgldr0clbp8834"));
+    }
+
+    @Test
+    void shouldMatchVinEndingWithSuffix() {
+        // Sorted by reversed VIN: ...AJSJ before ...PBLC
+        assertEquals(List.of("unt-2", "unt-1"), repository.findUnitIds(CUSTOMER_ID, "8834", 10));
+        assertEquals(List.of("unt-2"), repository.findUnitIds(CUSTOMER_ID, "ja8834", 10));
+        assertEquals(List.of("unt-3"), repository.findUnitIds(CUSTOMER_ID, "1234", 10));
+        assertEquals(List.of(), repository.findUnitIds(CUSTOMER_ID, "9999", 10));
+    }
+
+    @Test
+    void shouldStopAtLimit() {
+        assertEquals(1, repository.findUnitIds(CUSTOMER_ID, "34", 1).size());
+        assertEquals(3, repository.findUnitIds(CUSTOMER_ID, "34", 10).size());
+    }
+
+    @Test
+    void shouldDeleteItem() {
+        repository.delete(CUSTOMER_ID, "unt-1", "1FUJGLDR0CLBP8834");
+
+        assertEquals(List.of("unt-2"), repository.findUnitIds(CUSTOMER_ID, "8834", 10));
+        assertEquals(List.of("unt-4"), repository.findUnitIds("cst-2", "8834", 10));
+        assertEquals(2, repository.findSortKeys(CUSTOMER_ID).size());
+    }
+}
@@ -0,0 +1,253 @@
+package com.fullbay.unit.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import com.fullbay.unit.dynamodb.InMemoryDynamoDbClient;
+import com.fullbay.unit.dynamodb.UnitTableSchema;
+import com.fullbay.unit.exception.BackfillJobNotFoundException;
+import com.fullbay.unit.exception.FeatureDisabledException;
+import com.fullbay.unit.integration.nhtsa.NHTSAMapper;
+import com.fullbay.unit.integration.nhtsa.NHTSAResult;
+import com.fullbay.unit.integration.nhtsa.NHTSAVinDecodeResponse;
+import com.fullbay.unit.metrics.UnitMetrics;
+import com.fullbay.unit.model.entity.BackfillJob;
+import com.fullbay.unit.model.entity.Vehicle;
+import com.fullbay.unit.repository.BackfillJobRepository;
+import com.fullbay.unit.repository.ItemLoader;
+import com.fullbay.unit.repository.VehicleRepository;
+import com.fullbay.util.JacksonConverter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@ExtendWith(MockitoExtension.class)
+class BackfillServiceTest {
+
+    private static final String TABLE = "g-unit-service-test";
+    private static final Instant T0 = Instant.parse("2025-01-01T00:00:00Z");
+    private static final List<String> VINS =
+            List.of("1FUJGLDR0CLBP8834", "3AKJHHDR5JSJA1234", "5PVNJ8JT1H4S12345");
+
+    @Mock UnitService unitService;
+
+    private InMemoryDynamoDbClient client;
+    private VehicleRepository vehicleRepository;
+    private List<Runnable> queued;
+
+    @BeforeEach
+    void setUp() {
+        client = UnitTableSchema.inMemory(TABLE);
+        final UnitMetrics unitMetrics = new UnitMetrics(new SimpleMeterRegistry());
+        final ItemLoader itemLoader =
+                new ItemLoader(client, unitMetrics, false, Duration.ZERO, 100, TABLE);
+        vehicleRepository =
+                new VehicleRepository(
+                        client, new JacksonConverter(), unitMetrics, itemLoader, TABLE);
+        queued = new ArrayList<>();
+    }
+
+    @Test
+    void shouldResolveMissingVcdbIdsAcrossSegments() {
+        vehicleRepository.save(vehicle(VINS.get(0), "Cascadia"));
+        vehicleRepository.save(vehicle(VINS.get(1), "Cascadia").withBaseVehicleId(7));
+        vehicleRepository.save(
+                vehicle(VINS.get(2), "Cascadia").withBaseVehicleId(7).withMakeId(1).withModelId(2));
+        when(unitService.enrichVehicleWithVcdbIds(any()))
+                .thenAnswer(
+                        invocation -> {
+                            final Vehicle vehicle = invocation.getArgument(0);
+                            return vehicle.withBaseVehicleId(7).withMakeId(1).withModelId(2);
+                        });
+
+        final BackfillService service = service(100, Duration.ofMinutes(5));
+        final BackfillJob started = service.start(BackfillJob.Mode.VCDB, 3);
+        assertEquals(BackfillJob.Status.PENDING, started.status());
+        assertEquals(3, queued.size());
+        client.resetMetrics();
+        queued.forEach(Runnable::run);
+
+        final BackfillJob job = service.getJob(started.jobId());
+        assertEquals(BackfillJob.Status.COMPLETED, job.status());
+        assertEquals(3, job.segmentsDone());
+        assertEquals(3, job.vehicles());
+        assertEquals(2, job.updated());
+        assertEquals(0, job.failed());
+        assertEquals(3, client.operationCount("Scan"));
+        assertEquals(2, client.operationCount("PutItem"));
+        // Complete vehicles are skipped without a parts-service call
+        verify(unitService, times(2)).enrichVehicleWithVcdbIds(any());
+        for (final String vin : VINS) {
+            final Vehicle vehicle = vehicleRepository.findByVin(vin).orElseThrow();
+            assertEquals(7, vehicle.baseVehicleId());
+            assertEquals(2, vehicle.modelId());
+            assertEquals(T0, vehicle.createdAt());
+        }
+    }
+
+    @Test
+    void shouldWriteNothingWhenDataIsUnchanged() {
+        vehicleRepository.save(vehicle(VINS.get(0), "Cascadia"));
+        when(unitService.enrichVehicleWithVcdbIds(any()))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        final BackfillService service = service(100, Duration.ofMinutes(5));
+        final String jobId = service.start(BackfillJob.Mode.VCDB, 1).jobId();
+        client.resetMetrics();
+        queued.forEach(Runnable::run);
+
+        final BackfillJob job = service.getJob(jobId);
+        assertEquals(BackfillJob.Status.COMPLETED, job.status());
+        assertEquals(1, job.vehicles());
+        assertEquals(0, job.updated());
+        assertEquals(0, client.operationCount("PutItem"));
+        verify(unitService, never()).redimensionUnits(any(), any());
+    }
+
+    @Test
+    void shouldResumeRemapFromLastCheckpoint() {
+        for (final String vin : VINS) {
+            vehicleRepository.save(vehicle(vin, "Cascadia").withBaseVehicleId(7));
+        }
+        final AtomicInteger decodes = new AtomicInteger();
+        when(unitService.decodeVehicle(anyString(), any()))
+                .thenAnswer(
+                        invocation -> {
+                            if (decodes.incrementAndGet() == 2) {
+                                throw new Error("instance stopped");
+                            }
+                            return decode(invocation.getArgument(0), "Cascadia Evolution");
+                        });
+        when(unitService.enrichVehicleWithVcdbIds(any()))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        // One item per page, and a lease that lapses at once so resume can take over
+        final BackfillService service = service(1, Duration.ZERO);
+        final String jobId = service.start(BackfillJob.Mode.REMAP, 1).jobId();
+        assertThrows(Error.class, () -> queued.remove(0).run());
+
+        final BackfillJob interrupted = service.getJob(jobId);
+        assertEquals(BackfillJob.Status.PENDING, interrupted.status());
+        assertEquals(1, interrupted.updated());
+
+        service.resume(jobId);
+        queued.remove(0).run();
+
+        final BackfillJob job = service.getJob(jobId);
+        assertEquals(BackfillJob.Status.COMPLETED, job.status());
+        assertEquals(3, job.vehicles());
+        assertEquals(3, job.updated());
+        // The checkpointed vehicle is not decoded again; the interrupted one is
+        assertEquals(4, decodes.get());
+        // Each rewritten vehicle's units follow it to the new dimensions
+        verify(unitService, times(3))
+                .redimensionUnits(
+                        argThat(v -> "Cascadia".equals(v.model())),
+                        argThat(v -> "Cascadia Evolution".equals(v.model())));
+        for (final String vin : VINS) {
+            final Vehicle vehicle = vehicleRepository.findByVin(vin).orElseThrow();
+            assertEquals("Cascadia Evolution", vehicle.model());
+            // The model changed, so the old VCDB ID is not carried over
+            assertNull(vehicle.baseVehicleId());
+            assertEquals(T0, vehicle.createdAt());
+        }
+    }
+
+    @Test
+    void shouldKeepVcdbIdsWhenRemapResolvesNothing() {
+        final Vehicle stored =
+                vehicle(VINS.get(0), "Cascadia").withBaseVehicleId(7).withMakeId(1).withModelId(2);
+        when(unitService.decodeVehicle(eq(VINS.get(0)), any()))
+                .thenReturn(decode(VINS.get(0), "Cascadia"));
+        when(unitService.enrichVehicleWithVcdbIds(any()))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        final Vehicle remapped =
+                service(100, Duration.ofMinutes(5)).backfill(BackfillJob.Mode.REMAP, stored);
+
+        assertEquals(7, remapped.baseVehicleId());
+        assertEquals(1, remapped.makeId());
+        assertEquals(2, remapped.modelId());
+        assertEquals("FREIGHTLINER", remapped.manufacturer());
+    }
+
+    @Test
+    void shouldRefuseBackfillsWhenDisabled() {
+        final BackfillService disabled =
+                new BackfillService(
+                        new BackfillJobRepository(client, Duration.ofDays(30), TABLE),
+                        vehicleRepository,
+                        unitService,
+                        false,
+                        4,
+                        100,
+                        1_000_000,
+                        Duration.ofMinutes(5),
+                        queued::add);
+
+        assertThrows(
+                FeatureDisabledException.class, () -> disabled.start(BackfillJob.Mode.VCDB, 2));
+        assertThrows(FeatureDisabledException.class, () -> disabled.resume("job_missing"));
+        assertTrue(queued.isEmpty());
+    }
+
+    @Test
+    void shouldThrowForUnknownJob() {
+        assertThrows(
+                BackfillJobNotFoundException.class,
+                () -> service(100, Duration.ofMinutes(5)).getJob("job_missing"));
+    }
+
+    private BackfillService service(int pageSize, Duration lease) {
+        return new BackfillService(
+                new BackfillJobRepository(client, Duration.ofDays(30), TABLE),
+                vehicleRepository,
+                unitService,
+                true,
+                4,
+                pageSize,
+                1_000_000,
+                lease,
+                queued::add);
+    }
+
+    private static Vehicle decode(String vin, String model) {
+        return NHTSAMapper.toVehicle(
+                NHTSAVinDecodeResponse.builder()
+                        .results(
+                                List.of(
+                                        result("Make", "FREIGHTLINER"),
+                                        result("Manufacturer Name", "FREIGHTLINER"),
+                                        result("Model", model),
+                                        result("Model Year", "2012")))
+                        .build(),
+                vin);
+    }
+
+    private static NHTSAResult result(String variable, String value) {
+        return NHTSAResult.builder().variable(variable).value(value).build();
+    }
+
+    private static Vehicle vehicle(String vin, String model) {
+        return Vehicle.builder()
+                .vin(vin)
+                .year(2012)
+                .make("FREIGHTLINER")
+                .model(model)
+                .createdAt(T0)
+                .updatedAt(T0)
+                .build();
+    }
+}
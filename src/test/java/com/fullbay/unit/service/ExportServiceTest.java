@@ -0,0 +1,164 @@
+package com.fullbay.unit.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fullbay.unit.dynamodb.InMemoryDynamoDbClient;
+import com.fullbay.unit.dynamodb.UnitTableSchema;
+import com.fullbay.unit.exception.FeatureDisabledException;
+import com.fullbay.unit.exception.UnknownColumnException;
+import com.fullbay.unit.metrics.UnitMetrics;
+import com.fullbay.unit.model.entity.Unit;
+import com.fullbay.unit.model.entity.Vehicle;
+import com.fullbay.unit.repository.ItemLoader;
+import com.fullbay.unit.repository.UnitRepository;
+import com.fullbay.unit.repository.VehicleRepository;
+import com.fullbay.util.JacksonConverter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+class ExportServiceTest {
+
+    private static final String TABLE = "g-unit-service-test";
+    private static final Instant T0 = Instant.parse("2025-01-01T00:00:00Z");
+
+    private InMemoryDynamoDbClient client;
+    private UnitRepository unitRepository;
+    private VehicleRepository vehicleRepository;
+    private ObjectMapper objectMapper;
+    private ExportService service;
+
+    @BeforeEach
+    void setUp() {
+        client = UnitTableSchema.inMemory(TABLE);
+        final UnitMetrics unitMetrics = new UnitMetrics(new SimpleMeterRegistry());
+        final JacksonConverter jacksonConverter = new JacksonConverter();
+        final ItemLoader itemLoader =
+                new ItemLoader(client, unitMetrics, false, Duration.ZERO, 100, TABLE);
+        unitRepository =
+                new UnitRepository(client, jacksonConverter, unitMetrics, itemLoader, TABLE);
+        vehicleRepository =
+                new VehicleRepository(client, jacksonConverter, unitMetrics, itemLoader, TABLE);
+
+        objectMapper = new ObjectMapper();
+        objectMapper.findAndRegisterModules();
+        objectMapper
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.NONE)
+                .setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY)
+                .setVisibility(PropertyAccessor.CREATOR, JsonAutoDetect.Visibility.ANY)
+                .setSerializationInclusion(JsonInclude.Include.NON_NULL);
+        service = new ExportService(unitRepository, vehicleRepository, objectMapper, true, 2);
+    }
+
+    @Test
+    void shouldStreamCsvInPagesWithVehicleData() {
+        vehicleRepository.save(vehicle("1FUJGLDR0CLBP8834", "Cascadia"));
+        vehicleRepository.save(vehicle("3AKJHHDR5JSJA1234", "Cascadia, \"New\""));
+        unitRepository.save(unit("unt-1", "cst-1", "1FUJGLDR0CLBP8834"));
+        unitRepository.save(unit("unt-2", "cst-1", "3AKJHHDR5JSJA1234"));
+        unitRepository.save(unit("unt-3", "cst-1", "5PVNJ8JT1H4S12345"));
+        unitRepository.save(unit("unt-4", "cst-2", "1FUJGLDR0CLBP8834"));
+
+        final String csv =
+                export(ExportService.Format.CSV, service.columns("unitId,vin,model,year"));
+
+        assertEquals(
+                "unitId,vin,model,year\r\n"
+                        + "unt-1,1FUJGLDR0CLBP8834,Cascadia,2012\r\n"
+                        + "unt-2,3AKJHHDR5JSJA1234,\"Cascadia, \"\"New\"\"\",2012\r\n"
+                        + "unt-3,5PVNJ8JT1H4S12345,,\r\n",
+                csv);
+        // Three units at two per page: two index pages
+        assertEquals(2, client.operationCount("Query"));
+    }
+
+    @Test
+    void shouldStreamNdjsonWithoutNullColumns() throws Exception {
+        vehicleRepository.save(vehicle("1FUJGLDR0CLBP8834", "Cascadia"));
+        unitRepository.save(unit("unt-1", "cst-1", "1FUJGLDR0CLBP8834"));
+        unitRepository.save(unit("unt-2", "cst-1", "5PVNJ8JT1H4S12345"));
+
+        final String[] lines =
+                export(ExportService.Format.NDJSON, service.columns("unitId, make ,unitId"))
+                        .split("\n");
+
+        assertEquals(2, lines.length);
+        assertEquals(
+                Map.of("unitId", "unt-1", "make", "FREIGHTLINER"),
+                objectMapper.readValue(lines[0], Map.class));
+        assertEquals(Map.of("unitId", "unt-2"), objectMapper.readValue(lines[1], Map.class));
+    }
+
+    @Test
+    void shouldDefaultToAllUnitFields() {
+        final List<String> columns = service.columns(null);
+
+        assertEquals("unitId", columns.get(0));
+        assertTrue(columns.containsAll(List.of("vin", "engineHP", "attributes", "version")));
+        assertEquals(columns, service.columns(" , "));
+    }
+
+    @Test
+    void shouldRejectUnknownColumn() {
+        final UnknownColumnException e =
+                assertThrows(UnknownColumnException.class, () -> service.columns("vin,PK"));
+        assertEquals("Unknown column: PK", e.getMessage());
+    }
+
+    @Test
+    void shouldRefuseExportsWhenDisabled() {
+        final ExportService disabled =
+                new ExportService(unitRepository, vehicleRepository, objectMapper, false, 2);
+
+        assertThrows(FeatureDisabledException.class, () -> disabled.columns("unitId,vin"));
+    }
+
+    @Test
+    void shouldWriteOnlyHeaderForEmptyFleet() {
+        assertEquals(
+                "unitId,vin\r\n", export(ExportService.Format.CSV, service.columns("unitId,vin")));
+    }
+
+    private String export(ExportService.Format format, List<String> columns) {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.export("cst-1", format, columns, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private static Unit unit(String unitId, String customerId, String vin) {
+        return Unit.builder()
+                .unitId(unitId)
+                .customerId(customerId)
+                .vin(vin)
+                .createdAt(T0)
+                .updatedAt(T0)
+                .version(1L)
+                .build();
+    }
+
+    private static Vehicle vehicle(String vin, String model) {
+        return Vehicle.builder()
+                .vin(vin)
+                .year(2012)
+                .make("FREIGHTLINER")
+                .model(model)
+                .createdAt(T0)
+                .updatedAt(T0)
+                .build();
+    }
+}
@@ -0,0 +1,180 @@
+package com.fullbay.unit.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import com.fullbay.unit.model.entity.Unit;
+import com.fullbay.unit.model.entity.Vehicle;
+import com.fullbay.unit.model.entity.VehicleDimensions;
+import com.fullbay.unit.repository.FleetSummaryRepository;
+import com.fullbay.unit.repository.UnitOfWork;
+import com.fullbay.unit.repository.UnitRepository;
+import com.fullbay.unit.repository.VehicleRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+@ExtendWith(MockitoExtension.class)
+class FleetSummaryServiceTest {
+
+    private FleetSummaryService service;
+
+    @Mock FleetSummaryRepository fleetSummaryRepository;
+    @Mock UnitRepository unitRepository;
+    @Mock VehicleRepository vehicleRepository;
+
+    @Mock UnitOfWork.Transaction transaction;
+
+    private Unit testUnit;
+    private Unit counted;
+    private Vehicle testVehicle;
+
+    @BeforeEach
+    void setUp() {
+        service =
+                new FleetSummaryService(fleetSummaryRepository, unitRepository, vehicleRepository);
+        testUnit =
+                Unit.builder()
+                        .unitId("unt-abc1234")
+                        .customerId("cst-xyz789")
+                        .vin("1FUJGLDR0CLBP8834")
+                        .build();
+        testVehicle =
+                Vehicle.builder()
+                        .vin("1FUJGLDR0CLBP8834")
+                        .year(2019)
+                        .make("Freightliner")
+                        .fuelType("Diesel")
+                        .vehicleType("TRUCK")
+                        .build();
+        counted = testUnit.withDimensions(VehicleDimensions.of(testVehicle));
+    }
+
+    @Test
+    void shouldCountAllDimensions() {
+        final Map<String, Long> counters =
+                FleetSummaryService.counters(VehicleDimensions.of(testVehicle), 1L);
+
+        assertEquals(1L, counters.get("total"));
+        assertEquals(1L, counters.get("make#Freightliner"));
+        assertEquals(1L, counters.get("year#2019"));
+        assertEquals(1L, counters.get("fuelType#Diesel"));
+        assertEquals(1L, counters.get("vehicleType#TRUCK"));
+    }
+
+    @Test
+    void shouldCountMissingVehicleAsUnknown() {
+        final Map<String, Long> counters =
+                FleetSummaryService.counters(VehicleDimensions.of(null), -1L);
+
+        assertEquals(-1L, counters.get("total"));
+        assertEquals(-1L, counters.get("make#UNKNOWN"));
+        assertEquals(-1L, counters.get("year#UNKNOWN"));
+    }
+
+    @Test
+    void shouldAddCreateDeltasToTransaction() {
+        service.recordCreate(transaction, counted);
+
+        verify(transaction)
+                .addFleetCounts(eq("cst-xyz789"), argThat(d -> d.get("make#Freightliner") == 1L));
+        verifyNoInteractions(vehicleRepository, fleetSummaryRepository);
+    }
+
+    @Test
+    void shouldTakeBackStoredDimensionsOnDelete() {
+        // The VIN# item was re-decoded since the unit was counted
+        service.recordDelete(transaction, counted);
+
+        verify(transaction)
+                .addFleetCounts(eq("cst-xyz789"), argThat(d -> d.get("make#Freightliner") == -1L));
+        verifyNoInteractions(vehicleRepository);
+    }
+
+    @Test
+    void shouldFallBackToVehicleForUnitsWithoutDimensions() {
+        when(vehicleRepository.findByVin("1FUJGLDR0CLBP8834")).thenReturn(Optional.of(testVehicle));
+
+        service.recordDelete(transaction, testUnit);
+
+        verify(transaction)
+                .addFleetCounts(eq("cst-xyz789"), argThat(d -> d.get("year#2019") == -1L));
+    }
+
+    @Test
+    void shouldNetToZeroWhenNothingMoved() {
+        service.recordUpdate(transaction, counted, counted.withAttributes(Map.of("color", "red")));
+
+        verify(transaction)
+                .addFleetCounts(
+                        eq("cst-xyz789"), argThat(d -> d.values().stream().allMatch(v -> v == 0L)));
+    }
+
+    @Test
+    void shouldNetDeltasWhenVinChanges() {
+        final Unit renumbered =
+                counted.withVin("3AKJHHDR5KSKE1234")
+                        .withDimensions(
+                                VehicleDimensions.builder()
+                                        .make("Freightliner")
+                                        .year(2020)
+                                        .build());
+
+        service.recordUpdate(transaction, counted, renumbered);
+
+        verify(transaction)
+                .addFleetCounts(
+                        eq("cst-xyz789"),
+                        argThat(
+                                d ->
+                                        d.get("make#Freightliner") == 0L
+                                                && d.get("year#2019") == -1L
+                                                && d.get("year#2020") == 1L));
+    }
+
+    @Test
+    void shouldMoveCountsBetweenCustomers() {
+        final Unit moved = counted.withCustomerId("cst-new0001");
+
+        service.recordUpdate(transaction, counted, moved);
+
+        verify(transaction).addFleetCounts(eq("cst-xyz789"), argThat(d -> d.get("total") == -1L));
+        verify(transaction).addFleetCounts(eq("cst-new0001"), argThat(d -> d.get("total") == 1L));
+    }
+
+    @Test
+    void shouldRebuildFromFleet() {
+        when(unitRepository.findByCustomerId("cst-xyz789"))
+                .thenReturn(List.of(testUnit, testUnit.withUnitId("unt-def5678")));
+        when(vehicleRepository.findByVins(Set.of("1FUJGLDR0CLBP8834")))
+                .thenReturn(Map.of("1FUJGLDR0CLBP8834", testVehicle));
+
+        service.rebuild("cst-xyz789");
+
+        verify(fleetSummaryRepository)
+                .replace(
+                        eq("cst-xyz789"),
+                        argThat(c -> c.get("total") == 2L && c.get("year#2019") == 2L));
+    }
+
+    @Test
+    void shouldRebuildFromStoredDimensions() {
+        when(unitRepository.findByCustomerId("cst-xyz789"))
+                .thenReturn(List.of(counted, counted.withUnitId("unt-def5678")));
+        when(vehicleRepository.findByVins(Set.of())).thenReturn(Map.of());
+
+        service.rebuild("cst-xyz789");
+
+        verify(fleetSummaryRepository)
+                .replace(eq("cst-xyz789"), argThat(c -> c.get("make#Freightliner") == 2L));
+    }
+}
@@ -0,0 +1,275 @@
+package com.fullbay.unit.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fullbay.unit.dynamodb.UnitTableSchema;
+import com.fullbay.unit.exception.DuplicateVinException;
+import com.fullbay.unit.exception.FeatureDisabledException;
+import com.fullbay.unit.exception.NHTSARateLimitedException;
+import com.fullbay.unit.metrics.UnitMetrics;
+import com.fullbay.unit.model.entity.ImportJob;
+import com.fullbay.unit.model.entity.ImportRowError;
+import com.fullbay.unit.repository.ImportJobRepository;
+import com.fullbay.util.JacksonConverter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@ExtendWith(MockitoExtension.class)
+class ImportServiceTest {
+
+    private static final String TABLE = "g-unit-service-test";
+    private static final String CUSTOMER_ID = "cst-xyz789";
+
+    @Mock UnitService unitService;
+
+    private ImportJobRepository repository;
+    private List<Runnable> queued;
+    private ImportService service;
+
+    @BeforeEach
+    void setUp() {
+        repository =
+                new ImportJobRepository(
+                        UnitTableSchema.inMemory(TABLE),
+                        new JacksonConverter(),
+                        new UnitMetrics(new SimpleMeterRegistry()),
+                        Duration.ofDays(30),
+                        TABLE);
+        queued = new ArrayList<>();
+        service =
+                new ImportService(
+                        repository,
+                        unitService,
+                        new ObjectMapper(),
+                        true,
+                        2,
+                        2,
+                        Duration.ofMinutes(5),
+                        queued::add);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void shouldDedupeValidateAndCreateUnits() {
+        when(unitService.createUnitFromVin(anyString(), eq(CUSTOMER_ID), any()))
+                .thenAnswer(
+                        invocation -> {
+                            final String vin = invocation.getArgument(0);
+                            if (vin.endsWith("4354")) {
+                                throw new DuplicateVinException(vin);
+                            }
+                            if (vin.endsWith("4355")) {
+                                throw new IllegalStateException("NHTSA unavailable");
+                            }
+                            return null;
+                        });
+
+        final ImportJob queuedJob =
+                service.startImport(
+                        CUSTOMER_ID,
+                        ImportService.Format.CSV,
+                        csv(
+                                "unitNumber,VIN",
+                                "1,1hgcm82633a004352",
+                                "2,\"1HGCM82633A004353\"",
+                                "3,1HGCM82633A004352",
+                                "4,XYZ",
+                                "",
+                                "5,1HGCM82633A004354",
+                                "6,1HGCM82633A004355"));
+
+        assertEquals(ImportJob.Status.PENDING, queuedJob.status());
+        assertEquals(6, queuedJob.totalRows());
+        assertEquals(4, queuedJob.vinCount());
+        assertEquals(2, queuedJob.chunkCount());
+
+        queued.forEach(Runnable::run);
+
+        final ImportJob job = service.getJob(queuedJob.jobId());
+        assertEquals(ImportJob.Status.COMPLETED, job.status());
+        assertEquals(2, job.created());
+        assertEquals(2, job.skipped());
+        assertEquals(2, job.failed());
+        verify(unitService).createUnitFromVin(eq("1HGCM82633A004352"), eq(CUSTOMER_ID), any());
+        verify(unitService).createUnitFromVin(eq("1HGCM82633A004353"), eq(CUSTOMER_ID), any());
+
+        final List<ImportRowError> errors = service.getErrors(job.jobId(), 10);
+        assertEquals(List.of(5, 8), errors.stream().map(ImportRowError::line).toList());
+        assertEquals("INVALID_VIN", errors.get(0).code());
+        assertEquals("CREATE_FAILED", errors.get(1).code());
+    }
+
+    @Test
+    void shouldRefuseImportsWhenDisabled() {
+        final ImportService disabled =
+                new ImportService(
+                        repository,
+                        unitService,
+                        new ObjectMapper(),
+                        false,
+                        2,
+                        2,
+                        Duration.ofMinutes(5),
+                        queued::add);
+        try {
+            assertThrows(
+                    FeatureDisabledException.class,
+                    () ->
+                            disabled.startImport(
+                                    CUSTOMER_ID,
+                                    ImportService.Format.CSV,
+                                    new ByteArrayInputStream(
+                                            "1HGCM82633A004352".getBytes(StandardCharsets.UTF_8))));
+            assertThrows(FeatureDisabledException.class, () -> disabled.resume("job-1"));
+            assertTrue(queued.isEmpty());
+        } finally {
+            disabled.shutdown();
+        }
+    }
+
+    @Test
+    void shouldReadVinsFromNdjson() {
+        final ImportJob job =
+                service.startImport(
+                        CUSTOMER_ID,
+                        ImportService.Format.NDJSON,
+                        csv("{\"vin\":\"1HGCM82633A004352\"}", "not json"));
+        queued.forEach(Runnable::run);
+
+        assertEquals(1, service.getJob(job.jobId()).created());
+        assertEquals("INVALID_ROW", service.getErrors(job.jobId(), 10).get(0).code());
+    }
+
+    @Test
+    void shouldResumeFromLastCheckpoint() {
+        final ImportJob job =
+                service.startImport(
+                        CUSTOMER_ID,
+                        ImportService.Format.CSV,
+                        csv("1HGCM82633A004352", "1HGCM82633A004353", "1HGCM82633A004354"));
+        queued.clear();
+
+        // A runner that died after the first chunk, leaving its lease to lapse
+        repository.claim(job.jobId(), "dead-runner", Instant.now().minusSeconds(1));
+        repository.completeChunk(
+                job.jobId(), "dead-runner", 0, 2, 0, 0, Instant.now().minusSeconds(1));
+
+        service.resume(job.jobId());
+        queued.forEach(Runnable::run);
+
+        final ImportJob resumed = service.getJob(job.jobId());
+        assertEquals(ImportJob.Status.COMPLETED, resumed.status());
+        assertEquals(3, resumed.created());
+        verify(unitService, never()).createUnitFromVin(eq("1HGCM82633A004352"), any(), any());
+        verify(unitService).createUnitFromVin(eq("1HGCM82633A004354"), eq(CUSTOMER_ID), any());
+    }
+
+    @Test
+    void shouldNotRunJobLeasedByAnotherRunner() {
+        final ImportJob job =
+                service.startImport(
+                        CUSTOMER_ID, ImportService.Format.CSV, csv("1HGCM82633A004352"));
+        repository.claim(job.jobId(), "other-runner", Instant.now().plusSeconds(60));
+
+        queued.forEach(Runnable::run);
+
+        assertEquals(ImportJob.Status.RUNNING, service.getJob(job.jobId()).status());
+        verifyNoInteractions(unitService);
+    }
+
+    @Test
+    void shouldRequeueRateLimitedRows() {
+        final AtomicInteger calls = new AtomicInteger();
+        when(unitService.createUnitFromVin(anyString(), eq(CUSTOMER_ID), any()))
+                .thenAnswer(
+                        invocation -> {
+                            if ("1HGCM82633A004353".equals(invocation.getArgument(0))
+                                    && calls.incrementAndGet() == 1) {
+                                throw new NHTSARateLimitedException();
+                            }
+                            return null;
+                        });
+        final ImportJob job =
+                service.startImport(
+                        CUSTOMER_ID,
+                        ImportService.Format.CSV,
+                        csv("1HGCM82633A004352", "1HGCM82633A004353"));
+
+        queued.forEach(Runnable::run);
+
+        final ImportJob done = service.getJob(job.jobId());
+        assertEquals(ImportJob.Status.COMPLETED, done.status());
+        assertEquals(2, done.created());
+        assertEquals(0, done.failed());
+        verify(unitService, times(2))
+                .createUnitFromVin(eq("1HGCM82633A004353"), eq(CUSTOMER_ID), any());
+    }
+
+    @Test
+    void shouldHoldLeaseWhileChunkOutlastsIt() {
+        final ImportService shortLease =
+                new ImportService(
+                        repository,
+                        unitService,
+                        new ObjectMapper(),
+                        true,
+                        2,
+                        2,
+                        Duration.ofMillis(150),
+                        queued::add);
+        final AtomicBoolean takenOver = new AtomicBoolean();
+        try {
+            final ImportJob job =
+                    shortLease.startImport(
+                            CUSTOMER_ID, ImportService.Format.CSV, csv("1HGCM82633A004352"));
+            when(unitService.createUnitFromVin(anyString(), eq(CUSTOMER_ID), any()))
+                    .thenAnswer(
+                            invocation -> {
+                                // Slower than the lease: a resume must not take the job over
+                                Thread.sleep(400);
+                                takenOver.set(
+                                        repository
+                                                .claim(
+                                                        job.jobId(),
+                                                        "other-runner",
+                                                        Instant.now().plusSeconds(60))
+                                                .isPresent());
+                                return null;
+                            });
+
+            queued.forEach(Runnable::run);
+
+            assertFalse(takenOver.get());
+            assertEquals(ImportJob.Status.COMPLETED, shortLease.getJob(job.jobId()).status());
+        } finally {
+            shortLease.shutdown();
+        }
+    }
+
+    private static ByteArrayInputStream csv(String... lines) {
+        return new ByteArrayInputStream(String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+    }
+}
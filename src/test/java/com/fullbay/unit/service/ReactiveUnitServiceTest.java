@@ -0,0 +1,240 @@
+package com.fullbay.unit.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fullbay.unit.exception.DuplicateVinException;
+import com.fullbay.unit.exception.UnitIdCollisionException;
+import com.fullbay.unit.exception.UnitNotFoundException;
+import com.fullbay.unit.integration.nhtsa.NHTSAClient;
+import com.fullbay.unit.integration.nhtsa.NHTSARateLimiter;
+import com.fullbay.unit.integration.nhtsa.NHTSAResult;
+import com.fullbay.unit.integration.nhtsa.NHTSAVinDecodeResponse;
+import com.fullbay.unit.integration.nhtsa.ReactiveNHTSAClient;
+import com.fullbay.unit.integration.parts.PartsApiResponse;
+import com.fullbay.unit.integration.parts.PartsMake;
+import com.fullbay.unit.integration.parts.PartsModel;
+import com.fullbay.unit.integration.parts.PartsServiceClient;
+import com.fullbay.unit.integration.parts.PartsVehicle;
+import com.fullbay.unit.integration.parts.ReactivePartsServiceClient;
+import com.fullbay.unit.model.entity.Unit;
+import com.fullbay.unit.model.entity.Vehicle;
+import com.fullbay.unit.repository.ReactiveUnitRepository;
+import com.fullbay.unit.repository.ReactiveVehicleRepository;
+import com.fullbay.unit.repository.UnitOfWork;
+import com.fullbay.unit.repository.UnitRepository;
+import com.fullbay.unit.repository.VehicleRepository;
+
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveUnitServiceTest {
+
+    private static final String VIN = "1HGCM82633A004352";
+    private static final String CUSTOMER_ID = "cst-xyz789";
+
+    private ReactiveUnitService service;
+
+    @Mock ReactiveUnitRepository repository;
+    @Mock ReactiveVehicleRepository vehicleRepository;
+    @Mock UnitOfWork unitOfWork;
+
+    @Mock(answer = Answers.RETURNS_SELF)
+    UnitOfWork.Transaction transaction;
+
+    @Mock ReactiveNHTSAClient nhtsaClient;
+    @Mock ReactivePartsServiceClient partsServiceClient;
+    @Mock FleetSummaryService fleetSummaryService;
+    @Mock UnitSearchService unitSearchService;
+
+    private Unit testEntity;
+    private Vehicle testVehicle;
+
+    @BeforeEach
+    void setUp() {
+        final ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.findAndRegisterModules();
+        objectMapper
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.NONE)
+                .setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY)
+                .setVisibility(PropertyAccessor.CREATOR, JsonAutoDetect.Visibility.ANY)
+                .setSerializationInclusion(JsonInclude.Include.NON_NULL);
+        final UnitService unitService =
+                new UnitService(
+                        mock(UnitRepository.class),
+                        mock(VehicleRepository.class),
+                        mock(UnitOfWork.class),
+                        mock(NHTSAClient.class),
+                        new NHTSARateLimiter(
+                                null, false, 5, 1, 20, 5, 0.5, 0.5, Duration.ofSeconds(5), false),
+                        mock(PartsServiceClient.class),
+                        objectMapper,
+                        fleetSummaryService,
+                        unitSearchService);
+        service =
+                new ReactiveUnitService(
+                        repository,
+                        vehicleRepository,
+                        unitOfWork,
+                        nhtsaClient,
+                        new NHTSARateLimiter(
+                                null, true, 5, 1, 20, 5, 0.5, 0.5, Duration.ofSeconds(5), false),
+                        partsServiceClient,
+                        unitService,
+                        fleetSummaryService,
+                        unitSearchService);
+
+        final Instant now = Instant.now();
+        testEntity =
+                Unit.builder()
+                        .unitId("unt-abc1234")
+                        .customerId(CUSTOMER_ID)
+                        .vin(VIN)
+                        .createdAt(now)
+                        .updatedAt(now)
+                        .build();
+        testVehicle = Vehicle.builder().vin(VIN).year(2020).make("Honda").model("Accord").build();
+    }
+
+    @Test
+    void shouldCreateUnitWithVcdbIdsRetryingIdCollision() {
+        when(repository.findByCustomerIdAndVin(CUSTOMER_ID, VIN))
+                .thenReturn(Multi.createFrom().item(List.of()));
+        when(nhtsaClient.decodeVin(VIN, "json")).thenReturn(Uni.createFrom().item(decoded()));
+        when(partsServiceClient.findMakesByName("HONDA"))
+                .thenReturn(parts(PartsMake.builder().makeId("54").build()));
+        when(partsServiceClient.findModelsByName("54", "Accord"))
+                .thenReturn(parts(PartsModel.builder().modelId("649").build()));
+        when(partsServiceClient.findVehicles("2020", "54", "649"))
+                .thenReturn(parts(PartsVehicle.builder().baseVehicleId("12345").build()));
+        when(unitOfWork.begin()).thenReturn(transaction);
+        when(transaction.commitAsync())
+                .thenReturn(
+                        Uni.createFrom().failure(new UnitIdCollisionException("unt_taken")),
+                        Uni.createFrom().voidItem());
+
+        final Unit result = service.createUnitFromVin(VIN, CUSTOMER_ID).await().indefinitely();
+
+        assertTrue(result.unitId().startsWith("unt_"));
+        assertEquals(12345, result.baseVehicleId());
+        assertEquals(54, result.makeId());
+        verify(transaction, times(2)).saveVehicle(argThat(v -> "HONDA".equals(v.make())));
+        verify(transaction, times(2)).commitAsync();
+        verify(fleetSummaryService, times(2))
+                .recordCreate(eq(transaction), argThat(u -> "HONDA".equals(u.dimensions().make())));
+        verify(unitSearchService).recordCreate(any());
+    }
+
+    @Test
+    void shouldContinueWithoutVcdbIdsWhenPartsServiceFails() {
+        when(repository.findByCustomerIdAndVin(CUSTOMER_ID, VIN))
+                .thenReturn(Multi.createFrom().item(List.of()));
+        when(nhtsaClient.decodeVin(VIN, "json")).thenReturn(Uni.createFrom().item(decoded()));
+        when(partsServiceClient.findMakesByName("HONDA"))
+                .thenReturn(Uni.createFrom().failure(new IllegalStateException("503")));
+        when(unitOfWork.begin()).thenReturn(transaction);
+        when(transaction.commitAsync()).thenReturn(Uni.createFrom().voidItem());
+
+        final Unit result = service.createUnitFromVin(VIN, CUSTOMER_ID).await().indefinitely();
+
+        assertEquals("HONDA", result.make());
+        assertNull(result.baseVehicleId());
+    }
+
+    @Test
+    void shouldRejectDuplicateVinBeforeDecoding() {
+        when(repository.findByCustomerIdAndVin(CUSTOMER_ID, VIN))
+                .thenReturn(Multi.createFrom().item(List.of(testEntity)));
+
+        assertThrows(
+                DuplicateVinException.class,
+                () -> service.createUnitFromVin(VIN, CUSTOMER_ID).await().indefinitely());
+        verifyNoInteractions(nhtsaClient, vehicleRepository);
+    }
+
+    @Test
+    void shouldGetUnitByIdEnrichedWithVehicle() {
+        when(repository.findById("unt-abc1234"))
+                .thenReturn(Uni.createFrom().item(Optional.of(testEntity)));
+        when(vehicleRepository.findByVin(VIN))
+                .thenReturn(Uni.createFrom().item(Optional.of(testVehicle)));
+
+        final Unit result = service.getUnitById("unt-abc1234").await().indefinitely();
+
+        assertEquals(CUSTOMER_ID, result.customerId());
+        assertEquals("Accord", result.model());
+    }
+
+    @Test
+    void shouldFailUnitNotFoundById() {
+        when(repository.findById("unt-invalid"))
+                .thenReturn(Uni.createFrom().item(Optional.empty()));
+
+        assertThrows(
+                UnitNotFoundException.class,
+                () -> service.getUnitById("unt-invalid").await().indefinitely());
+    }
+
+    @Test
+    void shouldEnrichEachPageWithOneBatchGetKeepingOrder() {
+        final Unit second = testEntity.withUnitId("unt-def5678").withVin("1FUJGLDR0CLBP8834");
+        final Vehicle secondVehicle =
+                Vehicle.builder().vin("1FUJGLDR0CLBP8834").make("Freightliner").build();
+        when(repository.findByCustomerId(CUSTOMER_ID))
+                .thenReturn(Multi.createFrom().items(List.of(testEntity), List.of(second)));
+        when(vehicleRepository.findByVins(Set.of(VIN)))
+                .thenReturn(Uni.createFrom().item(Map.of(VIN, testVehicle)));
+        when(vehicleRepository.findByVins(Set.of("1FUJGLDR0CLBP8834")))
+                .thenReturn(Uni.createFrom().item(Map.of("1FUJGLDR0CLBP8834", secondVehicle)));
+
+        final List<Unit> units =
+                service.getUnitsByCustomerId(CUSTOMER_ID).collect().asList().await().indefinitely();
+
+        assertEquals(
+                List.of("unt-abc1234", "unt-def5678"), units.stream().map(Unit::unitId).toList());
+        assertEquals(List.of("Honda", "Freightliner"), units.stream().map(Unit::make).toList());
+    }
+
+    private static NHTSAVinDecodeResponse decoded() {
+        return NHTSAVinDecodeResponse.builder()
+                .results(
+                        List.of(
+                                result("Model Year", "2020"),
+                                result("Make", "HONDA"),
+                                result("Model", "Accord")))
+                .build();
+    }
+
+    private static NHTSAResult result(String variable, String value) {
+        return NHTSAResult.builder().variable(variable).value(value).build();
+    }
+
+    private static <T> Uni<PartsApiResponse<List<T>>> parts(T match) {
+        return Uni.createFrom()
+                .item(PartsApiResponse.<List<T>>builder().data(List.of(match)).build());
+    }
+}
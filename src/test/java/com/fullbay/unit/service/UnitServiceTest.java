@@ -10,21 +10,34 @@ import com.fasterxml.jackson.annotation.PropertyAccessor;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fullbay.unit.exception.UnitIdCollisionException;
 import com.fullbay.unit.exception.UnitNotFoundException;
+import com.fullbay.unit.exception.UpdateConflictException;
+import com.fullbay.unit.exception.VersionConflictException;
 import com.fullbay.unit.integration.nhtsa.NHTSAClient;
+import com.fullbay.unit.integration.nhtsa.NHTSARateLimiter;
+import com.fullbay.unit.integration.nhtsa.NHTSAResult;
+import com.fullbay.unit.integration.nhtsa.NHTSAVinDecodeResponse;
 import com.fullbay.unit.integration.parts.PartsServiceClient;
+import com.fullbay.unit.model.dto.UnitSearchCriteria;
 import com.fullbay.unit.model.dto.UpdateUnitRequest;
 import com.fullbay.unit.model.entity.Unit;
+import com.fullbay.unit.model.entity.UnitChangeEvent.Op;
 import com.fullbay.unit.model.entity.Vehicle;
+import com.fullbay.unit.model.entity.VehicleDimensions;
+import com.fullbay.unit.model.response.PageResult;
+import com.fullbay.unit.repository.UnitOfWork;
 import com.fullbay.unit.repository.UnitRepository;
 import com.fullbay.unit.repository.VehicleRepository;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
 import java.util.Map;
@@ -38,8 +51,15 @@ class UnitServiceTest {
 
     @Mock UnitRepository repository;
     @Mock VehicleRepository vehicleRepository;
+    @Mock UnitOfWork unitOfWork;
+
+    @Mock(answer = Answers.RETURNS_SELF)
+    UnitOfWork.Transaction transaction;
+
     @Mock NHTSAClient nhtsaClient;
     @Mock PartsServiceClient partsServiceClient;
+    @Mock FleetSummaryService fleetSummaryService;
+    @Mock UnitSearchService unitSearchService;
 
     private ObjectMapper objectMapper;
     private Unit testEntity;
@@ -60,9 +80,14 @@ class UnitServiceTest {
                 new UnitService(
                         repository,
                         vehicleRepository,
+                        unitOfWork,
                         nhtsaClient,
+                        new NHTSARateLimiter(
+                                null, false, 5, 1, 20, 5, 0.5, 0.5, Duration.ofSeconds(5), false),
                         partsServiceClient,
-                        objectMapper);
+                        objectMapper,
+                        fleetSummaryService,
+                        unitSearchService);
 
         final Instant now = Instant.now();
         testEntity =
@@ -85,6 +110,35 @@ class UnitServiceTest {
                         .build();
     }
 
+    @Test
+    void shouldRegenerateUnitIdOnCollision() {
+        when(repository.findByCustomerIdAndVin("cst-xyz789", "1HGCM82633A004352"))
+                .thenReturn(List.of());
+        when(nhtsaClient.decodeVin("1HGCM82633A004352", "json"))
+                .thenReturn(
+                        NHTSAVinDecodeResponse.builder()
+                                .results(
+                                        List.of(
+                                                NHTSAResult.builder()
+                                                        .variable("Make")
+                                                        .value("HONDA")
+                                                        .build()))
+                                .build());
+        when(unitOfWork.begin()).thenReturn(transaction);
+        doThrow(new UnitIdCollisionException("unt_taken")).doNothing().when(transaction).commit();
+
+        final Unit result = service.createUnitFromVin("1HGCM82633A004352", "cst-xyz789");
+
+        assertTrue(result.unitId().startsWith("unt_"));
+        assertEquals(1L, result.version());
+        verify(transaction, times(2)).saveVehicle(argThat(v -> "HONDA".equals(v.make())));
+        verify(fleetSummaryService, times(2))
+                .recordCreate(eq(transaction), argThat(u -> "HONDA".equals(u.dimensions().make())));
+        verify(transaction, times(2)).commit();
+        verify(repository, never()).save(any());
+        verify(vehicleRepository, never()).save(any());
+    }
+
     @Test
     void shouldGetUnitByIdEnrichedWithVehicle() {
         when(repository.findById("unt-abc1234")).thenReturn(Optional.of(testEntity));
@@ -185,6 +239,23 @@ class UnitServiceTest {
         verify(repository).findByVin("1HGCM82633A004352");
     }
 
+    @Test
+    void shouldGetUnitsByVinSuffixEnriched() {
+        when(unitSearchService.findUnitIdsByVinSuffix("cst-xyz789", "A004352", 100))
+                .thenReturn(List.of("unt-abc1234"));
+        when(repository.findByIds(List.of("unt-abc1234")))
+                .thenReturn(Map.of("unt-abc1234", testEntity));
+        when(vehicleRepository.findByVins(Set.of("1HGCM82633A004352")))
+                .thenReturn(Map.of("1HGCM82633A004352", testVehicle));
+
+        final List<Unit> results =
+                service.getUnitsByCustomerIdAndVinSuffix("cst-xyz789", "A004352");
+
+        assertEquals(1, results.size());
+        assertEquals("unt-abc1234", results.get(0).unitId());
+        assertEquals("Accord", results.get(0).model());
+    }
+
     @Test
     void shouldReturnEmptyForMissingVin() {
         when(repository.findByVin("INVALID")).thenReturn(List.of());
@@ -200,6 +271,7 @@ class UnitServiceTest {
     void shouldUpdateUnitAssociationFields() {
         when(repository.findById("unt-abc1234")).thenReturn(Optional.of(testEntity));
         when(vehicleRepository.findByVin("1HGCM82633A004352")).thenReturn(Optional.of(testVehicle));
+        when(unitOfWork.begin()).thenReturn(transaction);
 
         final UpdateUnitRequest updateRequest =
                 UpdateUnitRequest.builder().attributes(Map.of("color", "red")).build();
@@ -211,7 +283,130 @@ class UnitServiceTest {
         assertEquals(Map.of("color", "red"), result.attributes());
         assertEquals(2020, result.year());
         verify(repository).findById("unt-abc1234");
-        verify(repository).update(any());
+        verify(transaction).updateUnit(any());
+        verify(transaction, never()).writeTombstone(any(), any(), any());
+        verify(transaction, never()).deleteTombstone(any(), any());
+        verify(transaction).appendEvent(argThat(e -> e.op() == Op.UPDATE && e.version() == 1L));
+        verify(transaction).commit();
+    }
+
+    @Test
+    void shouldMoveTombstoneWhenCustomerChanges() {
+        when(repository.findById("unt-abc1234")).thenReturn(Optional.of(testEntity));
+        when(vehicleRepository.findByVin("1HGCM82633A004352")).thenReturn(Optional.of(testVehicle));
+        when(unitOfWork.begin()).thenReturn(transaction);
+
+        final UpdateUnitRequest updateRequest =
+                UpdateUnitRequest.builder().customerId("cst-new").build();
+
+        service.updateUnit("unt-abc1234", updateRequest);
+
+        verify(transaction).writeTombstone(eq("cst-xyz789"), eq("unt-abc1234"), any());
+        verify(transaction).deleteTombstone("cst-new", "unt-abc1234");
+        verify(transaction).commit();
+    }
+
+    @Test
+    void shouldBumpVersionOnUpdate() {
+        when(repository.findById("unt-abc1234"))
+                .thenReturn(Optional.of(testEntity.withVersion(3L)));
+        when(vehicleRepository.findByVin("1HGCM82633A004352")).thenReturn(Optional.of(testVehicle));
+        when(unitOfWork.begin()).thenReturn(transaction);
+
+        final UpdateUnitRequest updateRequest =
+                UpdateUnitRequest.builder().attributes(Map.of("color", "red")).build();
+
+        final Unit result = service.updateUnit("unt-abc1234", updateRequest);
+
+        assertEquals(4L, result.version());
+        verify(transaction).updateUnit(argThat(u -> u.version() == 4L));
+    }
+
+    @Test
+    void shouldReadBeforeUpdateWhenVersionKnown() {
+        when(repository.findById("unt-abc1234"))
+                .thenReturn(Optional.of(testEntity.withVersion(2L)));
+        when(vehicleRepository.findByVin("1HGCM82633A004352")).thenReturn(Optional.of(testVehicle));
+        when(unitOfWork.begin()).thenReturn(transaction);
+
+        final UpdateUnitRequest updateRequest =
+                UpdateUnitRequest.builder().attributes(Map.of("color", "red")).build();
+
+        final Unit result = service.updateUnit("unt-abc1234", updateRequest, 2L);
+
+        assertEquals(3L, result.version());
+        assertEquals(Map.of("color", "red"), result.attributes());
+        assertEquals(2020, result.year());
+        verify(transaction)
+                .appendEvent(
+                        argThat(e -> "cst-xyz789".equals(e.customerId()) && e.version() == 3L));
+    }
+
+    @Test
+    void shouldThrowVersionConflictOnStaleVersion() {
+        when(repository.findById("unt-abc1234"))
+                .thenReturn(Optional.of(testEntity.withVersion(5L)));
+
+        final UpdateUnitRequest updateRequest =
+                UpdateUnitRequest.builder().vin("2HGCM82633A004352").build();
+
+        assertThrows(
+                VersionConflictException.class,
+                () -> service.updateUnit("unt-abc1234", updateRequest, 4L));
+        verify(unitOfWork, never()).begin();
+    }
+
+    @Test
+    void shouldRetryRacedUpdateWithoutIfMatch() {
+        when(repository.findById("unt-abc1234"))
+                .thenReturn(Optional.of(testEntity.withVersion(3L)))
+                .thenReturn(Optional.of(testEntity.withVersion(4L)));
+        when(unitOfWork.begin()).thenReturn(transaction);
+        doThrow(new VersionConflictException("unt-abc1234", 3L))
+                .doNothing()
+                .when(transaction)
+                .commit();
+
+        final UpdateUnitRequest updateRequest =
+                UpdateUnitRequest.builder().attributes(Map.of("color", "red")).build();
+
+        final Unit result = service.updateUnit("unt-abc1234", updateRequest);
+
+        assertEquals(5L, result.version());
+        verify(repository, times(2)).findById("unt-abc1234");
+        verify(transaction, times(2)).commit();
+    }
+
+    @Test
+    void shouldReturnUpdateConflictAfterRepeatedRaces() {
+        when(repository.findById("unt-abc1234"))
+                .thenReturn(Optional.of(testEntity.withVersion(3L)));
+        when(unitOfWork.begin()).thenReturn(transaction);
+        doThrow(new VersionConflictException("unt-abc1234", 3L)).when(transaction).commit();
+
+        final UpdateUnitRequest updateRequest =
+                UpdateUnitRequest.builder().attributes(Map.of("color", "red")).build();
+
+        assertThrows(
+                UpdateConflictException.class,
+                () -> service.updateUnit("unt-abc1234", updateRequest));
+        verify(transaction, times(UnitService.MAX_WRITE_ATTEMPTS)).commit();
+    }
+
+    @Test
+    void shouldNotRetryRacedUpdateWithIfMatch() {
+        when(repository.findById("unt-abc1234"))
+                .thenReturn(Optional.of(testEntity.withVersion(3L)));
+        when(unitOfWork.begin()).thenReturn(transaction);
+        doThrow(new VersionConflictException("unt-abc1234", 3L)).when(transaction).commit();
+
+        final UpdateUnitRequest updateRequest =
+                UpdateUnitRequest.builder().attributes(Map.of("color", "red")).build();
+
+        assertThrows(
+                VersionConflictException.class,
+                () -> service.updateUnit("unt-abc1234", updateRequest, 3L));
+        verify(transaction).commit();
     }
 
     @Test
@@ -225,17 +420,191 @@ class UnitServiceTest {
                 UnitNotFoundException.class,
                 () -> service.updateUnit("unt-invalid", updateRequest));
         verify(repository).findById("unt-invalid");
-        verify(repository, never()).update(any());
+        verify(unitOfWork, never()).begin();
     }
 
     @Test
     void shouldDeleteUnit() {
-        when(repository.findById("unt-abc1234")).thenReturn(Optional.of(testEntity));
+        final Unit counted = testEntity.withDimensions(VehicleDimensions.of(testVehicle));
+        when(repository.findById("unt-abc1234")).thenReturn(Optional.of(counted));
+        when(unitOfWork.begin()).thenReturn(transaction);
 
         service.deleteUnit("unt-abc1234");
 
         verify(repository).findById("unt-abc1234");
-        verify(repository).delete("unt-abc1234");
+        verify(transaction).deleteUnit(counted);
+        verify(transaction).writeTombstone(eq("cst-xyz789"), eq("unt-abc1234"), any());
+        verify(transaction).appendEvent(argThat(e -> e.op() == Op.DELETE && e.version() == 1L));
+        verify(transaction).commit();
+        verify(repository, never()).delete(any());
+        verify(fleetSummaryService).recordDelete(transaction, counted);
+        verify(unitSearchService).recordDelete(counted);
+        // Stored dimensions are taken back as they are; the VIN# item is not read
+        verifyNoInteractions(vehicleRepository);
+    }
+
+    @Test
+    void shouldDeleteUnitSavedWithoutDimensions() {
+        when(repository.findById("unt-abc1234")).thenReturn(Optional.of(testEntity));
+        when(vehicleRepository.findByVin("1HGCM82633A004352")).thenReturn(Optional.of(testVehicle));
+        when(unitOfWork.begin()).thenReturn(transaction);
+
+        service.deleteUnit("unt-abc1234");
+
+        verify(unitSearchService)
+                .recordDelete(argThat(u -> "Accord".equals(u.dimensions().model())));
+    }
+
+    @Test
+    void shouldRetryRacedDelete() {
+        when(repository.findById("unt-abc1234"))
+                .thenReturn(Optional.of(testEntity))
+                .thenReturn(Optional.of(testEntity.withVersion(1L)));
+        when(unitOfWork.begin()).thenReturn(transaction);
+        doThrow(new VersionConflictException("unt-abc1234", 0L))
+                .doNothing()
+                .when(transaction)
+                .commit();
+
+        service.deleteUnit("unt-abc1234");
+
+        verify(transaction).deleteUnit(argThat(u -> Long.valueOf(1L).equals(u.version())));
+        verify(transaction).appendEvent(argThat(e -> e.op() == Op.DELETE && e.version() == 2L));
+        verify(transaction, times(2)).commit();
+    }
+
+    @Test
+    void shouldSearchUnitsInIndexOrder() {
+        final UnitSearchCriteria criteria =
+                UnitSearchCriteria.builder()
+                        .customerId("cst-xyz789")
+                        .make("Honda")
+                        .yearFrom(2019)
+                        .build();
+        final Unit second = testEntity.withUnitId("unt-def5678");
+        when(unitSearchService.search(criteria, 50, null))
+                .thenReturn(
+                        PageResult.<String>builder()
+                                .items(List.of("unt-def5678", "unt-abc1234", "unt-gone000"))
+                                .nextCursor("next")
+                                .build());
+        when(repository.findByIds(List.of("unt-def5678", "unt-abc1234", "unt-gone000")))
+                .thenReturn(Map.of("unt-abc1234", testEntity, "unt-def5678", second));
+        when(vehicleRepository.findByVins(Set.of("1HGCM82633A004352")))
+                .thenReturn(Map.of("1HGCM82633A004352", testVehicle));
+
+        final PageResult<Unit> page = service.searchUnits(criteria, 50, null);
+
+        assertEquals(2, page.getItems().size());
+        assertEquals("unt-def5678", page.getItems().get(0).unitId());
+        assertEquals("Honda", page.getItems().get(1).make());
+        assertEquals("next", page.getNextCursor());
+    }
+
+    @Test
+    void shouldMoveFleetSummaryWhenCustomerChanges() {
+        when(repository.findById("unt-abc1234")).thenReturn(Optional.of(testEntity));
+        when(vehicleRepository.findByVin("1HGCM82633A004352")).thenReturn(Optional.of(testVehicle));
+
+        final UpdateUnitRequest updateRequest =
+                UpdateUnitRequest.builder().customerId("cst-new0001").build();
+        when(unitOfWork.begin()).thenReturn(transaction);
+
+        service.updateUnit("unt-abc1234", updateRequest);
+
+        verify(transaction).writeTombstone(eq("cst-xyz789"), eq("unt-abc1234"), any());
+        // Saved without dimensions: both sides are counted under the current vehicle data
+        verify(fleetSummaryService)
+                .recordUpdate(
+                        eq(transaction),
+                        argThat(u -> "Accord".equals(u.dimensions().model())),
+                        argThat(
+                                u ->
+                                        "cst-new0001".equals(u.customerId())
+                                                && "Accord".equals(u.dimensions().model())));
+        verify(unitSearchService)
+                .recordUpdate(
+                        argThat(u -> "cst-xyz789".equals(u.customerId())),
+                        argThat(u -> "cst-new0001".equals(u.customerId())));
+    }
+
+    @Test
+    void shouldDropSearchResultsThatNoLongerMatch() {
+        final UnitSearchCriteria criteria =
+                UnitSearchCriteria.builder().customerId("cst-xyz789").make("Honda").build();
+        final Unit moved = testEntity.withUnitId("unt-moved00").withCustomerId("cst-other01");
+        final Unit renumbered = testEntity.withUnitId("unt-renum00").withVin("4T1BF1FK5CU123456");
+        final List<String> unitIds = List.of("unt-moved00", "unt-renum00", "unt-abc1234");
+        when(unitSearchService.search(criteria, 50, null))
+                .thenReturn(PageResult.<String>builder().items(unitIds).build());
+        when(repository.findByIds(unitIds))
+                .thenReturn(
+                        Map.of(
+                                "unt-moved00", moved,
+                                "unt-renum00", renumbered,
+                                "unt-abc1234", testEntity));
+        when(vehicleRepository.findByVins(Set.of("1HGCM82633A004352", "4T1BF1FK5CU123456")))
+                .thenReturn(
+                        Map.of(
+                                "1HGCM82633A004352",
+                                testVehicle,
+                                "4T1BF1FK5CU123456",
+                                testVehicle.withMake("Toyota")));
+
+        final PageResult<Unit> page = service.searchUnits(criteria, 50, null);
+
+        assertEquals(List.of("unt-abc1234"), page.getItems().stream().map(Unit::unitId).toList());
+    }
+
+    @Test
+    void shouldDropVinSuffixResultsFromOtherCustomers() {
+        final Unit moved = testEntity.withUnitId("unt-moved00").withCustomerId("cst-other01");
+        when(unitSearchService.findUnitIdsByVinSuffix("cst-xyz789", "004352", 100))
+                .thenReturn(List.of("unt-moved00", "unt-abc1234"));
+        when(repository.findByIds(List.of("unt-moved00", "unt-abc1234")))
+                .thenReturn(Map.of("unt-moved00", moved, "unt-abc1234", testEntity));
+
+        final List<Unit> units = service.getUnitsByCustomerIdAndVinSuffix("cst-xyz789", "004352");
+
+        assertEquals(List.of("unt-abc1234"), units.stream().map(Unit::unitId).toList());
+    }
+
+    @Test
+    void shouldMoveUnitsToRemappedDimensions() {
+        final Vehicle remapped = testVehicle.withModel("Accord Hybrid");
+        // Saved before dimensions were stored, so counted under the previous vehicle
+        final Unit legacy = testEntity.withVersion(3L);
+        final Unit current =
+                testEntity
+                        .withUnitId("unt-def5678")
+                        .withVersion(1L)
+                        .withDimensions(VehicleDimensions.of(remapped));
+        when(repository.findByVin("1HGCM82633A004352")).thenReturn(List.of(legacy, current));
+        when(repository.findById("unt-abc1234")).thenReturn(Optional.of(legacy));
+        when(repository.findById("unt-def5678")).thenReturn(Optional.of(current));
+        when(unitOfWork.begin()).thenReturn(transaction);
+
+        assertEquals(1, service.redimensionUnits(testVehicle, remapped));
+
+        verify(transaction)
+                .updateUnit(
+                        argThat(
+                                u ->
+                                        "unt-abc1234".equals(u.unitId())
+                                                && u.version() == 4L
+                                                && "Accord Hybrid".equals(u.dimensions().model())));
+        verify(transaction).appendEvent(argThat(e -> e.op() == Op.UPDATE && e.version() == 4L));
+        verify(transaction).commit();
+        verify(fleetSummaryService)
+                .recordUpdate(
+                        eq(transaction),
+                        argThat(u -> "Accord".equals(u.dimensions().model())),
+                        argThat(u -> "Accord Hybrid".equals(u.dimensions().model())));
+        verify(unitSearchService)
+                .recordUpdate(
+                        argThat(u -> "Accord".equals(u.dimensions().model())),
+                        argThat(u -> "Accord Hybrid".equals(u.dimensions().model())));
+        verifyNoInteractions(vehicleRepository);
     }
 
     @Test
@@ -244,6 +613,6 @@ class UnitServiceTest {
 
         assertThrows(UnitNotFoundException.class, () -> service.deleteUnit("unt-invalid"));
         verify(repository).findById("unt-invalid");
-        verify(repository, never()).delete(any());
+        verify(unitOfWork, never()).begin();
     }
 }
@@ -0,0 +1,99 @@
+package com.fullbay.unit.tracing;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.amazonaws.xray.AWSXRay;
+import com.amazonaws.xray.entities.Segment;
+import com.amazonaws.xray.entities.Subsegment;
+
+import io.opentelemetry.api.OpenTelemetry;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class TracingTest {
+
+    @AfterEach
+    void tearDown() {
+        Tracing.install(Tracer.NOOP);
+        AWSXRay.getGlobalRecorder().clearTraceEntity();
+    }
+
+    @Test
+    void shouldReturnNoopSpanUntilBackendInstalled() {
+        try (Span span = Tracing.startSpan("unit-service-getUnitById")) {
+            assertSame(Span.NOOP, span);
+            assertSame(span, span.attribute(TraceAttributes.UNIT_ID, "unt_1"));
+        }
+    }
+
+    @Test
+    void shouldFallBackToNoopTracerWhenNoneInstalled() {
+        Tracing.install(null);
+
+        assertSame(Tracer.NOOP, Tracing.tracer());
+        assertSame(Tracer.NOOP, TracingConfig.tracer(TracingConfig.Backend.NONE));
+    }
+
+    @Test
+    void shouldSkipXRayWithoutParentSegment() {
+        AWSXRay.getGlobalRecorder().clearTraceEntity();
+
+        assertSame(Span.NOOP, new XRayTracer().startSpan("unit-repository-findById"));
+    }
+
+    @Test
+    void shouldSkipXRayUnderUnsampledSegment() {
+        final Segment segment = AWSXRay.beginSegment("unit-service");
+        segment.setSampled(false);
+        try {
+            assertSame(Span.NOOP, new XRayTracer().startSpan("unit-repository-findById"));
+            assertTrue(segment.getSubsegments().isEmpty());
+        } finally {
+            AWSXRay.endSegment();
+        }
+    }
+
+    @Test
+    void shouldRecordXRaySubsegmentWithAnnotations() {
+        final Segment segment = AWSXRay.beginSegment("unit-service");
+        try {
+            try (Span span = new XRayTracer().startSpan("unit-repository-findByIds")) {
+                span.attribute(TraceAttributes.CUSTOMER_ID, "cst_1")
+                        .attribute(TraceAttributes.UNIT_COUNT, 3)
+                        .attribute(TraceAttributes.EXPECTED_VERSION, (Long) null)
+                        .attribute("cached", true);
+            }
+
+            assertEquals(1, segment.getSubsegments().size());
+            final Subsegment subsegment = segment.getSubsegments().get(0);
+            assertEquals("unit-repository-findByIds", subsegment.getName());
+            assertEquals("cst_1", subsegment.getAnnotations().get(TraceAttributes.CUSTOMER_ID));
+            assertEquals(3L, subsegment.getAnnotations().get(TraceAttributes.UNIT_COUNT));
+            assertEquals(true, subsegment.getAnnotations().get("cached"));
+            assertFalse(subsegment.getAnnotations().containsKey(TraceAttributes.EXPECTED_VERSION));
+        } finally {
+            AWSXRay.endSegment();
+        }
+    }
+
+    @Test
+    void shouldSkipOpenTelemetrySpansTheSamplerDrops() {
+        final OpenTelemetryTracer tracer =
+                new OpenTelemetryTracer(
+                        OpenTelemetry.noop().getTracer(OpenTelemetryTracer.INSTRUMENTATION_SCOPE));
+
+        assertSame(Span.NOOP, tracer.startSpan("unit-repository-findById"));
+    }
+
+    @Test
+    void shouldNotDetachThreadBoundXRaySubsegments() {
+        final Segment segment = AWSXRay.beginSegment("unit-service");
+        try {
+            assertSame(Span.NOOP, new XRayTracer().startDetachedSpan("reactive-unit-findById"));
+            assertTrue(segment.getSubsegments().isEmpty());
+        } finally {
+            AWSXRay.endSegment();
+        }
+    }
+}
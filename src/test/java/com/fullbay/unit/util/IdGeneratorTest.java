@@ -4,8 +4,11 @@ import static org.junit.jupiter.api.Assertions.*;
 
 import org.junit.jupiter.api.Test;
 
+import java.time.Instant;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
 
 class IdGeneratorTest {
 
@@ -15,7 +18,7 @@ class IdGeneratorTest {
 
         assertNotNull(id);
         assertTrue(id.startsWith("unt_"));
-        assertEquals(11, id.length()); // "unt_" + 7 chars = 11
+        assertEquals(30, id.length()); // "unt_" + 10 timestamp + 16 random chars = 30
     }
 
     @Test
@@ -24,7 +27,8 @@ class IdGeneratorTest {
             String id = IdGenerator.generateUnitId();
             String suffix = id.substring(4); // Remove "unt_" prefix
 
-            assertTrue(suffix.matches("^[a-z0-9]{7}$"));
+            // Lowercase Crockford base32: no i, l, o, u
+            assertTrue(suffix.matches("^[0-9a-hjkmnp-tv-z]{26}$"));
         }
     }
 
@@ -38,4 +42,42 @@ class IdGeneratorTest {
 
         assertEquals(1000, ids.size());
     }
+
+    @Test
+    void shouldGenerateUniqueIdsConcurrently() {
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+        IntStream.range(0, 100_000).parallel().forEach(i -> ids.add(IdGenerator.generateUnitId()));
+
+        assertEquals(100_000, ids.size());
+    }
+
+    @Test
+    void shouldSortByCreationTime() {
+        String earlier = IdGenerator.generateUnitId(1_700_000_000_000L);
+        String later = IdGenerator.generateUnitId(1_700_000_000_001L);
+
+        assertTrue(earlier.compareTo(later) < 0);
+    }
+
+    @Test
+    void shouldDecodeTimestamp() {
+        String id = IdGenerator.generateUnitId(1_700_000_000_123L);
+
+        assertEquals(Instant.ofEpochMilli(1_700_000_000_123L), IdGenerator.timestampOf(id));
+    }
+
+    @Test
+    void shouldNotDecodeLegacyIds() {
+        assertNull(IdGenerator.timestampOf("unt_a1b2c3d"));
+        assertNull(IdGenerator.timestampOf(null));
+    }
+
+    @Test
+    void shouldKeepFormatAndTimestampAfterReseed() {
+        IdGenerator.reseed();
+        String id = IdGenerator.generateUnitId(1_700_000_000_123L);
+
+        assertEquals(30, id.length());
+        assertEquals(Instant.ofEpochMilli(1_700_000_000_123L), IdGenerator.timestampOf(id));
+    }
 }
@@ -41,6 +41,11 @@ resource "aws_dynamodb_table" "units" {
     type = "S"
   }
 
+  attribute {
+    name = "updatedAt"
+    type = "S"
+  }
+
   # GSI for Customer ID + VIN lookups
   global_secondary_index {
     name            = "GSI1-CustomerVin"
@@ -57,6 +62,21 @@ resource "aws_dynamodb_table" "units" {
     projection_type = "KEYS_ONLY"
   }
 
+  # GSI for delta sync: units and tombstones by customer, in change order
+  global_secondary_index {
+    name               = "GSI3-CustomerUpdated"
+    hash_key           = "customerId"
+    range_key          = "updatedAt"
+    projection_type    = "INCLUDE"
+    non_key_attributes = ["data", "unitId"]
+  }
+
+  # Outbox items (OUTBOX#) expire if no relay drains them; tombstones (TOMB#) after sync.tombstone-retention
+  ttl {
+    attribute_name = "expiresAt"
+    enabled        = true
+  }
+
   tags = local.common_tags
 }
 
@@ -0,0 +1,37 @@
+# Scheduled outbox relay: Lambda is frozen between invocations, so the background relay cannot run.
+# EventBridge invokes the live alias with an ALB-shaped request for POST /v1/outbox/drain instead.
+resource "aws_cloudwatch_event_rule" "outbox_drain" {
+  count               = var.outbox_drain_schedule == "" ? 0 : 1
+  name                = "${local.stack_id}-outbox-drain"
+  schedule_expression = var.outbox_drain_schedule
+
+  tags = local.common_tags
+}
+
+resource "aws_cloudwatch_event_target" "outbox_drain" {
+  count = var.outbox_drain_schedule == "" ? 0 : 1
+  rule  = aws_cloudwatch_event_rule.outbox_drain[0].name
+  arn   = aws_lambda_alias.live.arn
+
+  input = jsonencode({
+    requestContext = {
+      elb = { targetGroupArn = aws_lb_target_group.unit_service.arn }
+    }
+    httpMethod            = "POST"
+    path                  = "/v1/outbox/drain"
+    queryStringParameters = {}
+    headers               = { accept = "application/json" }
+    body                  = ""
+    isBase64Encoded       = false
+  })
+}
+
+resource "aws_lambda_permission" "allow_outbox_drain" {
+  count         = var.outbox_drain_schedule == "" ? 0 : 1
+  statement_id  = "AllowExecutionFromOutboxDrainSchedule"
+  action        = "lambda:InvokeFunction"
+  function_name = aws_lambda_function.unit_service.function_name
+  qualifier     = aws_lambda_alias.live.name
+  principal     = "events.amazonaws.com"
+  source_arn    = aws_cloudwatch_event_rule.outbox_drain[0].arn
+}
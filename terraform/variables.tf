@@ -31,3 +31,9 @@ variable "domain_name" {
   type        = string
   default     = "unit-svc.g.fullbay.com"
 }
+
+variable "outbox_drain_schedule" {
+  description = "EventBridge schedule for POST /v1/outbox/drain, e.g. rate(1 minute). Leave empty until the function runs with a durable outbox.publisher; memory, and file under Lambda, drop drained events and the drain answers 501"
+  type        = string
+  default     = ""
+}